@@ -0,0 +1,61 @@
+package io.burt.athena;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timer thread that asynchronous query executions schedule their polls on.
+ *
+ * The thread is shared by all statements, but only exists while there is at
+ * least one asynchronous query execution in progress: each execution acquires
+ * the scheduler when it starts and releases it when it completes, and when the
+ * last one releases it the thread is shut down. This way the driver never
+ * leaves a thread behind that keeps its class loader alive.
+ */
+class AsyncPollScheduler {
+    static final AsyncPollScheduler SHARED = new AsyncPollScheduler();
+
+    private ScheduledExecutorService executor;
+    private int references;
+
+    AsyncPollScheduler() {
+        this.executor = null;
+        this.references = 0;
+    }
+
+    synchronized void acquire() {
+        if (references == 0) {
+            executor = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "athena-async-poll");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        references++;
+    }
+
+    synchronized void release() {
+        references--;
+        if (references == 0) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    /**
+     * @throws RejectedExecutionException when the scheduler has not been
+     *                                    acquired
+     */
+    synchronized void schedule(Runnable task, long delayMillis) {
+        if (executor == null) {
+            throw new RejectedExecutionException("The poll scheduler has not been acquired");
+        }
+        executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized boolean isRunning() {
+        return executor != null;
+    }
+}
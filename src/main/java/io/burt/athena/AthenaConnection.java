@@ -1,6 +1,11 @@
 package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.configuration.QueryPriority;
+import io.burt.athena.configuration.QueryScheduler;
+import io.burt.athena.result.SortKey;
+import io.burt.athena.result.s3.DownloadMetrics;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
 
 import java.sql.Array;
 import java.sql.Blob;
@@ -21,19 +26,47 @@ import java.sql.Statement;
 import java.sql.Struct;
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class AthenaConnection implements Connection {
+    public static final String PARTITION_PLACEHOLDER = "{partition}";
+    public static final String PRIORITY_CLIENT_INFO_NAME = "priority";
+
+    private static final Pattern BUCKET_PATTERN = Pattern.compile("^s3://([^/]+)");
+    private static final int MAX_CACHED_TEMPLATES = 100;
+
     private ConnectionConfiguration configuration;
     private DatabaseMetaData metaData;
+    private ScanAccount scanAccount;
+    private QueryPriority priority;
+    private Map<String, SqlTemplate> templates;
     private boolean open;
 
     AthenaConnection(ConnectionConfiguration configuration) {
         this.configuration = configuration;
         this.metaData = null;
+        this.scanAccount = new ScanAccount();
+        this.priority = null;
+        this.templates = new LinkedHashMap<String, SqlTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SqlTemplate> eldest) {
+                return size() > MAX_CACHED_TEMPLATES;
+            }
+        };
         this.open = true;
     }
 
@@ -46,7 +79,186 @@ public class AthenaConnection implements Connection {
     @Override
     public Statement createStatement() throws SQLException {
         checkClosed();
-        return new AthenaStatement(configuration, Clock.systemDefaultZone());
+        return newStatement();
+    }
+
+    private AthenaStatement newStatement() {
+        AthenaStatement statement = new AthenaStatement(configuration, Clock.systemDefaultZone(), scanAccount);
+        statement.setPriority(priority);
+        return statement;
+    }
+
+    /**
+     * Executes one query per partition value and merges their results into
+     * one result set.
+     *
+     * Each query is created by replacing all occurrences of
+     * {@value #PARTITION_PLACEHOLDER} in the SQL template with a partition
+     * value. The values are inserted as quoted and escaped string literals,
+     * so a partition column of another type has to be compared with a cast,
+     * for example <code>WHERE year = CAST({partition} AS INTEGER)</code>.
+     *
+     * At most <code>parallelism</code> queries run at the same time, and as
+     * soon as one of them completes the next one is started. The rows of the
+     * result set are either returned in the order of the partition values,
+     * or in the order the results become available, which is faster. If any
+     * of the queries fails the others are stopped, and reading the result
+     * set throws the error.
+     *
+     * The queries are executed by a statement of their own, which is closed
+     * when the result set is closed.
+     *
+     * @param sqlTemplate the SQL to execute for each partition
+     * @param partitionValues the values to insert into the template
+     * @param parallelism the maximum number of queries to run concurrently
+     * @param ordered whether to return the rows in partition order
+     * @return a result set containing the rows of all the queries
+     * @throws SQLException if the connection is closed
+     */
+    public ResultSet executeQueryPerPartition(String sqlTemplate, List<String> partitionValues, int parallelism, boolean ordered) throws SQLException {
+        checkClosed();
+        AthenaStatement statement = newStatement();
+        statement.closeOnCompletion();
+        try {
+            return statement.executeQueries(createPartitionQueries(sqlTemplate, partitionValues), parallelism, ordered);
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Executes one query per partition value and merges their sorted results
+     * into one sorted result set.
+     *
+     * This works like {@link #executeQueryPerPartition(String, List, int, boolean)},
+     * but the SQL template must sort the rows by the given sort keys, for
+     * example with an <code>ORDER BY</code> clause. The results of all the
+     * queries are then read concurrently and merged so that the rows of the
+     * result set are sorted too. Since the first row can't be known until all
+     * queries have completed, a parallelism lower than the number of partition
+     * values delays the first row.
+     *
+     * @param sqlTemplate the SQL to execute for each partition
+     * @param partitionValues the values to insert into the template
+     * @param parallelism the maximum number of queries to run concurrently
+     * @param sortKeys the keys that the rows of each query are sorted by
+     * @return a result set containing the rows of all the queries, sorted
+     * @throws SQLException if the connection is closed
+     */
+    public ResultSet executeSortedQueryPerPartition(String sqlTemplate, List<String> partitionValues, int parallelism, List<SortKey> sortKeys) throws SQLException {
+        checkClosed();
+        AthenaStatement statement = newStatement();
+        statement.closeOnCompletion();
+        try {
+            return statement.executeSortedQueries(createPartitionQueries(sqlTemplate, partitionValues), parallelism, sortKeys);
+        } catch (SQLException | RuntimeException e) {
+            statement.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the counters of interrupted result downloads.
+     *
+     * The counters are shared by all statements of the connection and show
+     * how often downloads stalled, were resumed, and failed after all
+     * retries were used up.
+     *
+     * @return the download metrics of the connection
+     */
+    public DownloadMetrics getResultDownloadMetrics() {
+        return configuration.downloadMetrics();
+    }
+
+    /**
+     * Sets a limit on the total number of bytes that the queries executed by
+     * the statements of this connection may scan.
+     *
+     * Every query counts towards the budget, including queries that fail.
+     * The bytes scanned so far by the queries that are still running, on
+     * any statement of the connection, count towards the budget too, and a
+     * running query is stopped as soon as the total exceeds the budget. Setting a new budget does
+     * not reset the total, see {@link #getDataScannedInBytes()}.
+     *
+     * @param budget the budget of the connection, or null for no limit
+     */
+    public void setScanBudget(ScanBudget budget) {
+        scanAccount.setBudget(budget);
+    }
+
+    public ScanBudget getScanBudget() {
+        return scanAccount.getBudget();
+    }
+
+    /**
+     * @return the total number of bytes scanned by the completed queries of
+     *         this connection
+     */
+    public long getDataScannedInBytes() {
+        return scanAccount.getBytesScanned();
+    }
+
+    /**
+     * Returns the scheduler that limits how many queries this connection
+     * runs at the same time, which also counts how many queries have been
+     * started from each lane and how long they waited.
+     *
+     * @return the scheduler, or null when the connection has no limit
+     */
+    public QueryScheduler getQueryScheduler() {
+        return configuration.queryScheduler();
+    }
+
+    /**
+     * Opens HTTP connections to Athena and to the bucket of the output
+     * location, so that the first query does not have to wait for DNS
+     * lookups and TCP and TLS handshakes.
+     *
+     * This sends one cheap request to each service without blocking. Whether
+     * the requests succeed does not matter, only that they are sent, and
+     * the returned future never completes exceptionally.
+     *
+     * @return a future that completes when both requests have completed
+     */
+    public CompletableFuture<Void> warmUp() {
+        return CompletableFuture.allOf(pingAthena(), pingResultBucket());
+    }
+
+    private CompletableFuture<Boolean> pingAthena() {
+        try {
+            return configuration.athenaClient().listWorkGroups(b -> b.maxResults(1)).handle((response, t) -> t == null || isServiceResponse(t));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private CompletableFuture<Boolean> pingResultBucket() {
+        String outputLocation = configuration.outputLocation();
+        Matcher matcher = outputLocation == null ? null : BUCKET_PATTERN.matcher(outputLocation);
+        if (matcher == null || !matcher.find()) {
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            return configuration.s3Client().headBucket(b -> b.bucket(matcher.group(1))).handle((response, t) -> t == null || isServiceResponse(t));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private boolean isServiceResponse(Throwable t) {
+        if (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof AwsServiceException;
+    }
+
+    private List<String> createPartitionQueries(String sqlTemplate, List<String> partitionValues) {
+        List<String> sqls = new ArrayList<>(partitionValues.size());
+        for (String partitionValue : partitionValues) {
+            sqls.add(sqlTemplate.replace(PARTITION_PLACEHOLDER, AthenaPreparedStatement.stringLiteral(partitionValue)));
+        }
+        return sqls;
     }
 
     @Override
@@ -80,9 +292,41 @@ public class AthenaConnection implements Connection {
         return !open;
     }
 
-    @Override
-    public boolean isValid(int timeout) {
-        return open;
+    /**
+     * Checks that the connection is open and that Athena can be reached by
+     * sending it a cheap request.
+     *
+     * The connection is valid when Athena responds within the timeout, even
+     * if the response is an error, since that still shows that requests
+     * reach Athena.
+     *
+     * @param timeout the number of seconds to wait for the response, or zero
+     *                to wait indefinitely
+     * @return whether the connection is open and Athena responded in time
+     * @throws SQLException if the timeout is negative
+     */
+    @Override
+    public boolean isValid(int timeout) throws SQLException {
+        if (timeout < 0) {
+            throw new SQLException(String.format("Timeout must not be negative (got %d)", timeout));
+        }
+        if (!open) {
+            return false;
+        }
+        CompletableFuture<Boolean> ping = pingAthena();
+        try {
+            if (timeout == 0) {
+                return ping.get();
+            } else {
+                return ping.get(timeout, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            ping.cancel(true);
+            return false;
+        }
     }
 
     @Override
@@ -99,34 +343,61 @@ public class AthenaConnection implements Connection {
         return iface.isAssignableFrom(getClass());
     }
 
+    /**
+     * Prepares a statement whose parameters are bound on the client.
+     *
+     * The SQL is parsed once and the parsed template is kept by the
+     * connection, so preparing the same SQL again does not parse it again.
+     *
+     * @see AthenaPreparedStatement
+     */
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        checkClosed();
+        AthenaPreparedStatement statement = new AthenaPreparedStatement(configuration, Clock.systemDefaultZone(), scanAccount, template(sql));
+        statement.setPriority(priority);
+        return statement;
+    }
+
+    private SqlTemplate template(String sql) {
+        synchronized (templates) {
+            return templates.computeIfAbsent(sql, SqlTemplate::parse);
+        }
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        if (resultSetType == ResultSet.TYPE_FORWARD_ONLY && resultSetConcurrency == ResultSet.CONCUR_READ_ONLY) {
+            return prepareStatement(sql);
+        } else if (resultSetConcurrency == ResultSet.CONCUR_READ_ONLY) {
+            throw new SQLFeatureNotSupportedException("Only read only result sets are supported");
+        } else {
+            throw new SQLFeatureNotSupportedException("Only forward result sets are supported");
+        }
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        throw new SQLFeatureNotSupportedException("Holdability is not defined for Athena");
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        throw new SQLFeatureNotSupportedException("Athena does not support auto generated keys");
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        throw new SQLFeatureNotSupportedException("Athena does not support auto generated keys");
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
-        throw new SQLFeatureNotSupportedException("Athena does not support prepared statements");
+        if (autoGeneratedKeys == Statement.NO_GENERATED_KEYS) {
+            return prepareStatement(sql);
+        } else {
+            throw new SQLFeatureNotSupportedException("Athena does not support auto generated keys");
+        }
     }
 
     @Override
@@ -179,7 +450,7 @@ public class AthenaConnection implements Connection {
     @Override
     public DatabaseMetaData getMetaData() {
         if (metaData == null) {
-            metaData = new AthenaDatabaseMetaData(this);
+            metaData = new AthenaDatabaseMetaData(this, () -> configuration.catalogCache());
         }
         return metaData;
     }
@@ -280,6 +551,9 @@ public class AthenaConnection implements Connection {
         } catch (SQLException e) {
             throw new SQLClientInfoException(e.getMessage(), Collections.emptyMap(), e);
         }
+        if (PRIORITY_CLIENT_INFO_NAME.equals(name)) {
+            priority = parsePriority(value);
+        }
     }
 
     @Override
@@ -289,18 +563,39 @@ public class AthenaConnection implements Connection {
         } catch (SQLException e) {
             throw new SQLClientInfoException(e.getMessage(), Collections.emptyMap(), e);
         }
+        priority = parsePriority(properties.getProperty(PRIORITY_CLIENT_INFO_NAME));
+    }
+
+    private QueryPriority parsePriority(String value) throws SQLClientInfoException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return QueryPriority.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            String message = String.format("Unsupported priority \"%s\", must be \"interactive\" or \"batch\"", value);
+            throw new SQLClientInfoException(message, Collections.emptyMap(), e);
+        }
     }
 
     @Override
     public String getClientInfo(String name) throws SQLException {
         checkClosed();
-        return null;
+        if (PRIORITY_CLIENT_INFO_NAME.equals(name) && priority != null) {
+            return priority.name().toLowerCase(Locale.ROOT);
+        } else {
+            return null;
+        }
     }
 
     @Override
     public Properties getClientInfo() throws SQLException {
         checkClosed();
-        return new Properties();
+        Properties properties = new Properties();
+        if (priority != null) {
+            properties.setProperty(PRIORITY_CLIENT_INFO_NAME, priority.name().toLowerCase(Locale.ROOT));
+        }
+        return properties;
     }
 
     @Override
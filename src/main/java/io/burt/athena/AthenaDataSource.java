@@ -1,14 +1,22 @@
 package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import io.burt.athena.configuration.QueryPriority;
+import io.burt.athena.configuration.WorkGroup;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 
 public class AthenaDataSource implements DataSource {
@@ -90,6 +98,332 @@ public class AthenaDataSource implements DataSource {
         properties.setProperty(AthenaDriver.OUTPUT_LOCATION_PROPERTY_NAME, uri);
     }
 
+    /**
+     * Sets the work groups to balance queries across.
+     *
+     * Each query is started in the least loaded of the work groups, based on
+     * how many queries are running in each of them relative to their
+     * weights, and how long recent queries have been queued. When set, this
+     * takes precedence over {@link #setWorkGroup(String)}.
+     *
+     * Corresponds to setting the {@link AthenaDriver#WORK_GROUPS_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param workGroups the work groups to start queries in
+     */
+    public void setWorkGroups(List<WorkGroup> workGroups) {
+        StringBuilder value = new StringBuilder();
+        for (WorkGroup workGroup : workGroups) {
+            if (value.length() > 0) {
+                value.append(',');
+            }
+            value.append(workGroup);
+        }
+        properties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, value.toString());
+    }
+
+    /**
+     * Sets the number of batches of rows to parse ahead of the consumer.
+     *
+     * When greater than zero, result rows are decoded and parsed on a
+     * background task while the application consumes the rows that have
+     * already been parsed, so that downloading, parsing and processing of a
+     * result overlap.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_PIPELINE_DEPTH_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to zero, which means that rows are parsed on the thread that
+     * calls {@link java.sql.ResultSet#next()}.
+     *
+     * @param depth the maximum number of parsed row batches to buffer
+     */
+    public void setResultPipelineDepth(int depth) {
+        properties.setProperty(AthenaDriver.RESULT_PIPELINE_DEPTH_PROPERTY_NAME, String.valueOf(depth));
+    }
+
+    /**
+     * Sets the executor that runs background result parsing.
+     *
+     * Only used when the result pipeline depth is greater than zero. Each
+     * result occupies a thread of the executor for as long as it is being
+     * parsed, so the executor should not be a small fixed size pool.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to starting a new daemon thread for each result.
+     *
+     * @param executor the executor to run parsing tasks on
+     */
+    public void setResultPipelineExecutor(Executor executor) {
+        properties.put(AthenaDriver.RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME, executor);
+    }
+
+    /**
+     * Sets the pool that large results are parsed in parallel on.
+     *
+     * When set, results are read in large blocks that are split into chunks
+     * and parsed on the pool, instead of being parsed row by row. This can be
+     * combined with a result pipeline, in which case the pipeline task waits
+     * for the chunks to be parsed.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_PARSER_POOL_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to parsing results sequentially.
+     *
+     * @param pool the pool to parse chunks of results on
+     */
+    public void setResultParserPool(ForkJoinPool pool) {
+        properties.put(AthenaDriver.RESULT_PARSER_POOL_PROPERTY_NAME, pool);
+    }
+
+    /**
+     * Sets how many times an interrupted result download is resumed.
+     *
+     * When the download of a result fails or stalls part way through, the
+     * rest of the result is requested starting where the download stopped,
+     * instead of failing the query.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to three.
+     *
+     * @param retries the maximum number of times to resume a download
+     */
+    public void setResultDownloadRetries(int retries) {
+        properties.setProperty(AthenaDriver.RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME, String.valueOf(retries));
+    }
+
+    /**
+     * Sets how long a result download can go without receiving any data
+     * before it is considered stalled and resumed.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to 30 seconds.
+     *
+     * @param timeout the stall timeout, with millisecond precision
+     */
+    public void setResultDownloadStallTimeout(Duration timeout) {
+        properties.setProperty(AthenaDriver.RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME, String.valueOf(timeout.toMillis()));
+    }
+
+    /**
+     * Sets the maximum number of queries that a connection runs at the same
+     * time.
+     *
+     * Queries that are executed while the maximum number of queries are
+     * running wait for one of them to complete. Interactive queries are
+     * started before batch queries, see
+     * {@link AthenaStatement#setPriority(QueryPriority)}.
+     *
+     * Corresponds to setting the {@link AthenaDriver#MAX_CONCURRENT_QUERIES_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to zero, which means that queries are started immediately.
+     *
+     * @param max the maximum number of concurrent queries
+     */
+    public void setMaxConcurrentQueries(int max) {
+        properties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, String.valueOf(max));
+    }
+
+    /**
+     * Sets the number of concurrent queries that are reserved for
+     * interactive queries.
+     *
+     * Batch queries are only started when more than this number of slots
+     * are free, unless they have waited for longer than the batch aging
+     * timeout. Only used when the maximum number of concurrent queries is
+     * set.
+     *
+     * Corresponds to setting the {@link AthenaDriver#RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to zero.
+     *
+     * @param reserved the number of slots reserved for interactive queries
+     */
+    public void setReservedInteractiveQueries(int reserved) {
+        properties.setProperty(AthenaDriver.RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME, String.valueOf(reserved));
+    }
+
+    /**
+     * Sets how long a batch query can wait before it is treated like an
+     * interactive query, so that batch queries are not starved by a steady
+     * stream of interactive queries.
+     *
+     * Corresponds to setting the {@link AthenaDriver#BATCH_AGING_TIMEOUT_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to one minute.
+     *
+     * @param timeout the aging timeout, with millisecond precision
+     */
+    public void setBatchAgingTimeout(Duration timeout) {
+        properties.setProperty(AthenaDriver.BATCH_AGING_TIMEOUT_PROPERTY_NAME, String.valueOf(timeout.toMillis()));
+    }
+
+    /**
+     * Sets whether new connections should open HTTP connections to Athena
+     * and to the bucket of the output location in the background, so that
+     * the first query on a connection is faster, see
+     * {@link AthenaConnection#warmUp()}.
+     *
+     * Corresponds to setting the {@link AthenaDriver#WARM_UP_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to false.
+     *
+     * @param warmUp whether to warm up new connections
+     */
+    public void setWarmUp(boolean warmUp) {
+        properties.setProperty(AthenaDriver.WARM_UP_PROPERTY_NAME, String.valueOf(warmUp));
+    }
+
+    /**
+     * Sets the HTTP client that the Athena and S3 clients send requests
+     * with, instead of the SDK's Netty based client.
+     *
+     * The other HTTP settings are ignored when an HTTP client is set, and the
+     * client is not closed when the connections are closed.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_CLIENT_PROPERTY_NAME}
+     * connection property.
+     *
+     * @param httpClient the HTTP client to use
+     */
+    public void setHttpClient(SdkAsyncHttpClient httpClient) {
+        properties.put(AthenaDriver.HTTP_CLIENT_PROPERTY_NAME, httpClient);
+    }
+
+    /**
+     * Sets the maximum number of open HTTP connections of each of the Athena
+     * and S3 clients, which also limits how many requests they can send at
+     * the same time, for example when downloading results in parallel.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_MAX_CONCURRENCY_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default, which is 50.
+     *
+     * @param maxConcurrency the maximum number of connections per client
+     */
+    public void setHttpMaxConcurrency(int maxConcurrency) {
+        properties.setProperty(AthenaDriver.HTTP_MAX_CONCURRENCY_PROPERTY_NAME, String.valueOf(maxConcurrency));
+    }
+
+    /**
+     * Sets how many requests can wait for an HTTP connection when all are in
+     * use, before requests start to fail.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default.
+     *
+     * @param maxPendingConnectionAcquires the maximum number of waiting requests
+     */
+    public void setHttpMaxPendingConnectionAcquires(int maxPendingConnectionAcquires) {
+        properties.setProperty(AthenaDriver.HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME, String.valueOf(maxPendingConnectionAcquires));
+    }
+
+    /**
+     * Sets how long an HTTP connection is used before it is closed and
+     * replaced, which makes the clients pick up DNS changes.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default, which keeps connections open indefinitely.
+     *
+     * @param timeToLive the time to live, with millisecond precision
+     */
+    public void setHttpConnectionTimeToLive(Duration timeToLive) {
+        properties.setProperty(AthenaDriver.HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME, String.valueOf(timeToLive.toMillis()));
+    }
+
+    /**
+     * Sets how long an HTTP connection can be idle before it is closed.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default, which is one minute.
+     *
+     * @param maxIdleTime the maximum idle time, with millisecond precision
+     */
+    public void setHttpConnectionMaxIdleTime(Duration maxIdleTime) {
+        properties.setProperty(AthenaDriver.HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME, String.valueOf(maxIdleTime.toMillis()));
+    }
+
+    /**
+     * Sets whether idle HTTP connections are closed in the background.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default, which is true.
+     *
+     * @param useIdleConnectionReaper whether to close idle connections
+     */
+    public void setHttpUseIdleConnectionReaper(boolean useIdleConnectionReaper) {
+        properties.setProperty(AthenaDriver.HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME, String.valueOf(useIdleConnectionReaper));
+    }
+
+    /**
+     * Sets the number of event loop threads that perform the network I/O of
+     * each of the Athena and S3 clients.
+     *
+     * Corresponds to setting the {@link AthenaDriver#HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to the SDK default, which depends on the number of processors.
+     *
+     * @param threads the number of event loop threads per client
+     */
+    public void setHttpEventLoopThreads(int threads) {
+        properties.setProperty(AthenaDriver.HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME, String.valueOf(threads));
+    }
+
+    /**
+     * Sets how long the databases and tables returned by the methods of
+     * {@link java.sql.DatabaseMetaData} are cached before they are loaded
+     * from the catalog again. Entries that are read after half of this time
+     * are reloaded in the background.
+     *
+     * Corresponds to setting the {@link AthenaDriver#CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to five minutes.
+     *
+     * @param timeToLive the time to live, with millisecond precision
+     */
+    public void setCatalogCacheTimeToLive(Duration timeToLive) {
+        properties.setProperty(AthenaDriver.CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME, String.valueOf(timeToLive.toMillis()));
+    }
+
+    /**
+     * Sets a file where the databases and tables returned by the methods of
+     * {@link java.sql.DatabaseMetaData} are saved, so that they can be
+     * returned immediately the next time the application starts, while they
+     * are reconciled with the catalog in the background.
+     *
+     * Corresponds to setting the {@link AthenaDriver#CATALOG_SNAPSHOT_PATH_PROPERTY_NAME}
+     * connection property.
+     *
+     * Defaults to not saving the catalog.
+     *
+     * @param path the path of the snapshot file
+     */
+    public void setCatalogSnapshotPath(Path path) {
+        properties.setProperty(AthenaDriver.CATALOG_SNAPSHOT_PATH_PROPERTY_NAME, path.toString());
+    }
+
     @Override
     public Connection getConnection() throws SQLException {
         return driver.connect(AthenaDriver.createURL(databaseName), properties);
@@ -1,16 +1,365 @@
 package io.burt.athena;
 
+import io.burt.athena.metadata.CatalogCache;
+import io.burt.athena.metadata.CatalogColumn;
+import io.burt.athena.metadata.CatalogDatabase;
+import io.burt.athena.metadata.CatalogTable;
+import io.burt.athena.metadata.NamePattern;
+import io.burt.athena.result.InMemoryResult;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
-
+import java.sql.SQLTimeoutException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The catalogs, schemas, tables and columns are read from the Glue Data
+ * Catalog through the connection's {@link CatalogCache} rather than by
+ * running <code>SHOW</code> and <code>DESCRIBE</code> queries, and the JDBC
+ * name patterns are matched by the driver.
+ *
+ * The other result sets, like the type info and the keys, indexes and
+ * privileges that Athena does not have, are constant and are served from
+ * memory, so that tools that ask for them when they connect do not run any
+ * queries.
+ */
 class AthenaDatabaseMetaData implements DatabaseMetaData {
+    static final String CATALOG_NAME = "AwsDataCatalog";
+
+    private static final String TABLE_TYPE = "TABLE";
+    private static final String VIEW_TYPE = "VIEW";
+
+    private static final List<ColumnInfo> TABLES_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("TABLE_TYPE"),
+            column("REMARKS"),
+            column("TYPE_CAT"),
+            column("TYPE_SCHEM"),
+            column("TYPE_NAME"),
+            column("SELF_REFERENCING_COL_NAME"),
+            column("REF_GENERATION")
+    );
+
+    private static final List<ColumnInfo> SCHEMAS_COLUMNS = Arrays.asList(
+            column("TABLE_SCHEM"),
+            column("TABLE_CATALOG")
+    );
+
+    private static final List<ColumnInfo> CATALOGS_COLUMNS = Collections.singletonList(column("TABLE_CAT"));
+
+    private static final List<String[]> CATALOGS_ROWS = Collections.singletonList(new String[]{CATALOG_NAME});
+
+    private static final List<ColumnInfo> TABLE_TYPES_COLUMNS = Collections.singletonList(column("TABLE_TYPE"));
+
+    private static final List<String[]> TABLE_TYPES_ROWS = Arrays.asList(new String[]{TABLE_TYPE}, new String[]{VIEW_TYPE});
+
+    private static final List<ColumnInfo> COLUMNS_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("COLUMN_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("TYPE_NAME"),
+            column("COLUMN_SIZE", "integer"),
+            column("BUFFER_LENGTH", "integer"),
+            column("DECIMAL_DIGITS", "integer"),
+            column("NUM_PREC_RADIX", "integer"),
+            column("NULLABLE", "integer"),
+            column("REMARKS"),
+            column("COLUMN_DEF"),
+            column("SQL_DATA_TYPE", "integer"),
+            column("SQL_DATETIME_SUB", "integer"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("ORDINAL_POSITION", "integer"),
+            column("IS_NULLABLE"),
+            column("SCOPE_CATALOG"),
+            column("SCOPE_SCHEMA"),
+            column("SCOPE_TABLE"),
+            column("SOURCE_DATA_TYPE", "smallint"),
+            column("IS_AUTOINCREMENT"),
+            column("IS_GENERATEDCOLUMN")
+    );
+
+    private static final List<ColumnInfo> PROCEDURES_COLUMNS = Arrays.asList(
+            column("PROCEDURE_CAT"),
+            column("PROCEDURE_SCHEM"),
+            column("PROCEDURE_NAME"),
+            column("RESERVED1"),
+            column("RESERVED2"),
+            column("RESERVED3"),
+            column("REMARKS"),
+            column("PROCEDURE_TYPE", "smallint"),
+            column("SPECIFIC_NAME")
+    );
+
+    private static final List<ColumnInfo> PROCEDURE_COLUMNS_COLUMNS = Arrays.asList(
+            column("PROCEDURE_CAT"),
+            column("PROCEDURE_SCHEM"),
+            column("PROCEDURE_NAME"),
+            column("COLUMN_NAME"),
+            column("COLUMN_TYPE", "smallint"),
+            column("DATA_TYPE", "integer"),
+            column("TYPE_NAME"),
+            column("PRECISION", "integer"),
+            column("LENGTH", "integer"),
+            column("SCALE", "smallint"),
+            column("RADIX", "smallint"),
+            column("NULLABLE", "smallint"),
+            column("REMARKS"),
+            column("COLUMN_DEF"),
+            column("SQL_DATA_TYPE", "integer"),
+            column("SQL_DATETIME_SUB", "integer"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("ORDINAL_POSITION", "integer"),
+            column("IS_NULLABLE"),
+            column("SPECIFIC_NAME")
+    );
+
+    private static final List<ColumnInfo> COLUMN_PRIVILEGES_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("COLUMN_NAME"),
+            column("GRANTOR"),
+            column("GRANTEE"),
+            column("PRIVILEGE"),
+            column("IS_GRANTABLE")
+    );
+
+    private static final List<ColumnInfo> TABLE_PRIVILEGES_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("GRANTOR"),
+            column("GRANTEE"),
+            column("PRIVILEGE"),
+            column("IS_GRANTABLE")
+    );
+
+    private static final List<ColumnInfo> ROW_IDENTIFIER_COLUMNS = Arrays.asList(
+            column("SCOPE", "smallint"),
+            column("COLUMN_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("TYPE_NAME"),
+            column("COLUMN_SIZE", "integer"),
+            column("BUFFER_LENGTH", "integer"),
+            column("DECIMAL_DIGITS", "smallint"),
+            column("PSEUDO_COLUMN", "smallint")
+    );
+
+    private static final List<ColumnInfo> PRIMARY_KEYS_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("COLUMN_NAME"),
+            column("KEY_SEQ", "smallint"),
+            column("PK_NAME")
+    );
+
+    private static final List<ColumnInfo> FOREIGN_KEYS_COLUMNS = Arrays.asList(
+            column("PKTABLE_CAT"),
+            column("PKTABLE_SCHEM"),
+            column("PKTABLE_NAME"),
+            column("PKCOLUMN_NAME"),
+            column("FKTABLE_CAT"),
+            column("FKTABLE_SCHEM"),
+            column("FKTABLE_NAME"),
+            column("FKCOLUMN_NAME"),
+            column("KEY_SEQ", "smallint"),
+            column("UPDATE_RULE", "smallint"),
+            column("DELETE_RULE", "smallint"),
+            column("FK_NAME"),
+            column("PK_NAME"),
+            column("DEFERRABILITY", "smallint")
+    );
+
+    private static final List<ColumnInfo> TYPE_INFO_COLUMNS = Arrays.asList(
+            column("TYPE_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("PRECISION", "integer"),
+            column("LITERAL_PREFIX"),
+            column("LITERAL_SUFFIX"),
+            column("CREATE_PARAMS"),
+            column("NULLABLE", "smallint"),
+            column("CASE_SENSITIVE", "boolean"),
+            column("SEARCHABLE", "smallint"),
+            column("UNSIGNED_ATTRIBUTE", "boolean"),
+            column("FIXED_PREC_SCALE", "boolean"),
+            column("AUTO_INCREMENT", "boolean"),
+            column("LOCAL_TYPE_NAME"),
+            column("MINIMUM_SCALE", "smallint"),
+            column("MAXIMUM_SCALE", "smallint"),
+            column("SQL_DATA_TYPE", "integer"),
+            column("SQL_DATETIME_SUB", "integer"),
+            column("NUM_PREC_RADIX", "integer")
+    );
+
+    private static final List<String[]> TYPE_INFO_ROWS = typeInfoRows(
+            typeInfoRow("boolean", null, null, null, null, false, typePredBasic, null, null, null),
+            typeInfoRow("tinyint", "3", null, null, null, false, typePredBasic, "0", "0", "10"),
+            typeInfoRow("smallint", "5", null, null, null, false, typePredBasic, "0", "0", "10"),
+            typeInfoRow("integer", "10", null, null, null, false, typePredBasic, "0", "0", "10"),
+            typeInfoRow("bigint", "19", null, null, null, false, typePredBasic, "0", "0", "10"),
+            typeInfoRow("float", "7", null, null, null, false, typePredBasic, null, null, "10"),
+            typeInfoRow("double", "15", null, null, null, false, typePredBasic, null, null, "10"),
+            typeInfoRow("decimal", "38", null, null, "precision,scale", false, typePredBasic, "0", "38", "10"),
+            typeInfoRow("char", "255", "'", "'", "length", true, typeSearchable, null, null, null),
+            typeInfoRow("varchar", "65535", "'", "'", "length", true, typeSearchable, null, null, null),
+            typeInfoRow("json", null, "JSON '", "'", null, true, typePredNone, null, null, null),
+            typeInfoRow("varbinary", null, "X'", "'", null, false, typePredBasic, null, null, null),
+            typeInfoRow("date", "10", "DATE '", "'", null, false, typePredBasic, null, null, null),
+            typeInfoRow("time", "12", "TIME '", "'", null, false, typePredBasic, null, null, null),
+            typeInfoRow("timestamp", "23", "TIMESTAMP '", "'", null, false, typePredBasic, null, null, null),
+            typeInfoRow("array", null, null, null, null, false, typePredNone, null, null, null),
+            typeInfoRow("map", null, null, null, null, false, typePredNone, null, null, null),
+            typeInfoRow("row", null, null, null, null, false, typePredNone, null, null, null)
+    );
+
+    private static final List<ColumnInfo> INDEX_INFO_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("NON_UNIQUE", "boolean"),
+            column("INDEX_QUALIFIER"),
+            column("INDEX_NAME"),
+            column("TYPE", "smallint"),
+            column("ORDINAL_POSITION", "smallint"),
+            column("COLUMN_NAME"),
+            column("ASC_OR_DESC"),
+            column("CARDINALITY", "bigint"),
+            column("PAGES", "bigint"),
+            column("FILTER_CONDITION")
+    );
+
+    private static final List<ColumnInfo> UDTS_COLUMNS = Arrays.asList(
+            column("TYPE_CAT"),
+            column("TYPE_SCHEM"),
+            column("TYPE_NAME"),
+            column("CLASS_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("REMARKS"),
+            column("BASE_TYPE", "smallint")
+    );
+
+    private static final List<ColumnInfo> SUPER_TYPES_COLUMNS = Arrays.asList(
+            column("TYPE_CAT"),
+            column("TYPE_SCHEM"),
+            column("TYPE_NAME"),
+            column("SUPERTYPE_CAT"),
+            column("SUPERTYPE_SCHEM"),
+            column("SUPERTYPE_NAME")
+    );
+
+    private static final List<ColumnInfo> SUPER_TABLES_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("SUPERTABLE_NAME")
+    );
+
+    private static final List<ColumnInfo> ATTRIBUTES_COLUMNS = Arrays.asList(
+            column("TYPE_CAT"),
+            column("TYPE_SCHEM"),
+            column("TYPE_NAME"),
+            column("ATTR_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("ATTR_TYPE_NAME"),
+            column("ATTR_SIZE", "integer"),
+            column("DECIMAL_DIGITS", "integer"),
+            column("NUM_PREC_RADIX", "integer"),
+            column("NULLABLE", "integer"),
+            column("REMARKS"),
+            column("ATTR_DEF"),
+            column("SQL_DATA_TYPE", "integer"),
+            column("SQL_DATETIME_SUB", "integer"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("ORDINAL_POSITION", "integer"),
+            column("IS_NULLABLE"),
+            column("SCOPE_CATALOG"),
+            column("SCOPE_SCHEMA"),
+            column("SCOPE_TABLE"),
+            column("SOURCE_DATA_TYPE", "smallint")
+    );
+
+    private static final List<ColumnInfo> CLIENT_INFO_PROPERTIES_COLUMNS = Arrays.asList(
+            column("NAME"),
+            column("MAX_LEN", "integer"),
+            column("DEFAULT_VALUE"),
+            column("DESCRIPTION")
+    );
+
+    private static final List<String[]> CLIENT_INFO_PROPERTIES_ROWS = Collections.singletonList(
+            new String[]{AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "11", "interactive", "The priority of the queries of the connection when the number of concurrent queries is limited, interactive or batch"}
+    );
+
+    private static final List<ColumnInfo> FUNCTIONS_COLUMNS = Arrays.asList(
+            column("FUNCTION_CAT"),
+            column("FUNCTION_SCHEM"),
+            column("FUNCTION_NAME"),
+            column("REMARKS"),
+            column("FUNCTION_TYPE", "smallint"),
+            column("SPECIFIC_NAME")
+    );
+
+    private static final List<ColumnInfo> FUNCTION_COLUMNS_COLUMNS = Arrays.asList(
+            column("FUNCTION_CAT"),
+            column("FUNCTION_SCHEM"),
+            column("FUNCTION_NAME"),
+            column("COLUMN_NAME"),
+            column("COLUMN_TYPE", "smallint"),
+            column("DATA_TYPE", "integer"),
+            column("TYPE_NAME"),
+            column("PRECISION", "integer"),
+            column("LENGTH", "integer"),
+            column("SCALE", "smallint"),
+            column("RADIX", "smallint"),
+            column("NULLABLE", "smallint"),
+            column("REMARKS"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("ORDINAL_POSITION", "integer"),
+            column("IS_NULLABLE"),
+            column("SPECIFIC_NAME")
+    );
+
+    private static final List<ColumnInfo> PSEUDO_COLUMNS_COLUMNS = Arrays.asList(
+            column("TABLE_CAT"),
+            column("TABLE_SCHEM"),
+            column("TABLE_NAME"),
+            column("COLUMN_NAME"),
+            column("DATA_TYPE", "integer"),
+            column("COLUMN_SIZE", "integer"),
+            column("DECIMAL_DIGITS", "integer"),
+            column("NUM_PREC_RADIX", "integer"),
+            column("COLUMN_USAGE"),
+            column("REMARKS"),
+            column("CHAR_OCTET_LENGTH", "integer"),
+            column("IS_NULLABLE")
+    );
+
     private final Connection connection;
+    private final Supplier<CatalogCache> catalogCache;
 
-    AthenaDatabaseMetaData(Connection connection) {
+    AthenaDatabaseMetaData(Connection connection, Supplier<CatalogCache> catalogCache) {
         this.connection = connection;
+        this.catalogCache = catalogCache;
     }
 
     @Override
@@ -644,87 +993,274 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
 
     @Override
     public ResultSet getProcedures(String catalog, String schemaPattern, String procedureNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(PROCEDURES_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getProcedureColumns(String catalog, String schemaPattern, String procedureNamePattern, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(PROCEDURE_COLUMNS_COLUMNS, Collections.emptyList());
+    }
+
+    @Override
+    public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            List<String> tableTypes = types == null ? null : Arrays.asList(types);
+            List<CatalogTable> tables = new ArrayList<>(await(cache -> cache.getTables(NamePattern.compile(schemaPattern), NamePattern.compile(tableNamePattern))));
+            tables.sort(Comparator.comparing(AthenaDatabaseMetaData::tableType));
+            for (CatalogTable table : tables) {
+                String tableType = tableType(table);
+                if (tableTypes == null || tableTypes.contains(tableType)) {
+                    rows.add(new String[]{CATALOG_NAME, table.getDatabaseName(), table.getName(), tableType, table.getDescription(), null, null, null, null, null});
+                }
+            }
+        }
+        return createResultSet(TABLES_COLUMNS, rows);
     }
 
-    @Override
-    public ResultSet getTables(String catalog, String schemaPattern, String tableNamePattern, String[] types) {
-        throw new UnsupportedOperationException("Not implemented");
+    private static String tableType(CatalogTable table) {
+        return table.isView() ? VIEW_TYPE : TABLE_TYPE;
     }
 
     @Override
-    public ResultSet getSchemas() {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getSchemas() throws SQLException {
+        return getSchemas(null, null);
     }
 
     @Override
     public ResultSet getCatalogs() {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(CATALOGS_COLUMNS, CATALOGS_ROWS);
     }
 
     @Override
     public ResultSet getTableTypes() {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(TABLE_TYPES_COLUMNS, TABLE_TYPES_ROWS);
+    }
+
+    @Override
+    public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            NamePattern columnNames = NamePattern.compile(columnNamePattern);
+            for (CatalogTable table : await(cache -> cache.getTables(NamePattern.compile(schemaPattern), NamePattern.compile(tableNamePattern)))) {
+                List<CatalogColumn> columns = table.getColumns();
+                for (int i = 0; i < columns.size(); i++) {
+                    CatalogColumn column = columns.get(i);
+                    if (columnNames.matches(column.getName())) {
+                        rows.add(columnRow(table, column, i + 1));
+                    }
+                }
+            }
+        }
+        return createResultSet(COLUMNS_COLUMNS, rows);
+    }
+
+    private static String[] columnRow(CatalogTable table, CatalogColumn column, int ordinalPosition) {
+        String hiveType = column.getType() == null ? "" : column.getType().trim().toLowerCase(Locale.ROOT);
+        int parametersStart = indexOfAny(hiveType, '(', '<');
+        String typeName = athenaTypeName(parametersStart == -1 ? hiveType : hiveType.substring(0, parametersStart).trim());
+        String[] parameters = parametersStart != -1 && hiveType.charAt(parametersStart) == '(' && hiveType.endsWith(")") ? hiveType.substring(parametersStart + 1, hiveType.length() - 1).split(",") : new String[0];
+        int sqlType = AthenaResultSetMetaData.sqlType(typeName);
+        String integerPrecision = integerPrecision(typeName);
+        String columnSize = parameters.length > 0 ? parameters[0].trim() : integerPrecision;
+        String decimalDigits = parameters.length > 1 ? parameters[1].trim() : (integerPrecision == null ? null : "0");
+        boolean numeric = integerPrecision != null || sqlType == Types.DECIMAL || sqlType == Types.FLOAT || sqlType == Types.DOUBLE;
+        return new String[]{
+                CATALOG_NAME,
+                table.getDatabaseName(),
+                table.getName(),
+                column.getName(),
+                String.valueOf(sqlType),
+                typeName,
+                columnSize,
+                null,
+                decimalDigits,
+                numeric ? "10" : null,
+                String.valueOf(columnNullable),
+                column.getComment(),
+                null,
+                null,
+                null,
+                sqlType == Types.CHAR || sqlType == Types.VARCHAR ? columnSize : null,
+                String.valueOf(ordinalPosition),
+                "YES",
+                null,
+                null,
+                null,
+                null,
+                "NO",
+                "NO"
+        };
+    }
+
+    private static int indexOfAny(String str, char a, char b) {
+        for (int i = 0; i < str.length(); i++) {
+            if (str.charAt(i) == a || str.charAt(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String athenaTypeName(String hiveTypeName) {
+        switch (hiveTypeName) {
+            case "string":
+                return "varchar";
+            case "int":
+                return "integer";
+            case "binary":
+                return "varbinary";
+            case "struct":
+                return "row";
+            default:
+                return hiveTypeName;
+        }
     }
 
-    @Override
-    public ResultSet getColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+    private static String integerPrecision(String typeName) {
+        switch (typeName) {
+            case "tinyint":
+                return "3";
+            case "smallint":
+                return "5";
+            case "integer":
+                return "10";
+            case "bigint":
+                return "19";
+            default:
+                return null;
+        }
+    }
+
+    private static String[] typeInfoRow(String typeName, String precision, String literalPrefix, String literalSuffix, String createParams, boolean caseSensitive, int searchable, String minimumScale, String maximumScale, String radix) {
+        return new String[]{
+                typeName,
+                String.valueOf(AthenaResultSetMetaData.sqlType(typeName)),
+                precision,
+                literalPrefix,
+                literalSuffix,
+                createParams,
+                String.valueOf(typeNullable),
+                String.valueOf(caseSensitive),
+                String.valueOf(searchable),
+                String.valueOf(false),
+                String.valueOf(false),
+                String.valueOf(false),
+                null,
+                minimumScale,
+                maximumScale,
+                null,
+                null,
+                radix
+        };
+    }
+
+    private static List<String[]> typeInfoRows(String[]... rows) {
+        List<String[]> sortedRows = new ArrayList<>(Arrays.asList(rows));
+        sortedRows.sort(Comparator.comparingInt(row -> Integer.parseInt(row[1])));
+        return Collections.unmodifiableList(sortedRows);
+    }
+
+    private static boolean isCatalog(String catalog) {
+        return catalog == null || catalog.equalsIgnoreCase(CATALOG_NAME);
+    }
+
+    private static ColumnInfo column(String name) {
+        return column(name, "varchar");
+    }
+
+    private static ColumnInfo column(String name, String type) {
+        return ColumnInfo.builder().name(name).type(type).build();
+    }
+
+    private ResultSet createResultSet(List<ColumnInfo> columns, List<String[]> rows) {
+        return new AthenaResultSet(new InMemoryResult(columns, rows), null);
+    }
+
+    private <T> T await(Function<CatalogCache, CompletableFuture<T>> request) throws SQLException {
+        CatalogCache cache = catalogCache.get();
+        try {
+            CompletableFuture<T> future = request.apply(cache);
+            int timeout = connection.getNetworkTimeout();
+            if (timeout > 0) {
+                // the network timeout applies to each page, not to the whole
+                // load, so a catalog with many pages doesn't time out as
+                // long as pages keep arriving
+                long lastLoadedPageCount = cache.getLoadedPageCount();
+                while (true) {
+                    try {
+                        return future.get(timeout, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException te) {
+                        long loadedPageCount = cache.getLoadedPageCount();
+                        if (loadedPageCount == lastLoadedPageCount) {
+                            throw te;
+                        }
+                        lastLoadedPageCount = loadedPageCount;
+                    }
+                }
+            } else {
+                return future.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (TimeoutException te) {
+            throw new SQLTimeoutException("Timed out while loading the catalog", te);
+        } catch (ExecutionException ee) {
+            SQLException eee = new SQLException(ee.getCause());
+            eee.addSuppressed(ee);
+            throw eee;
+        }
     }
 
     @Override
     public ResultSet getColumnPrivileges(String catalog, String schema, String table, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(COLUMN_PRIVILEGES_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getTablePrivileges(String catalog, String schemaPattern, String tableNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(TABLE_PRIVILEGES_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getBestRowIdentifier(String catalog, String schema, String table, int scope, boolean nullable) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(ROW_IDENTIFIER_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getVersionColumns(String catalog, String schema, String table) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(ROW_IDENTIFIER_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getPrimaryKeys(String catalog, String schema, String table) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(PRIMARY_KEYS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getImportedKeys(String catalog, String schema, String table) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(FOREIGN_KEYS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getExportedKeys(String catalog, String schema, String table) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(FOREIGN_KEYS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getCrossReference(String parentCatalog, String parentSchema, String parentTable, String foreignCatalog, String foreignSchema, String foreignTable) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(FOREIGN_KEYS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getTypeInfo() {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(TYPE_INFO_COLUMNS, TYPE_INFO_ROWS);
     }
 
     @Override
     public ResultSet getIndexInfo(String catalog, String schema, String table, boolean unique, boolean approximate) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(INDEX_INFO_COLUMNS, Collections.emptyList());
     }
 
     @Override
@@ -789,7 +1325,7 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
 
     @Override
     public ResultSet getUDTs(String catalog, String schemaPattern, String typeNamePattern, int[] types) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(UDTS_COLUMNS, Collections.emptyList());
     }
 
     @Override
@@ -814,17 +1350,17 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
 
     @Override
     public ResultSet getSuperTypes(String catalog, String schemaPattern, String typeNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(SUPER_TYPES_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getSuperTables(String catalog, String schemaPattern, String tableNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(SUPER_TABLES_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getAttributes(String catalog, String schemaPattern, String typeNamePattern, String attributeNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(ATTRIBUTES_COLUMNS, Collections.emptyList());
     }
 
     @Override
@@ -858,8 +1394,17 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
     }
 
     @Override
-    public ResultSet getSchemas(String catalog, String schemaPattern) {
-        throw new UnsupportedOperationException("Not implemented");
+    public ResultSet getSchemas(String catalog, String schemaPattern) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        if (isCatalog(catalog)) {
+            NamePattern schemaNames = NamePattern.compile(schemaPattern);
+            for (CatalogDatabase database : await(CatalogCache::getDatabases)) {
+                if (schemaNames.matches(database.getName())) {
+                    rows.add(new String[]{database.getName(), CATALOG_NAME});
+                }
+            }
+        }
+        return createResultSet(SCHEMAS_COLUMNS, rows);
     }
 
     @Override
@@ -874,22 +1419,22 @@ class AthenaDatabaseMetaData implements DatabaseMetaData {
 
     @Override
     public ResultSet getClientInfoProperties() {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(CLIENT_INFO_PROPERTIES_COLUMNS, CLIENT_INFO_PROPERTIES_ROWS);
     }
 
     @Override
     public ResultSet getFunctions(String catalog, String schemaPattern, String functionNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(FUNCTIONS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getFunctionColumns(String catalog, String schemaPattern, String functionNamePattern, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(FUNCTION_COLUMNS_COLUMNS, Collections.emptyList());
     }
 
     @Override
     public ResultSet getPseudoColumns(String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern) {
-        throw new UnsupportedOperationException("Not implemented");
+        return createResultSet(PSEUDO_COLUMNS_COLUMNS, Collections.emptyList());
     }
 
     @Override
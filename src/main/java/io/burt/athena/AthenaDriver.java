@@ -2,9 +2,16 @@ package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import io.burt.athena.configuration.ConnectionSettings;
+import io.burt.athena.configuration.HttpClientSettings;
 import io.burt.athena.configuration.ResultLoadingStrategy;
+import io.burt.athena.configuration.WorkGroup;
+import io.burt.athena.result.S3ResultSettings;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
@@ -12,8 +19,12 @@ import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -21,7 +32,26 @@ import java.util.regex.Pattern;
 public class AthenaDriver implements Driver {
     public static final String REGION_PROPERTY_NAME = "region";
     public static final String WORK_GROUP_PROPERTY_NAME = "workGroup";
+    public static final String WORK_GROUPS_PROPERTY_NAME = "workGroups";
     public static final String OUTPUT_LOCATION_PROPERTY_NAME = "outputLocation";
+    public static final String RESULT_PIPELINE_DEPTH_PROPERTY_NAME = "resultPipelineDepth";
+    public static final String RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME = "resultPipelineExecutor";
+    public static final String RESULT_PARSER_POOL_PROPERTY_NAME = "resultParserPool";
+    public static final String RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME = "resultDownloadRetries";
+    public static final String RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME = "resultDownloadStallTimeout";
+    public static final String MAX_CONCURRENT_QUERIES_PROPERTY_NAME = "maxConcurrentQueries";
+    public static final String RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME = "reservedInteractiveQueries";
+    public static final String BATCH_AGING_TIMEOUT_PROPERTY_NAME = "batchAgingTimeout";
+    public static final String WARM_UP_PROPERTY_NAME = "warmUp";
+    public static final String HTTP_CLIENT_PROPERTY_NAME = "httpClient";
+    public static final String HTTP_MAX_CONCURRENCY_PROPERTY_NAME = "httpMaxConcurrency";
+    public static final String HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME = "httpMaxPendingConnectionAcquires";
+    public static final String HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME = "httpConnectionTimeToLive";
+    public static final String HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME = "httpConnectionMaxIdleTime";
+    public static final String HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME = "httpUseIdleConnectionReaper";
+    public static final String HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME = "httpEventLoopThreads";
+    public static final String CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME = "catalogCacheTimeToLive";
+    public static final String CATALOG_SNAPSHOT_PATH_PROPERTY_NAME = "catalogSnapshotPath";
     public static final String DEFAULT_DATABASE_NAME = "default";
     public static final String JDBC_SUBPROTOCOL = "athena";
 
@@ -115,7 +145,40 @@ public class AthenaDriver implements Driver {
      *                             of the keys
      *                             {@link AthenaDriver#REGION_PROPERTY_NAME},
      *                             {@link AthenaDriver#OUTPUT_LOCATION_PROPERTY_NAME},
-     *                             and {@link AthenaDriver#WORK_GROUP_PROPERTY_NAME}.
+     *                             {@link AthenaDriver#WORK_GROUP_PROPERTY_NAME},
+     *                             {@link AthenaDriver#WORK_GROUPS_PROPERTY_NAME}
+     *                             (a comma separated list of
+     *                             <code>name[:weight[:maxConcurrency]]</code>),
+     *                             {@link AthenaDriver#RESULT_PIPELINE_DEPTH_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME}
+     *                             (whose value must be an {@link Executor}
+     *                             instance, not a string),
+     *                             {@link AthenaDriver#RESULT_PARSER_POOL_PROPERTY_NAME}
+     *                             (whose value must be a {@link ForkJoinPool}
+     *                             instance),
+     *                             {@link AthenaDriver#RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME}
+     *                             (in milliseconds),
+     *                             {@link AthenaDriver#MAX_CONCURRENT_QUERIES_PROPERTY_NAME},
+     *                             {@link AthenaDriver#RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME},
+     *                             {@link AthenaDriver#BATCH_AGING_TIMEOUT_PROPERTY_NAME}
+     *                             (in milliseconds),
+     *                             {@link AthenaDriver#WARM_UP_PROPERTY_NAME}
+     *                             (<code>true</code> or <code>false</code>),
+     *                             {@link AthenaDriver#HTTP_CLIENT_PROPERTY_NAME}
+     *                             (whose value must be an
+     *                             {@link SdkAsyncHttpClient} instance),
+     *                             {@link AthenaDriver#HTTP_MAX_CONCURRENCY_PROPERTY_NAME},
+     *                             {@link AthenaDriver#HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME},
+     *                             {@link AthenaDriver#HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME}
+     *                             (in milliseconds),
+     *                             {@link AthenaDriver#HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME}
+     *                             (in milliseconds),
+     *                             {@link AthenaDriver#HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME},
+     *                             {@link AthenaDriver#HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME},
+     *                             {@link AthenaDriver#CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME}
+     *                             (in milliseconds)
+     *                             and {@link AthenaDriver#CATALOG_SNAPSHOT_PATH_PROPERTY_NAME}.
      *                             All other keys will be ignored.
      * @return a JDBC connection ready to execute queries
      */
@@ -127,21 +190,106 @@ public class AthenaDriver implements Driver {
             Region region = connectionProperties.containsKey(REGION_PROPERTY_NAME) ? Region.of(connectionProperties.getProperty(REGION_PROPERTY_NAME)) : null;
             String workGroup = connectionProperties.getProperty(WORK_GROUP_PROPERTY_NAME);
             String outputLocation = connectionProperties.getProperty(OUTPUT_LOCATION_PROPERTY_NAME);
-            ConnectionConfiguration configuration = connectionConfigurationFactory.createConnectionConfiguration(
-                    region,
-                    databaseName,
-                    workGroup,
-                    outputLocation,
-                    Duration.ofMinutes(1),
-                    Duration.ofMinutes(30),
-                    ResultLoadingStrategy.S3
-            );
-            return new AthenaConnection(configuration);
+            List<WorkGroup> workGroups = workGroupsProperty(connectionProperties);
+            int maxConcurrentQueries = intProperty(connectionProperties, MAX_CONCURRENT_QUERIES_PROPERTY_NAME, 0);
+            int reservedInteractiveQueries = intProperty(connectionProperties, RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME, 0);
+            Duration batchAgingTimeout = Duration.ofMillis(intProperty(connectionProperties, BATCH_AGING_TIMEOUT_PROPERTY_NAME, 60000));
+            HttpClientSettings httpClientSettings = httpClientSettingsProperties(connectionProperties);
+            Duration catalogCacheTimeToLive = Duration.ofMillis(intProperty(connectionProperties, CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME, 300000));
+            Path catalogSnapshotPath = connectionProperties.containsKey(CATALOG_SNAPSHOT_PATH_PROPERTY_NAME) ? Paths.get(connectionProperties.getProperty(CATALOG_SNAPSHOT_PATH_PROPERTY_NAME)) : null;
+            int resultPipelineDepth = intProperty(connectionProperties, RESULT_PIPELINE_DEPTH_PROPERTY_NAME, 0);
+            Executor resultPipelineExecutor = (Executor) connectionProperties.get(RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME);
+            ForkJoinPool resultParserPool = (ForkJoinPool) connectionProperties.get(RESULT_PARSER_POOL_PROPERTY_NAME);
+            int resultDownloadRetries = intProperty(connectionProperties, RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME, 3);
+            Duration resultDownloadStallTimeout = Duration.ofMillis(intProperty(connectionProperties, RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME, 30000));
+            S3ResultSettings resultSettings = new S3ResultSettings()
+                    .withPipelineDepth(resultPipelineDepth)
+                    .withPipelineExecutor(resultPipelineExecutor)
+                    .withParserPool(resultParserPool)
+                    .withDownloadRetries(resultDownloadRetries)
+                    .withDownloadStallTimeout(resultDownloadStallTimeout);
+            ConnectionSettings settings = new ConnectionSettings()
+                    .withRegion(region)
+                    .withDatabaseName(databaseName)
+                    .withWorkGroupName(workGroup)
+                    .withOutputLocation(outputLocation)
+                    .withNetworkTimeout(Duration.ofMinutes(1))
+                    .withQueryTimeout(Duration.ofMinutes(30))
+                    .withResultLoadingStrategy(ResultLoadingStrategy.S3)
+                    .withResultSettings(resultSettings)
+                    .withWorkGroups(workGroups)
+                    .withMaxConcurrentQueries(maxConcurrentQueries)
+                    .withReservedInteractiveQueries(reservedInteractiveQueries)
+                    .withBatchAgingTimeout(batchAgingTimeout)
+                    .withHttpClientSettings(httpClientSettings)
+                    .withCatalogCacheTimeToLive(catalogCacheTimeToLive)
+                    .withCatalogSnapshotPath(catalogSnapshotPath);
+            ConnectionConfiguration configuration = connectionConfigurationFactory.createConnectionConfiguration(settings);
+            AthenaConnection connection = new AthenaConnection(configuration);
+            if (Boolean.parseBoolean(connectionProperties.getProperty(WARM_UP_PROPERTY_NAME))) {
+                connection.warmUp();
+            }
+            return connection;
         } else {
             return null;
         }
     }
 
+    private int intProperty(Properties connectionProperties, String name, int defaultValue) {
+        String value = connectionProperties.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        } else {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(String.format("The value of \"%s\" must be an integer (got \"%s\")", name, value), e);
+            }
+        }
+    }
+
+    private Integer optionalIntProperty(Properties connectionProperties, String name) {
+        return connectionProperties.getProperty(name) == null ? null : intProperty(connectionProperties, name, 0);
+    }
+
+    private Duration optionalMillisProperty(Properties connectionProperties, String name) {
+        Integer millis = optionalIntProperty(connectionProperties, name);
+        return millis == null ? null : Duration.ofMillis(millis);
+    }
+
+    private HttpClientSettings httpClientSettingsProperties(Properties connectionProperties) {
+        String useIdleConnectionReaper = connectionProperties.getProperty(HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME);
+        return new HttpClientSettings()
+                .withHttpClient((SdkAsyncHttpClient) connectionProperties.get(HTTP_CLIENT_PROPERTY_NAME))
+                .withMaxConcurrency(optionalIntProperty(connectionProperties, HTTP_MAX_CONCURRENCY_PROPERTY_NAME))
+                .withMaxPendingConnectionAcquires(optionalIntProperty(connectionProperties, HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME))
+                .withConnectionTimeToLive(optionalMillisProperty(connectionProperties, HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME))
+                .withConnectionMaxIdleTime(optionalMillisProperty(connectionProperties, HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME))
+                .withUseIdleConnectionReaper(useIdleConnectionReaper == null ? null : Boolean.parseBoolean(useIdleConnectionReaper))
+                .withEventLoopThreads(optionalIntProperty(connectionProperties, HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME));
+    }
+
+    private List<WorkGroup> workGroupsProperty(Properties connectionProperties) {
+        String value = connectionProperties.getProperty(WORK_GROUPS_PROPERTY_NAME);
+        List<WorkGroup> workGroups = new ArrayList<>();
+        if (value != null) {
+            for (String spec : value.split(",")) {
+                String[] parts = spec.trim().split(":");
+                try {
+                    if (parts.length > 3) {
+                        throw new IllegalArgumentException("too many parts");
+                    }
+                    int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+                    int maxConcurrency = parts.length > 2 ? Integer.parseInt(parts[2]) : 0;
+                    workGroups.add(new WorkGroup(parts[0], weight, maxConcurrency));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(String.format("The value of \"%s\" must be a comma separated list of name[:weight[:maxConcurrency]] (got \"%s\")", WORK_GROUPS_PROPERTY_NAME, value), e);
+                }
+            }
+        }
+        return workGroups;
+    }
+
     private Matcher matchURL(String url) {
         return URL_PATTERN.matcher(url);
     }
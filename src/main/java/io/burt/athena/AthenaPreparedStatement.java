@@ -0,0 +1,763 @@
+package io.burt.athena;
+
+import io.burt.athena.configuration.ConnectionConfiguration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.JDBCType;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A prepared statement that binds its parameters on the client.
+ *
+ * Athena does not have prepared statements, so the SQL is parsed into a
+ * template once, when the statement is prepared, and each execution renders
+ * the template with the bound values as SQL literals: strings are quoted and
+ * escaped, and values like timestamps and decimals become typed literals,
+ * for example <code>TIMESTAMP '2019-06-01 12:00:00.000'</code>. The rendered
+ * SQL is what the client request token provider receives, so executing the
+ * statement again with the same parameter values can reuse the result of the
+ * earlier execution.
+ *
+ * Arrays can be bound with {@link #setArray(int, Array)}, or with
+ * {@link #setObject(int, Object)} and a collection or an object array, and
+ * maps with {@link #setObject(int, Object)}.
+ *
+ * Streams, readers and LOBs are read completely when they are bound, since
+ * their contents become part of the SQL.
+ */
+public class AthenaPreparedStatement extends AthenaStatement implements PreparedStatement {
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final String NULL_LITERAL = "NULL";
+
+    private final SqlTemplate template;
+    private final String[] literals;
+
+    AthenaPreparedStatement(ConnectionConfiguration configuration, Clock clock, SqlTemplate template) {
+        this(configuration, clock, new ScanAccount(), template);
+    }
+
+    AthenaPreparedStatement(ConnectionConfiguration configuration, Clock clock, ScanAccount scanAccount, SqlTemplate template) {
+        super(configuration, clock, scanAccount);
+        this.template = template;
+        this.literals = new String[template.parameterCount()];
+    }
+
+    /**
+     * Returns the SQL that would be executed with the parameters that are
+     * currently bound.
+     *
+     * @return the SQL with the parameter markers replaced by the values
+     * @throws SQLException if a parameter has not been bound
+     */
+    public String getRenderedSql() throws SQLException {
+        for (int i = 0; i < literals.length; i++) {
+            if (literals[i] == null) {
+                throw new SQLException(String.format("No value specified for parameter %d", i + 1));
+            }
+        }
+        return template.render(literals);
+    }
+
+    private void bind(int parameterIndex, String literal) throws SQLException {
+        if (parameterIndex < 1 || parameterIndex > literals.length) {
+            throw new SQLException(String.format("Parameter index %d is out of range, the statement has %d parameters", parameterIndex, literals.length));
+        }
+        literals[parameterIndex - 1] = literal;
+    }
+
+    static String stringLiteral(String str) {
+        StringBuilder literal = new StringBuilder(str.length() + 2);
+        literal.append('\'');
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c == '\'') {
+                literal.append('\'');
+            }
+            literal.append(c);
+        }
+        literal.append('\'');
+        return literal.toString();
+    }
+
+    private static String typedLiteral(String typeName, String value) {
+        return typeName + " " + stringLiteral(value);
+    }
+
+    private static String binaryLiteral(byte[] bytes) {
+        StringBuilder literal = new StringBuilder(bytes.length * 2 + 3);
+        literal.append("X'");
+        for (byte b : bytes) {
+            literal.append(Character.forDigit((b >> 4) & 0xf, 16));
+            literal.append(Character.forDigit(b & 0xf, 16));
+        }
+        literal.append('\'');
+        return literal.toString();
+    }
+
+    private static String arrayLiteral(Iterable<?> elements) throws SQLException {
+        StringBuilder literal = new StringBuilder("ARRAY[");
+        boolean first = true;
+        for (Object element : elements) {
+            if (!first) {
+                literal.append(", ");
+            }
+            literal.append(literal(element));
+            first = false;
+        }
+        literal.append(']');
+        return literal.toString();
+    }
+
+    private static String mapLiteral(Map<?, ?> map) throws SQLException {
+        return String.format("MAP(%s, %s)", arrayLiteral(map.keySet()), arrayLiteral(map.values()));
+    }
+
+    private static String literal(Object value) throws SQLException {
+        if (value == null) {
+            return NULL_LITERAL;
+        } else if (value instanceof String || value instanceof Character) {
+            return stringLiteral(value.toString());
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value) ? "TRUE" : "FALSE";
+        } else if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            return value.toString();
+        } else if (value instanceof Float) {
+            return typedLiteral("REAL", value.toString());
+        } else if (value instanceof Double) {
+            return typedLiteral("DOUBLE", value.toString());
+        } else if (value instanceof BigDecimal) {
+            return typedLiteral("DECIMAL", ((BigDecimal) value).toPlainString());
+        } else if (value instanceof BigInteger) {
+            return typedLiteral("DECIMAL", value.toString());
+        } else if (value instanceof byte[]) {
+            return binaryLiteral((byte[]) value);
+        } else if (value instanceof Date) {
+            return typedLiteral("DATE", ((Date) value).toLocalDate().toString());
+        } else if (value instanceof Time) {
+            return timeLiteral(Instant.ofEpochMilli(((Time) value).getTime()).atZone(ZoneId.systemDefault()).toLocalTime());
+        } else if (value instanceof Timestamp) {
+            return timestampLiteral(((Timestamp) value).toLocalDateTime());
+        } else if (value instanceof java.util.Date) {
+            return timestampLiteral(new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime());
+        } else if (value instanceof LocalDate) {
+            return typedLiteral("DATE", value.toString());
+        } else if (value instanceof LocalTime) {
+            return timeLiteral((LocalTime) value);
+        } else if (value instanceof LocalDateTime) {
+            return timestampLiteral((LocalDateTime) value);
+        } else if (value instanceof Blob) {
+            return binaryLiteral(((Blob) value).getBytes(1, lobLength(((Blob) value).length())));
+        } else if (value instanceof Clob) {
+            return stringLiteral(((Clob) value).getSubString(1, lobLength(((Clob) value).length())));
+        } else if (value instanceof Array) {
+            return arrayLiteral(Arrays.asList((Object[]) ((Array) value).getArray()));
+        } else if (value instanceof Object[]) {
+            return arrayLiteral(Arrays.asList((Object[]) value));
+        } else if (value instanceof Collection) {
+            return arrayLiteral((Collection<?>) value);
+        } else if (value instanceof Map) {
+            return mapLiteral((Map<?, ?>) value);
+        } else {
+            throw new SQLException(String.format("Values of type %s cannot be bound to parameters", value.getClass().getName()));
+        }
+    }
+
+    /**
+     * Converts a value to the given SQL type, the way the JDBC specification
+     * describes for {@link #setObject(int, Object, int)}, and renders it as a
+     * literal of that type.
+     *
+     * @param scaleOrLength the number of digits after the decimal point for
+     *                      decimals, or a negative number to keep the scale
+     *                      of the value
+     */
+    private static String literal(Object value, int targetSqlType, int scaleOrLength) throws SQLException {
+        if (value == null || targetSqlType == Types.NULL) {
+            return NULL_LITERAL;
+        }
+        switch (targetSqlType) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                if (value instanceof Clob) {
+                    return literal(value);
+                } else {
+                    return stringLiteral(value.toString());
+                }
+            case Types.CLOB:
+            case Types.NCLOB:
+                if (value instanceof String || value instanceof Clob) {
+                    return literal(value);
+                } else {
+                    throw incompatibleType(value, targetSqlType);
+                }
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return literal(toBoolean(value, targetSqlType));
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                try {
+                    return toBigDecimal(value, targetSqlType).toBigIntegerExact().toString();
+                } catch (ArithmeticException e) {
+                    throw new SQLException(String.format("%s cannot be bound as %s without losing its fraction", value, typeName(targetSqlType)), e);
+                }
+            case Types.REAL:
+                return typedLiteral("REAL", Float.toString(toBigDecimal(value, targetSqlType).floatValue()));
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return typedLiteral("DOUBLE", Double.toString(toBigDecimal(value, targetSqlType).doubleValue()));
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                BigDecimal decimal = toBigDecimal(value, targetSqlType);
+                if (scaleOrLength >= 0) {
+                    decimal = decimal.setScale(scaleOrLength, RoundingMode.HALF_UP);
+                }
+                return typedLiteral("DECIMAL", decimal.toPlainString());
+            case Types.DATE:
+                return literal(toLocalDate(value, targetSqlType));
+            case Types.TIME:
+                return literal(toLocalTime(value, targetSqlType));
+            case Types.TIMESTAMP:
+                return literal(toLocalDateTime(value, targetSqlType));
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                if (value instanceof byte[] || value instanceof Blob) {
+                    return literal(value);
+                } else {
+                    throw incompatibleType(value, targetSqlType);
+                }
+            case Types.ARRAY:
+                if (value instanceof Array || value instanceof Object[] || value instanceof Collection) {
+                    return literal(value);
+                } else {
+                    throw incompatibleType(value, targetSqlType);
+                }
+            case Types.JAVA_OBJECT:
+            case Types.OTHER:
+                return literal(value);
+            default:
+                throw new SQLFeatureNotSupportedException(String.format("Values cannot be bound as %s", typeName(targetSqlType)));
+        }
+    }
+
+    private static String typeName(int sqlType) {
+        try {
+            return JDBCType.valueOf(sqlType).getName();
+        } catch (IllegalArgumentException e) {
+            return String.valueOf(sqlType);
+        }
+    }
+
+    private static SQLException incompatibleType(Object value, int targetSqlType) {
+        return new SQLException(String.format("Values of type %s cannot be bound as %s", value.getClass().getName(), typeName(targetSqlType)));
+    }
+
+    private static Boolean toBoolean(Object value, int targetSqlType) throws SQLException {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number || value instanceof String) {
+            String str = value.toString().trim();
+            if (str.equalsIgnoreCase("true")) {
+                return true;
+            } else if (str.equalsIgnoreCase("false")) {
+                return false;
+            } else {
+                return toBigDecimal(value, targetSqlType).signum() != 0;
+            }
+        } else {
+            throw incompatibleType(value, targetSqlType);
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Object value, int targetSqlType) throws SQLException {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        } else if (value instanceof Float || value instanceof Double) {
+            return new BigDecimal(value.toString());
+        } else if (value instanceof Boolean) {
+            return ((Boolean) value) ? BigDecimal.ONE : BigDecimal.ZERO;
+        } else if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                throw new SQLException(String.format("\"%s\" cannot be bound as %s", value, typeName(targetSqlType)), e);
+            }
+        } else {
+            throw incompatibleType(value, targetSqlType);
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value, int targetSqlType) throws SQLException {
+        if (value instanceof String) {
+            try {
+                return LocalDate.parse(((String) value).trim());
+            } catch (DateTimeParseException e) {
+                throw new SQLException(String.format("\"%s\" cannot be bound as %s", value, typeName(targetSqlType)), e);
+            }
+        } else if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        } else if (value instanceof Date) {
+            return ((Date) value).toLocalDate();
+        } else {
+            return toLocalDateTime(value, targetSqlType).toLocalDate();
+        }
+    }
+
+    private static LocalTime toLocalTime(Object value, int targetSqlType) throws SQLException {
+        if (value instanceof String) {
+            try {
+                return LocalTime.parse(((String) value).trim());
+            } catch (DateTimeParseException e) {
+                throw new SQLException(String.format("\"%s\" cannot be bound as %s", value, typeName(targetSqlType)), e);
+            }
+        } else if (value instanceof LocalTime) {
+            return (LocalTime) value;
+        } else if (value instanceof Time) {
+            return Instant.ofEpochMilli(((Time) value).getTime()).atZone(ZoneId.systemDefault()).toLocalTime();
+        } else {
+            return toLocalDateTime(value, targetSqlType).toLocalTime();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value, int targetSqlType) throws SQLException {
+        if (value instanceof String) {
+            try {
+                return Timestamp.valueOf(((String) value).trim()).toLocalDateTime();
+            } catch (IllegalArgumentException e) {
+                throw new SQLException(String.format("\"%s\" cannot be bound as %s", value, typeName(targetSqlType)), e);
+            }
+        } else if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof Date) {
+            return ((Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.util.Date && !(value instanceof Time)) {
+            return new Timestamp(((java.util.Date) value).getTime()).toLocalDateTime();
+        } else {
+            throw incompatibleType(value, targetSqlType);
+        }
+    }
+
+    private static int lobLength(long length) throws SQLException {
+        if (length > Integer.MAX_VALUE) {
+            throw new SQLException(String.format("Values of %d bytes or characters are too large to be bound to parameters", length));
+        }
+        return (int) length;
+    }
+
+    /**
+     * @param length the number of bytes to read, or a negative number to read
+     *               until the end of the stream
+     */
+    private static byte[] readBytes(InputStream input, long length) throws SQLException {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            long remaining = length < 0 ? Long.MAX_VALUE : length;
+            int n;
+            while (remaining > 0 && (n = input.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                output.write(buffer, 0, n);
+                remaining -= n;
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new SQLException("Could not read the parameter value from the stream", e);
+        }
+    }
+
+    /**
+     * @param length the number of characters to read, or a negative number to
+     *               read until the end of the reader
+     */
+    private static String readString(Reader reader, long length) throws SQLException {
+        try {
+            StringBuilder output = new StringBuilder();
+            char[] buffer = new char[8192];
+            long remaining = length < 0 ? Long.MAX_VALUE : length;
+            int n;
+            while (remaining > 0 && (n = reader.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+                output.append(buffer, 0, n);
+                remaining -= n;
+            }
+            return output.toString();
+        } catch (IOException e) {
+            throw new SQLException("Could not read the parameter value from the reader", e);
+        }
+    }
+
+    private static String timeLiteral(LocalTime time) {
+        return typedLiteral("TIME", TIME_FORMATTER.format(time));
+    }
+
+    private static String timestampLiteral(LocalDateTime timestamp) {
+        return typedLiteral("TIMESTAMP", TIMESTAMP_FORMATTER.format(timestamp));
+    }
+
+    @Override
+    public ResultSet executeQuery() throws SQLException {
+        super.execute(getRenderedSql());
+        return getResultSet();
+    }
+
+    @Override
+    public boolean execute() throws SQLException {
+        return super.execute(getRenderedSql());
+    }
+
+    @Override
+    public int executeUpdate() throws SQLException {
+        super.execute(getRenderedSql());
+        return 0;
+    }
+
+    @Override
+    public long executeLargeUpdate() throws SQLException {
+        super.execute(getRenderedSql());
+        return 0;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to the execute methods of a prepared statement");
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to the execute methods of a prepared statement");
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to the execute methods of a prepared statement");
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        throw new SQLException("SQL cannot be passed to the execute methods of a prepared statement");
+    }
+
+    @Override
+    public void clearParameters() {
+        Arrays.fill(literals, null);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType) throws SQLException {
+        bind(parameterIndex, NULL_LITERAL);
+    }
+
+    @Override
+    public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+        bind(parameterIndex, NULL_LITERAL);
+    }
+
+    @Override
+    public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setByte(int parameterIndex, byte x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setShort(int parameterIndex, short x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setInt(int parameterIndex, int x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setLong(int parameterIndex, long x) throws SQLException {
+        bind(parameterIndex, String.valueOf(x));
+    }
+
+    @Override
+    public void setFloat(int parameterIndex, float x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setDouble(int parameterIndex, double x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setString(int parameterIndex, String x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setNString(int parameterIndex, String value) throws SQLException {
+        bind(parameterIndex, literal(value));
+    }
+
+    @Override
+    public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+        if (x == null || cal == null) {
+            setDate(parameterIndex, x);
+        } else {
+            bind(parameterIndex, literal(Instant.ofEpochMilli(x.getTime()).atZone(cal.getTimeZone().toZoneId()).toLocalDate()));
+        }
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+        if (x == null || cal == null) {
+            setTime(parameterIndex, x);
+        } else {
+            bind(parameterIndex, literal(Instant.ofEpochMilli(x.getTime()).atZone(cal.getTimeZone().toZoneId()).toLocalTime()));
+        }
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+        if (x == null || cal == null) {
+            setTimestamp(parameterIndex, x);
+        } else {
+            bind(parameterIndex, literal(x.toInstant().atZone(cal.getTimeZone().toZoneId()).toLocalDateTime()));
+        }
+    }
+
+    @Override
+    public void setArray(int parameterIndex, Array x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+        bind(parameterIndex, literal(x, targetSqlType, -1));
+    }
+
+    @Override
+    public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+        bind(parameterIndex, literal(x, targetSqlType, scaleOrLength));
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() throws SQLException {
+        ResultSet resultSet = getResultSet();
+        return resultSet == null ? null : resultSet.getMetaData();
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData() throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not report the types of parameters");
+    }
+
+    @Override
+    public void addBatch() throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not support batches");
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        setAsciiStream(parameterIndex, x, (long) length);
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        bind(parameterIndex, x == null ? NULL_LITERAL : stringLiteral(new String(readBytes(x, length), StandardCharsets.US_ASCII)));
+    }
+
+    @Override
+    public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+        setAsciiStream(parameterIndex, x, -1L);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        bind(parameterIndex, x == null ? NULL_LITERAL : stringLiteral(new String(readBytes(x, length), StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+        setBinaryStream(parameterIndex, x, (long) length);
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+        bind(parameterIndex, x == null ? NULL_LITERAL : binaryLiteral(readBytes(x, length)));
+    }
+
+    @Override
+    public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+        setBinaryStream(parameterIndex, x, -1L);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+        setCharacterStream(parameterIndex, reader, (long) length);
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+        bind(parameterIndex, reader == null ? NULL_LITERAL : stringLiteral(readString(reader, length)));
+    }
+
+    @Override
+    public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+        setCharacterStream(parameterIndex, reader, -1L);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+        setCharacterStream(parameterIndex, value, length);
+    }
+
+    @Override
+    public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+        setCharacterStream(parameterIndex, value, -1L);
+    }
+
+    @Override
+    public void setRef(int parameterIndex, Ref x) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not support REF values");
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, Blob x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+        setBinaryStream(parameterIndex, inputStream, length);
+    }
+
+    @Override
+    public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+        setBinaryStream(parameterIndex, inputStream, -1L);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Clob x) throws SQLException {
+        bind(parameterIndex, literal(x));
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setClob(int parameterIndex, Reader reader) throws SQLException {
+        setCharacterStream(parameterIndex, reader, -1L);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, NClob value) throws SQLException {
+        bind(parameterIndex, literal(value));
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+        setCharacterStream(parameterIndex, reader, length);
+    }
+
+    @Override
+    public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+        setCharacterStream(parameterIndex, reader, -1L);
+    }
+
+    @Override
+    public void setURL(int parameterIndex, URL x) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not support DATALINK values");
+    }
+
+    @Override
+    public void setRowId(int parameterIndex, RowId x) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not support row IDs");
+    }
+
+    @Override
+    public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Athena does not support XML values");
+    }
+}
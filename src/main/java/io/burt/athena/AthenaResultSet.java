@@ -3,6 +3,7 @@ package io.burt.athena;
 import io.burt.athena.result.AthenaArray;
 import io.burt.athena.result.Result;
 import io.burt.athena.result.ResultPosition;
+import io.burt.athena.result.S3ResultObject;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -38,21 +39,44 @@ import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class AthenaResultSet implements ResultSet {
     private AthenaStatement statement;
     private boolean open;
     private Result result;
+    private Supplier<S3ResultObject> resultObject;
+    private long dataScannedInBytes;
     private boolean lastWasNull;
 
     public AthenaResultSet(Result result, AthenaStatement statement) {
+        this(result, statement, null, -1);
+    }
+
+    AthenaResultSet(Result result, AthenaStatement statement, Supplier<S3ResultObject> resultObject, long dataScannedInBytes) {
         this.statement = statement;
         this.open = true;
         this.result = result;
+        this.resultObject = resultObject;
+        this.dataScannedInBytes = dataScannedInBytes;
         this.lastWasNull = false;
     }
 
+    /**
+     * Returns the number of bytes the query scanned, as reported by Athena
+     * when the query completed.
+     *
+     * This is the amount that counts towards the scan budgets of the
+     * statement and connection, see {@link ScanBudget}.
+     *
+     * @return the number of bytes scanned, or -1 when it is not known, for
+     *         example for results merged from multiple queries
+     */
+    public long getDataScannedInBytes() {
+        return dataScannedInBytes;
+    }
+
     @Override
     public Statement getStatement() {
         return statement;
@@ -83,7 +107,8 @@ public class AthenaResultSet implements ResultSet {
     }
 
     private void checkHorizontalPosition(int columnIndex) throws SQLException {
-        int columnCount = getMetaData().getColumnCount();
+        checkClosed();
+        int columnCount = result.getColumnCount();
         if (columnIndex < 1) {
             throw new SQLException(String.format("Invalid column index %d", columnIndex));
         } else if (columnIndex > columnCount) {
@@ -105,6 +130,7 @@ public class AthenaResultSet implements ResultSet {
 
     @Override
     public void close() throws SQLException {
+        AthenaStatement closedStatement = statement;
         statement = null;
         open = false;
         if (result != null) {
@@ -115,6 +141,9 @@ public class AthenaResultSet implements ResultSet {
             }
             result = null;
         }
+        if (closedStatement != null && !closedStatement.isClosed() && closedStatement.isCloseOnCompletion()) {
+            closedStatement.close();
+        }
     }
 
     @Override
@@ -212,8 +241,10 @@ public class AthenaResultSet implements ResultSet {
 
     @Override
     public <T> T unwrap(Class<T> iface) throws SQLException {
-        if (isWrapperFor(iface)) {
+        if (iface.isAssignableFrom(getClass())) {
             return iface.cast(this);
+        } else if (resultObject != null && iface.isAssignableFrom(S3ResultObject.class)) {
+            return iface.cast(resultObject.get());
         } else {
             throw new SQLException(String.format("%s is not a wrapper for %s", this.getClass().getName(), iface.getName()));
         }
@@ -221,7 +252,7 @@ public class AthenaResultSet implements ResultSet {
 
     @Override
     public boolean isWrapperFor(Class<?> iface) {
-        return iface.isAssignableFrom(getClass());
+        return iface.isAssignableFrom(getClass()) || (resultObject != null && iface.isAssignableFrom(S3ResultObject.class));
     }
 
     @Override
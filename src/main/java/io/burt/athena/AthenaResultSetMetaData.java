@@ -64,7 +64,11 @@ public class AthenaResultSetMetaData implements ResultSetMetaData {
 
     @Override
     public int getColumnType(int column) {
-        switch (getColumn(column).type()) {
+        return sqlType(getColumn(column).type());
+    }
+
+    static int sqlType(String typeName) {
+        switch (typeName) {
             case "tinyint":
                 return Types.TINYINT;
             case "smallint":
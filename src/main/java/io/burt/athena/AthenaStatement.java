@@ -1,8 +1,23 @@
 package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
-import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import io.burt.athena.configuration.DriverThreads;
+import io.burt.athena.configuration.QueryPriority;
+import io.burt.athena.configuration.QueryScheduler;
+import io.burt.athena.configuration.ResultLoadingStrategy;
+import io.burt.athena.configuration.WorkGroupBalancer;
+import io.burt.athena.result.MergedResult;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.Row;
+import io.burt.athena.result.S3ResultObject;
+import io.burt.athena.result.S3RowPublisher;
+import io.burt.athena.result.S3RowSpliterator;
+import io.burt.athena.result.SortKey;
+import io.burt.athena.result.SortedMergedResult;
+import org.reactivestreams.Publisher;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.StartQueryExecutionResponse;
 
 import java.sql.Connection;
 import java.sql.ResultSet;
@@ -14,30 +29,55 @@ import java.sql.Statement;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class AthenaStatement implements Statement {
-    private final AthenaAsyncClient athenaClient;
+    private static final Duration ASYNC_POLL_FIRST_DELAY = Duration.ofMillis(10);
+    private static final Duration ASYNC_POLL_MAX_DELAY = Duration.ofSeconds(5);
+    private static final Executor MERGE_EXECUTOR = DriverThreads.newThreadPerTaskExecutor("athena-merge");
+
+    private final ScanAccount scanAccount;
     private Clock clock;
 
     private ConnectionConfiguration configuration;
     private String queryExecutionId;
     private ResultSet currentResultSet;
     private Function<String, Optional<String>> clientRequestTokenProvider;
+    private ScanBudget scanBudget;
+    private QueryPriority priority;
     private boolean open;
+    private boolean closeOnCompletion;
 
     AthenaStatement(ConnectionConfiguration configuration, Clock clock) {
+        this(configuration, clock, new ScanAccount());
+    }
+
+    AthenaStatement(ConnectionConfiguration configuration, Clock clock, ScanAccount scanAccount) {
         this.configuration = configuration;
-        this.athenaClient = configuration.athenaClient();
+        this.scanAccount = scanAccount;
         this.clock = clock;
         this.queryExecutionId = null;
         this.currentResultSet = null;
         this.clientRequestTokenProvider = sql -> Optional.empty();
+        this.scanBudget = null;
+        this.priority = QueryPriority.INTERACTIVE;
         this.open = true;
+        this.closeOnCompletion = false;
     }
 
     /**
@@ -65,6 +105,52 @@ public class AthenaStatement implements Statement {
         }
     }
 
+    /**
+     * Sets a limit on the number of bytes each query executed by this
+     * statement may scan.
+     *
+     * The number of bytes scanned is checked every time a running query is
+     * polled, and as soon as it exceeds the budget the query execution is
+     * stopped and a {@link ScanBudgetExceededException} is thrown. This
+     * applies in addition to the budget of the connection, if any.
+     *
+     * @param budget the budget of each query, or null for no limit
+     */
+    public void setScanBudget(ScanBudget budget) {
+        scanBudget = budget;
+    }
+
+    public ScanBudget getScanBudget() {
+        return scanBudget;
+    }
+
+    /**
+     * Sets the lane that the queries of this statement wait in when the
+     * connection limits how many queries it runs at the same time.
+     *
+     * Interactive queries are started before batch queries, and can use the
+     * slots reserved for them. Batch queries that have waited for longer than
+     * the batch aging timeout are started in the order they were queued, like
+     * interactive queries. When the connection has no limit the priority has
+     * no effect.
+     *
+     * The default is the priority set with the <code>priority</code> client
+     * info property of the connection, or interactive.
+     *
+     * @param priority the priority of the queries, or null for interactive
+     */
+    public void setPriority(QueryPriority priority) {
+        if (priority == null) {
+            this.priority = QueryPriority.INTERACTIVE;
+        } else {
+            this.priority = priority;
+        }
+    }
+
+    public QueryPriority getPriority() {
+        return priority;
+    }
+
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         execute(sql);
@@ -73,23 +159,98 @@ public class AthenaStatement implements Statement {
 
     @Override
     public boolean execute(String sql) throws SQLException {
+        // the query timeout covers the wait for a slot too
+        Instant deadline = clock.instant().plus(configuration.queryTimeout());
+        QueryScheduler scheduler = configuration.queryScheduler();
+        if (scheduler == null) {
+            return executeInWorkGroup(sql, deadline);
+        }
+        CompletableFuture<Void> slot = scheduler.acquire(priority);
+        try {
+            slot.get(Math.max(0, Duration.between(clock.instant(), deadline).toMillis()), TimeUnit.MILLISECONDS);
+            return executeInWorkGroup(sql, deadline);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (TimeoutException te) {
+            throw new SQLTimeoutException("Timed out while waiting for a query slot", te);
+        } catch (ExecutionException ee) {
+            SQLException eee = new SQLException(ee.getCause());
+            eee.addSuppressed(ee);
+            throw eee;
+        } finally {
+            if (!slot.cancel(false)) {
+                scheduler.release();
+            }
+        }
+    }
+
+    private boolean executeInWorkGroup(String sql, Instant deadline) throws SQLException {
+        WorkGroupBalancer balancer = configuration.workGroupBalancer();
+        if (balancer == null) {
+            return execute(d -> startQueryExecution(sql, configuration.workGroupName(), d), () -> { }, true, deadline);
+        }
+        String workGroup = balancer.acquire();
+        try {
+            return execute(d -> startQueryExecution(sql, workGroup, d), queueTimeRecorder(balancer, workGroup), true, deadline);
+        } finally {
+            balancer.release(workGroup);
+        }
+    }
+
+    /**
+     * Resumes waiting for a query execution that has already been started,
+     * and returns its result set.
+     *
+     * This makes it possible to pick up queries that were started by another
+     * statement, for example before an application was restarted, instead of
+     * running them again. The query execution is polled with the configured
+     * polling strategy and the result set is loaded with the configured
+     * result loading strategy, exactly like when a query is executed with
+     * {@link #executeQuery(String)}.
+     *
+     * Since the query execution was not started by this statement it is
+     * never stopped: when it does not complete within the query timeout, or
+     * scans more than the scan budget allows, an exception is thrown and the
+     * query execution is left running, so that it can be resumed again.
+     *
+     * @param queryExecutionId the ID of the query execution to resume
+     * @return the result set of the query execution
+     * @throws SQLException if the statement is closed, or the query execution
+     *                      does not exist, fails, or times out
+     */
+    public ResultSet resumeQueryExecution(String queryExecutionId) throws SQLException {
+        checkClosed();
+        execute(deadline -> queryExecutionId, () -> { }, false, clock.instant().plus(configuration.queryTimeout()));
+        return getResultSet();
+    }
+
+    /**
+     * @param stopWhenAbandoned whether to stop the query execution when it
+     *                          times out or exceeds the scan budget, which
+     *                          must only be done for query executions that
+     *                          were started by this statement
+     * @param deadline when the query times out
+     */
+    private boolean execute(QueryExecutionStarter starter, Runnable onRunning, boolean stopWhenAbandoned, Instant deadline) throws SQLException {
         if (currentResultSet != null) {
             currentResultSet.close();
             currentResultSet = null;
         }
+        ScanAccount.Reservation reservation = scanAccount.reserve();
         try {
-            Instant deadline = clock.instant().plus(configuration.queryTimeout());
-            queryExecutionId = startQueryExecution(sql, deadline);
-            currentResultSet = configuration.pollingStrategy().pollUntilCompleted(this::poll, deadline);
+            queryExecutionId = starter.start(deadline);
+            ResultConnectionPrimer primer = createPrimer(configuration);
+            currentResultSet = configuration.pollingStrategy().pollUntilCompleted(d -> poll(d, reservation, onRunning, primer, stopWhenAbandoned), deadline);
             return currentResultSet != null;
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             throw new SQLException(ie);
         } catch (TimeoutException te) {
             SQLTimeoutException ste = new SQLTimeoutException(te);
-            if (queryExecutionId != null) {
+            if (queryExecutionId != null && stopWhenAbandoned) {
                 try {
-                    athenaClient.stopQueryExecution(b -> {
+                    configuration.athenaClient().stopQueryExecution(b -> {
                         b.queryExecutionId(queryExecutionId);
                     });
                 } catch (Exception e) {
@@ -101,38 +262,351 @@ public class AthenaStatement implements Statement {
             SQLException eee = new SQLException(ee.getCause());
             eee.addSuppressed(ee);
             throw eee;
+        } finally {
+            reservation.release();
         }
     }
 
-    private String startQueryExecution(String sql, Instant deadline) throws InterruptedException, ExecutionException, TimeoutException {
-        return athenaClient
-                .startQueryExecution(b -> {
-                    b.queryString(sql);
-                    b.workGroup(configuration.workGroupName());
-                    b.queryExecutionContext(bb -> bb.database(configuration.databaseName()));
-                    b.resultConfiguration(bb -> bb.outputLocation(configuration.outputLocation()));
-                    clientRequestTokenProvider.apply(sql).ifPresent(b::clientRequestToken);
-                })
+    private String startQueryExecution(String sql, String workGroup, Instant deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        return sendStartQueryExecution(sql, workGroup, configuration)
                 .get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS)
                 .queryExecutionId();
     }
 
-    private Optional<ResultSet> poll(Instant deadline) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
-        QueryExecution queryExecution = athenaClient
+    private CompletableFuture<StartQueryExecutionResponse> sendStartQueryExecution(String sql, String workGroup, ConnectionConfiguration configuration) {
+        return configuration.athenaClient().startQueryExecution(b -> {
+            b.queryString(sql);
+            b.workGroup(workGroup);
+            b.queryExecutionContext(bb -> bb.database(configuration.databaseName()));
+            b.resultConfiguration(bb -> bb.outputLocation(configuration.outputLocation()));
+            clientRequestTokenProvider.apply(sql).ifPresent(b::clientRequestToken);
+        });
+    }
+
+    /**
+     * Creates a publisher that executes a query and publishes its rows.
+     *
+     * The query is started when the publisher is subscribed to, and neither
+     * waiting for the query to complete nor loading its result blocks a
+     * thread: the query execution is polled asynchronously, and the result
+     * object is downloaded from S3 only as fast as the subscriber requests
+     * rows. Cancelling the subscription before the query has completed stops
+     * the query execution.
+     *
+     * The rows are always loaded from the output location of the query
+     * execution, regardless of which result loading strategy the connection
+     * uses, and the header row is not published.
+     *
+     * Executing a query this way does not affect the result set of this
+     * statement, and the publisher supports a single subscriber.
+     *
+     * @param sql the query to execute
+     * @return a publisher that publishes the rows of the query's result
+     * @throws SQLException if the statement is closed
+     */
+    public Publisher<Row> executeQueryAsPublisher(String sql) throws SQLException {
+        checkClosed();
+        ConnectionConfiguration configuration = this.configuration;
+        return new S3RowPublisher(configuration.s3Client(), () -> executeAsync(sql, configuration));
+    }
+
+    /**
+     * Executes a query and returns a stream of its rows.
+     *
+     * This method blocks until the query has completed. Consuming the stream
+     * sequentially downloads and parses the result object as it is read, just
+     * like iterating over a result set does. When the stream is parallel its
+     * spliterator splits the result object into byte ranges that are
+     * downloaded and parsed concurrently, see {@link S3RowSpliterator}.
+     *
+     * The rows are always loaded from the output location of the query
+     * execution, regardless of which result loading strategy the connection
+     * uses, and the header row is not included. The stream should be closed
+     * when it is not consumed completely.
+     *
+     * Executing a query this way does not affect the result set of this
+     * statement.
+     *
+     * @param sql the query to execute
+     * @return a stream of the rows of the query's result
+     * @throws SQLException if the statement is closed, or the query fails or
+     *                      times out
+     */
+    public Stream<Row> executeQueryAsStream(String sql) throws SQLException {
+        checkClosed();
+        S3RowSpliterator spliterator = new S3RowSpliterator(configuration.s3Client(), awaitQueryExecution(sql));
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::close);
+    }
+
+    /**
+     * Executes a query and copies its result to another location in S3.
+     *
+     * This method blocks until the query has completed and its result object
+     * and metadata object have been copied. The copy is made by S3 and the
+     * result is never loaded by the driver, see
+     * {@link S3ResultObject#copyTo(String)}.
+     *
+     * Executing a query this way does not affect the result set of this
+     * statement.
+     *
+     * @param sql the query to execute
+     * @param destination the S3 URI to copy the result object to
+     * @throws SQLException if the statement is closed, the query fails or
+     *                      times out, or the copy fails
+     */
+    public void executeQueryAndCopyResult(String sql, String destination) throws SQLException {
+        checkClosed();
+        new S3ResultObject(configuration.s3Client(), awaitQueryExecution(sql), configuration.networkTimeout()).copyTo(destination);
+    }
+
+    private QueryExecution awaitQueryExecution(String sql) throws SQLException {
+        CompletableFuture<QueryExecution> future = executeAsync(sql, configuration);
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof SQLException) {
+                throw (SQLException) ee.getCause();
+            }
+            SQLException eee = new SQLException(ee.getCause());
+            eee.addSuppressed(ee);
+            throw eee;
+        }
+    }
+
+    ResultSet executeQueries(List<String> sqls, int parallelism, boolean ordered) throws SQLException {
+        return executeQueries(sqls, parallelism, (queryExecutions, resultFactory) -> new MergedResult(queryExecutions, resultFactory, ordered, parallelism, MERGE_EXECUTOR));
+    }
+
+    ResultSet executeSortedQueries(List<String> sqls, int parallelism, List<SortKey> sortKeys) throws SQLException {
+        return executeQueries(sqls, parallelism, (queryExecutions, resultFactory) -> new SortedMergedResult(queryExecutions, resultFactory, sortKeys, SortedMergedResult.DEFAULT_BUFFER_SIZE, MERGE_EXECUTOR));
+    }
+
+    private ResultSet executeQueries(List<String> sqls, int parallelism, BiFunction<List<CompletableFuture<QueryExecution>>, Function<QueryExecution, Result>, Result> mergedResultFactory) throws SQLException {
+        checkClosed();
+        if (parallelism < 1) {
+            throw new SQLException(String.format("Parallelism must be at least 1, but was %d", parallelism));
+        }
+        if (currentResultSet != null) {
+            currentResultSet.close();
+            currentResultSet = null;
+        }
+        ConnectionConfiguration configuration = this.configuration;
+        List<CompletableFuture<QueryExecution>> queryExecutions = new ArrayList<>(sqls.size());
+        for (int i = 0; i < sqls.size(); i++) {
+            queryExecutions.add(new CompletableFuture<>());
+        }
+        currentResultSet = new AthenaResultSet(mergedResultFactory.apply(queryExecutions, configuration::createResult), this);
+        AtomicInteger nextIndex = new AtomicInteger(0);
+        for (int i = 0; i < Math.min(parallelism, sqls.size()); i++) {
+            executeNext(sqls, queryExecutions, nextIndex, configuration);
+        }
+        return currentResultSet;
+    }
+
+    private void executeNext(List<String> sqls, List<CompletableFuture<QueryExecution>> queryExecutions, AtomicInteger nextIndex, ConnectionConfiguration configuration) {
+        int index = nextIndex.getAndIncrement();
+        if (index < sqls.size()) {
+            CompletableFuture<QueryExecution> future = queryExecutions.get(index);
+            if (!future.isDone()) {
+                executeAsync(sqls.get(index), configuration, future);
+            }
+            future.whenComplete((queryExecution, t) -> {
+                if (t == null) {
+                    executeNext(sqls, queryExecutions, nextIndex, configuration);
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<QueryExecution> executeAsync(String sql, ConnectionConfiguration configuration) {
+        return executeAsync(sql, configuration, new CompletableFuture<>());
+    }
+
+    private CompletableFuture<QueryExecution> executeAsync(String sql, ConnectionConfiguration configuration, CompletableFuture<QueryExecution> future) {
+        Instant deadline = clock.instant().plus(configuration.queryTimeout());
+        QueryScheduler scheduler = configuration.queryScheduler();
+        if (scheduler == null) {
+            startAsync(sql, configuration, deadline, future);
+        } else {
+            CompletableFuture<Void> slot = scheduler.acquire(priority);
+            future.whenComplete((queryExecution, t) -> {
+                if (!slot.cancel(false)) {
+                    scheduler.release();
+                }
+            });
+            slot.thenRun(() -> {
+                if (!future.isDone()) {
+                    startAsync(sql, configuration, deadline, future);
+                }
+            });
+        }
+        return future;
+    }
+
+    private void startAsync(String sql, ConnectionConfiguration configuration, Instant deadline, CompletableFuture<QueryExecution> future) {
+        ScanBudget scanBudget = this.scanBudget;
+        WorkGroupBalancer balancer = configuration.workGroupBalancer();
+        String workGroup = balancer == null ? configuration.workGroupName() : balancer.acquire();
+        Runnable onRunning = queueTimeRecorder(balancer, workGroup);
+        ResultConnectionPrimer primer = createPrimer(configuration);
+        if (balancer != null) {
+            future.whenComplete((queryExecution, t) -> balancer.release(workGroup));
+        }
+        ScanAccount.Reservation reservation = scanAccount.reserve();
+        future.whenComplete((queryExecution, t) -> reservation.release());
+        // the poll scheduler is released when polling ends, not when the
+        // future completes, since a cancelled future must still be followed
+        // by a request that stops the query
+        AsyncPollScheduler.SHARED.acquire();
+        sendStartQueryExecution(sql, workGroup, configuration).whenComplete((response, t) -> {
+            if (t != null) {
+                future.completeExceptionally(t);
+                AsyncPollScheduler.SHARED.release();
+            } else {
+                pollAsync(response.queryExecutionId(), deadline, scanBudget, reservation, onRunning, primer, ASYNC_POLL_FIRST_DELAY, future);
+            }
+        });
+    }
+
+    private ResultConnectionPrimer createPrimer(ConnectionConfiguration configuration) {
+        if (configuration.resultLoadingStrategy() == ResultLoadingStrategy.S3) {
+            return new ResultConnectionPrimer(configuration::s3Client, clock, ResultConnectionPrimer.DEFAULT_INTERVAL);
+        } else {
+            // results that are not loaded from S3 don't need S3 connections,
+            // and the S3 client should not even be created for them
+            return new ResultConnectionPrimer(() -> null, clock, ResultConnectionPrimer.DEFAULT_INTERVAL);
+        }
+    }
+
+    private Runnable queueTimeRecorder(WorkGroupBalancer balancer, String workGroup) {
+        if (balancer == null) {
+            return () -> { };
+        }
+        Instant startedAt = clock.instant();
+        AtomicBoolean recorded = new AtomicBoolean(false);
+        return () -> {
+            if (recorded.compareAndSet(false, true)) {
+                balancer.recordQueueTime(workGroup, Duration.between(startedAt, clock.instant()));
+            }
+        };
+    }
+
+    private void pollAsync(String id, Instant deadline, ScanBudget scanBudget, ScanAccount.Reservation reservation, Runnable onRunning, ResultConnectionPrimer primer, Duration delay, CompletableFuture<QueryExecution> future) {
+        if (future.isCancelled()) {
+            configuration.athenaClient().stopQueryExecution(b -> b.queryExecutionId(id));
+            AsyncPollScheduler.SHARED.release();
+            return;
+        }
+        configuration.athenaClient().getQueryExecution(b -> b.queryExecutionId(id)).whenComplete((response, t) -> {
+            if (future.isCancelled()) {
+                configuration.athenaClient().stopQueryExecution(b -> b.queryExecutionId(id));
+                AsyncPollScheduler.SHARED.release();
+                return;
+            }
+            if (t != null) {
+                future.completeExceptionally(t);
+                AsyncPollScheduler.SHARED.release();
+                return;
+            }
+            boolean pollScheduled = false;
+            QueryExecution queryExecution = response.queryExecution();
+            if (queryExecution.status().state() != QueryExecutionState.QUEUED) {
+                onRunning.run();
+            }
+            switch (queryExecution.status().state()) {
+                case SUCCEEDED:
+                    reservation.settle(dataScannedInBytes(queryExecution));
+                    future.complete(queryExecution);
+                    break;
+                case FAILED:
+                case CANCELLED:
+                    reservation.settle(dataScannedInBytes(queryExecution));
+                    future.completeExceptionally(new SQLException(queryExecution.status().stateChangeReason()));
+                    break;
+                default:
+                    ScanBudgetExceededException budgetExceeded = checkScanBudget(id, queryExecution, scanBudget, reservation, true);
+                    if (budgetExceeded != null) {
+                        future.completeExceptionally(budgetExceeded);
+                    } else if (clock.instant().plus(delay).isAfter(deadline)) {
+                        configuration.athenaClient().stopQueryExecution(b -> b.queryExecutionId(id));
+                        future.completeExceptionally(new SQLTimeoutException("polling reached deadline"));
+                    } else {
+                        primer.prime(queryExecution);
+                        Duration nextDelay = delay.multipliedBy(2).compareTo(ASYNC_POLL_MAX_DELAY) > 0 ? ASYNC_POLL_MAX_DELAY : delay.multipliedBy(2);
+                        try {
+                            AsyncPollScheduler.SHARED.schedule(() -> pollAsync(id, deadline, scanBudget, reservation, onRunning, primer, nextDelay, future), delay.toMillis());
+                            pollScheduled = true;
+                        } catch (RejectedExecutionException e) {
+                            future.completeExceptionally(e);
+                        }
+                    }
+            }
+            if (!pollScheduled) {
+                AsyncPollScheduler.SHARED.release();
+            }
+        });
+    }
+
+    private Optional<ResultSet> poll(Instant deadline, ScanAccount.Reservation reservation, Runnable onRunning, ResultConnectionPrimer primer, boolean stopWhenAbandoned) throws SQLException, InterruptedException, ExecutionException, TimeoutException {
+        QueryExecution queryExecution = configuration.athenaClient()
                 .getQueryExecution(b -> b.queryExecutionId(queryExecutionId))
                 .get(networkTimeoutMillis(deadline), TimeUnit.MILLISECONDS)
                 .queryExecution();
+        if (queryExecution.status().state() != QueryExecutionState.QUEUED) {
+            onRunning.run();
+        }
         switch (queryExecution.status().state()) {
             case SUCCEEDED:
+                reservation.settle(dataScannedInBytes(queryExecution));
                 return Optional.of(createResultSet(queryExecution));
             case FAILED:
             case CANCELLED:
+                reservation.settle(dataScannedInBytes(queryExecution));
                 throw new SQLException(queryExecution.status().stateChangeReason());
             default:
+                ScanBudgetExceededException budgetExceeded = checkScanBudget(queryExecutionId, queryExecution, scanBudget, reservation, stopWhenAbandoned);
+                if (budgetExceeded != null) {
+                    throw budgetExceeded;
+                }
+                primer.prime(queryExecution);
                 return Optional.empty();
         }
     }
 
+    private ScanBudgetExceededException checkScanBudget(String id, QueryExecution queryExecution, ScanBudget scanBudget, ScanAccount.Reservation reservation, boolean stop) {
+        long bytesScanned = dataScannedInBytes(queryExecution);
+        boolean accountExceeded = reservation.update(bytesScanned);
+        ScanBudgetExceededException e;
+        if (scanBudget != null && scanBudget.isExceededBy(bytesScanned)) {
+            e = new ScanBudgetExceededException(id, bytesScanned, scanBudget);
+        } else if (accountExceeded) {
+            e = new ScanBudgetExceededException(id, bytesScanned, scanAccount.getBudget());
+        } else {
+            return null;
+        }
+        reservation.settle(bytesScanned);
+        if (stop) {
+            try {
+                configuration.athenaClient().stopQueryExecution(b -> b.queryExecutionId(id));
+            } catch (Exception ee) {
+                e.addSuppressed(ee);
+            }
+        }
+        return e;
+    }
+
+    private static long dataScannedInBytes(QueryExecution queryExecution) {
+        if (queryExecution.statistics() == null || queryExecution.statistics().dataScannedInBytes() == null) {
+            return -1;
+        } else {
+            return queryExecution.statistics().dataScannedInBytes();
+        }
+    }
+
     private long networkTimeoutMillis(Instant deadline) {
         return Math.max(0, Math.min(configuration.networkTimeout().toMillis(), Duration.between(clock.instant(), deadline).toMillis()));
     }
@@ -140,10 +614,22 @@ public class AthenaStatement implements Statement {
     private ResultSet createResultSet(QueryExecution queryExecution) {
         return new AthenaResultSet(
                 configuration.createResult(queryExecution),
-                this
+                this,
+                createResultObject(queryExecution),
+                dataScannedInBytes(queryExecution)
         );
     }
 
+    private Supplier<S3ResultObject> createResultObject(QueryExecution queryExecution) {
+        if (queryExecution.resultConfiguration() == null || queryExecution.resultConfiguration().outputLocation() == null) {
+            return null;
+        } else {
+            // the S3 client is only created when the result set is unwrapped,
+            // result sets that are read through Athena never need it
+            return () -> new S3ResultObject(configuration.s3Client(), queryExecution, configuration.networkTimeout());
+        }
+    }
+
     private void checkClosed() throws SQLException {
         if (!open) {
             throw new SQLException("Statement is closed");
@@ -171,7 +657,7 @@ public class AthenaStatement implements Statement {
         } else if (getResultSet() != null) {
             throw new SQLException("Cannot cancel an completed statement");
         } else {
-            athenaClient.stopQueryExecution(b -> b.queryExecutionId(queryExecutionId));
+            configuration.athenaClient().stopQueryExecution(b -> b.queryExecutionId(queryExecutionId));
         }
     }
 
@@ -405,12 +891,19 @@ public class AthenaStatement implements Statement {
     }
 
     @Override
-    public void closeOnCompletion() {
-        throw new UnsupportedOperationException("Not implemented");
+    public void closeOnCompletion() throws SQLException {
+        checkClosed();
+        closeOnCompletion = true;
     }
 
     @Override
-    public boolean isCloseOnCompletion() {
-        throw new UnsupportedOperationException("Not implemented");
+    public boolean isCloseOnCompletion() throws SQLException {
+        checkClosed();
+        return closeOnCompletion;
+    }
+
+    @FunctionalInterface
+    private interface QueryExecutionStarter {
+        String start(Instant deadline) throws InterruptedException, ExecutionException, TimeoutException;
     }
 }
@@ -0,0 +1,68 @@
+package io.burt.athena;
+
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps connections to the output bucket open while a query is running, so
+ * that loading the result does not start with a DNS lookup and TCP and TLS
+ * handshakes.
+ *
+ * Every time a running query is polled, and at most once per interval, the
+ * primer sends a HEAD request for each of the two objects that the result
+ * is loaded from. They fail until the query has completed, but the
+ * connections they open are left in the client's connection pool. The
+ * interval is shorter than the time the pool keeps idle connections open.
+ */
+class ResultConnectionPrimer {
+    static final Duration DEFAULT_INTERVAL = Duration.ofSeconds(20);
+
+    private static final Pattern S3_URI_PATTERN = Pattern.compile("^s3://([^/]+)/(.+)$");
+
+    private final Supplier<S3AsyncClient> s3ClientSupplier;
+    private final Clock clock;
+    private final Duration interval;
+    private final AtomicReference<Instant> lastPrimedAt;
+
+    ResultConnectionPrimer(Supplier<S3AsyncClient> s3ClientSupplier, Clock clock, Duration interval) {
+        this.s3ClientSupplier = s3ClientSupplier;
+        this.clock = clock;
+        this.interval = interval;
+        this.lastPrimedAt = new AtomicReference<>(null);
+    }
+
+    void prime(QueryExecution queryExecution) {
+        if (queryExecution.status().state() != QueryExecutionState.RUNNING || queryExecution.resultConfiguration() == null || queryExecution.resultConfiguration().outputLocation() == null) {
+            return;
+        }
+        Matcher matcher = S3_URI_PATTERN.matcher(queryExecution.resultConfiguration().outputLocation());
+        if (!matcher.matches()) {
+            return;
+        }
+        Instant now = clock.instant();
+        Instant last = lastPrimedAt.get();
+        if ((last != null && now.isBefore(last.plus(interval))) || !lastPrimedAt.compareAndSet(last, now)) {
+            return;
+        }
+        String bucket = matcher.group(1);
+        String key = matcher.group(2);
+        try {
+            S3AsyncClient s3Client = s3ClientSupplier.get();
+            if (s3Client != null) {
+                s3Client.headObject(b -> b.bucket(bucket).key(key));
+                s3Client.headObject(b -> b.bucket(bucket).key(key + ".metadata"));
+            }
+        } catch (RuntimeException e) {
+            // priming is only an optimization, the result will be loaded anyway
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package io.burt.athena;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bytes scanned by the queries of a connection, and the budget that they
+ * share.
+ *
+ * Queries that are still running reserve the bytes they have scanned so far,
+ * and the budget is checked against the bytes of the completed queries plus
+ * the reservations of all running queries, so queries that run in parallel
+ * on different statements can't together scan more than the budget allows.
+ */
+class ScanAccount {
+    private final AtomicLong bytesScanned;
+    private final AtomicLong bytesCharged;
+
+    private volatile ScanBudget budget;
+
+    ScanAccount() {
+        this.bytesScanned = new AtomicLong(0);
+        this.bytesCharged = new AtomicLong(0);
+        this.budget = null;
+    }
+
+    ScanBudget getBudget() {
+        return budget;
+    }
+
+    void setBudget(ScanBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return the total number of bytes scanned by the completed queries
+     */
+    long getBytesScanned() {
+        return bytesScanned.get();
+    }
+
+    /**
+     * @return the total number of bytes scanned by the completed queries and
+     *         reserved by the running queries
+     */
+    long getBytesCharged() {
+        return bytesCharged.get();
+    }
+
+    void record(long bytes) {
+        if (bytes > 0) {
+            bytesScanned.addAndGet(bytes);
+            bytesCharged.addAndGet(bytes);
+        }
+    }
+
+    Reservation reserve() {
+        return new Reservation();
+    }
+
+    private boolean isExceeded() {
+        ScanBudget budget = this.budget;
+        return budget != null && budget.isExceededBy(bytesCharged.get());
+    }
+
+    /**
+     * The bytes that one running query has scanned so far.
+     */
+    class Reservation {
+        private long reservedBytes;
+        private boolean settled;
+
+        Reservation() {
+            this.reservedBytes = 0;
+            this.settled = false;
+        }
+
+        /**
+         * @param runningBytesScanned the number of bytes the query has scanned
+         *                            so far, or a negative number when it is
+         *                            not known
+         * @return true when the bytes scanned by all queries of the
+         *         connection exceed the budget of the connection
+         */
+        synchronized boolean update(long runningBytesScanned) {
+            if (!settled && runningBytesScanned > reservedBytes) {
+                bytesCharged.addAndGet(runningBytesScanned - reservedBytes);
+                reservedBytes = runningBytesScanned;
+            }
+            return isExceeded();
+        }
+
+        /**
+         * Replaces the reservation with the final number of bytes scanned by
+         * the query. Only the first call has any effect.
+         *
+         * @param finalBytesScanned the number of bytes the query scanned, or a
+         *                          negative number when it is not known, in
+         *                          which case the reserved bytes are kept
+         */
+        synchronized void settle(long finalBytesScanned) {
+            if (!settled) {
+                settled = true;
+                long bytes = finalBytesScanned < 0 ? reservedBytes : finalBytesScanned;
+                bytesScanned.addAndGet(bytes);
+                bytesCharged.addAndGet(bytes - reservedBytes);
+            }
+        }
+
+        /**
+         * Settles the reservation with the bytes reserved so far, for queries
+         * that are abandoned before they complete.
+         */
+        synchronized void release() {
+            settle(reservedBytes);
+        }
+    }
+}
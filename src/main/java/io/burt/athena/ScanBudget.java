@@ -0,0 +1,74 @@
+package io.burt.athena;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * A limit on the number of bytes that queries are allowed to scan.
+ *
+ * Budgets can be set on a statement, where they apply to each query the
+ * statement executes, and on a connection, where they apply to the total of
+ * all queries executed by the statements of the connection. A query that
+ * exceeds a budget while it is running is stopped, and executing it throws
+ * a {@link ScanBudgetExceededException}.
+ *
+ * Athena only reports the number of bytes scanned periodically, so a query
+ * can scan somewhat more than its budget before it is stopped.
+ */
+public class ScanBudget {
+    private static final BigDecimal BYTES_PER_TERABYTE = BigDecimal.valueOf(1L << 40);
+
+    private final long maxBytesScanned;
+
+    private ScanBudget(long maxBytesScanned) {
+        this.maxBytesScanned = maxBytesScanned;
+    }
+
+    /**
+     * @param maxBytesScanned the number of bytes that may be scanned
+     * @return a budget that allows scanning the given number of bytes
+     */
+    public static ScanBudget ofBytes(long maxBytesScanned) {
+        if (maxBytesScanned < 0) {
+            throw new IllegalArgumentException(String.format("A scan budget can not be negative (got %d)", maxBytesScanned));
+        }
+        return new ScanBudget(maxBytesScanned);
+    }
+
+    /**
+     * @param maxCost the amount that may be spent on scanning
+     * @param pricePerTerabyte the price of scanning a terabyte (2<sup>40</sup>
+     *                         bytes), in the same currency as the amount
+     * @return a budget that allows scanning the number of bytes that the
+     *         amount pays for
+     */
+    public static ScanBudget ofCost(BigDecimal maxCost, BigDecimal pricePerTerabyte) {
+        if (pricePerTerabyte.signum() <= 0) {
+            throw new IllegalArgumentException(String.format("The price per terabyte must be positive (got %s)", pricePerTerabyte));
+        }
+        return ofBytes(maxCost.multiply(BYTES_PER_TERABYTE).divide(pricePerTerabyte, 0, RoundingMode.FLOOR).longValueExact());
+    }
+
+    public long getMaxBytesScanned() {
+        return maxBytesScanned;
+    }
+
+    boolean isExceededBy(long bytesScanned) {
+        return bytesScanned > maxBytesScanned;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof ScanBudget && ((ScanBudget) other).maxBytesScanned == maxBytesScanned;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(maxBytesScanned);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScanBudget(%d bytes)", maxBytesScanned);
+    }
+}
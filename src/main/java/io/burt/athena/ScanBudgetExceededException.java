@@ -0,0 +1,39 @@
+package io.burt.athena;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when a query was stopped because it scanned more than its
+ * {@link ScanBudget}.
+ */
+public class ScanBudgetExceededException extends SQLException {
+    private final String queryExecutionId;
+    private final long bytesScanned;
+    private final ScanBudget budget;
+
+    ScanBudgetExceededException(String queryExecutionId, long bytesScanned, ScanBudget budget) {
+        super(String.format("Query execution %s was stopped after scanning %d bytes because it exceeded the scan budget of %d bytes", queryExecutionId, bytesScanned, budget.getMaxBytesScanned()));
+        this.queryExecutionId = queryExecutionId;
+        this.bytesScanned = bytesScanned;
+        this.budget = budget;
+    }
+
+    public String getQueryExecutionId() {
+        return queryExecutionId;
+    }
+
+    /**
+     * @return the number of bytes the query had scanned when it was stopped
+     */
+    public long getBytesScanned() {
+        return bytesScanned;
+    }
+
+    /**
+     * @return the budget that was exceeded, which for a connection budget
+     *         also includes the bytes scanned by earlier queries
+     */
+    public ScanBudget getBudget() {
+        return budget;
+    }
+}
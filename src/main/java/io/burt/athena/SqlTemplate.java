@@ -0,0 +1,96 @@
+package io.burt.athena;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL split into the fragments around its <code>?</code> parameter markers,
+ * so that it only has to be tokenized once however many times it is
+ * rendered with different parameter values.
+ *
+ * Question marks in string literals, quoted identifiers and comments are
+ * not parameter markers.
+ */
+class SqlTemplate {
+    private final String sql;
+    private final String[] fragments;
+    private final int fragmentsLength;
+
+    private SqlTemplate(String sql, String[] fragments) {
+        this.sql = sql;
+        this.fragments = fragments;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.fragmentsLength = length;
+    }
+
+    static SqlTemplate parse(String sql) {
+        List<String> fragments = new ArrayList<>();
+        int fragmentStart = 0;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end == -1 ? sql.length() : end + 1;
+            } else if (c == '/' && i + 1 < sql.length() && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end == -1 ? sql.length() : end + 2;
+            } else if (c == '?') {
+                fragments.add(sql.substring(fragmentStart, i));
+                i++;
+                fragmentStart = i;
+            } else {
+                i++;
+            }
+        }
+        fragments.add(sql.substring(fragmentStart));
+        return new SqlTemplate(sql, fragments.toArray(new String[0]));
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    String sql() {
+        return sql;
+    }
+
+    int parameterCount() {
+        return fragments.length - 1;
+    }
+
+    /**
+     * @param literals the SQL literals to insert, one for each parameter
+     * @return the SQL with the parameter markers replaced by the literals
+     */
+    String render(String[] literals) {
+        int length = fragmentsLength;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        StringBuilder renderedSql = new StringBuilder(length);
+        renderedSql.append(fragments[0]);
+        for (int i = 0; i < literals.length; i++) {
+            renderedSql.append(literals[i]);
+            renderedSql.append(fragments[i + 1]);
+        }
+        return renderedSql.toString();
+    }
+}
@@ -0,0 +1,44 @@
+package io.burt.athena.configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Objects;
+
+class CatalogKey {
+    private final ClientKey clientKey;
+    private final Duration timeToLive;
+    private final Path snapshotPath;
+
+    CatalogKey(ClientKey clientKey, Duration timeToLive, Path snapshotPath) {
+        this.clientKey = clientKey;
+        this.timeToLive = timeToLive;
+        this.snapshotPath = snapshotPath;
+    }
+
+    ClientKey clientKey() {
+        return clientKey;
+    }
+
+    Duration timeToLive() {
+        return timeToLive;
+    }
+
+    Path snapshotPath() {
+        return snapshotPath;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof CatalogKey) {
+            CatalogKey otherKey = (CatalogKey) other;
+            return clientKey.equals(otherKey.clientKey) && Objects.equals(timeToLive, otherKey.timeToLive) && Objects.equals(snapshotPath, otherKey.snapshotPath);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(clientKey, timeToLive, snapshotPath);
+    }
+}
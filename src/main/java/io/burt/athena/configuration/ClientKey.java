@@ -0,0 +1,38 @@
+package io.burt.athena.configuration;
+
+import software.amazon.awssdk.regions.Region;
+
+import java.util.Objects;
+
+class ClientKey {
+    private final Region region;
+    private final HttpClientSettings httpClientSettings;
+
+    ClientKey(Region region, HttpClientSettings httpClientSettings) {
+        this.region = region;
+        this.httpClientSettings = httpClientSettings;
+    }
+
+    Region region() {
+        return region;
+    }
+
+    HttpClientSettings httpClientSettings() {
+        return httpClientSettings;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof ClientKey) {
+            ClientKey otherKey = (ClientKey) other;
+            return Objects.equals(region, otherKey.region) && httpClientSettings.equals(otherKey.httpClientSettings);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(region) * 31 + httpClientSettings.hashCode();
+    }
+}
@@ -1,85 +1,91 @@
 package io.burt.athena.configuration;
 
+import io.burt.athena.metadata.CatalogCache;
 import io.burt.athena.polling.PollingStrategies;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.PreloadingStandardResult;
 import io.burt.athena.result.Result;
 import io.burt.athena.result.S3Result;
+import io.burt.athena.result.S3ResultSettings;
 import io.burt.athena.result.StandardResult;
-import software.amazon.awssdk.regions.Region;
+import io.burt.athena.result.s3.DownloadMetrics;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 
 import java.time.Duration;
+import java.util.List;
 
 class ConcreteConnectionConfiguration implements ConnectionConfiguration {
-    private final Region awsRegion;
-    private final String databaseName;
-    private final String workGroupName;
-    private final String outputLocation;
-    private final Duration networkTimeout;
-    private final Duration queryTimeout;
-    private final ResultLoadingStrategy resultLoadingStrategy;
-
-    private AthenaAsyncClient athenaClient;
-    private S3AsyncClient s3Client;
+    private final ConnectionSettings settings;
+    private final ConnectionClients clients;
+    private final DownloadMetrics downloadMetrics;
+    private final WorkGroupBalancer workGroupBalancer;
+    private final QueryScheduler queryScheduler;
+
     private PollingStrategy pollingStrategy;
 
-    ConcreteConnectionConfiguration(Region awsRegion, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy) {
-        this.awsRegion = awsRegion;
-        this.databaseName = databaseName;
-        this.workGroupName = workGroupName;
-        this.outputLocation = outputLocation;
-        this.networkTimeout = networkTimeout;
-        this.queryTimeout = queryTimeout;
-        this.resultLoadingStrategy = resultLoadingStrategy;
+    ConcreteConnectionConfiguration(ConnectionSettings settings, SharedClients<ClientKey, AthenaAsyncClient> athenaClients, SharedClients<ClientKey, S3AsyncClient> s3Clients, SharedClients<CatalogKey, CatalogCache> catalogCaches) {
+        S3ResultSettings resultSettings = settings.getResultSettings();
+        if (resultSettings.getPipelineExecutor() == null) {
+            resultSettings = resultSettings.withPipelineExecutor(DriverThreads.newThreadPerTaskExecutor("athena-result-pipeline"));
+        }
+        this.settings = settings.withResultSettings(resultSettings);
+        HttpClientSettings httpClientSettings = settings.getHttpClientSettings();
+        ClientKey clientKey = new ClientKey(settings.getRegion(), httpClientSettings == null ? new HttpClientSettings() : httpClientSettings);
+        this.clients = new ConnectionClients(clientKey, athenaClients, s3Clients, new CatalogKey(clientKey, settings.getCatalogCacheTimeToLive(), settings.getCatalogSnapshotPath()), catalogCaches);
+        this.downloadMetrics = new DownloadMetrics();
+        List<WorkGroup> workGroups = settings.getWorkGroups();
+        this.workGroupBalancer = workGroups == null || workGroups.isEmpty() ? null : new WorkGroupBalancer(workGroups);
+        this.queryScheduler = settings.getMaxConcurrentQueries() > 0 ? new QueryScheduler(settings.getMaxConcurrentQueries(), settings.getReservedInteractiveQueries(), settings.getBatchAgingTimeout()) : null;
+        this.pollingStrategy = null;
     }
 
-    private ConcreteConnectionConfiguration(Region awsRegion, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy, AthenaAsyncClient athenaClient, S3AsyncClient s3Client, PollingStrategy pollingStrategy) {
-        this(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy);
-        this.athenaClient = athenaClient;
-        this.s3Client = s3Client;
-        this.pollingStrategy = pollingStrategy;
+    private ConcreteConnectionConfiguration(ConnectionSettings settings, ConcreteConnectionConfiguration original) {
+        this.settings = settings;
+        this.clients = original.clients;
+        this.downloadMetrics = original.downloadMetrics;
+        this.workGroupBalancer = original.workGroupBalancer;
+        this.queryScheduler = original.queryScheduler;
+        this.pollingStrategy = original.pollingStrategy;
     }
 
     @Override
     public String databaseName() {
-        return databaseName;
+        return settings.getDatabaseName();
     }
 
     @Override
     public String workGroupName() {
-        return workGroupName;
+        return settings.getWorkGroupName();
     }
 
     @Override
     public String outputLocation() {
-        return outputLocation;
+        return settings.getOutputLocation();
     }
 
     @Override
     public Duration networkTimeout() {
-        return networkTimeout;
+        return settings.getNetworkTimeout();
     }
 
     @Override
-    public Duration queryTimeout() { return queryTimeout; }
+    public Duration queryTimeout() { return settings.getQueryTimeout(); }
 
     @Override
     public AthenaAsyncClient athenaClient() {
-        if (athenaClient == null) {
-            athenaClient = AthenaAsyncClient.builder().region(awsRegion).build();
-        }
-        return athenaClient;
+        return clients.athenaClient();
     }
 
     @Override
     public S3AsyncClient s3Client() {
-        if (s3Client == null) {
-            s3Client = S3AsyncClient.builder().region(awsRegion).build();
-        }
-        return s3Client;
+        return clients.s3Client();
+    }
+
+    @Override
+    public CatalogCache catalogCache() {
+        return clients.catalogCache();
     }
 
     @Override
@@ -90,27 +96,48 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
         return pollingStrategy;
     }
 
+    @Override
+    public DownloadMetrics downloadMetrics() {
+        return downloadMetrics;
+    }
+
+    @Override
+    public WorkGroupBalancer workGroupBalancer() {
+        return workGroupBalancer;
+    }
+
+    @Override
+    public QueryScheduler queryScheduler() {
+        return queryScheduler;
+    }
+
     @Override
     public ConnectionConfiguration withDatabaseName(String databaseName) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        return new ConcreteConnectionConfiguration(settings.withDatabaseName(databaseName), this);
     }
 
     @Override
     public ConnectionConfiguration withNetworkTimeout(Duration networkTimeout) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        return new ConcreteConnectionConfiguration(settings.withNetworkTimeout(networkTimeout), this);
     }
 
     @Override
     public ConnectionConfiguration withQueryTimeout(Duration queryTimeout) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, athenaClient, s3Client, pollingStrategy);
+        return new ConcreteConnectionConfiguration(settings.withQueryTimeout(queryTimeout), this);
+    }
+
+    @Override
+    public ResultLoadingStrategy resultLoadingStrategy() {
+        return settings.getResultLoadingStrategy();
     }
 
     @Override
     public Result createResult(QueryExecution queryExecution) {
+        ResultLoadingStrategy resultLoadingStrategy = settings.getResultLoadingStrategy();
         if (resultLoadingStrategy == ResultLoadingStrategy.GET_EXECUTION_RESULTS) {
             return new PreloadingStandardResult(athenaClient(), queryExecution, StandardResult.MAX_FETCH_SIZE, Duration.ofSeconds(10));
         } else if (resultLoadingStrategy == ResultLoadingStrategy.S3) {
-            return new S3Result(s3Client(), queryExecution, Duration.ofSeconds(10));
+            return new S3Result(s3Client(), queryExecution, Duration.ofSeconds(10), settings.getResultSettings(), downloadMetrics);
         } else {
             throw new IllegalStateException(String.format("No such result loading strategy: %s", queryExecution));
         }
@@ -118,13 +145,6 @@ class ConcreteConnectionConfiguration implements ConnectionConfiguration {
 
     @Override
     public void close() {
-        if (athenaClient != null) {
-            athenaClient.close();
-            athenaClient = null;
-        }
-        if (s3Client != null) {
-            s3Client.close();
-            s3Client = null;
-        }
+        clients.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.metadata.CatalogCache;
+import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The Athena and S3 clients and the catalog cache of a connection, which
+ * are acquired from the shared clients the first time they are used.
+ *
+ * Opening a connection or creating a statement does not create any clients,
+ * and the S3 client is never created for connections that don't load
+ * results from S3. All copies of a connection's configuration use the same
+ * instance, so that clients acquired through a copy are released when the
+ * connection is closed.
+ *
+ * A lock is used rather than synchronized methods because every request
+ * passes through here, and a virtual thread that blocks while holding a
+ * monitor pins its carrier thread.
+ */
+class ConnectionClients {
+    private final ClientKey clientKey;
+    private final SharedClients<ClientKey, AthenaAsyncClient> athenaClients;
+    private final SharedClients<ClientKey, S3AsyncClient> s3Clients;
+    private final CatalogKey catalogKey;
+    private final SharedClients<CatalogKey, CatalogCache> catalogCaches;
+    private final Lock lock;
+
+    private AthenaAsyncClient athenaClient;
+    private S3AsyncClient s3Client;
+    private CatalogCache catalogCache;
+
+    ConnectionClients(ClientKey clientKey, SharedClients<ClientKey, AthenaAsyncClient> athenaClients, SharedClients<ClientKey, S3AsyncClient> s3Clients, CatalogKey catalogKey, SharedClients<CatalogKey, CatalogCache> catalogCaches) {
+        this.clientKey = clientKey;
+        this.athenaClients = athenaClients;
+        this.s3Clients = s3Clients;
+        this.catalogKey = catalogKey;
+        this.catalogCaches = catalogCaches;
+        this.lock = new ReentrantLock();
+        this.athenaClient = null;
+        this.s3Client = null;
+        this.catalogCache = null;
+    }
+
+    AthenaAsyncClient athenaClient() {
+        lock.lock();
+        try {
+            if (athenaClient == null) {
+                athenaClient = athenaClients.acquire(clientKey);
+            }
+            return athenaClient;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    S3AsyncClient s3Client() {
+        lock.lock();
+        try {
+            if (s3Client == null) {
+                s3Client = s3Clients.acquire(clientKey);
+            }
+            return s3Client;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CatalogCache catalogCache() {
+        lock.lock();
+        try {
+            if (catalogCache == null) {
+                catalogCache = catalogCaches.acquire(catalogKey);
+            }
+            return catalogCache;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            if (athenaClient != null) {
+                athenaClients.release(clientKey, athenaClient);
+                athenaClient = null;
+            }
+            if (s3Client != null) {
+                s3Clients.release(clientKey, s3Client);
+                s3Client = null;
+            }
+            if (catalogCache != null) {
+                catalogCaches.release(catalogKey, catalogCache);
+                catalogCache = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
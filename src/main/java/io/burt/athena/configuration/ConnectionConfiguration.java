@@ -1,7 +1,9 @@
 package io.burt.athena.configuration;
 
+import io.burt.athena.metadata.CatalogCache;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.s3.DownloadMetrics;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
@@ -23,8 +25,18 @@ public interface ConnectionConfiguration extends AutoCloseable {
 
     S3AsyncClient s3Client();
 
+    CatalogCache catalogCache();
+
     PollingStrategy pollingStrategy();
 
+    DownloadMetrics downloadMetrics();
+
+    WorkGroupBalancer workGroupBalancer();
+
+    QueryScheduler queryScheduler();
+
+    ResultLoadingStrategy resultLoadingStrategy();
+
     ConnectionConfiguration withDatabaseName(String databaseName);
 
     ConnectionConfiguration withNetworkTimeout(Duration timeout);
@@ -1,12 +1,98 @@
 package io.burt.athena.configuration;
 
+import io.burt.athena.metadata.Catalog;
+import io.burt.athena.metadata.CatalogCache;
+import io.burt.athena.metadata.GlueCatalog;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
+import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.athena.AthenaAsyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 
-import java.time.Duration;
+import java.time.Clock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
+/**
+ * Creates the configurations of connections.
+ *
+ * The Athena and S3 clients of the connections are shared between all
+ * connections created by the same factory for the same region, so that
+ * opening a connection does not create new thread pools and HTTP connection
+ * pools. A client is closed when the last connection using it is closed.
+ * Connections with different HTTP client settings get different clients.
+ *
+ * No clients are created until a connection first sends a request, so
+ * loading the driver and opening connections stays cheap.
+ *
+ * The catalog caches that back the database metadata of the connections
+ * are shared the same way, so that all connections with the same settings
+ * browse the same cached catalog.
+ */
 public class ConnectionConfigurationFactory {
-    public ConnectionConfiguration createConnectionConfiguration(Region awsRegion, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy) {
-        return new ConcreteConnectionConfiguration(awsRegion, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy);
+    private static final int CATALOG_MAX_CONCURRENT_REQUESTS = 8;
+
+    private final SharedClients<ClientKey, AthenaAsyncClient> athenaClients;
+    private final SharedClients<ClientKey, S3AsyncClient> s3Clients;
+    private final SharedClients<CatalogKey, CatalogCache> catalogCaches;
+
+    public ConnectionConfigurationFactory() {
+        this(builder -> { }, builder -> { });
     }
-}
 
+    /**
+     * Creates a factory that lets the Athena and S3 client builders be
+     * customized before the clients are built, for example to send requests
+     * to a different endpoint.
+     *
+     * @param athenaClientCustomizer called with the builder of each Athena client
+     * @param s3ClientCustomizer called with the builder of each S3 client
+     */
+    public ConnectionConfigurationFactory(Consumer<AthenaAsyncClientBuilder> athenaClientCustomizer, Consumer<S3AsyncClientBuilder> s3ClientCustomizer) {
+        this(athenaClientCustomizer, s3ClientCustomizer, ConnectionConfigurationFactory::createGlueCatalog);
+    }
+
+    /**
+     * Creates a factory that also lets the catalog that backs the database
+     * metadata be replaced, for example with a catalog that sends its
+     * requests to a different endpoint.
+     *
+     * @param athenaClientCustomizer called with the builder of each Athena client
+     * @param s3ClientCustomizer called with the builder of each S3 client
+     * @param catalogFactory creates the catalog for a region and the HTTP
+     *                       client settings of a connection
+     */
+    public ConnectionConfigurationFactory(Consumer<AthenaAsyncClientBuilder> athenaClientCustomizer, Consumer<S3AsyncClientBuilder> s3ClientCustomizer, BiFunction<Region, HttpClientSettings, Catalog> catalogFactory) {
+        this.athenaClients = new SharedClients<>(key -> {
+            AthenaAsyncClientBuilder builder = AthenaAsyncClient.builder().region(key.region());
+            key.httpClientSettings().applyTo(builder);
+            athenaClientCustomizer.accept(builder);
+            return builder.build();
+        });
+        this.s3Clients = new SharedClients<>(key -> {
+            S3AsyncClientBuilder builder = S3AsyncClient.builder().region(key.region());
+            key.httpClientSettings().applyTo(builder);
+            s3ClientCustomizer.accept(builder);
+            return builder.build();
+        });
+        this.catalogCaches = new SharedClients<>(key -> new CatalogCache(catalogFactory.apply(key.clientKey().region(), key.clientKey().httpClientSettings()), key.timeToLive(), CATALOG_MAX_CONCURRENT_REQUESTS, Clock.systemUTC(), key.snapshotPath()));
+    }
+
+    private static Catalog createGlueCatalog(Region region, HttpClientSettings httpClientSettings) {
+        Region catalogRegion = region == null ? new DefaultAwsRegionProviderChain().getRegion() : region;
+        boolean ownsHttpClient = httpClientSettings.getHttpClient() == null;
+        return new GlueCatalog(
+                GlueCatalog.defaultEndpoint(catalogRegion),
+                catalogRegion,
+                DefaultCredentialsProvider.create(),
+                ownsHttpClient ? httpClientSettings.createNettyBuilder().build() : httpClientSettings.getHttpClient(),
+                ownsHttpClient
+        );
+    }
+
+    public ConnectionConfiguration createConnectionConfiguration(ConnectionSettings settings) {
+        return new ConcreteConnectionConfiguration(settings, athenaClients, s3Clients, catalogCaches);
+    }
+}
@@ -0,0 +1,253 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.result.S3ResultSettings;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The settings of a connection, see
+ * {@link ConnectionConfigurationFactory#createConnectionConfiguration(ConnectionSettings)}.
+ *
+ * The default settings are the ones the driver uses when a connection has
+ * no properties: queries run in the default database and the primary work
+ * group, results are loaded from S3, and there is no limit on the number
+ * of concurrent queries.
+ */
+public class ConnectionSettings {
+    private final Region region;
+    private final String databaseName;
+    private final String workGroupName;
+    private final String outputLocation;
+    private final Duration networkTimeout;
+    private final Duration queryTimeout;
+    private final ResultLoadingStrategy resultLoadingStrategy;
+    private final S3ResultSettings resultSettings;
+    private final List<WorkGroup> workGroups;
+    private final int maxConcurrentQueries;
+    private final int reservedInteractiveQueries;
+    private final Duration batchAgingTimeout;
+    private final HttpClientSettings httpClientSettings;
+    private final Duration catalogCacheTimeToLive;
+    private final Path catalogSnapshotPath;
+
+    /**
+     * Creates the default settings.
+     */
+    public ConnectionSettings() {
+        this(null, "default", null, null, Duration.ofMinutes(1), Duration.ofMinutes(30), ResultLoadingStrategy.S3, new S3ResultSettings(), Collections.emptyList(), 0, 0, Duration.ofMinutes(1), new HttpClientSettings(), Duration.ofMinutes(5), null);
+    }
+
+    private ConnectionSettings(Region region, String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, ResultLoadingStrategy resultLoadingStrategy, S3ResultSettings resultSettings, List<WorkGroup> workGroups, int maxConcurrentQueries, int reservedInteractiveQueries, Duration batchAgingTimeout, HttpClientSettings httpClientSettings, Duration catalogCacheTimeToLive, Path catalogSnapshotPath) {
+        this.region = region;
+        this.databaseName = databaseName;
+        this.workGroupName = workGroupName;
+        this.outputLocation = outputLocation;
+        this.networkTimeout = networkTimeout;
+        this.queryTimeout = queryTimeout;
+        this.resultLoadingStrategy = resultLoadingStrategy;
+        this.resultSettings = resultSettings;
+        this.workGroups = workGroups;
+        this.maxConcurrentQueries = maxConcurrentQueries;
+        this.reservedInteractiveQueries = reservedInteractiveQueries;
+        this.batchAgingTimeout = batchAgingTimeout;
+        this.httpClientSettings = httpClientSettings;
+        this.catalogCacheTimeToLive = catalogCacheTimeToLive;
+        this.catalogSnapshotPath = catalogSnapshotPath;
+    }
+
+    /**
+     * @param region the region to send requests to, or null to use the
+     *               default region of the environment
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withRegion(Region region) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param databaseName the database that queries run in
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withDatabaseName(String databaseName) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param workGroupName the work group that queries run in, or null to use
+     *                      the primary work group
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withWorkGroupName(String workGroupName) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param outputLocation the S3 URI that query results are written to, or
+     *                       null to use the location of the work group
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withOutputLocation(String outputLocation) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param networkTimeout how long to wait for the response to a request
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withNetworkTimeout(Duration networkTimeout) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param queryTimeout how long to wait for a query to complete
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withQueryTimeout(Duration queryTimeout) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param resultLoadingStrategy how to load the results of queries
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withResultLoadingStrategy(ResultLoadingStrategy resultLoadingStrategy) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param resultSettings how results are downloaded and parsed when they
+     *                       are loaded from S3
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withResultSettings(S3ResultSettings resultSettings) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param workGroups the work groups to balance queries over, or an empty
+     *                   list to run all queries in the work group of the
+     *                   connection
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withWorkGroups(List<WorkGroup> workGroups) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param maxConcurrentQueries the maximum number of queries the connection
+     *                             runs at the same time, or zero for no limit
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withMaxConcurrentQueries(int maxConcurrentQueries) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param reservedInteractiveQueries the number of query slots that only
+     *                                   interactive queries can use
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withReservedInteractiveQueries(int reservedInteractiveQueries) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param batchAgingTimeout how long a batch query waits before it is
+     *                          treated like an interactive query
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withBatchAgingTimeout(Duration batchAgingTimeout) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param httpClientSettings the settings of the HTTP clients that the
+     *                           Athena and S3 clients send requests with
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withHttpClientSettings(HttpClientSettings httpClientSettings) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param catalogCacheTimeToLive how long the catalog behind the database
+     *                               metadata is cached
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withCatalogCacheTimeToLive(Duration catalogCacheTimeToLive) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    /**
+     * @param catalogSnapshotPath the file to persist the catalog cache to
+     *                            between runs, or null to not persist it
+     * @return a copy of these settings with the new value
+     */
+    public ConnectionSettings withCatalogSnapshotPath(Path catalogSnapshotPath) {
+        return new ConnectionSettings(region, databaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, resultLoadingStrategy, resultSettings, workGroups, maxConcurrentQueries, reservedInteractiveQueries, batchAgingTimeout, httpClientSettings, catalogCacheTimeToLive, catalogSnapshotPath);
+    }
+
+    public Region getRegion() {
+        return region;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public String getWorkGroupName() {
+        return workGroupName;
+    }
+
+    public String getOutputLocation() {
+        return outputLocation;
+    }
+
+    public Duration getNetworkTimeout() {
+        return networkTimeout;
+    }
+
+    public Duration getQueryTimeout() {
+        return queryTimeout;
+    }
+
+    public ResultLoadingStrategy getResultLoadingStrategy() {
+        return resultLoadingStrategy;
+    }
+
+    public S3ResultSettings getResultSettings() {
+        return resultSettings;
+    }
+
+    public List<WorkGroup> getWorkGroups() {
+        return workGroups;
+    }
+
+    public int getMaxConcurrentQueries() {
+        return maxConcurrentQueries;
+    }
+
+    public int getReservedInteractiveQueries() {
+        return reservedInteractiveQueries;
+    }
+
+    public Duration getBatchAgingTimeout() {
+        return batchAgingTimeout;
+    }
+
+    public HttpClientSettings getHttpClientSettings() {
+        return httpClientSettings;
+    }
+
+    public Duration getCatalogCacheTimeToLive() {
+        return catalogCacheTimeToLive;
+    }
+
+    public Path getCatalogSnapshotPath() {
+        return catalogSnapshotPath;
+    }
+}
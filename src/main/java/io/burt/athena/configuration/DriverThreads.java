@@ -0,0 +1,34 @@
+package io.burt.athena.configuration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Creates the threads that the driver runs result pipelines and merges on.
+ *
+ * This version, which is used on Java 8 to 20, starts a daemon platform
+ * thread for each task. The JAR is a multi-release JAR, and on Java 21 and
+ * later a version of this class that starts virtual threads is used instead,
+ * so that the blocking waits of these tasks don't tie up platform threads.
+ */
+public final class DriverThreads {
+    private DriverThreads() { }
+
+    /**
+     * @param name the name of the threads
+     * @return an executor that runs each task on a new thread
+     */
+    public static Executor newThreadPerTaskExecutor(String name) {
+        return task -> {
+            Thread thread = new Thread(task, name);
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+
+    /**
+     * @return whether the executors created by this class use virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,200 @@
+package io.burt.athena.configuration;
+
+import software.amazon.awssdk.core.client.builder.SdkAsyncClientBuilder;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Settings for the HTTP clients that the Athena and S3 clients of a
+ * connection send their requests with.
+ *
+ * By default the SDK's Netty based client is used with its default
+ * settings. Settings that are not set keep their SDK defaults. When an HTTP
+ * client instance is given all other settings are ignored, and the client
+ * is not closed by the driver.
+ */
+public class HttpClientSettings {
+    private final Integer maxConcurrency;
+    private final Integer maxPendingConnectionAcquires;
+    private final Duration connectionTimeToLive;
+    private final Duration connectionMaxIdleTime;
+    private final Boolean useIdleConnectionReaper;
+    private final Integer eventLoopThreads;
+    private final SdkAsyncHttpClient httpClient;
+
+    /**
+     * Creates settings that use the SDK defaults.
+     */
+    public HttpClientSettings() {
+        this(null, null, null, null, null, null, null);
+    }
+
+    private HttpClientSettings(Integer maxConcurrency, Integer maxPendingConnectionAcquires, Duration connectionTimeToLive, Duration connectionMaxIdleTime, Boolean useIdleConnectionReaper, Integer eventLoopThreads, SdkAsyncHttpClient httpClient) {
+        this.maxConcurrency = maxConcurrency;
+        this.maxPendingConnectionAcquires = maxPendingConnectionAcquires;
+        this.connectionTimeToLive = connectionTimeToLive;
+        this.connectionMaxIdleTime = connectionMaxIdleTime;
+        this.useIdleConnectionReaper = useIdleConnectionReaper;
+        this.eventLoopThreads = eventLoopThreads;
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * @param maxConcurrency the maximum number of open connections per
+     *                       client, which also limits the number of
+     *                       concurrent requests
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withMaxConcurrency(Integer maxConcurrency) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param maxPendingConnectionAcquires the maximum number of requests that
+     *                                     can wait for a connection when all
+     *                                     connections are in use
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withMaxPendingConnectionAcquires(Integer maxPendingConnectionAcquires) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param connectionTimeToLive how long a connection is kept open before
+     *                             it is closed, regardless of whether it is
+     *                             in use
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withConnectionTimeToLive(Duration connectionTimeToLive) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param connectionMaxIdleTime how long a connection can be idle before
+     *                              it is closed by the idle connection reaper
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param useIdleConnectionReaper whether idle connections are closed in
+     *                                the background
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withUseIdleConnectionReaper(Boolean useIdleConnectionReaper) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param eventLoopThreads the number of threads that perform the I/O of
+     *                         each client
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withEventLoopThreads(Integer eventLoopThreads) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    /**
+     * @param httpClient an HTTP client to use instead of a Netty based client
+     *                   created from these settings
+     * @return a copy of these settings with the new value
+     */
+    public HttpClientSettings withHttpClient(SdkAsyncHttpClient httpClient) {
+        return new HttpClientSettings(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Integer getMaxPendingConnectionAcquires() {
+        return maxPendingConnectionAcquires;
+    }
+
+    public Duration getConnectionTimeToLive() {
+        return connectionTimeToLive;
+    }
+
+    public Duration getConnectionMaxIdleTime() {
+        return connectionMaxIdleTime;
+    }
+
+    public Boolean getUseIdleConnectionReaper() {
+        return useIdleConnectionReaper;
+    }
+
+    public Integer getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    public SdkAsyncHttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    boolean isDefault() {
+        return equals(new HttpClientSettings());
+    }
+
+    void applyTo(SdkAsyncClientBuilder<?, ?> clientBuilder) {
+        if (httpClient != null) {
+            clientBuilder.httpClient(httpClient);
+        } else if (!isDefault()) {
+            clientBuilder.httpClientBuilder(createNettyBuilder());
+        }
+    }
+
+    NettyNioAsyncHttpClient.Builder createNettyBuilder() {
+        NettyNioAsyncHttpClient.Builder builder = NettyNioAsyncHttpClient.builder();
+        if (maxConcurrency != null) {
+            builder.maxConcurrency(maxConcurrency);
+        }
+        if (maxPendingConnectionAcquires != null) {
+            builder.maxPendingConnectionAcquires(maxPendingConnectionAcquires);
+        }
+        if (connectionTimeToLive != null) {
+            builder.connectionTimeToLive(connectionTimeToLive);
+        }
+        if (connectionMaxIdleTime != null) {
+            builder.connectionMaxIdleTime(connectionMaxIdleTime);
+        }
+        if (useIdleConnectionReaper != null) {
+            builder.useIdleConnectionReaper(useIdleConnectionReaper);
+        }
+        if (eventLoopThreads != null) {
+            builder.eventLoopGroupBuilder(SdkEventLoopGroup.builder().numberOfThreads(eventLoopThreads));
+        }
+        return builder;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof HttpClientSettings) {
+            HttpClientSettings otherSettings = (HttpClientSettings) other;
+            return Objects.equals(maxConcurrency, otherSettings.maxConcurrency)
+                    && Objects.equals(maxPendingConnectionAcquires, otherSettings.maxPendingConnectionAcquires)
+                    && Objects.equals(connectionTimeToLive, otherSettings.connectionTimeToLive)
+                    && Objects.equals(connectionMaxIdleTime, otherSettings.connectionMaxIdleTime)
+                    && Objects.equals(useIdleConnectionReaper, otherSettings.useIdleConnectionReaper)
+                    && Objects.equals(eventLoopThreads, otherSettings.eventLoopThreads)
+                    && httpClient == otherSettings.httpClient;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, System.identityHashCode(httpClient));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HttpClientSettings(maxConcurrency=%s, maxPendingConnectionAcquires=%s, connectionTimeToLive=%s, connectionMaxIdleTime=%s, useIdleConnectionReaper=%s, eventLoopThreads=%s, httpClient=%s)", maxConcurrency, maxPendingConnectionAcquires, connectionTimeToLive, connectionMaxIdleTime, useIdleConnectionReaper, eventLoopThreads, httpClient);
+    }
+}
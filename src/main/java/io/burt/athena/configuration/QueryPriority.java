@@ -0,0 +1,10 @@
+package io.burt.athena.configuration;
+
+/**
+ * The lane a query waits in when a connection limits how many queries it
+ * runs at the same time, see {@link QueryScheduler}.
+ */
+public enum QueryPriority {
+    INTERACTIVE,
+    BATCH
+}
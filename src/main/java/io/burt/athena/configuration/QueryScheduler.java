@@ -0,0 +1,258 @@
+package io.burt.athena.configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits how many queries a connection runs at the same time, and decides
+ * which waiting query to start when a slot becomes free.
+ *
+ * Interactive queries are always started before batch queries, and a number
+ * of slots are reserved for them so that batch queries can never occupy all
+ * slots. To avoid starving batch queries, a batch query that has waited for
+ * longer than the aging timeout is treated like an interactive query: it can
+ * use the reserved slots, and it competes with interactive queries in the
+ * order they were queued.
+ *
+ * A scheduler is shared by all statements of a connection and is thread safe.
+ * The timer thread that ages batch queries only exists while at least one
+ * batch query is waiting, so a scheduler never leaves a thread behind.
+ */
+public class QueryScheduler {
+    private final int maxConcurrency;
+    private final int reservedInteractive;
+    private final Duration agingTimeout;
+    private final Clock clock;
+    private final Map<QueryPriority, Queue<Waiter>> lanes;
+    private final Map<QueryPriority, LongAdder> startCounts;
+    private final Map<QueryPriority, LongAdder> queueTimeMillis;
+
+    private int running;
+    private ScheduledExecutorService agingExecutor;
+    private int agingWaiters;
+
+    /**
+     * @param maxConcurrency the maximum number of queries to run at the same
+     *                       time, must be at least one
+     * @param reservedInteractive the number of slots that only interactive
+     *                            and aged batch queries can use
+     * @param agingTimeout how long a batch query waits before it is treated
+     *                     like an interactive query
+     */
+    public QueryScheduler(int maxConcurrency, int reservedInteractive, Duration agingTimeout) {
+        this(maxConcurrency, reservedInteractive, agingTimeout, Clock.systemUTC());
+    }
+
+    QueryScheduler(int maxConcurrency, int reservedInteractive, Duration agingTimeout, Clock clock) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("The max concurrency must be at least 1 (got %d)", maxConcurrency));
+        }
+        if (reservedInteractive < 0 || reservedInteractive >= maxConcurrency) {
+            throw new IllegalArgumentException(String.format("The number of reserved interactive slots must be at least 0 and less than the max concurrency (got %d)", reservedInteractive));
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.reservedInteractive = reservedInteractive;
+        this.agingTimeout = agingTimeout;
+        this.clock = clock;
+        this.lanes = new EnumMap<>(QueryPriority.class);
+        this.startCounts = new EnumMap<>(QueryPriority.class);
+        this.queueTimeMillis = new EnumMap<>(QueryPriority.class);
+        for (QueryPriority priority : QueryPriority.values()) {
+            lanes.put(priority, new ArrayDeque<>());
+            startCounts.put(priority, new LongAdder());
+            queueTimeMillis.put(priority, new LongAdder());
+        }
+        this.running = 0;
+        this.agingExecutor = null;
+        this.agingWaiters = 0;
+    }
+
+    /**
+     * Queues a query in the lane of its priority.
+     *
+     * The returned future completes when the query may start, and the slot
+     * must then be given back with {@link #release()}. Cancelling the future
+     * before it completes removes the query from the queue.
+     *
+     * @param priority the priority of the query
+     * @return a future that completes when the query may start
+     */
+    public CompletableFuture<Void> acquire(QueryPriority priority) {
+        Waiter waiter = new Waiter(priority, clock.instant());
+        synchronized (this) {
+            lanes.get(priority).add(waiter);
+        }
+        dispatch();
+        if (priority == QueryPriority.BATCH && !waiter.future.isDone()) {
+            startAging(waiter);
+        }
+        return waiter.future;
+    }
+
+    private void startAging(Waiter waiter) {
+        synchronized (this) {
+            if (agingWaiters == 0) {
+                agingExecutor = Executors.newSingleThreadScheduledExecutor(task -> {
+                    Thread thread = new Thread(task, "athena-query-scheduler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            agingWaiters++;
+        }
+        waiter.future.whenComplete((v, t) -> stopAging());
+        scheduleAging(waiter, agingTimeout);
+    }
+
+    private synchronized void stopAging() {
+        agingWaiters--;
+        if (agingWaiters == 0) {
+            agingExecutor.shutdown();
+            agingExecutor = null;
+        }
+    }
+
+    private synchronized void scheduleAging(Waiter waiter, Duration delay) {
+        if (agingExecutor == null || waiter.future.isDone()) {
+            return;
+        }
+        agingExecutor.schedule(() -> {
+            dispatch();
+            if (!waiter.future.isDone()) {
+                Duration remaining = Duration.between(clock.instant(), waiter.queuedAt.plus(agingTimeout));
+                if (!remaining.isNegative() && !remaining.isZero()) {
+                    scheduleAging(waiter, remaining);
+                }
+            }
+        }, Math.max(1, delay.toMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Gives back a slot acquired with {@link #acquire(QueryPriority)}, and
+     * starts the next waiting query, if any.
+     */
+    public void release() {
+        synchronized (this) {
+            if (running > 0) {
+                running--;
+            }
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            Instant now = clock.instant();
+            Waiter next;
+            while ((next = next(now)) != null) {
+                lanes.get(next.priority).remove();
+                running++;
+                startCounts.get(next.priority).increment();
+                queueTimeMillis.get(next.priority).add(Duration.between(next.queuedAt, now).toMillis());
+                granted.add(next);
+            }
+        }
+        for (Waiter waiter : granted) {
+            if (!waiter.future.complete(null)) {
+                release();
+            }
+        }
+    }
+
+    private Waiter next(Instant now) {
+        if (running >= maxConcurrency) {
+            return null;
+        }
+        Waiter interactive = head(QueryPriority.INTERACTIVE);
+        Waiter batch = head(QueryPriority.BATCH);
+        boolean batchAged = batch != null && isAged(batch, now);
+        if (batchAged && (interactive == null || batch.queuedAt.isBefore(interactive.queuedAt))) {
+            return batch;
+        } else if (interactive != null) {
+            return interactive;
+        } else if (batch != null && running < maxConcurrency - reservedInteractive) {
+            return batch;
+        } else {
+            return null;
+        }
+    }
+
+    private boolean isAged(Waiter waiter, Instant now) {
+        return !waiter.queuedAt.plus(agingTimeout).isAfter(now);
+    }
+
+    private Waiter head(QueryPriority priority) {
+        Queue<Waiter> lane = lanes.get(priority);
+        while (!lane.isEmpty() && lane.peek().future.isDone()) {
+            lane.remove();
+        }
+        return lane.peek();
+    }
+
+    /**
+     * @return the number of queries that currently hold a slot
+     */
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    synchronized boolean isAging() {
+        return agingExecutor != null;
+    }
+
+    /**
+     * @param priority a lane
+     * @return the number of queries waiting in the lane
+     */
+    public synchronized int getQueuedCount(QueryPriority priority) {
+        int count = 0;
+        for (Waiter waiter : lanes.get(priority)) {
+            if (!waiter.future.isDone()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param priority a lane
+     * @return the number of queries from the lane that have been started
+     */
+    public long getStartCount(QueryPriority priority) {
+        return startCounts.get(priority).sum();
+    }
+
+    /**
+     * @param priority a lane
+     * @return the total time that the started queries of the lane waited
+     *         for a slot
+     */
+    public Duration getTotalQueueTime(QueryPriority priority) {
+        return Duration.ofMillis(queueTimeMillis.get(priority).sum());
+    }
+
+    private static class Waiter {
+        final QueryPriority priority;
+        final Instant queuedAt;
+        final CompletableFuture<Void> future;
+
+        Waiter(QueryPriority priority, Instant queuedAt) {
+            this.priority = priority;
+            this.queuedAt = queuedAt;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.burt.athena.configuration;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Hands out one client per key to every connection that asks for it, and
+ * closes the client when the last connection using it has released it.
+ *
+ * Clients are created with the default credentials provider chain, so the
+ * key only needs to contain the region and the HTTP client settings.
+ * Clients are built while holding a lock rather than a monitor, so that
+ * virtual threads waiting for a client don't pin their carrier threads.
+ */
+class SharedClients<K, C extends SdkAutoCloseable> {
+    private final Function<K, C> clientFactory;
+    private final Map<K, Entry<C>> entries;
+    private final Lock lock;
+
+    SharedClients(Function<K, C> clientFactory) {
+        this.clientFactory = clientFactory;
+        this.entries = new HashMap<>();
+        this.lock = new ReentrantLock();
+    }
+
+    C acquire(K key) {
+        lock.lock();
+        try {
+            Entry<C> entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>(clientFactory.apply(key));
+                entries.put(key, entry);
+            }
+            entry.references++;
+            return entry.client;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void release(K key, C client) {
+        lock.lock();
+        try {
+            Entry<C> entry = entries.get(key);
+            if (entry != null && entry.client == client) {
+                entry.references--;
+                if (entry.references == 0) {
+                    entries.remove(key);
+                    client.close();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getReferenceCount(K key) {
+        lock.lock();
+        try {
+            Entry<C> entry = entries.get(key);
+            return entry == null ? 0 : entry.references;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class Entry<C> {
+        final C client;
+
+        int references;
+
+        Entry(C client) {
+            this.client = client;
+            this.references = 0;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package io.burt.athena.configuration;
+
+/**
+ * A work group that queries can be balanced across, see
+ * {@link WorkGroupBalancer}.
+ */
+public class WorkGroup {
+    private final String name;
+    private final int weight;
+    private final int maxConcurrency;
+
+    /**
+     * @param name the name of the work group
+     * @param weight the relative share of the queries the work group should
+     *               get, must be at least one
+     * @param maxConcurrency the maximum number of queries to run in the work
+     *                       group at the same time, or zero for no limit
+     */
+    public WorkGroup(String name, int weight, int maxConcurrency) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("A work group must have a name");
+        }
+        if (weight < 1) {
+            throw new IllegalArgumentException(String.format("The weight of a work group must be at least 1 (got %d)", weight));
+        }
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException(String.format("The max concurrency of a work group can not be negative (got %d)", maxConcurrency));
+        }
+        this.name = name;
+        this.weight = weight;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof WorkGroup) {
+            WorkGroup otherWorkGroup = (WorkGroup) other;
+            return name.equals(otherWorkGroup.name) && weight == otherWorkGroup.weight && maxConcurrency == otherWorkGroup.maxConcurrency;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return (name.hashCode() * 31 + weight) * 31 + maxConcurrency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%d:%d", name, weight, maxConcurrency);
+    }
+}
@@ -0,0 +1,139 @@
+package io.burt.athena.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Picks the work group to start each query in.
+ *
+ * Each work group's load is its number of in-flight queries divided by its
+ * weight, scaled up by how long its recent queries have been queued. Queries
+ * are started in the least loaded work group that is below its concurrency
+ * limit. The limits are soft: when every work group is at its limit the
+ * least loaded one is picked anyway, and Athena queues the query.
+ *
+ * A balancer is shared by all statements of a connection and is thread safe.
+ */
+public class WorkGroupBalancer {
+    private static final double QUEUE_TIME_SMOOTHING = 0.2;
+    private static final double QUEUE_TIME_SCALE_MILLIS = 1000.0;
+
+    private final List<State> states;
+
+    public WorkGroupBalancer(List<WorkGroup> workGroups) {
+        if (workGroups.isEmpty()) {
+            throw new IllegalArgumentException("At least one work group is required");
+        }
+        this.states = new ArrayList<>(workGroups.size());
+        for (WorkGroup workGroup : workGroups) {
+            states.add(new State(workGroup));
+        }
+    }
+
+    /**
+     * Picks the work group to start a query in and counts the query as in
+     * flight in it until {@link #release(String)} is called.
+     *
+     * @return the name of the work group
+     */
+    public synchronized String acquire() {
+        State best = null;
+        boolean bestEligible = false;
+        for (State state : states) {
+            boolean eligible = state.isBelowLimit();
+            if (best == null || (eligible && !bestEligible) || (eligible == bestEligible && state.load() < best.load())) {
+                best = state;
+                bestEligible = eligible;
+            }
+        }
+        best.inFlight++;
+        return best.workGroup.getName();
+    }
+
+    /**
+     * Records that a query in the work group has completed, failed, or was
+     * stopped.
+     *
+     * @param name the name returned by {@link #acquire()}
+     */
+    public synchronized void release(String name) {
+        State state = find(name);
+        if (state.inFlight > 0) {
+            state.inFlight--;
+        }
+    }
+
+    /**
+     * Records how long a query waited in the work group's queue before it
+     * started running.
+     *
+     * @param name the name returned by {@link #acquire()}
+     * @param queueTime the time from when the query was started until it
+     *                  was first seen running
+     */
+    public synchronized void recordQueueTime(String name, Duration queueTime) {
+        State state = find(name);
+        double millis = queueTime.toMillis();
+        if (state.queueTimeMillis < 0) {
+            state.queueTimeMillis = millis;
+        } else {
+            state.queueTimeMillis += QUEUE_TIME_SMOOTHING * (millis - state.queueTimeMillis);
+        }
+    }
+
+    /**
+     * @param name the name of a work group
+     * @return the number of queries currently in flight in the work group
+     */
+    public synchronized int getInFlight(String name) {
+        return find(name).inFlight;
+    }
+
+    /**
+     * @param name the name of a work group
+     * @return the smoothed queue time of recent queries in the work group
+     */
+    public synchronized Duration getRecentQueueTime(String name) {
+        return Duration.ofMillis(Math.max(0, Math.round(find(name).queueTimeMillis)));
+    }
+
+    public List<WorkGroup> getWorkGroups() {
+        List<WorkGroup> workGroups = new ArrayList<>(states.size());
+        for (State state : states) {
+            workGroups.add(state.workGroup);
+        }
+        return workGroups;
+    }
+
+    private State find(String name) {
+        for (State state : states) {
+            if (state.workGroup.getName().equals(name)) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown work group \"%s\"", name));
+    }
+
+    private static class State {
+        final WorkGroup workGroup;
+
+        int inFlight;
+        double queueTimeMillis;
+
+        State(WorkGroup workGroup) {
+            this.workGroup = workGroup;
+            this.inFlight = 0;
+            this.queueTimeMillis = -1;
+        }
+
+        boolean isBelowLimit() {
+            return workGroup.getMaxConcurrency() == 0 || inFlight < workGroup.getMaxConcurrency();
+        }
+
+        double load() {
+            double queuePenalty = 1 + Math.max(0, queueTimeMillis) / QUEUE_TIME_SCALE_MILLIS;
+            return (inFlight + 1) * queuePenalty / workGroup.getWeight();
+        }
+    }
+}
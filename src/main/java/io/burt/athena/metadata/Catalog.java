@@ -0,0 +1,28 @@
+package io.burt.athena.metadata;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A data catalog that lists the databases and tables that queries can use,
+ * one page at a time.
+ *
+ * See {@link GlueCatalog} for the implementation that uses the Glue Data
+ * Catalog, and {@link CatalogCache} for how the pages are combined and
+ * cached.
+ */
+public interface Catalog extends SdkAutoCloseable {
+    /**
+     * @param nextToken the token of the page to load, or null for the first page
+     * @return a page of the databases in the catalog
+     */
+    CompletableFuture<CatalogPage<CatalogDatabase>> getDatabases(String nextToken);
+
+    /**
+     * @param databaseName the database whose tables to list
+     * @param nextToken the token of the page to load, or null for the first page
+     * @return a page of the tables in the database
+     */
+    CompletableFuture<CatalogPage<CatalogTable>> getTables(String databaseName, String nextToken);
+}
@@ -0,0 +1,432 @@
+package io.burt.athena.metadata;
+
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Lists the databases and tables of a {@link Catalog} and keeps them in
+ * memory, so that browsing the catalog from a SQL IDE or BI tool does not
+ * send a request for every click.
+ *
+ * The list of databases and the tables of each database are cached
+ * separately, for the given time to live. When an entry is read after half
+ * of its time to live has passed it is reloaded in the background while the
+ * cached value continues to be returned, so that entries that are used
+ * regularly are never read from the catalog in the foreground. Concurrent
+ * reads of an entry that is being loaded wait for the same load.
+ *
+ * The pages of each database's tables have to be loaded one after the other,
+ * but the tables of different databases are loaded in parallel, with at most
+ * the given number of requests in flight.
+ *
+ * When the cache is given a snapshot file the databases and tables saved in
+ * it are restored when the cache is created, so that a SQL IDE can browse the
+ * catalog immediately after it starts. The restored entries are reconciled
+ * with the catalog in the background: the list of databases is reloaded, and
+ * the tables of the databases whose update time has changed are reloaded
+ * too. The snapshot is saved again when the reconciliation is done and when
+ * the cache is closed.
+ */
+public class CatalogCache implements SdkAutoCloseable {
+    private static final String DATABASES_KEY = "";
+
+    private final Catalog catalog;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Map<String, Entry<List<CatalogDatabase>>> databases;
+    private final Map<String, Entry<List<CatalogTable>>> tables;
+    private final RequestLimiter requestLimiter;
+    private final Path snapshotPath;
+    private final AtomicLong loadedPages;
+    private final AtomicBoolean closed;
+
+    /**
+     * @param catalog the catalog to load databases and tables from
+     * @param timeToLive how long loaded databases and tables are used before
+     *                   they are loaded again
+     * @param maxConcurrentRequests the maximum number of requests to send to
+     *                              the catalog at the same time
+     * @param clock the clock used to determine the age of cached entries
+     */
+    public CatalogCache(Catalog catalog, Duration timeToLive, int maxConcurrentRequests, Clock clock) {
+        this(catalog, timeToLive, maxConcurrentRequests, clock, null);
+    }
+
+    /**
+     * @param catalog the catalog to load databases and tables from
+     * @param timeToLive how long loaded databases and tables are used before
+     *                   they are loaded again
+     * @param maxConcurrentRequests the maximum number of requests to send to
+     *                              the catalog at the same time
+     * @param clock the clock used to determine the age of cached entries
+     * @param snapshotPath the file to restore the cached databases and tables
+     *                     from and to save them to, or null to not save them.
+     *                     A file that does not exist or cannot be read is
+     *                     ignored
+     */
+    public CatalogCache(Catalog catalog, Duration timeToLive, int maxConcurrentRequests, Clock clock, Path snapshotPath) {
+        this.catalog = catalog;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        this.databases = new ConcurrentHashMap<>();
+        this.tables = new ConcurrentHashMap<>();
+        this.requestLimiter = new RequestLimiter(maxConcurrentRequests);
+        this.snapshotPath = snapshotPath;
+        this.loadedPages = new AtomicLong(0);
+        this.closed = new AtomicBoolean(false);
+        if (snapshotPath != null) {
+            restoreSnapshot();
+        }
+    }
+
+    /**
+     * @return all databases in the catalog, ordered by name
+     */
+    public CompletableFuture<List<CatalogDatabase>> getDatabases() {
+        return get(databases, DATABASES_KEY, this::loadDatabases);
+    }
+
+    /**
+     * @param databaseNamePattern a pattern that the names of the databases must match
+     * @param tableNamePattern a pattern that the names of the tables must match
+     * @return the matching tables, ordered by database name and table name
+     */
+    public CompletableFuture<List<CatalogTable>> getTables(NamePattern databaseNamePattern, NamePattern tableNamePattern) {
+        CompletableFuture<List<String>> databaseNames = getDatabases().thenApply(databaseList -> {
+            List<String> names = new ArrayList<>();
+            for (CatalogDatabase database : databaseList) {
+                if (databaseNamePattern.matches(database.getName())) {
+                    names.add(database.getName());
+                }
+            }
+            return names;
+        });
+        return databaseNames.thenCompose(names -> {
+            List<CompletableFuture<List<CatalogTable>>> futures = new ArrayList<>(names.size());
+            for (String name : names) {
+                futures.add(get(tables, name, () -> loadTables(name)));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(v -> {
+                List<CatalogTable> matchingTables = new ArrayList<>();
+                for (CompletableFuture<List<CatalogTable>> future : futures) {
+                    for (CatalogTable table : future.join()) {
+                        if (tableNamePattern.matches(table.getName())) {
+                            matchingTables.add(table);
+                        }
+                    }
+                }
+                return matchingTables;
+            });
+        });
+    }
+
+    /**
+     * Loading the databases or tables can take many pages, and callers that
+     * wait for a load can use this to tell a load that is slow because it has
+     * many pages from one that has stopped.
+     *
+     * @return the number of pages that have been loaded from the catalog
+     */
+    public long getLoadedPageCount() {
+        return loadedPages.get();
+    }
+
+    /**
+     * Removes all cached databases and tables, so that they are loaded again
+     * the next time they are read.
+     */
+    public void invalidate() {
+        databases.clear();
+        tables.clear();
+    }
+
+    private <V> CompletableFuture<V> get(Map<String, Entry<V>> entries, String key, Supplier<CompletableFuture<V>> loader) {
+        while (true) {
+            long now = clock.millis();
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                if (entry.isStale(now) && entry.refreshing.compareAndSet(false, true)) {
+                    refresh(entries, key, entry, loader);
+                }
+                return entry.value;
+            }
+            Entry<V> newEntry = new Entry<>();
+            boolean installed = entry == null ? entries.putIfAbsent(key, newEntry) == null : entries.replace(key, entry, newEntry);
+            if (installed) {
+                load(loader, newEntry);
+                return newEntry.value;
+            }
+        }
+    }
+
+    private <V> void load(Supplier<CompletableFuture<V>> loader, Entry<V> entry) {
+        loader.get().whenComplete((value, t) -> {
+            if (t == null) {
+                entry.loadedAt = clock.millis();
+                entry.value.complete(value);
+            } else {
+                entry.value.completeExceptionally(t);
+            }
+        });
+    }
+
+    private <V> CompletableFuture<V> refresh(Map<String, Entry<V>> entries, String key, Entry<V> entry, Supplier<CompletableFuture<V>> loader) {
+        Entry<V> newEntry = new Entry<>();
+        load(loader, newEntry);
+        return newEntry.value.whenComplete((value, t) -> {
+            if (t == null) {
+                entries.replace(key, entry, newEntry);
+            } else {
+                entry.refreshing.set(false);
+            }
+        });
+    }
+
+    private CompletableFuture<List<CatalogDatabase>> loadDatabases() {
+        List<CatalogDatabase> databaseList = new ArrayList<>();
+        return loadPages(nextToken -> catalog.getDatabases(nextToken), null, databaseList).thenApply(v -> {
+            databaseList.sort((a, b) -> a.getName().compareTo(b.getName()));
+            return Collections.unmodifiableList(databaseList);
+        });
+    }
+
+    private CompletableFuture<List<CatalogTable>> loadTables(String databaseName) {
+        List<CatalogTable> tableList = new ArrayList<>();
+        return loadPages(nextToken -> catalog.getTables(databaseName, nextToken), null, tableList).thenApply(v -> {
+            tableList.sort((a, b) -> a.getName().compareTo(b.getName()));
+            return Collections.unmodifiableList(tableList);
+        });
+    }
+
+    private <T> CompletableFuture<Void> loadPages(PageLoader<T> pageLoader, String nextToken, List<T> items) {
+        return requestLimiter.submit(() -> pageLoader.load(nextToken)).thenCompose(page -> {
+            loadedPages.incrementAndGet();
+            items.addAll(page.getItems());
+            if (page.getNextToken() == null || page.getNextToken().isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            } else {
+                return loadPages(pageLoader, page.getNextToken(), items);
+            }
+        });
+    }
+
+    private void restoreSnapshot() {
+        CatalogSnapshot snapshot;
+        try {
+            snapshot = CatalogSnapshot.read(snapshotPath);
+        } catch (IOException e) {
+            return;
+        }
+        long now = clock.millis();
+        Map<String, Instant> restoredUpdateTimes = new HashMap<>();
+        if (snapshot.getDatabases() != null) {
+            databases.put(DATABASES_KEY, restoredEntry(snapshot.getDatabases(), now));
+            for (CatalogDatabase database : snapshot.getDatabases().getValue()) {
+                restoredUpdateTimes.put(database.getName(), database.getUpdateTime());
+            }
+        }
+        for (Map.Entry<String, CatalogSnapshot.Entry<List<CatalogTable>>> tablesEntry : snapshot.getTables().entrySet()) {
+            tables.put(tablesEntry.getKey(), restoredEntry(tablesEntry.getValue(), now));
+        }
+        reconcile(restoredUpdateTimes);
+    }
+
+    private <V> Entry<V> restoredEntry(CatalogSnapshot.Entry<V> savedEntry, long now) {
+        // Entries that were saved more than half the time to live ago are
+        // restored as stale rather than expired, so that they are returned
+        // immediately and reloaded in the background when they are read
+        Entry<V> entry = new Entry<>();
+        entry.loadedAt = Math.min(now, Math.max(savedEntry.getLoadedAt(), now - timeToLive.toMillis() / 2));
+        entry.value.complete(savedEntry.getValue());
+        return entry;
+    }
+
+    private void reconcile(Map<String, Instant> restoredUpdateTimes) {
+        Entry<List<CatalogDatabase>> databasesEntry = databases.get(DATABASES_KEY);
+        CompletableFuture<List<CatalogDatabase>> reloadedDatabases;
+        if (databasesEntry != null && databasesEntry.refreshing.compareAndSet(false, true)) {
+            reloadedDatabases = refresh(databases, DATABASES_KEY, databasesEntry, this::loadDatabases);
+        } else {
+            reloadedDatabases = getDatabases();
+        }
+        reloadedDatabases.thenCompose(databaseList -> {
+            Set<String> databaseNames = new HashSet<>();
+            List<CompletableFuture<List<CatalogTable>>> refreshes = new ArrayList<>();
+            for (CatalogDatabase database : databaseList) {
+                String name = database.getName();
+                databaseNames.add(name);
+                Entry<List<CatalogTable>> tablesEntry = tables.get(name);
+                boolean changed = database.getUpdateTime() == null || !database.getUpdateTime().equals(restoredUpdateTimes.get(name));
+                if (tablesEntry != null && changed && tablesEntry.refreshing.compareAndSet(false, true)) {
+                    refreshes.add(refresh(tables, name, tablesEntry, () -> loadTables(name)));
+                }
+            }
+            tables.keySet().retainAll(databaseNames);
+            return CompletableFuture.allOf(refreshes.toArray(new CompletableFuture<?>[0]));
+        }).whenComplete((v, t) -> {
+            if (!closed.get()) {
+                saveSnapshot();
+            }
+        });
+    }
+
+    private void saveSnapshot() {
+        CatalogSnapshot.Entry<List<CatalogDatabase>> databasesEntry = snapshotEntry(databases.get(DATABASES_KEY));
+        Map<String, CatalogSnapshot.Entry<List<CatalogTable>>> tablesEntries = new TreeMap<>();
+        for (Map.Entry<String, Entry<List<CatalogTable>>> tablesEntry : tables.entrySet()) {
+            CatalogSnapshot.Entry<List<CatalogTable>> savedEntry = snapshotEntry(tablesEntry.getValue());
+            if (savedEntry != null) {
+                tablesEntries.put(tablesEntry.getKey(), savedEntry);
+            }
+        }
+        try {
+            new CatalogSnapshot(databasesEntry, tablesEntries).write(snapshotPath);
+        } catch (IOException e) {
+            // The snapshot only makes the next start faster, so failing to
+            // save it is not worth failing anything else for
+        }
+    }
+
+    private <V> CatalogSnapshot.Entry<V> snapshotEntry(Entry<V> entry) {
+        if (entry != null && entry.isLoaded()) {
+            return new CatalogSnapshot.Entry<>(entry.value.join(), entry.loadedAt);
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            if (snapshotPath != null) {
+                saveSnapshot();
+            }
+            invalidate();
+            catalog.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageLoader<T> {
+        CompletableFuture<CatalogPage<T>> load(String nextToken);
+    }
+
+    private class Entry<V> {
+        final CompletableFuture<V> value;
+        final AtomicBoolean refreshing;
+
+        volatile long loadedAt;
+
+        Entry() {
+            this.value = new CompletableFuture<>();
+            this.refreshing = new AtomicBoolean(false);
+            this.loadedAt = -1;
+        }
+
+        private boolean isLoaded() {
+            return value.isDone() && !value.isCompletedExceptionally() && loadedAt >= 0;
+        }
+
+        boolean isExpired(long now) {
+            if (value.isCompletedExceptionally()) {
+                return true;
+            } else {
+                return isLoaded() && now - loadedAt >= timeToLive.toMillis();
+            }
+        }
+
+        boolean isStale(long now) {
+            return isLoaded() && now - loadedAt >= timeToLive.toMillis() / 2;
+        }
+    }
+
+    private static class RequestLimiter {
+        private final int maxConcurrentRequests;
+        private final Queue<Runnable> waitingRequests;
+        private final Lock lock;
+
+        private int runningRequests;
+
+        RequestLimiter(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.waitingRequests = new ArrayDeque<>();
+            this.lock = new ReentrantLock();
+            this.runningRequests = 0;
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> request) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            Runnable start = () -> {
+                CompletableFuture<T> response;
+                try {
+                    response = request.get();
+                } catch (RuntimeException e) {
+                    response = new CompletableFuture<>();
+                    response.completeExceptionally(e);
+                }
+                response.whenComplete((value, t) -> {
+                    release();
+                    if (t == null) {
+                        future.complete(value);
+                    } else {
+                        future.completeExceptionally(t);
+                    }
+                });
+            };
+            boolean startNow;
+            lock.lock();
+            try {
+                startNow = runningRequests < maxConcurrentRequests;
+                if (startNow) {
+                    runningRequests++;
+                } else {
+                    waitingRequests.add(start);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (startNow) {
+                start.run();
+            }
+            return future;
+        }
+
+        private void release() {
+            Runnable next;
+            lock.lock();
+            try {
+                next = waitingRequests.poll();
+                if (next == null) {
+                    runningRequests--;
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (next != null) {
+                next.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.burt.athena.metadata;
+
+import java.util.Objects;
+
+public class CatalogColumn {
+    private final String name;
+    private final String type;
+    private final String comment;
+    private final boolean partitionKey;
+
+    /**
+     * @param name the name of the column
+     * @param type the type of the column as written in Hive DDL, for example
+     *             <code>string</code> or <code>array&lt;int&gt;</code>
+     * @param comment the comment of the column, or null
+     * @param partitionKey whether the column is a partition key
+     */
+    public CatalogColumn(String name, String type, String comment, boolean partitionKey) {
+        this.name = name;
+        this.type = type;
+        this.comment = comment;
+        this.partitionKey = partitionKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public boolean isPartitionKey() {
+        return partitionKey;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof CatalogColumn) {
+            CatalogColumn otherColumn = (CatalogColumn) other;
+            return name.equals(otherColumn.name)
+                    && Objects.equals(type, otherColumn.type)
+                    && Objects.equals(comment, otherColumn.comment)
+                    && partitionKey == otherColumn.partitionKey;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type, comment, partitionKey);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s", name, type);
+    }
+}
@@ -0,0 +1,60 @@
+package io.burt.athena.metadata;
+
+import java.time.Instant;
+import java.util.Objects;
+
+public class CatalogDatabase {
+    private final String name;
+    private final String description;
+    private final Instant updateTime;
+
+    /**
+     * @param name the name of the database
+     * @param description the description of the database, or null
+     * @param updateTime the last time the database changed, or null if the
+     *                   catalog does not know
+     */
+    public CatalogDatabase(String name, String description, Instant updateTime) {
+        this.name = name;
+        this.description = description;
+        this.updateTime = updateTime;
+    }
+
+    public CatalogDatabase(String name, String description) {
+        this(name, description, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Instant getUpdateTime() {
+        return updateTime;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof CatalogDatabase) {
+            CatalogDatabase otherDatabase = (CatalogDatabase) other;
+            return name.equals(otherDatabase.name)
+                    && Objects.equals(description, otherDatabase.description)
+                    && Objects.equals(updateTime, otherDatabase.updateTime);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, description, updateTime);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,25 @@
+package io.burt.athena.metadata;
+
+import java.util.List;
+
+public class CatalogPage<T> {
+    private final List<T> items;
+    private final String nextToken;
+
+    /**
+     * @param items the items in the page
+     * @param nextToken the token of the next page, or null if this is the last page
+     */
+    public CatalogPage(List<T> items, String nextToken) {
+        this.items = items;
+        this.nextToken = nextToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+}
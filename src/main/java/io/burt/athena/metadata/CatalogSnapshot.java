@@ -0,0 +1,173 @@
+package io.burt.athena.metadata;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The databases and tables of a {@link CatalogCache}, in the form they are
+ * saved to disk between runs.
+ */
+class CatalogSnapshot {
+    private static final int FORMAT_VERSION = 1;
+
+    private final Entry<List<CatalogDatabase>> databases;
+    private final Map<String, Entry<List<CatalogTable>>> tables;
+
+    CatalogSnapshot(Entry<List<CatalogDatabase>> databases, Map<String, Entry<List<CatalogTable>>> tables) {
+        this.databases = databases;
+        this.tables = tables;
+    }
+
+    Entry<List<CatalogDatabase>> getDatabases() {
+        return databases;
+    }
+
+    Map<String, Entry<List<CatalogTable>>> getTables() {
+        return tables;
+    }
+
+    static CatalogSnapshot read(Path path) throws IOException {
+        Map<String, Object> snapshot = Json.readObject(Files.readAllBytes(path));
+        if (!Integer.valueOf(FORMAT_VERSION).equals(snapshot.get("version"))) {
+            throw new IOException(String.format("Unsupported catalog snapshot version: %s", snapshot.get("version")));
+        }
+        try {
+            Entry<List<CatalogDatabase>> databases = null;
+            Object databasesEntry = snapshot.get("databases");
+            if (databasesEntry instanceof Map) {
+                List<CatalogDatabase> databaseList = new ArrayList<>();
+                for (Map<String, Object> database : Json.objects(((Map<?, ?>) databasesEntry).get("items"))) {
+                    Number updateTime = (Number) database.get("updateTime");
+                    databaseList.add(new CatalogDatabase((String) database.get("name"), (String) database.get("description"), updateTime == null ? null : Instant.ofEpochMilli(updateTime.longValue())));
+                }
+                databases = new Entry<>(Collections.unmodifiableList(databaseList), ((Number) ((Map<?, ?>) databasesEntry).get("loadedAt")).longValue());
+            }
+            Map<String, Entry<List<CatalogTable>>> tables = new LinkedHashMap<>();
+            for (Map<String, Object> tablesEntry : Json.objects(snapshot.get("tables"))) {
+                String databaseName = (String) tablesEntry.get("databaseName");
+                List<CatalogTable> tableList = new ArrayList<>();
+                for (Map<String, Object> table : Json.objects(tablesEntry.get("items"))) {
+                    List<CatalogColumn> columns = new ArrayList<>();
+                    for (Map<String, Object> column : Json.objects(table.get("columns"))) {
+                        columns.add(new CatalogColumn((String) column.get("name"), (String) column.get("type"), (String) column.get("comment"), Boolean.TRUE.equals(column.get("partitionKey"))));
+                    }
+                    tableList.add(new CatalogTable(databaseName, (String) table.get("name"), (String) table.get("tableType"), (String) table.get("description"), columns));
+                }
+                tables.put(databaseName, new Entry<>(Collections.unmodifiableList(tableList), ((Number) tablesEntry.get("loadedAt")).longValue()));
+            }
+            return new CatalogSnapshot(databases, tables);
+        } catch (ClassCastException | NullPointerException e) {
+            throw new IOException("Malformed catalog snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to the given path and then
+     * moves it into place, so that a snapshot that is read at the same time,
+     * or after the process died while writing, is never half written.
+     */
+    void write(Path path) throws IOException {
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporaryFile); JsonGenerator generator = Json.FACTORY.createGenerator(output)) {
+                writeJson(generator);
+            }
+            try {
+                Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private void writeJson(JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("version", FORMAT_VERSION);
+        if (databases != null) {
+            generator.writeObjectFieldStart("databases");
+            generator.writeNumberField("loadedAt", databases.getLoadedAt());
+            generator.writeArrayFieldStart("items");
+            for (CatalogDatabase database : databases.getValue()) {
+                generator.writeStartObject();
+                generator.writeStringField("name", database.getName());
+                writeOptionalStringField(generator, "description", database.getDescription());
+                if (database.getUpdateTime() != null) {
+                    generator.writeNumberField("updateTime", database.getUpdateTime().toEpochMilli());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeArrayFieldStart("tables");
+        for (Map.Entry<String, Entry<List<CatalogTable>>> tablesEntry : tables.entrySet()) {
+            generator.writeStartObject();
+            generator.writeStringField("databaseName", tablesEntry.getKey());
+            generator.writeNumberField("loadedAt", tablesEntry.getValue().getLoadedAt());
+            generator.writeArrayFieldStart("items");
+            for (CatalogTable table : tablesEntry.getValue().getValue()) {
+                generator.writeStartObject();
+                generator.writeStringField("name", table.getName());
+                writeOptionalStringField(generator, "tableType", table.getTableType());
+                writeOptionalStringField(generator, "description", table.getDescription());
+                generator.writeArrayFieldStart("columns");
+                for (CatalogColumn column : table.getColumns()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", column.getName());
+                    writeOptionalStringField(generator, "type", column.getType());
+                    writeOptionalStringField(generator, "comment", column.getComment());
+                    if (column.isPartitionKey()) {
+                        generator.writeBooleanField("partitionKey", true);
+                    }
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeOptionalStringField(JsonGenerator generator, String name, String value) throws IOException {
+        if (value != null) {
+            generator.writeStringField(name, value);
+        }
+    }
+
+    static class Entry<V> {
+        private final V value;
+        private final long loadedAt;
+
+        Entry(V value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        V getValue() {
+            return value;
+        }
+
+        long getLoadedAt() {
+            return loadedAt;
+        }
+    }
+}
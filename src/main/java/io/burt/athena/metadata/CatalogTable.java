@@ -0,0 +1,80 @@
+package io.burt.athena.metadata;
+
+import java.util.List;
+import java.util.Objects;
+
+public class CatalogTable {
+    private final String databaseName;
+    private final String name;
+    private final String tableType;
+    private final String description;
+    private final List<CatalogColumn> columns;
+
+    /**
+     * @param databaseName the database the table belongs to
+     * @param name the name of the table
+     * @param tableType the type of the table as reported by the catalog, for
+     *                  example <code>EXTERNAL_TABLE</code> or
+     *                  <code>VIRTUAL_VIEW</code>
+     * @param description the description of the table, or null
+     * @param columns the columns of the table, followed by its partition keys
+     */
+    public CatalogTable(String databaseName, String name, String tableType, String description, List<CatalogColumn> columns) {
+        this.databaseName = databaseName;
+        this.name = name;
+        this.tableType = tableType;
+        this.description = description;
+        this.columns = columns;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTableType() {
+        return tableType;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<CatalogColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return true if the table is a view
+     */
+    public boolean isView() {
+        return "VIRTUAL_VIEW".equals(tableType);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof CatalogTable) {
+            CatalogTable otherTable = (CatalogTable) other;
+            return databaseName.equals(otherTable.databaseName)
+                    && name.equals(otherTable.name)
+                    && Objects.equals(tableType, otherTable.tableType)
+                    && Objects.equals(description, otherTable.description)
+                    && columns.equals(otherTable.columns);
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(databaseName, name, tableType, description, columns);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s.%s", databaseName, name);
+    }
+}
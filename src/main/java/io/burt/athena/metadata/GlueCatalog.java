@@ -0,0 +1,397 @@
+package io.burt.athena.metadata;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.burt.athena.configuration.DriverThreads;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.signer.Aws4Signer;
+import software.amazon.awssdk.auth.signer.params.Aws4SignerParams;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.http.SdkHttpFullRequest;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.http.async.AsyncExecuteRequest;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpResponseHandler;
+import software.amazon.awssdk.http.async.SdkHttpContentPublisher;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.RegionMetadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A catalog that lists databases and tables with the Glue Data Catalog API,
+ * which is the catalog Athena uses.
+ *
+ * The requests are signed and sent with an HTTP client from the SDK, so the
+ * catalog uses the same credentials and the same kind of HTTP client as the
+ * Athena and S3 clients, without depending on the Glue module of the SDK.
+ *
+ * Requests for the next page are sent when the previous page arrives, on the
+ * thread of the HTTP client. Resolving credentials can block, so requests
+ * are signed and sent on the given executor instead.
+ *
+ * Requests that are throttled or fail with a server error are retried a few
+ * times, with an exponentially growing delay that is waited out on the
+ * executor.
+ */
+public class GlueCatalog implements Catalog {
+    private static final String TARGET_PREFIX = "AWSGlue.";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+    private static final int MAX_RESULTS = 100;
+    private static final int MAX_RETRIES = 3;
+    private static final long RETRY_BASE_DELAY_MILLIS = 50;
+    private static final long RETRY_MAX_DELAY_MILLIS = 1000;
+
+    private final URI endpoint;
+    private final Region region;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final SdkAsyncHttpClient httpClient;
+    private final boolean closeHttpClient;
+    private final Executor executor;
+    private final Aws4Signer signer;
+
+    /**
+     * @param endpoint the endpoint of the Glue API, see {@link #defaultEndpoint(Region)}
+     * @param region the region to sign requests for
+     * @param credentialsProvider the credentials to sign requests with
+     * @param httpClient the HTTP client to send requests with
+     * @param closeHttpClient whether the HTTP client should be closed when
+     *                        the catalog is closed
+     */
+    public GlueCatalog(URI endpoint, Region region, AwsCredentialsProvider credentialsProvider, SdkAsyncHttpClient httpClient, boolean closeHttpClient) {
+        this(endpoint, region, credentialsProvider, httpClient, closeHttpClient, DriverThreads.newThreadPerTaskExecutor("athena-catalog"));
+    }
+
+    /**
+     * @param endpoint the endpoint of the Glue API, see {@link #defaultEndpoint(Region)}
+     * @param region the region to sign requests for
+     * @param credentialsProvider the credentials to sign requests with
+     * @param httpClient the HTTP client to send requests with
+     * @param closeHttpClient whether the HTTP client should be closed when
+     *                        the catalog is closed
+     * @param executor the executor to resolve credentials, sign and send
+     *                 requests on
+     */
+    public GlueCatalog(URI endpoint, Region region, AwsCredentialsProvider credentialsProvider, SdkAsyncHttpClient httpClient, boolean closeHttpClient, Executor executor) {
+        this.endpoint = endpoint;
+        this.region = region;
+        this.credentialsProvider = credentialsProvider;
+        this.httpClient = httpClient;
+        this.closeHttpClient = closeHttpClient;
+        this.executor = executor;
+        this.signer = Aws4Signer.create();
+    }
+
+    /**
+     * @param region a region
+     * @return the endpoint of the Glue API in the region
+     */
+    public static URI defaultEndpoint(Region region) {
+        RegionMetadata metadata = region.metadata();
+        String domain = metadata == null ? "amazonaws.com" : metadata.domain();
+        return URI.create(String.format("https://glue.%s.%s", region.id(), domain));
+    }
+
+    @Override
+    public CompletableFuture<CatalogPage<CatalogDatabase>> getDatabases(String nextToken) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("NextToken", nextToken);
+        request.put("MaxResults", MAX_RESULTS);
+        return send("GetDatabases", request, response -> {
+            List<CatalogDatabase> databases = new ArrayList<>();
+            // Glue does not record when a database last changed, but a database
+            // that has been dropped and created again gets a new creation time
+            for (Map<String, Object> database : Json.objects(response.get("DatabaseList"))) {
+                databases.add(new CatalogDatabase((String) database.get("Name"), (String) database.get("Description"), timestamp(database.get("CreateTime"))));
+            }
+            return new CatalogPage<>(databases, (String) response.get("NextToken"));
+        });
+    }
+
+    @Override
+    public CompletableFuture<CatalogPage<CatalogTable>> getTables(String databaseName, String nextToken) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("DatabaseName", databaseName);
+        request.put("NextToken", nextToken);
+        request.put("MaxResults", MAX_RESULTS);
+        return send("GetTables", request, response -> {
+            List<CatalogTable> tables = new ArrayList<>();
+            for (Map<String, Object> table : Json.objects(response.get("TableList"))) {
+                List<CatalogColumn> columns = new ArrayList<>();
+                Object storageDescriptor = table.get("StorageDescriptor");
+                if (storageDescriptor instanceof Map) {
+                    addColumns(columns, ((Map<?, ?>) storageDescriptor).get("Columns"), false);
+                }
+                addColumns(columns, table.get("PartitionKeys"), true);
+                Object tableDatabaseName = table.get("DatabaseName");
+                tables.add(new CatalogTable(tableDatabaseName == null ? databaseName : (String) tableDatabaseName, (String) table.get("Name"), (String) table.get("TableType"), (String) table.get("Description"), columns));
+            }
+            return new CatalogPage<>(tables, (String) response.get("NextToken"));
+        });
+    }
+
+    private static Instant timestamp(Object epochSeconds) {
+        if (epochSeconds instanceof Number) {
+            return Instant.ofEpochMilli(Math.round(((Number) epochSeconds).doubleValue() * 1000));
+        } else {
+            return null;
+        }
+    }
+
+    private static void addColumns(List<CatalogColumn> columns, Object columnList, boolean partitionKeys) {
+        for (Map<String, Object> column : Json.objects(columnList)) {
+            columns.add(new CatalogColumn((String) column.get("Name"), (String) column.get("Type"), (String) column.get("Comment"), partitionKeys));
+        }
+    }
+
+    private <T> CompletableFuture<T> send(String operation, Map<String, Object> request, Function<Map<String, Object>, T> responseParser) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            byte[] body = writeJson(request);
+            executor.execute(() -> send(operation, body, responseParser, future, 0));
+        } catch (IOException | RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void send(String operation, byte[] body, Function<Map<String, Object>, T> responseParser, CompletableFuture<T> future, int retries) {
+        if (future.isDone()) {
+            return;
+        }
+        try {
+            SdkHttpFullRequest httpRequest = SdkHttpFullRequest.builder()
+                    .method(SdkHttpMethod.POST)
+                    .uri(endpoint)
+                    .encodedPath(endpoint.getRawPath() == null || endpoint.getRawPath().isEmpty() ? "/" : endpoint.getRawPath())
+                    .putHeader("Content-Type", CONTENT_TYPE)
+                    .putHeader("Content-Length", String.valueOf(body.length))
+                    .putHeader("X-Amz-Target", TARGET_PREFIX + operation)
+                    .contentStreamProvider(() -> new ByteArrayInputStream(body))
+                    .build();
+            Aws4SignerParams signerParams = Aws4SignerParams.builder()
+                    .awsCredentials(credentialsProvider.resolveCredentials())
+                    .signingName("glue")
+                    .signingRegion(region)
+                    .build();
+            SdkHttpFullRequest signedRequest = signer.sign(httpRequest, signerParams);
+            ResponseHandler responseHandler = new ResponseHandler();
+            AsyncExecuteRequest executeRequest = AsyncExecuteRequest.builder()
+                    .request(signedRequest)
+                    .requestContentPublisher(new ContentPublisher(body))
+                    .responseHandler(responseHandler)
+                    .build();
+            httpClient.execute(executeRequest).whenComplete((v, t) -> {
+                if (t != null) {
+                    responseHandler.onError(t);
+                }
+            });
+            responseHandler.response.whenComplete((response, t) -> {
+                if (t != null) {
+                    future.completeExceptionally(t);
+                } else {
+                    try {
+                        future.complete(parseResponse(operation, response, responseParser));
+                    } catch (AwsServiceException e) {
+                        if (retries < MAX_RETRIES && isRetryable(e)) {
+                            retry(operation, body, responseParser, future, retries + 1);
+                        } else {
+                            future.completeExceptionally(e);
+                        }
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static boolean isRetryable(AwsServiceException e) {
+        return e.isThrottlingException() || e.statusCode() >= 500;
+    }
+
+    private <T> void retry(String operation, byte[] body, Function<Map<String, Object>, T> responseParser, CompletableFuture<T> future, int retries) {
+        long maxDelayMillis = Math.min(RETRY_MAX_DELAY_MILLIS, RETRY_BASE_DELAY_MILLIS << (retries - 1));
+        // half of the delay is random, so that requests that were throttled
+        // together are not retried together
+        long delayMillis = maxDelayMillis / 2 + ThreadLocalRandom.current().nextLong(maxDelayMillis / 2 + 1);
+        try {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                send(operation, body, responseParser, future, retries);
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private <T> T parseResponse(String operation, Response response, Function<Map<String, Object>, T> responseParser) {
+        Map<String, Object> body;
+        try {
+            body = response.body.length == 0 ? Collections.emptyMap() : Json.readObject(response.body);
+        } catch (IOException e) {
+            throw SdkClientException.builder().message(String.format("Could not parse the response of %s: %s", operation, e.getMessage())).cause(e).build();
+        }
+        if (response.httpResponse.isSuccessful()) {
+            return responseParser.apply(body);
+        } else {
+            String errorCode = (String) body.get("__type");
+            if (errorCode != null && errorCode.contains("#")) {
+                errorCode = errorCode.substring(errorCode.indexOf('#') + 1);
+            }
+            String errorMessage = (String) body.getOrDefault("message", body.get("Message"));
+            AwsErrorDetails errorDetails = AwsErrorDetails.builder()
+                    .serviceName("Glue")
+                    .errorCode(errorCode)
+                    .errorMessage(errorMessage)
+                    .sdkHttpResponse(response.httpResponse)
+                    .build();
+            throw AwsServiceException.builder()
+                    .awsErrorDetails(errorDetails)
+                    .statusCode(response.httpResponse.statusCode())
+                    .requestId(response.httpResponse.firstMatchingHeader("x-amzn-RequestId").orElse(null))
+                    .message(String.format("%s failed: %s (%s)", operation, errorMessage, errorCode))
+                    .build();
+        }
+    }
+
+    private static byte[] writeJson(Map<String, Object> request) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JsonGenerator generator = Json.FACTORY.createGenerator(output)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> entry : request.entrySet()) {
+                if (entry.getValue() instanceof String) {
+                    generator.writeStringField(entry.getKey(), (String) entry.getValue());
+                } else if (entry.getValue() instanceof Integer) {
+                    generator.writeNumberField(entry.getKey(), (Integer) entry.getValue());
+                }
+            }
+            generator.writeEndObject();
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        if (closeHttpClient) {
+            httpClient.close();
+        }
+    }
+
+    private static class Response {
+        final SdkHttpResponse httpResponse;
+        final byte[] body;
+
+        Response(SdkHttpResponse httpResponse, byte[] body) {
+            this.httpResponse = httpResponse;
+            this.body = body;
+        }
+    }
+
+    private static class ContentPublisher implements SdkHttpContentPublisher {
+        private final byte[] body;
+
+        ContentPublisher(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public Optional<Long> contentLength() {
+            return Optional.of((long) body.length);
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> subscriber) {
+            AtomicBoolean done = new AtomicBoolean(false);
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    if (n > 0 && done.compareAndSet(false, true)) {
+                        subscriber.onNext(ByteBuffer.wrap(body));
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    done.set(true);
+                }
+            });
+        }
+    }
+
+    private static class ResponseHandler implements SdkAsyncHttpResponseHandler {
+        final CompletableFuture<Response> response = new CompletableFuture<>();
+
+        private volatile SdkHttpResponse httpResponse;
+
+        @Override
+        public void onHeaders(SdkHttpResponse headers) {
+            httpResponse = headers;
+        }
+
+        @Override
+        public void onStream(Publisher<ByteBuffer> stream) {
+            stream.subscribe(new Subscriber<ByteBuffer>() {
+                private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    body.write(bytes, 0, bytes.length);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    ResponseHandler.this.onError(t);
+                }
+
+                @Override
+                public void onComplete() {
+                    response.complete(new Response(httpResponse, body.toByteArray()));
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            response.completeExceptionally(t);
+        }
+    }
+}
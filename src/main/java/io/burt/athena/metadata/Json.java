@@ -0,0 +1,74 @@
+package io.burt.athena.metadata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class Json {
+    static final JsonFactory FACTORY = new JsonFactory();
+
+    private Json() { }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> readObject(byte[] json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            Object value = readValue(parser, parser.nextToken());
+            if (value instanceof Map) {
+                return (Map<String, Object>) value;
+            } else {
+                throw new IOException("Expected a JSON object");
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> objects(Object list) {
+        if (list instanceof List) {
+            return (List<Map<String, Object>>) list;
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == null) {
+            throw new IOException("Unexpected end of JSON");
+        }
+        switch (token) {
+            case START_OBJECT:
+                Map<String, Object> object = new LinkedHashMap<>();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    object.put(name, readValue(parser, parser.nextToken()));
+                }
+                return object;
+            case START_ARRAY:
+                List<Object> array = new ArrayList<>();
+                JsonToken elementToken;
+                while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    array.add(readValue(parser, elementToken));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            default:
+                throw new IOException(String.format("Unexpected JSON token %s", token));
+        }
+    }
+}
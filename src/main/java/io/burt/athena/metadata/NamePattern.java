@@ -0,0 +1,66 @@
+package io.burt.athena.metadata;
+
+import java.util.regex.Pattern;
+
+/**
+ * A JDBC name pattern, as used by the methods of
+ * {@link java.sql.DatabaseMetaData}, where <code>%</code> matches any
+ * sequence of characters, <code>_</code> matches any one character, and
+ * <code>\</code> escapes the next character.
+ *
+ * Names in the catalog are case insensitive, so patterns are too. A null
+ * pattern matches all names.
+ */
+public class NamePattern {
+    private static final NamePattern ANY = new NamePattern(null, null);
+
+    private final Pattern regex;
+    private final String literal;
+
+    private NamePattern(Pattern regex, String literal) {
+        this.regex = regex;
+        this.literal = literal;
+    }
+
+    public static NamePattern compile(String pattern) {
+        if (pattern == null || pattern.equals("%")) {
+            return ANY;
+        }
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        boolean wildcards = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                i++;
+                c = pattern.charAt(i);
+                regex.append(Pattern.quote(String.valueOf(c)));
+                literal.append(c);
+            } else if (c == '%') {
+                regex.append(".*");
+                wildcards = true;
+            } else if (c == '_') {
+                regex.append('.');
+                wildcards = true;
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+                literal.append(c);
+            }
+        }
+        if (wildcards) {
+            return new NamePattern(Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL), null);
+        } else {
+            return new NamePattern(null, literal.toString());
+        }
+    }
+
+    public boolean matches(String name) {
+        if (this == ANY) {
+            return true;
+        } else if (literal != null) {
+            return literal.equalsIgnoreCase(name);
+        } else {
+            return regex.matcher(name).matches();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * A result whose rows are already in memory, used for results that are
+ * produced by the driver itself rather than by a query, like the results of
+ * the database metadata methods.
+ */
+public class InMemoryResult implements Result {
+    private final AthenaResultSetMetaData metaData;
+    private final List<String[]> rows;
+
+    private int rowNumber;
+    private boolean open;
+
+    /**
+     * @param columns the columns of the result, their names are also used as
+     *                labels when no labels are given
+     * @param rows the rows of the result, with one value per column
+     */
+    public InMemoryResult(List<ColumnInfo> columns, List<String[]> rows) {
+        ColumnInfo[] labeledColumns = new ColumnInfo[columns.size()];
+        for (int i = 0; i < labeledColumns.length; i++) {
+            ColumnInfo column = columns.get(i);
+            labeledColumns[i] = column.label() == null ? column.toBuilder().label(column.name()).build() : column;
+        }
+        this.metaData = new AthenaResultSetMetaData(null, ResultSetMetadata.builder().columnInfo(labeledColumns).build());
+        this.rows = rows;
+        this.rowNumber = 0;
+        this.open = true;
+    }
+
+    private void checkClosed() throws SQLException {
+        if (!open) {
+            throw new SQLException("Result is closed");
+        }
+    }
+
+    @Override
+    public int getFetchSize() {
+        return rows.size();
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return metaData.getColumnCount();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        checkClosed();
+        if (rowNumber <= rows.size()) {
+            rowNumber++;
+        }
+        return rowNumber <= rows.size();
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+        checkClosed();
+        return rows.get(rowNumber - 1)[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (rowNumber > rows.size()) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else if (rowNumber == rows.size()) {
+            return ResultPosition.LAST;
+        } else {
+            return ResultPosition.MIDDLE;
+        }
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+}
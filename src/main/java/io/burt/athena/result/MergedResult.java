@@ -0,0 +1,299 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Merges the results of a number of query executions into one result.
+ *
+ * In partition order the rows of each result are returned after all the
+ * rows of the results before it. Otherwise each result is drained on a
+ * background task as soon as its query execution has succeeded, and rows are
+ * returned in whatever order they arrive, which means that the rows of the
+ * results that finish first are available first. No more results than the
+ * parallelism are drained at the same time, the others wait for a task to
+ * become free.
+ *
+ * When a query execution fails, or a result can't be loaded, all other query
+ * executions are cancelled, which stops them if they are still running.
+ *
+ * Since it is not known which row is the last before all results have been
+ * loaded the position is never {@link ResultPosition#LAST}.
+ */
+public class MergedResult implements Result {
+    static final int BATCH_SIZE = 256;
+    static final int QUEUE_CAPACITY = 16;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final ResultFutures results;
+    private final boolean ordered;
+    private final BlockingQueue<Batch> batches;
+    private final Executor executor;
+    private final int parallelism;
+    private final Queue<Runnable> pendingDrains;
+
+    private volatile boolean closed;
+    private AthenaResultSetMetaData metaData;
+    private Iterator<String[]> rows;
+    private Result currentResult;
+    private int nextResultIndex;
+    private int remainingResults;
+    private String[] currentRow;
+    private int rowNumber;
+    private boolean finished;
+    private int activeDrains;
+
+    /**
+     * @param queryExecutions the query executions whose results to merge,
+     *                        which will be cancelled if any of them fails
+     * @param resultFactory creates the result of a query execution
+     * @param ordered whether to return the rows in the order of the query
+     *                executions or in the order they arrive
+     * @param parallelism the maximum number of results to drain at the same
+     *                    time when the rows are not ordered
+     * @param executor runs the tasks that drain results when the rows are
+     *                 not ordered
+     */
+    public MergedResult(List<CompletableFuture<QueryExecution>> queryExecutions, Function<QueryExecution, Result> resultFactory, boolean ordered, int parallelism, Executor executor) {
+        this.results = new ResultFutures(queryExecutions, resultFactory);
+        this.ordered = ordered;
+        this.batches = ordered ? null : new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.pendingDrains = new ArrayDeque<>();
+        this.closed = false;
+        this.metaData = null;
+        this.rows = Collections.emptyIterator();
+        this.currentResult = null;
+        this.nextResultIndex = 0;
+        this.remainingResults = queryExecutions.size();
+        this.currentRow = null;
+        this.rowNumber = 0;
+        this.finished = false;
+        this.activeDrains = 0;
+        if (!ordered) {
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).whenComplete((r, t) -> startDrain(() -> drain(r, t)));
+            }
+        }
+    }
+
+    private void startDrain(Runnable drain) {
+        synchronized (pendingDrains) {
+            if (activeDrains >= parallelism) {
+                pendingDrains.add(drain);
+                return;
+            }
+            activeDrains++;
+        }
+        executor.execute(() -> runDrains(drain));
+    }
+
+    private void runDrains(Runnable drain) {
+        // a task keeps draining the results that are waiting for a task
+        // before it gives its slot back
+        Runnable next = drain;
+        while (next != null) {
+            next.run();
+            synchronized (pendingDrains) {
+                next = pendingDrains.poll();
+                if (next == null) {
+                    activeDrains--;
+                }
+            }
+        }
+    }
+
+    private void drain(Result result, Throwable error) {
+        if (error != null) {
+            put(new Batch(null, error));
+            return;
+        }
+        try {
+            results.captureMetaData(result);
+            Iterator<String[]> resultRows = new ResultIterator(result);
+            List<String[]> batch = new ArrayList<>(BATCH_SIZE);
+            while (!closed && resultRows.hasNext()) {
+                batch.add(resultRows.next());
+                if (batch.size() == BATCH_SIZE) {
+                    if (!put(new Batch(batch, null))) {
+                        return;
+                    }
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty() && !put(new Batch(batch, null))) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            put(new Batch(null, results.fail(e)));
+            return;
+        } finally {
+            try {
+                result.close();
+            } catch (Exception e) {
+                // the rows have already been read
+            }
+        }
+        put(new Batch(null, null));
+    }
+
+    private boolean put(Batch batch) {
+        try {
+            while (!closed) {
+                if (batches.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return -1;
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        if (metaData == null) {
+            if (ordered && !results.metaData().isDone()) {
+                // in partition order the results are only read on this thread
+                results.captureMetaData(results.await(results.get(0)));
+            }
+            metaData = results.await(results.metaData());
+        }
+        return metaData;
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+        return getMetaData().getColumnCount();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result is closed");
+        }
+        try {
+            while (!rows.hasNext()) {
+                if (finished || !nextRows()) {
+                    finished = true;
+                    currentRow = null;
+                    return false;
+                }
+            }
+            currentRow = rows.next();
+            rowNumber++;
+            return true;
+        } catch (ResultIterator.ResultException e) {
+            throw results.fail(e);
+        }
+    }
+
+    private boolean nextRows() throws SQLException {
+        if (ordered) {
+            if (currentResult != null) {
+                ResultFutures.closeResult(currentResult);
+                currentResult = null;
+            }
+            if (nextResultIndex == results.size()) {
+                return false;
+            }
+            currentResult = results.await(results.get(nextResultIndex++));
+            results.captureMetaData(currentResult);
+            rows = new ResultIterator(currentResult);
+            return true;
+        } else {
+            while (remainingResults > 0) {
+                Batch batch;
+                try {
+                    batch = batches.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException(e);
+                }
+                if (batch.error != null) {
+                    throw results.toSqlException(batch.error);
+                } else if (batch.rows == null) {
+                    remainingResults--;
+                } else {
+                    rows = batch.rows.iterator();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return currentRow[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (currentRow == null) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else {
+            return ResultPosition.MIDDLE;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        results.cancel();
+        if (batches != null) {
+            batches.clear();
+        }
+        if (currentResult != null) {
+            ResultFutures.closeResult(currentResult);
+            currentResult = null;
+        }
+        if (ordered) {
+            results.close(nextResultIndex);
+        }
+    }
+
+    private static class Batch {
+        final List<String[]> rows;
+        final Throwable error;
+
+        Batch(List<String[]> rows, Throwable error) {
+            this.rows = rows;
+            this.error = error;
+        }
+    }
+}
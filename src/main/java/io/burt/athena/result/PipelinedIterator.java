@@ -0,0 +1,175 @@
+package io.burt.athena.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains an iterator on a background task, ahead of the consumer.
+ *
+ * Elements are handed over in batches through a bounded queue, so that the
+ * work done by the source iterator (for example decoding and parsing) overlaps
+ * with the work done by the consumer, while never running more than a fixed
+ * number of batches ahead.
+ *
+ * The first batches are small so that the first elements become available
+ * quickly, and then grow up to the maximum batch size. At most the depth
+ * times the maximum batch size elements are buffered.
+ */
+class PipelinedIterator<T> implements Iterator<T>, AutoCloseable {
+    static final int MIN_BATCH_SIZE = 16;
+    static final int MAX_BATCH_SIZE = 1024;
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final Iterator<T> source;
+    private final BlockingQueue<Batch<T>> batches;
+    private final int maxBatchSize;
+
+    private volatile boolean closed;
+    private volatile Batch<T> lastBatch;
+    private Iterator<T> currentBatch;
+    private boolean finished;
+
+    PipelinedIterator(Iterator<T> source, int depth, Executor executor) {
+        this(source, depth, MAX_BATCH_SIZE, executor);
+    }
+
+    PipelinedIterator(Iterator<T> source, int depth, int maxBatchSize, Executor executor) {
+        this.source = source;
+        this.batches = new ArrayBlockingQueue<>(depth);
+        this.maxBatchSize = maxBatchSize;
+        this.closed = false;
+        this.lastBatch = null;
+        this.currentBatch = Collections.emptyIterator();
+        this.finished = false;
+        executor.execute(this::produce);
+    }
+
+    /**
+     * Moves elements from the source to the queue until the source is
+     * exhausted, fails, or the iterator is closed.
+     *
+     * However the task ends, the last batch, which either marks the end or
+     * carries the error, is published in {@link #lastBatch} before it is
+     * put in the queue. If it can't be put in the queue, because the task
+     * was interrupted, the consumer finds it there once it has drained the
+     * queue.
+     */
+    private void produce() {
+        Batch<T> last = new Batch<>(null, null);
+        try {
+            int batchSize = Math.min(MIN_BATCH_SIZE, maxBatchSize);
+            while (!closed) {
+                List<T> elements = new ArrayList<>(batchSize);
+                while (elements.size() < batchSize && source.hasNext()) {
+                    elements.add(source.next());
+                }
+                if (!elements.isEmpty() && !put(new Batch<>(elements, null))) {
+                    if (!closed) {
+                        last = new Batch<>(null, new IllegalStateException("Interrupted while handing over rows"));
+                    }
+                    return;
+                }
+                if (elements.size() < batchSize) {
+                    return;
+                }
+                batchSize = Math.min(batchSize * 2, maxBatchSize);
+            }
+        } catch (Throwable t) {
+            last = new Batch<>(null, t);
+        } finally {
+            lastBatch = last;
+            put(last);
+        }
+    }
+
+    private boolean put(Batch<T> batch) {
+        try {
+            while (!closed) {
+                if (batches.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Batch<T> take() {
+        try {
+            while (true) {
+                Batch<T> batch = batches.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    return batch;
+                }
+                Batch<T> last = lastBatch;
+                if (last != null && batches.isEmpty()) {
+                    return last;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentBatch.hasNext()) {
+            if (finished || closed) {
+                return false;
+            }
+            Batch<T> batch = take();
+            if (batch.error != null) {
+                finished = true;
+                if (batch.error instanceof RuntimeException) {
+                    throw (RuntimeException) batch.error;
+                } else if (batch.error instanceof Error) {
+                    throw (Error) batch.error;
+                } else {
+                    throw new RuntimeException(batch.error);
+                }
+            } else if (batch.elements == null) {
+                finished = true;
+            } else {
+                currentBatch = batch.elements.iterator();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (hasNext()) {
+            return currentBatch.next();
+        } else {
+            throw new NoSuchElementException();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        batches.clear();
+        currentBatch = Collections.emptyIterator();
+    }
+
+    private static class Batch<T> {
+        final List<T> elements;
+        final Throwable error;
+
+        Batch(List<T> elements, Throwable error) {
+            this.elements = elements;
+            this.error = error;
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.burt.athena.result;
 
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
-import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 
 import java.sql.SQLException;
@@ -12,7 +11,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 public class PreloadingStandardResult extends StandardResult {
-    private CompletableFuture<GetQueryResultsResponse> pendingResult;
+    private CompletableFuture<ResultPage> pendingResult;
 
     public PreloadingStandardResult(AthenaAsyncClient athenaClient, QueryExecution queryExecution, int fetchSize, Duration timeout) {
         super(athenaClient, queryExecution, fetchSize, timeout);
@@ -21,30 +20,30 @@ public class PreloadingStandardResult extends StandardResult {
 
     @Override
     protected boolean shouldLoadNextPage() throws SQLException {
-        return (getRowNumber() == 0 && currentRows == null) || (pendingResult != null && !currentRows.hasNext());
+        return (getRowNumber() == 0 && currentPage == null) || (pendingResult != null && !hasMoreRowsInPage());
     }
 
     @Override
-    protected GetQueryResultsResponse loadNextPage() throws InterruptedException, TimeoutException, ExecutionException {
-        CompletableFuture<GetQueryResultsResponse> loadingPage;
+    protected ResultPage loadNextPage() throws InterruptedException, TimeoutException, ExecutionException {
+        CompletableFuture<ResultPage> loadingPage;
         if (pendingResult == null) {
             loadingPage = loadPage();
         } else {
             loadingPage = pendingResult;
             pendingResult = null;
         }
-        GetQueryResultsResponse response = loadingPage.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
-        if (response.nextToken() != null) {
-            pendingResult = loadPage(response.nextToken());
+        ResultPage page = loadingPage.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (page.nextToken() != null) {
+            pendingResult = loadPage(page.nextToken());
         }
-        return response;
+        return page;
     }
 
     @Override
     public ResultPosition getPosition() throws SQLException {
-        if (pendingResult == null && currentRows != null && currentRow != null && !currentRows.hasNext()) {
+        if (pendingResult == null && currentPage != null && currentRowIndex != -1 && !hasMoreRowsInPage()) {
             return ResultPosition.LAST;
-        } else if (pendingResult == null && currentRows != null && currentRow == null) {
+        } else if (pendingResult == null && currentPage != null && currentRowIndex == -1) {
             return ResultPosition.AFTER_LAST;
         } else {
             return super.getPosition();
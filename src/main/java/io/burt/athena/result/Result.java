@@ -11,6 +11,8 @@ public interface Result extends AutoCloseable {
 
     AthenaResultSetMetaData getMetaData() throws SQLException;
 
+    int getColumnCount() throws SQLException;
+
     int getRowNumber() throws SQLException;
 
     boolean next() throws SQLException;
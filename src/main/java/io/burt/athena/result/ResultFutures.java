@@ -0,0 +1,178 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * The results of a group of query executions that succeed or fail together.
+ *
+ * When a query execution fails, or a result can't be created or read, all
+ * other query executions are cancelled. Errors caused by the cancellation
+ * are reported as the failure that caused it.
+ *
+ * The metadata of the group is taken from the first result that is read,
+ * by the thread that reads it, since results are not safe to use from more
+ * than one thread.
+ */
+class ResultFutures {
+    private final List<CompletableFuture<QueryExecution>> queryExecutions;
+    private final List<CompletableFuture<Result>> results;
+    private final CompletableFuture<AthenaResultSetMetaData> metaData;
+
+    private volatile SQLException failure;
+
+    ResultFutures(List<CompletableFuture<QueryExecution>> queryExecutions, Function<QueryExecution, Result> resultFactory) {
+        this.queryExecutions = queryExecutions;
+        this.results = new ArrayList<>(queryExecutions.size());
+        this.metaData = new CompletableFuture<>();
+        this.failure = null;
+        for (CompletableFuture<QueryExecution> queryExecution : queryExecutions) {
+            CompletableFuture<Result> result = queryExecution.thenApply(resultFactory);
+            result.whenComplete((r, t) -> {
+                if (t != null) {
+                    metaData.completeExceptionally(t);
+                    if (!(unwrap(t) instanceof CancellationException)) {
+                        cancel();
+                    }
+                }
+            });
+            results.add(result);
+        }
+    }
+
+    int size() {
+        return results.size();
+    }
+
+    CompletableFuture<Result> get(int index) {
+        return results.get(index);
+    }
+
+    /**
+     * Makes the metadata of a result the metadata of the group, unless the
+     * metadata has already been captured. Must be called by the thread that
+     * reads the result, before it starts reading rows.
+     */
+    void captureMetaData(Result result) {
+        if (!metaData.isDone()) {
+            try {
+                metaData.complete(result.getMetaData());
+            } catch (SQLException | RuntimeException e) {
+                metaData.completeExceptionally(e);
+            }
+        }
+    }
+
+    CompletableFuture<AthenaResultSetMetaData> metaData() {
+        return metaData;
+    }
+
+    void cancel() {
+        for (CompletableFuture<QueryExecution> queryExecution : queryExecutions) {
+            queryExecution.cancel(true);
+        }
+    }
+
+    SQLException fail(Throwable t) {
+        SQLException e = toSqlException(t);
+        if (failure == null) {
+            failure = e;
+        }
+        cancel();
+        return e;
+    }
+
+    <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(e);
+        } catch (CancellationException e) {
+            throw toSqlException(e);
+        } catch (ExecutionException e) {
+            throw toSqlException(e.getCause());
+        }
+    }
+
+    SQLException toSqlException(Throwable t) {
+        t = unwrap(t);
+        if (t instanceof CancellationException) {
+            Throwable cancellation = t;
+            return firstFailure().orElseGet(() -> new SQLException("The query execution was cancelled", cancellation));
+        } else if (t instanceof SQLException) {
+            return (SQLException) t;
+        } else {
+            return new SQLException(t);
+        }
+    }
+
+    private Optional<SQLException> firstFailure() {
+        if (failure != null) {
+            return Optional.of(failure);
+        }
+        for (CompletableFuture<Result> result : results) {
+            if (result.isCompletedExceptionally()) {
+                try {
+                    result.join();
+                } catch (CancellationException e) {
+                    // a query execution that was cancelled because another failed
+                } catch (CompletionException e) {
+                    Throwable cause = unwrap(e);
+                    if (!(cause instanceof CancellationException)) {
+                        return Optional.of(toSqlException(cause));
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException || t instanceof ResultIterator.ResultException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    void close(int fromIndex) throws SQLException {
+        SQLException error = null;
+        for (int i = fromIndex; i < results.size(); i++) {
+            CompletableFuture<Result> result = results.get(i);
+            if (result.isDone() && !result.isCompletedExceptionally()) {
+                try {
+                    closeResult(result.join());
+                } catch (SQLException e) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    static void closeResult(Result result) throws SQLException {
+        try {
+            result.close();
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.burt.athena.result;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Adapts a result to an iterator over the values of its rows.
+ *
+ * Since iterators can't throw checked exceptions, an {@link SQLException}
+ * thrown by the result is rethrown wrapped in a {@link ResultException}.
+ */
+class ResultIterator implements Iterator<String[]> {
+    private final Result result;
+
+    private int columnCount;
+    private Boolean hasNext;
+
+    ResultIterator(Result result) {
+        this.result = result;
+        this.columnCount = -1;
+        this.hasNext = null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            try {
+                hasNext = result.next();
+            } catch (SQLException e) {
+                throw new ResultException(e);
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    public String[] next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            if (columnCount == -1) {
+                columnCount = result.getColumnCount();
+            }
+            String[] row = new String[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                row[i] = result.getString(i + 1);
+            }
+            hasNext = null;
+            return row;
+        } catch (SQLException e) {
+            throw new ResultException(e);
+        }
+    }
+
+    static class ResultException extends RuntimeException {
+        ResultException(SQLException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+}
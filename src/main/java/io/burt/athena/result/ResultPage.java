@@ -0,0 +1,119 @@
+package io.burt.athena.result;
+
+import software.amazon.awssdk.services.athena.model.Datum;
+import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+import software.amazon.awssdk.services.athena.model.Row;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A page of results from <code>GetQueryResults</code> converted to a compact
+ * representation.
+ *
+ * All values on the page are stored back to back in a single character heap,
+ * and an offset array gives the boundaries of each cell. This avoids keeping
+ * the SDK response, with its per cell <code>Datum</code> objects, alive for
+ * as long as the rows of the page are being read.
+ */
+class ResultPage {
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int OBJECT_HEADER_SIZE = 16;
+
+    private final String nextToken;
+    private final ResultSetMetadata metaData;
+    private final int rowCount;
+    private final int columnCount;
+    private final char[] heap;
+    private final int[] offsets;
+    private final BitSet nulls;
+
+    private ResultPage(String nextToken, ResultSetMetadata metaData, int rowCount, int columnCount, char[] heap, int[] offsets, BitSet nulls) {
+        this.nextToken = nextToken;
+        this.metaData = metaData;
+        this.rowCount = rowCount;
+        this.columnCount = columnCount;
+        this.heap = heap;
+        this.offsets = offsets;
+        this.nulls = nulls;
+    }
+
+    static ResultPage fromResponse(GetQueryResultsResponse response) {
+        ResultSetMetadata metaData = response.resultSet().resultSetMetadata();
+        List<Row> rows = response.resultSet().rows();
+        int columnCount = metaData.columnInfo().size();
+        int heapSize = 0;
+        for (Row row : rows) {
+            List<Datum> data = row.data();
+            columnCount = Math.max(columnCount, data.size());
+            for (Datum datum : data) {
+                String value = datum.varCharValue();
+                if (value != null) {
+                    heapSize += value.length();
+                }
+            }
+        }
+        char[] heap = new char[heapSize];
+        int[] offsets = new int[rows.size() * columnCount + 1];
+        BitSet nulls = new BitSet();
+        int cell = 0;
+        int offset = 0;
+        for (Row row : rows) {
+            List<Datum> data = row.data();
+            for (int i = 0; i < columnCount; i++) {
+                String value = i < data.size() ? data.get(i).varCharValue() : null;
+                offsets[cell] = offset;
+                if (value == null) {
+                    nulls.set(cell);
+                } else {
+                    value.getChars(0, value.length(), heap, offset);
+                    offset += value.length();
+                }
+                cell++;
+            }
+        }
+        offsets[cell] = offset;
+        return new ResultPage(response.nextToken(), metaData, rows.size(), columnCount, heap, offsets, nulls);
+    }
+
+    String nextToken() {
+        return nextToken;
+    }
+
+    ResultSetMetadata metaData() {
+        return metaData;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    int columnCount() {
+        return columnCount;
+    }
+
+    String getString(int row, int column) {
+        int cell = row * columnCount + column;
+        if (nulls.get(cell)) {
+            return null;
+        } else {
+            int start = offsets[cell];
+            return new String(heap, start, offsets[cell + 1] - start);
+        }
+    }
+
+    /**
+     * Returns an approximation of the number of bytes retained by the row data
+     * of this page, for comparison with the size of the SDK response it was
+     * converted from.
+     *
+     * @return the approximate retained size of the heap, offsets and null flags
+     */
+    long approximateSizeInBytes() {
+        long heapSize = ARRAY_HEADER_SIZE + 2L * heap.length;
+        long offsetsSize = ARRAY_HEADER_SIZE + 4L * offsets.length;
+        long nullsSize = OBJECT_HEADER_SIZE + ARRAY_HEADER_SIZE + nulls.size() / 8;
+        return OBJECT_HEADER_SIZE + heapSize + offsetsSize + nullsSize;
+    }
+}
@@ -0,0 +1,39 @@
+package io.burt.athena.result;
+
+/**
+ * A row of a result, as published by {@link S3RowPublisher}.
+ */
+public class Row {
+    private final long rowNumber;
+    private final String[] values;
+
+    Row(long rowNumber, String[] values) {
+        this.rowNumber = rowNumber;
+        this.values = values;
+    }
+
+    /**
+     * @return the number of this row in the result, starting at one
+     */
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public int getColumnCount() {
+        return values.length;
+    }
+
+    /**
+     * Returns the value of a column, using the same column numbering as JDBC.
+     *
+     * @param columnIndex the index of the column, starting at one
+     * @return the value of the column, or null if the value is null
+     * @throws IndexOutOfBoundsException if there is no such column
+     */
+    public String getString(int columnIndex) {
+        if (columnIndex < 1 || columnIndex > values.length) {
+            throw new IndexOutOfBoundsException(String.format("Invalid column index %d", columnIndex));
+        }
+        return values[columnIndex - 1];
+    }
+}
@@ -1,9 +1,11 @@
 package io.burt.athena.result;
 
 import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.csv.ParallelCsvParser;
 import io.burt.athena.result.csv.VeryBasicCsvParser;
 import io.burt.athena.result.s3.ByteBufferResponseTransformer;
-import io.burt.athena.result.s3.InputStreamResponseTransformer;
+import io.burt.athena.result.s3.DownloadMetrics;
+import io.burt.athena.result.s3.ResumableInputStream;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
@@ -16,32 +18,69 @@ import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.time.Duration;
+import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class S3Result implements Result {
-    private static final Pattern S3_URI_PATTERN = Pattern.compile("^s3://([^/]+)/(.+)$");
+    static final Pattern S3_URI_PATTERN = Pattern.compile("^s3://([^/]+)/(.+)$");
 
     private final QueryExecution queryExecution;
     private final S3AsyncClient s3Client;
     private final String bucketName;
     private final String key;
     private final Duration timeout;
+    private final int pipelineDepth;
+    private final Executor pipelineExecutor;
+    private final ForkJoinPool parserPool;
+    private final int downloadRetries;
+    private final Duration downloadStallTimeout;
+    private final DownloadMetrics downloadMetrics;
 
+    private CompletableFuture<AthenaResultSetMetaData> metaDataFuture;
+    private AthenaResultSetMetaData metaData;
     private ResponseParser responseParser;
+    private PipelinedIterator<String[]> pipeline;
+    private Iterator<String[]> rows;
     private String[] currentRow;
     private int rowNumber;
 
     public S3Result(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout) {
+        this(s3Client, queryExecution, timeout, new S3ResultSettings(), new DownloadMetrics());
+    }
+
+    /**
+     * Creates a result that can parse rows on a background task or in
+     * parallel, and resume the download of the result object when it is
+     * interrupted, see {@link S3ResultSettings}.
+     *
+     * @param s3Client the client to use to load the result
+     * @param queryExecution the query execution whose result to load
+     * @param timeout how long to wait for the result object to be available
+     * @param settings how to download and parse the result object
+     * @param downloadMetrics the metrics to record download starts and
+     *                        interruptions in
+     */
+    public S3Result(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout, S3ResultSettings settings, DownloadMetrics downloadMetrics) {
         this.s3Client = s3Client;
         this.queryExecution = queryExecution;
         this.timeout = timeout;
+        this.pipelineDepth = settings.getPipelineDepth();
+        this.pipelineExecutor = settings.getPipelineExecutor();
+        this.parserPool = settings.getParserPool();
+        this.downloadRetries = settings.getDownloadRetries();
+        this.downloadStallTimeout = settings.getDownloadStallTimeout();
+        this.downloadMetrics = downloadMetrics;
         this.currentRow = null;
         this.rowNumber = 0;
+        this.metaDataFuture = null;
+        this.metaData = null;
         Matcher matcher = S3_URI_PATTERN.matcher(queryExecution.resultConfiguration().outputLocation());
         if (matcher.matches()) {
             this.bucketName = matcher.group(1);
@@ -61,19 +100,22 @@ public class S3Result implements Result {
     }
 
     private void start() throws SQLException, InterruptedException {
+        requestMetaData();
         try {
-            AthenaMetaDataParser metaDataParser = new AthenaMetaDataParser(queryExecution);
-            CompletableFuture<AthenaResultSetMetaData> metadataFuture = s3Client.getObject(b -> b.bucket(bucketName).key(key + ".metadata"), new ByteBufferResponseTransformer()).thenApply(metaDataParser::parse);
-            CompletableFuture<InputStream> responseStreamFuture = s3Client.getObject(b -> b.bucket(bucketName).key(key), new InputStreamResponseTransformer());
-            CompletableFuture<ResponseParser> combinedFuture = metadataFuture.thenCombine(responseStreamFuture, (metaData, responseStream) -> new ResponseParser(responseStream, metaData));
-            responseParser = combinedFuture.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            ResumableInputStream responseStream = new ResumableInputStream(s3Client, bucketName, key, timeout, downloadRetries, downloadStallTimeout, downloadMetrics);
+            long openStart = System.nanoTime();
+            responseParser = await(responseStream.open().thenApply(stream -> {
+                downloadMetrics.recordOpen(Duration.ofNanos(System.nanoTime() - openStart));
+                return new ResponseParser(stream, parserPool);
+            }));
+            rows = responseParser;
             responseParser.next();
+            if (pipelineDepth > 0) {
+                pipeline = new PipelinedIterator<>(responseParser, pipelineDepth, pipelineExecutor);
+                rows = pipeline;
+            }
             rowNumber = 0;
-        } catch (ExecutionException e) {
-            SQLException ee = new SQLException(e.getCause());
-            ee.addSuppressed(e);
-            throw ee;
-        } catch (TimeoutException | NoSuchKeyException e) {
+        } catch (NoSuchKeyException e) {
             throw new SQLTimeoutException(e);
         } catch (RuntimeException e) {
             if (!(e.getCause() instanceof RuntimeException)) {
@@ -86,8 +128,31 @@ public class S3Result implements Result {
         }
     }
 
-    @Override
-    public AthenaResultSetMetaData getMetaData() throws SQLException {
+    private void requestMetaData() {
+        if (metaDataFuture == null) {
+            AthenaMetaDataParser metaDataParser = new AthenaMetaDataParser(queryExecution);
+            try {
+                metaDataFuture = s3Client.getObject(b -> b.bucket(bucketName).key(key + ".metadata"), new ByteBufferResponseTransformer()).thenApply(metaDataParser::parse);
+            } catch (RuntimeException e) {
+                metaDataFuture = new CompletableFuture<>();
+                metaDataFuture.completeExceptionally(e);
+            }
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws SQLException, InterruptedException {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            SQLException ee = new SQLException(e.getCause());
+            ee.addSuppressed(e);
+            throw ee;
+        } catch (TimeoutException e) {
+            throw new SQLTimeoutException(e);
+        }
+    }
+
+    private void ensureStarted() throws SQLException {
         if (responseParser == null) {
             try {
                 start();
@@ -96,25 +161,37 @@ public class S3Result implements Result {
                 throw new SQLException(e);
             }
         }
-        return responseParser.getMetaData();
     }
 
     @Override
-    public int getRowNumber() {
-        return rowNumber;
-    }
-
-    @Override
-    public boolean next() throws SQLException {
-        if (responseParser == null) {
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        if (metaData == null) {
+            requestMetaData();
             try {
-                start();
+                metaData = await(metaDataFuture);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 throw new SQLException(e);
             }
         }
-        currentRow = responseParser.next();
+        return metaData;
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+        ensureStarted();
+        return responseParser.getColumnCount();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        ensureStarted();
+        currentRow = rows.hasNext() ? rows.next() : null;
         if (currentRow == null) {
             return false;
         } else {
@@ -134,7 +211,7 @@ public class S3Result implements Result {
             return ResultPosition.BEFORE_FIRST;
         } else if (getRowNumber() == 1) {
             return ResultPosition.FIRST;
-        } else if (responseParser.hasNext()) {
+        } else if (rows.hasNext()) {
             return ResultPosition.MIDDLE;
         } else if (currentRow == null) {
             return ResultPosition.AFTER_LAST;
@@ -145,6 +222,9 @@ public class S3Result implements Result {
 
     @Override
     public void close() throws SQLException {
+        if (pipeline != null) {
+            pipeline.close();
+        }
         try {
             if (responseParser != null) {
                 responseParser.close();
@@ -154,18 +234,34 @@ public class S3Result implements Result {
         }
     }
 
-    private static class ResponseParser extends VeryBasicCsvParser implements AutoCloseable {
+    private static class ResponseParser implements Iterator<String[]>, AutoCloseable {
         private final InputStream responseStream;
-        private final AthenaResultSetMetaData metaData;
+        private final VeryBasicCsvParser sequentialParser;
+        private final ParallelCsvParser parallelParser;
 
-        ResponseParser(InputStream responseStream, AthenaResultSetMetaData metaData) {
-            super(new BufferedReader(new InputStreamReader(responseStream, StandardCharsets.UTF_8)), metaData.getColumnCount());
+        ResponseParser(InputStream responseStream, ForkJoinPool parserPool) {
             this.responseStream = responseStream;
-            this.metaData = metaData;
+            if (parserPool == null) {
+                this.sequentialParser = new VeryBasicCsvParser(new BufferedReader(new InputStreamReader(responseStream, StandardCharsets.UTF_8)));
+                this.parallelParser = null;
+            } else {
+                this.sequentialParser = null;
+                this.parallelParser = new ParallelCsvParser(responseStream, parserPool);
+            }
         }
 
-        AthenaResultSetMetaData getMetaData() {
-            return metaData;
+        int getColumnCount() {
+            return parallelParser == null ? sequentialParser.getColumnCount() : parallelParser.getColumnCount();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return parallelParser == null ? sequentialParser.hasNext() : parallelParser.hasNext();
+        }
+
+        @Override
+        public String[] next() {
+            return parallelParser == null ? sequentialParser.next() : parallelParser.next();
         }
 
         @Override
@@ -0,0 +1,456 @@
+package io.burt.athena.result;
+
+import io.burt.athena.result.s3.PublisherResponseTransformer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
+import software.amazon.awssdk.utils.http.SdkHttpUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+
+/**
+ * The CSV object in S3 that holds the result of a query execution.
+ *
+ * An instance can be obtained by unwrapping a result set, and is useful when
+ * the result is to be written somewhere as CSV: the bytes of the object are
+ * written to the target exactly as they are received, without being decoded
+ * or parsed, or copied to another location in S3 without passing through
+ * the JVM at all.
+ */
+public class S3ResultObject {
+    static final long MULTIPART_COPY_THRESHOLD = 1L << 28;
+    static final long COPY_PART_SIZE = 1L << 26;
+    static final int MAX_PART_COUNT = 10000;
+    static final int MAX_PARTS_IN_FLIGHT = 10;
+
+    private static final Object COMPLETE = new Object();
+
+    private final S3AsyncClient s3Client;
+    private final String bucketName;
+    private final String key;
+    private final Duration timeout;
+    private final long multipartCopyThreshold;
+    private final long copyPartSize;
+    private final int maxPartsInFlight;
+
+    public S3ResultObject(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout) {
+        this(s3Client, queryExecution, timeout, MULTIPART_COPY_THRESHOLD, COPY_PART_SIZE, MAX_PARTS_IN_FLIGHT);
+    }
+
+    S3ResultObject(S3AsyncClient s3Client, QueryExecution queryExecution, Duration timeout, long multipartCopyThreshold, long copyPartSize, int maxPartsInFlight) {
+        this.s3Client = s3Client;
+        this.timeout = timeout;
+        this.multipartCopyThreshold = multipartCopyThreshold;
+        this.copyPartSize = copyPartSize;
+        this.maxPartsInFlight = maxPartsInFlight;
+        String outputLocation = queryExecution.resultConfiguration().outputLocation();
+        Matcher matcher = S3Result.S3_URI_PATTERN.matcher(outputLocation);
+        if (matcher.matches()) {
+            this.bucketName = matcher.group(1);
+            this.key = matcher.group(2);
+        } else {
+            throw new IllegalArgumentException(String.format("The output location \"%s\" is malformed", outputLocation));
+        }
+    }
+
+    public String getBucketName() {
+        return bucketName;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Writes the bytes of the result object to an output stream.
+     *
+     * @param target the stream to write to, which is not closed
+     * @param skipHeader whether or not to leave out the header row
+     * @return the number of bytes written
+     * @throws SQLException when the object can't be loaded or written
+     * @see #transferTo(WritableByteChannel, boolean)
+     */
+    public long transferTo(OutputStream target, boolean skipHeader) throws SQLException {
+        return transferTo(Channels.newChannel(target), skipHeader);
+    }
+
+    /**
+     * Writes the bytes of the result object to a channel.
+     *
+     * The buffers received from S3 are written to the channel one by one on
+     * the calling thread, and the next buffer is not requested until the
+     * previous has been written, so a slow channel slows down the download
+     * instead of causing buffers to pile up in memory.
+     *
+     * @param target the channel to write to, which is not closed
+     * @param skipHeader whether or not to leave out the header row
+     * @return the number of bytes written
+     * @throws SQLException when the object can't be loaded or written
+     */
+    public long transferTo(WritableByteChannel target, boolean skipHeader) throws SQLException {
+        try {
+            SdkPublisher<ByteBuffer> publisher = s3Client.getObject(b -> b.bucket(bucketName).key(key), new PublisherResponseTransformer()).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            BufferQueue buffers = new BufferQueue();
+            publisher.subscribe(buffers);
+            return transfer(buffers, target, skipHeader);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (TimeoutException | NoSuchKeyException e) {
+            throw new SQLTimeoutException(e);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof NoSuchKeyException) {
+                throw new SQLTimeoutException(ee.getCause());
+            }
+            SQLException eee = new SQLException(ee.getCause());
+            eee.addSuppressed(ee);
+            throw eee;
+        }
+    }
+
+    /**
+     * Copies the result object, and its metadata object, to another location
+     * in S3.
+     *
+     * The copy is made by S3: objects smaller than a threshold are copied
+     * with a single <code>CopyObject</code> request, and larger objects are
+     * copied with a multipart upload whose parts are copied with
+     * <code>UploadPartCopy</code> requests, a limited number at a time.
+     *
+     * The metadata object is copied to the destination key with the suffix
+     * <code>.metadata</code>, just like Athena names it.
+     *
+     * The copy fails with a timeout when no request completes within the
+     * network timeout. When the copy fails, times out or is interrupted the
+     * requests in flight are cancelled and the multipart upload is aborted.
+     *
+     * @param destination the S3 URI to copy the result object to, for example
+     *                    <code>s3://some-bucket/some/key.csv</code>
+     * @throws SQLException when the destination is malformed or the copy fails
+     * @throws SQLTimeoutException when the copy makes no progress within the
+     *                             network timeout
+     */
+    public void copyTo(String destination) throws SQLException {
+        Matcher matcher = S3Result.S3_URI_PATTERN.matcher(destination);
+        if (!matcher.matches()) {
+            throw new SQLException(String.format("The destination \"%s\" is malformed", destination));
+        }
+        String destinationBucketName = matcher.group(1);
+        String destinationKey = matcher.group(2);
+        CompletableFuture<Void> cancellation = new CompletableFuture<>();
+        AtomicLong progress = new AtomicLong(0);
+        CompletableFuture<Void> dataCopy = s3Client.headObject(b -> b.bucket(bucketName).key(key)).thenCompose(response -> {
+            progress.incrementAndGet();
+            if (response.contentLength() < multipartCopyThreshold) {
+                return copyObject(key, destinationBucketName, destinationKey, cancellation);
+            } else {
+                return new MultipartCopy(response.contentLength(), destinationBucketName, destinationKey, cancellation, progress).start();
+            }
+        });
+        CompletableFuture<Void> metaDataCopy = copyObject(key + ".metadata", destinationBucketName, destinationKey + ".metadata", cancellation);
+        dataCopy.whenComplete((v, t) -> cancelOnFailure(cancellation, t));
+        metaDataCopy.whenComplete((v, t) -> cancelOnFailure(cancellation, t));
+        CompletableFuture<Void> copy = CompletableFuture.allOf(dataCopy, metaDataCopy);
+        try {
+            await(copy, progress);
+        } catch (InterruptedException ie) {
+            cancellation.completeExceptionally(ie);
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        } catch (TimeoutException te) {
+            cancellation.completeExceptionally(te);
+            throw new SQLTimeoutException(te);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            SQLException eee = new SQLException(cause);
+            eee.addSuppressed(ee);
+            throw eee;
+        }
+    }
+
+    private void await(CompletableFuture<Void> copy, AtomicLong progress) throws InterruptedException, ExecutionException, TimeoutException {
+        long lastProgress = progress.get();
+        while (true) {
+            try {
+                copy.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                long currentProgress = progress.get();
+                if (currentProgress == lastProgress) {
+                    throw e;
+                }
+                lastProgress = currentProgress;
+            }
+        }
+    }
+
+    private void cancelOnFailure(CompletableFuture<Void> cancellation, Throwable t) {
+        if (t != null) {
+            cancellation.completeExceptionally(t);
+        }
+    }
+
+    private String copySource(String sourceKey) {
+        return SdkHttpUtils.urlEncodeIgnoreSlashes(bucketName + "/" + sourceKey);
+    }
+
+    private CompletableFuture<Void> copyObject(String sourceKey, String destinationBucketName, String destinationKey, CompletableFuture<Void> cancellation) {
+        CompletableFuture<CopyObjectResponse> request = s3Client.copyObject(b -> b
+                .copySource(copySource(sourceKey))
+                .bucket(destinationBucketName)
+                .key(destinationKey)
+        );
+        cancellation.whenComplete((v, t) -> request.cancel(true));
+        return request.thenApply(response -> null);
+    }
+
+    /**
+     * Copies the result object with a multipart upload, keeping at most a
+     * limited number of <code>UploadPartCopy</code> requests in flight and
+     * starting the next part as soon as one completes.
+     */
+    private class MultipartCopy {
+        private final String destinationBucketName;
+        private final String destinationKey;
+        private final CompletableFuture<Void> cancellation;
+        private final AtomicLong progress;
+        private final long size;
+        private final long partSize;
+        private final int partCount;
+        private final CompletedPart[] completedParts;
+        private final AtomicInteger completedPartCount;
+        private final CompletableFuture<Void> partsCopied;
+        private final Set<CompletableFuture<?>> requestsInFlight;
+
+        private String uploadId;
+        private int nextPartNumber;
+
+        MultipartCopy(long size, String destinationBucketName, String destinationKey, CompletableFuture<Void> cancellation, AtomicLong progress) {
+            this.destinationBucketName = destinationBucketName;
+            this.destinationKey = destinationKey;
+            this.cancellation = cancellation;
+            this.progress = progress;
+            this.size = size;
+            this.partSize = Math.max(copyPartSize, (size + MAX_PART_COUNT - 1) / MAX_PART_COUNT);
+            this.partCount = (int) ((size + partSize - 1) / partSize);
+            this.completedParts = new CompletedPart[partCount];
+            this.completedPartCount = new AtomicInteger(0);
+            this.partsCopied = new CompletableFuture<>();
+            this.requestsInFlight = new HashSet<>();
+            this.uploadId = null;
+            this.nextPartNumber = 1;
+        }
+
+        CompletableFuture<Void> start() {
+            return s3Client.createMultipartUpload(b -> b.bucket(destinationBucketName).key(destinationKey)).thenCompose(upload -> {
+                progress.incrementAndGet();
+                uploadId = upload.uploadId();
+                cancellation.whenComplete((v, t) -> fail(t));
+                for (int i = 0; i < maxPartsInFlight; i++) {
+                    copyNextPart();
+                }
+                CompletableFuture<Void> result = new CompletableFuture<>();
+                partsCopied.thenCompose(v -> s3Client.completeMultipartUpload(b -> b
+                        .bucket(destinationBucketName)
+                        .key(destinationKey)
+                        .uploadId(uploadId)
+                        .multipartUpload(bb -> bb.parts(completedParts))
+                )).whenComplete((response, t) -> {
+                    if (t == null) {
+                        result.complete(null);
+                    } else {
+                        s3Client.abortMultipartUpload(b -> b
+                                .bucket(destinationBucketName)
+                                .key(destinationKey)
+                                .uploadId(uploadId)
+                        ).whenComplete((abortResponse, tt) -> result.completeExceptionally(t));
+                    }
+                });
+                return result;
+            });
+        }
+
+        private void copyNextPart() {
+            int partNumber;
+            synchronized (this) {
+                if (partsCopied.isDone() || nextPartNumber > partCount) {
+                    return;
+                }
+                partNumber = nextPartNumber++;
+            }
+            long offset = (partNumber - 1) * partSize;
+            String range = String.format("bytes=%d-%d", offset, Math.min(size, offset + partSize) - 1);
+            CompletableFuture<UploadPartCopyResponse> request = s3Client.uploadPartCopy(b -> b
+                    .copySource(copySource(key))
+                    .copySourceRange(range)
+                    .bucket(destinationBucketName)
+                    .key(destinationKey)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+            );
+            synchronized (this) {
+                requestsInFlight.add(request);
+            }
+            request.whenComplete((response, t) -> {
+                synchronized (this) {
+                    requestsInFlight.remove(request);
+                }
+                if (t == null) {
+                    progress.incrementAndGet();
+                    completedParts[partNumber - 1] = CompletedPart.builder().partNumber(partNumber).eTag(response.copyPartResult().eTag()).build();
+                    if (completedPartCount.incrementAndGet() == partCount) {
+                        partsCopied.complete(null);
+                    } else {
+                        copyNextPart();
+                    }
+                } else {
+                    fail(t);
+                }
+            });
+        }
+
+        private void fail(Throwable t) {
+            if (partsCopied.completeExceptionally(t)) {
+                List<CompletableFuture<?>> requests;
+                synchronized (this) {
+                    requests = new ArrayList<>(requestsInFlight);
+                }
+                for (CompletableFuture<?> request : requests) {
+                    request.cancel(true);
+                }
+            }
+        }
+    }
+
+    private long transfer(BufferQueue buffers, WritableByteChannel target, boolean skipHeader) throws SQLException, InterruptedException, TimeoutException {
+        HeaderSkipper headerSkipper = skipHeader ? new HeaderSkipper() : null;
+        long transferred = 0;
+        try {
+            while (true) {
+                Object signal = buffers.poll(timeout);
+                if (signal == COMPLETE) {
+                    return transferred;
+                } else if (signal instanceof Throwable) {
+                    throw new SQLException((Throwable) signal);
+                }
+                ByteBuffer buffer = (ByteBuffer) signal;
+                if (headerSkipper == null || headerSkipper.skip(buffer)) {
+                    while (buffer.hasRemaining()) {
+                        transferred += target.write(buffer);
+                    }
+                }
+                buffers.request();
+            }
+        } catch (IOException e) {
+            buffers.cancel();
+            throw new SQLException(e);
+        } catch (InterruptedException | TimeoutException | RuntimeException e) {
+            buffers.cancel();
+            throw e;
+        }
+    }
+
+    private static class HeaderSkipper {
+        private boolean inQuote;
+        private boolean done;
+
+        HeaderSkipper() {
+            this.inQuote = false;
+            this.done = false;
+        }
+
+        /**
+         * @return true when the buffer is positioned after the header row
+         */
+        boolean skip(ByteBuffer buffer) {
+            while (!done && buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '"') {
+                    inQuote = !inQuote;
+                } else if (b == '\n' && !inQuote) {
+                    done = true;
+                }
+            }
+            return done;
+        }
+    }
+
+    private static class BufferQueue implements Subscriber<ByteBuffer> {
+        private final BlockingQueue<Object> signals;
+
+        private volatile Subscription subscription;
+
+        BufferQueue() {
+            this.signals = new LinkedBlockingQueue<>();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+            signals.add(buffer);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            signals.add(t);
+        }
+
+        @Override
+        public void onComplete() {
+            signals.add(COMPLETE);
+        }
+
+        Object poll(Duration timeout) throws InterruptedException, TimeoutException {
+            Object signal = signals.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (signal == null) {
+                throw new TimeoutException();
+            }
+            return signal;
+        }
+
+        void request() {
+            subscription.request(1);
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
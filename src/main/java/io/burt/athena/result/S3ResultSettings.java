@@ -0,0 +1,118 @@
+package io.burt.athena.result;
+
+import io.burt.athena.result.csv.ParallelCsvParser;
+import io.burt.athena.result.s3.ResumableInputStream;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Settings for how an {@link S3Result} downloads and parses the result
+ * object.
+ *
+ * By default rows are parsed sequentially on the thread that reads the
+ * result, and an interrupted download is not resumed.
+ */
+public class S3ResultSettings {
+    private final int pipelineDepth;
+    private final Executor pipelineExecutor;
+    private final ForkJoinPool parserPool;
+    private final int downloadRetries;
+    private final Duration downloadStallTimeout;
+
+    /**
+     * Creates the default settings.
+     */
+    public S3ResultSettings() {
+        this(0, null, null, 0, null);
+    }
+
+    private S3ResultSettings(int pipelineDepth, Executor pipelineExecutor, ForkJoinPool parserPool, int downloadRetries, Duration downloadStallTimeout) {
+        this.pipelineDepth = pipelineDepth;
+        this.pipelineExecutor = pipelineExecutor;
+        this.parserPool = parserPool;
+        this.downloadRetries = downloadRetries;
+        this.downloadStallTimeout = downloadStallTimeout;
+    }
+
+    /**
+     * When the pipeline depth is greater than zero, rows are decoded and
+     * parsed on a task submitted to the pipeline executor, which stays at most
+     * that many batches of rows ahead of the consumer. When the depth is zero
+     * rows are parsed on the thread reading the result.
+     *
+     * @param pipelineDepth the number of row batches to parse ahead, or zero
+     *                      to parse on the reading thread
+     * @return a copy of these settings with the new value
+     */
+    public S3ResultSettings withPipelineDepth(int pipelineDepth) {
+        return new S3ResultSettings(pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+
+    /**
+     * @param pipelineExecutor the executor to run the parser on, only used
+     *                         when the pipeline depth is greater than zero
+     * @return a copy of these settings with the new value
+     */
+    public S3ResultSettings withPipelineExecutor(Executor pipelineExecutor) {
+        return new S3ResultSettings(pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+
+    /**
+     * When a parser pool is given the result object is read in large blocks
+     * that are split into chunks and parsed in parallel on the pool, see
+     * {@link ParallelCsvParser}.
+     *
+     * @param parserPool the pool to parse chunks of the result on, or null to
+     *                   parse the result sequentially
+     * @return a copy of these settings with the new value
+     */
+    public S3ResultSettings withParserPool(ForkJoinPool parserPool) {
+        return new S3ResultSettings(pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+
+    /**
+     * @param downloadRetries how many times an interrupted download may be
+     *                        resumed, see {@link ResumableInputStream}
+     * @return a copy of these settings with the new value
+     */
+    public S3ResultSettings withDownloadRetries(int downloadRetries) {
+        return new S3ResultSettings(pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+
+    /**
+     * @param downloadStallTimeout how long the download may go without
+     *                             receiving any bytes before it is resumed,
+     *                             or null to wait indefinitely
+     * @return a copy of these settings with the new value
+     */
+    public S3ResultSettings withDownloadStallTimeout(Duration downloadStallTimeout) {
+        return new S3ResultSettings(pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+
+    public int getPipelineDepth() {
+        return pipelineDepth;
+    }
+
+    public Executor getPipelineExecutor() {
+        return pipelineExecutor;
+    }
+
+    public ForkJoinPool getParserPool() {
+        return parserPool;
+    }
+
+    public int getDownloadRetries() {
+        return downloadRetries;
+    }
+
+    public Duration getDownloadStallTimeout() {
+        return downloadStallTimeout;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("S3ResultSettings(pipelineDepth=%d, pipelineExecutor=%s, parserPool=%s, downloadRetries=%d, downloadStallTimeout=%s)", pipelineDepth, pipelineExecutor, parserPool, downloadRetries, downloadStallTimeout);
+    }
+}
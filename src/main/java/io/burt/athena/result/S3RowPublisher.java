@@ -0,0 +1,273 @@
+package io.burt.athena.result;
+
+import io.burt.athena.result.csv.IncrementalCsvParser;
+import io.burt.athena.result.s3.PublisherResponseTransformer;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+
+/**
+ * Publishes the rows of a query execution's result object without blocking.
+ *
+ * The query execution is obtained when the publisher is subscribed to, and
+ * the result object is then requested from S3 one buffer at a time, and only
+ * while the subscriber has outstanding demand that cannot be satisfied by the
+ * rows already parsed. This means that a slow subscriber slows down the
+ * download instead of causing rows to pile up in memory.
+ *
+ * Cancelling the subscription before the query execution has been obtained
+ * cancels the future returned by the query execution supplier, and
+ * cancelling it after the download has started cancels the download.
+ *
+ * The publisher supports a single subscriber.
+ */
+public class S3RowPublisher implements Publisher<Row> {
+    private final S3AsyncClient s3Client;
+    private final Supplier<CompletableFuture<QueryExecution>> queryExecutionSupplier;
+    private final AtomicBoolean subscribed;
+
+    public S3RowPublisher(S3AsyncClient s3Client, Supplier<CompletableFuture<QueryExecution>> queryExecutionSupplier) {
+        this.s3Client = s3Client;
+        this.queryExecutionSupplier = queryExecutionSupplier;
+        this.subscribed = new AtomicBoolean(false);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Row> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        if (subscribed.compareAndSet(false, true)) {
+            RowSubscription subscription = new RowSubscription(subscriber);
+            subscriber.onSubscribe(subscription);
+            subscription.start();
+        } else {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("This publisher only supports a single subscriber"));
+        }
+    }
+
+    private class RowSubscription implements Subscription, Subscriber<ByteBuffer> {
+        private final Subscriber<? super Row> downstream;
+        private final IncrementalCsvParser parser;
+        private final Queue<String[]> rows;
+        private final AtomicLong demand;
+        private final AtomicInteger drainers;
+        private final AtomicBoolean awaitingBuffer;
+
+        private volatile CompletableFuture<QueryExecution> queryExecutionFuture;
+        private volatile Subscription upstream;
+        private volatile boolean upstreamComplete;
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private boolean terminated;
+        private boolean headerSkipped;
+        private long rowNumber;
+
+        RowSubscription(Subscriber<? super Row> downstream) {
+            this.downstream = downstream;
+            this.parser = new IncrementalCsvParser();
+            this.rows = new ConcurrentLinkedQueue<>();
+            this.demand = new AtomicLong(0);
+            this.drainers = new AtomicInteger(0);
+            this.awaitingBuffer = new AtomicBoolean(false);
+            this.upstreamComplete = false;
+            this.error = null;
+            this.cancelled = false;
+            this.terminated = false;
+            this.headerSkipped = false;
+            this.rowNumber = 0;
+        }
+
+        void start() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                queryExecutionFuture = queryExecutionSupplier.get();
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            if (cancelled) {
+                queryExecutionFuture.cancel(false);
+                return;
+            }
+            queryExecutionFuture
+                    .thenCompose(this::requestResultObject)
+                    .whenComplete((publisher, t) -> {
+                        if (t != null) {
+                            fail(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+                        } else {
+                            publisher.subscribe(this);
+                        }
+                    });
+        }
+
+        private CompletableFuture<SdkPublisher<ByteBuffer>> requestResultObject(QueryExecution queryExecution) {
+            String outputLocation = queryExecution.resultConfiguration().outputLocation();
+            Matcher matcher = S3Result.S3_URI_PATTERN.matcher(outputLocation);
+            if (matcher.matches()) {
+                return s3Client.getObject(b -> b.bucket(matcher.group(1)).key(matcher.group(2)), new PublisherResponseTransformer());
+            } else {
+                throw new IllegalArgumentException(String.format("The output location \"%s\" is malformed", outputLocation));
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelUpstream();
+                fail(new IllegalArgumentException(String.format("Requested number of rows must be positive (got %d)", n)));
+            } else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                } while (!demand.compareAndSet(current, next));
+                drain();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelUpstream();
+            drain();
+        }
+
+        private void cancelUpstream() {
+            CompletableFuture<QueryExecution> future = queryExecutionFuture;
+            if (future != null && !future.isDone()) {
+                future.cancel(false);
+            }
+            Subscription s = upstream;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (error == null) {
+                error = t;
+            }
+            drain();
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            upstream = s;
+            if (cancelled) {
+                s.cancel();
+            } else {
+                drain();
+            }
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+            try {
+                parser.feed(buffer, this::addRow);
+            } catch (ParseException e) {
+                upstream.cancel();
+                fail(e);
+                return;
+            }
+            awaitingBuffer.set(false);
+            drain();
+        }
+
+        private void addRow(String[] row) {
+            if (headerSkipped) {
+                rows.add(row);
+            } else {
+                headerSkipped = true;
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            fail(t);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                parser.finish();
+                upstreamComplete = true;
+                drain();
+            } catch (ParseException e) {
+                fail(e);
+            }
+        }
+
+        private void drain() {
+            if (drainers.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (cancelled || terminated) {
+                    rows.clear();
+                } else {
+                    emitRows();
+                }
+                missed = drainers.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emitRows() {
+            long requested = demand.get();
+            long emitted = 0;
+            while (emitted != requested && !cancelled) {
+                String[] row = rows.poll();
+                if (row == null) {
+                    break;
+                }
+                rowNumber++;
+                downstream.onNext(new Row(rowNumber, row));
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE) {
+                demand.addAndGet(-emitted);
+            }
+            if (cancelled) {
+                return;
+            }
+            if (error != null) {
+                terminated = true;
+                rows.clear();
+                downstream.onError(error);
+            } else if (rows.isEmpty() && upstreamComplete) {
+                terminated = true;
+                downstream.onComplete();
+            } else if (rows.isEmpty() && demand.get() > 0 && upstream != null && !upstreamComplete && awaitingBuffer.compareAndSet(false, true)) {
+                upstream.request(1);
+            }
+        }
+    }
+}
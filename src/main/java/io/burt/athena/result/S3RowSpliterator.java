@@ -0,0 +1,471 @@
+package io.burt.athena.result;
+
+import io.burt.athena.result.csv.IncrementalCsvParser;
+import io.burt.athena.result.csv.VeryBasicCsvParser;
+import io.burt.athena.result.s3.InputStreamResponseTransformer;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+
+/**
+ * Traverses the rows of a query execution's result object, and can split the
+ * object into byte ranges that are downloaded and parsed independently.
+ *
+ * When it is not split the whole object is streamed and parsed in order,
+ * just like {@link S3Result} does.
+ *
+ * The first split starts the download of the whole object and takes the size
+ * of the object from the response. That download is then used by the range
+ * that starts at the beginning of the object. All other ranges are requested
+ * when they are first traversed, and are streamed and parsed as they arrive,
+ * so a range is never held in memory.
+ *
+ * A byte range can start in the middle of a row, and even in the middle of a
+ * quoted value containing newlines, so the rows of a range can only be found
+ * once the quote state at its start is known. That state, and the number of
+ * rows before the range, are derived from the quotes and newlines in the
+ * ranges before it. These are counted by separate ranged requests that are
+ * made when a range after them is first traversed, and that only count bytes
+ * as they arrive. The rows of a range are the rows that start in it, and its
+ * download continues past its end until its last row is complete.
+ */
+public class S3RowSpliterator implements Spliterator<Row>, AutoCloseable {
+    static final long MIN_SPLIT_SIZE = 1 << 20;
+
+    private static final int READ_BUFFER_SIZE = 1 << 16;
+
+    private final S3AsyncClient s3Client;
+    private final String bucketName;
+    private final String key;
+    private final long minSplitSize;
+
+    private long start;
+    private long end;
+    private Lazy<RangeState> startState;
+    private InputStream objectStream;
+    private InputStream responseStream;
+    private Iterator<Row> rows;
+
+    public S3RowSpliterator(S3AsyncClient s3Client, QueryExecution queryExecution) {
+        this(s3Client, queryExecution, MIN_SPLIT_SIZE);
+    }
+
+    S3RowSpliterator(S3AsyncClient s3Client, QueryExecution queryExecution, long minSplitSize) {
+        this.s3Client = s3Client;
+        this.minSplitSize = minSplitSize;
+        this.start = 0;
+        this.end = -1;
+        this.startState = new Lazy<>(() -> CompletableFuture.completedFuture(new RangeState(false, 0)));
+        this.objectStream = null;
+        this.responseStream = null;
+        this.rows = null;
+        String outputLocation = queryExecution.resultConfiguration().outputLocation();
+        Matcher matcher = S3Result.S3_URI_PATTERN.matcher(outputLocation);
+        if (matcher.matches()) {
+            this.bucketName = matcher.group(1);
+            this.key = matcher.group(2);
+        } else {
+            throw new IllegalArgumentException(String.format("The output location \"%s\" is malformed", outputLocation));
+        }
+    }
+
+    private S3RowSpliterator(S3RowSpliterator parent, long start, long end) {
+        this.s3Client = parent.s3Client;
+        this.bucketName = parent.bucketName;
+        this.key = parent.key;
+        this.minSplitSize = parent.minSplitSize;
+        this.start = start;
+        this.end = end;
+        this.startState = parent.startState;
+        this.objectStream = parent.objectStream;
+        this.responseStream = null;
+        this.rows = null;
+    }
+
+    @Override
+    public Spliterator<Row> trySplit() {
+        if (rows != null) {
+            return null;
+        }
+        if (end == -1 && !openObject()) {
+            return null;
+        }
+        if (end - start < 2 * minSplitSize) {
+            return null;
+        }
+        long middle = start + (end - start) / 2;
+        long scanFrom = start == 0 ? 0 : start - 1;
+        S3RowSpliterator prefix = new S3RowSpliterator(this, start, middle);
+        Lazy<RangeState> prefixState = startState;
+        Lazy<RangeScan> prefixScan = new Lazy<>(() -> scan(scanFrom, middle - 1));
+        startState = new Lazy<>(() -> prefixState.get().thenCombine(prefixScan.get(), RangeState::after));
+        objectStream = null;
+        start = middle;
+        return prefix;
+    }
+
+    /**
+     * Starts the download of the whole object and waits for the response,
+     * which gives the size of the object. The download is not consumed until
+     * the range that starts at the beginning of the object is traversed.
+     */
+    private boolean openObject() {
+        try {
+            InputStreamResponseTransformer transformer = new InputStreamResponseTransformer();
+            objectStream = await(s3Client.getObject(b -> b.bucket(bucketName).key(key), transformer));
+            end = transformer.response().contentLength();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Row> action) {
+        if (rows == null) {
+            rows = end == -1 ? streamObject() : streamRange();
+        }
+        if (rows.hasNext()) {
+            action.accept(rows.next());
+            return true;
+        } else {
+            close();
+            return false;
+        }
+    }
+
+    @Override
+    public long estimateSize() {
+        if (end == -1) {
+            return Long.MAX_VALUE;
+        } else {
+            return end - start;
+        }
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (objectStream != null) {
+                objectStream.close();
+                objectStream = null;
+            }
+            if (responseStream != null) {
+                responseStream.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Iterator<Row> streamObject() {
+        responseStream = await(s3Client.getObject(b -> b.bucket(bucketName).key(key), new InputStreamResponseTransformer()));
+        VeryBasicCsvParser parser = new VeryBasicCsvParser(new BufferedReader(new InputStreamReader(responseStream, StandardCharsets.UTF_8)));
+        parser.next();
+        return new Iterator<Row>() {
+            private long rowNumber = 0;
+
+            @Override
+            public boolean hasNext() {
+                return parser.hasNext();
+            }
+
+            @Override
+            public Row next() {
+                rowNumber++;
+                return new Row(rowNumber, parser.next());
+            }
+        };
+    }
+
+    private Iterator<Row> streamRange() {
+        if (objectStream != null) {
+            responseStream = objectStream;
+            objectStream = null;
+        } else {
+            long from = start == 0 ? 0 : start - 1;
+            String range = String.format("bytes=%d-", from);
+            responseStream = await(s3Client.getObject(b -> b.bucket(bucketName).key(key).range(range), new InputStreamResponseTransformer()));
+        }
+        return new RangeRows(responseStream, start, end, await(startState.get()));
+    }
+
+    private CompletableFuture<RangeScan> scan(long from, long to) {
+        if (from >= to) {
+            return CompletableFuture.completedFuture(new RangeScan(false, 0, 0));
+        }
+        String range = String.format("bytes=%d-%d", from, to - 1);
+        return s3Client.getObject(b -> b.bucket(bucketName).key(key).range(range), new RangeScanner());
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Parses the rows that start in a range from a stream that starts at the
+     * byte before the range, or at the start of the object.
+     */
+    private static class RangeRows implements Iterator<Row> {
+        private final InputStream input;
+        private final long end;
+        private final byte[] buffer;
+        private final IncrementalCsvParser parser;
+        private final Deque<String[]> pending;
+
+        private long position;
+        private boolean inQuote;
+        private boolean skipping;
+        private boolean skipHeader;
+        private boolean done;
+        private long rowNumber;
+
+        RangeRows(InputStream input, long start, long end, RangeState state) {
+            this.input = input;
+            this.end = end;
+            this.buffer = new byte[READ_BUFFER_SIZE];
+            this.parser = new IncrementalCsvParser();
+            this.pending = new ArrayDeque<>();
+            this.done = false;
+            if (start == 0) {
+                this.position = 0;
+                this.inQuote = false;
+                this.skipping = false;
+                this.skipHeader = true;
+                this.rowNumber = 1;
+            } else {
+                this.position = start - 1;
+                this.inQuote = state.inQuote;
+                this.skipping = true;
+                this.skipHeader = false;
+                this.rowNumber = state.rowsBefore + 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (pending.isEmpty() && !done) {
+                    readMore();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (ParseException e) {
+                throw new RuntimeException(e);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Row next() {
+            if (hasNext()) {
+                return new Row(rowNumber++, pending.remove());
+            } else {
+                throw new NoSuchElementException();
+            }
+        }
+
+        private void readMore() throws IOException, ParseException {
+            int length = input.read(buffer);
+            if (length == -1) {
+                if (!skipping) {
+                    parser.finish();
+                }
+                done = true;
+                return;
+            }
+            int i = 0;
+            while (skipping && i < length) {
+                byte b = buffer[i];
+                if (b == '"') {
+                    inQuote = !inQuote;
+                } else if (b == '\n' && !inQuote) {
+                    skipping = false;
+                    done = position + i >= end - 1;
+                }
+                i++;
+            }
+            if (!skipping && !done) {
+                int from = i;
+                while (i < length) {
+                    byte b = buffer[i++];
+                    if (b == '"') {
+                        inQuote = !inQuote;
+                    } else if (b == '\n' && !inQuote && position + i - 1 >= end - 1) {
+                        done = true;
+                        break;
+                    }
+                }
+                parser.feed(ByteBuffer.wrap(buffer, from, i - from), this::accept);
+            }
+            position += length;
+        }
+
+        private void accept(String[] row) {
+            if (skipHeader) {
+                skipHeader = false;
+            } else {
+                pending.add(row);
+            }
+        }
+    }
+
+    /**
+     * Counts the quotes and newlines of a range as its bytes arrive, without
+     * keeping them.
+     */
+    private static class RangeScanner implements AsyncResponseTransformer<GetObjectResponse, RangeScan>, Subscriber<ByteBuffer> {
+        private final CompletableFuture<RangeScan> future;
+
+        private boolean oddQuotes;
+        private long even;
+        private long odd;
+
+        RangeScanner() {
+            this.future = new CompletableFuture<>();
+            this.oddQuotes = false;
+            this.even = 0;
+            this.odd = 0;
+        }
+
+        @Override
+        public CompletableFuture<RangeScan> prepare() {
+            return future;
+        }
+
+        @Override
+        public void onResponse(GetObjectResponse response) {
+        }
+
+        @Override
+        public void onStream(SdkPublisher<ByteBuffer> publisher) {
+            publisher.subscribe(this);
+        }
+
+        @Override
+        public void exceptionOccurred(Throwable t) {
+            future.completeExceptionally(t);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(ByteBuffer bytes) {
+            while (bytes.hasRemaining()) {
+                byte b = bytes.get();
+                if (b == '"') {
+                    oddQuotes = !oddQuotes;
+                } else if (b == '\n') {
+                    if (oddQuotes) {
+                        odd++;
+                    } else {
+                        even++;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            future.completeExceptionally(t);
+        }
+
+        @Override
+        public void onComplete() {
+            future.complete(new RangeScan(oddQuotes, even, odd));
+        }
+    }
+
+    /**
+     * Creates a future the first time it is asked for one, so that the
+     * requests that a future depends on are not made until it is needed.
+     */
+    private static class Lazy<T> {
+        private final Supplier<CompletableFuture<T>> supplier;
+        private CompletableFuture<T> future;
+
+        Lazy(Supplier<CompletableFuture<T>> supplier) {
+            this.supplier = supplier;
+            this.future = null;
+        }
+
+        synchronized CompletableFuture<T> get() {
+            if (future == null) {
+                future = supplier.get();
+            }
+            return future;
+        }
+    }
+
+    private static class RangeState {
+        final boolean inQuote;
+        final long rowsBefore;
+
+        RangeState(boolean inQuote, long rowsBefore) {
+            this.inQuote = inQuote;
+            this.rowsBefore = rowsBefore;
+        }
+
+        RangeState after(RangeScan scan) {
+            if (inQuote) {
+                return new RangeState(!scan.oddQuoteCount, rowsBefore + scan.newlinesWhenStartingInQuote);
+            } else {
+                return new RangeState(scan.oddQuoteCount, rowsBefore + scan.newlinesWhenStartingOutsideQuote);
+            }
+        }
+    }
+
+    private static class RangeScan {
+        final boolean oddQuoteCount;
+        final long newlinesWhenStartingOutsideQuote;
+        final long newlinesWhenStartingInQuote;
+
+        RangeScan(boolean oddQuoteCount, long newlinesWhenStartingOutsideQuote, long newlinesWhenStartingInQuote) {
+            this.oddQuoteCount = oddQuoteCount;
+            this.newlinesWhenStartingOutsideQuote = newlinesWhenStartingOutsideQuote;
+            this.newlinesWhenStartingInQuote = newlinesWhenStartingInQuote;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.burt.athena.result;
+
+/**
+ * A column that results are sorted by, and in which direction.
+ *
+ * Like in Athena, null values sort last in both directions.
+ */
+public class SortKey {
+    private final int columnIndex;
+    private final boolean descending;
+
+    private SortKey(int columnIndex, boolean descending) {
+        this.columnIndex = columnIndex;
+        this.descending = descending;
+    }
+
+    /**
+     * @param columnIndex the index of the column, the first column is 1
+     * @return a sort key for sorting on the column in ascending order
+     */
+    public static SortKey ascending(int columnIndex) {
+        return new SortKey(columnIndex, false);
+    }
+
+    /**
+     * @param columnIndex the index of the column, the first column is 1
+     * @return a sort key for sorting on the column in descending order
+     */
+    public static SortKey descending(int columnIndex) {
+        return new SortKey(columnIndex, true);
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+}
@@ -0,0 +1,314 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Merges the sorted results of a number of query executions into one sorted
+ * result.
+ *
+ * Each result must be sorted by the same sort keys. The results are drained
+ * concurrently on background tasks as soon as their query executions have
+ * succeeded, and the rows are merged on a heap, so the first row is returned
+ * as soon as every result has returned its first row. At most the buffer size
+ * rows of each result are buffered, regardless of the size of the results.
+ *
+ * Sort key values are compared according to the types of their columns, so
+ * that for example numbers are compared numerically, and timestamps and
+ * times with time zones are compared as points in time regardless of their
+ * zones. Rows that are equal
+ * according to the sort keys are returned in the order of the query
+ * executions.
+ *
+ * When a query execution fails, or a result can't be loaded, all other query
+ * executions are cancelled, which stops them if they are still running.
+ */
+public class SortedMergedResult implements Result {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+    private static final int BUFFER_DEPTH = 1;
+    private static final DateTimeFormatter TIMESTAMP_WITH_TIME_ZONE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS VV");
+    private static final DateTimeFormatter TIME_WITH_TIME_ZONE_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS VV");
+
+    private final ResultFutures results;
+    private final List<CompletableFuture<PipelinedIterator<String[]>>> inputs;
+    private final List<SortKey> sortKeys;
+    private final PriorityQueue<Head> heap;
+    private final boolean[] exhausted;
+
+    private List<Function<String, Comparable<?>>> keyParsers;
+    private AthenaResultSetMetaData metaData;
+    private Head currentHead;
+    private int rowNumber;
+    private boolean started;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param queryExecutions the query executions whose results to merge,
+     *                        which will be cancelled if any of them fails
+     * @param resultFactory creates the result of a query execution
+     * @param sortKeys the keys that each result is sorted by
+     * @param bufferSize the maximum number of rows to buffer per result
+     * @param executor runs the tasks that drain the results
+     */
+    public SortedMergedResult(List<CompletableFuture<QueryExecution>> queryExecutions, Function<QueryExecution, Result> resultFactory, List<SortKey> sortKeys, int bufferSize, Executor executor) {
+        this.results = new ResultFutures(queryExecutions, resultFactory);
+        this.inputs = new ArrayList<>(queryExecutions.size());
+        this.sortKeys = sortKeys;
+        this.heap = new PriorityQueue<>(Math.max(1, queryExecutions.size()), this::compare);
+        this.exhausted = new boolean[queryExecutions.size()];
+        this.keyParsers = null;
+        this.metaData = null;
+        this.currentHead = null;
+        this.rowNumber = 0;
+        this.started = false;
+        this.finished = false;
+        this.closed = false;
+        int batchSize = Math.max(1, bufferSize / (BUFFER_DEPTH + 2));
+        for (int i = 0; i < results.size(); i++) {
+            inputs.add(results.get(i).thenApplyAsync(result -> {
+                results.captureMetaData(result);
+                return new PipelinedIterator<>(new ResultIterator(result), BUFFER_DEPTH, batchSize, executor);
+            }, executor));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private int compare(Head a, Head b) {
+        for (int i = 0; i < a.keys.length; i++) {
+            Comparable aKey = a.keys[i];
+            Comparable bKey = b.keys[i];
+            int n;
+            if (aKey == null) {
+                n = bKey == null ? 0 : 1;
+            } else if (bKey == null) {
+                n = -1;
+            } else {
+                n = aKey.compareTo(bKey);
+                if (sortKeys.get(i).isDescending()) {
+                    n = -n;
+                }
+            }
+            if (n != 0) {
+                return n;
+            }
+        }
+        return Integer.compare(a.input, b.input);
+    }
+
+    private static Function<String, Comparable<?>> keyParser(int columnType) {
+        switch (columnType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return Long::valueOf;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return Double::valueOf;
+            case Types.DECIMAL:
+                return BigDecimal::new;
+            case Types.BOOLEAN:
+                return Boolean::valueOf;
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return value -> ZonedDateTime.parse(value, TIMESTAMP_WITH_TIME_ZONE_FORMAT).toInstant();
+            case Types.TIME_WITH_TIMEZONE:
+                return SortedMergedResult::parseTimeWithTimeZone;
+            default:
+                return value -> value;
+        }
+    }
+
+    private static OffsetTime parseTimeWithTimeZone(String value) {
+        TemporalAccessor time = TIME_WITH_TIME_ZONE_FORMAT.parse(value);
+        ZoneId zone = time.query(TemporalQueries.zone());
+        // Zones with rules are resolved like Athena does, as of the epoch
+        ZoneOffset offset = zone.getRules().getOffset(Instant.EPOCH);
+        return OffsetTime.of(LocalTime.from(time), offset);
+    }
+
+    @Override
+    public int getFetchSize() {
+        return -1;
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() throws SQLException {
+        if (metaData == null) {
+            metaData = results.await(results.metaData());
+        }
+        return metaData;
+    }
+
+    @Override
+    public int getColumnCount() throws SQLException {
+        return getMetaData().getColumnCount();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result is closed");
+        }
+        if (finished) {
+            return false;
+        }
+        try {
+            if (!started) {
+                start();
+            }
+            currentHead = heap.poll();
+            if (currentHead == null) {
+                finished = true;
+                return false;
+            }
+            advance(currentHead.input);
+            rowNumber++;
+            return true;
+        } catch (ResultIterator.ResultException e) {
+            throw results.fail(e);
+        }
+    }
+
+    private void start() throws SQLException {
+        keyParsers = new ArrayList<>(sortKeys.size());
+        for (SortKey sortKey : sortKeys) {
+            keyParsers.add(keyParser(getMetaData().getColumnType(sortKey.getColumnIndex())));
+        }
+        for (int i = 0; i < inputs.size(); i++) {
+            results.await(inputs.get(i));
+        }
+        for (int i = 0; i < inputs.size(); i++) {
+            advance(i);
+        }
+        started = true;
+    }
+
+    private void advance(int input) throws SQLException {
+        PipelinedIterator<String[]> iterator = inputs.get(input).join();
+        if (iterator.hasNext()) {
+            heap.add(createHead(iterator.next(), input));
+        } else {
+            exhausted[input] = true;
+            iterator.close();
+            ResultFutures.closeResult(results.get(input).join());
+        }
+    }
+
+    private Head createHead(String[] row, int input) throws SQLException {
+        Comparable<?>[] keys = new Comparable<?>[sortKeys.size()];
+        for (int i = 0; i < keys.length; i++) {
+            String value = row[sortKeys.get(i).getColumnIndex() - 1];
+            if (value != null) {
+                try {
+                    keys[i] = keyParsers.get(i).apply(value);
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    throw results.fail(new SQLException(String.format("Could not compare the value \"%s\" in column %d", value, sortKeys.get(i).getColumnIndex()), e));
+                }
+            }
+        }
+        return new Head(row, keys, input);
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return currentHead.row[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        if (rowNumber == 0) {
+            return ResultPosition.BEFORE_FIRST;
+        } else if (finished) {
+            return ResultPosition.AFTER_LAST;
+        } else if (rowNumber == 1) {
+            return ResultPosition.FIRST;
+        } else if (heap.isEmpty()) {
+            return ResultPosition.LAST;
+        } else {
+            return ResultPosition.MIDDLE;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        results.cancel();
+        heap.clear();
+        currentHead = null;
+        SQLException error = null;
+        for (int i = 0; i < inputs.size(); i++) {
+            CompletableFuture<PipelinedIterator<String[]>> input = inputs.get(i);
+            if (exhausted[i]) {
+                continue;
+            }
+            if (input.isDone() && !input.isCompletedExceptionally()) {
+                input.join().close();
+                try {
+                    ResultFutures.closeResult(results.get(i).join());
+                } catch (SQLException e) {
+                    if (error == null) {
+                        error = e;
+                    } else {
+                        error.addSuppressed(e);
+                    }
+                }
+            } else if (!input.isDone()) {
+                CompletableFuture<Result> result = results.get(i);
+                input.thenAccept(iterator -> {
+                    iterator.close();
+                    try {
+                        ResultFutures.closeResult(result.join());
+                    } catch (SQLException e) {
+                        // nobody is reading the result anymore
+                    }
+                });
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static class Head {
+        final String[] row;
+        final Comparable<?>[] keys;
+        final int input;
+
+        Head(String[] row, Comparable<?>[] keys, int input) {
+            this.row = row;
+            this.keys = keys;
+            this.input = input;
+        }
+    }
+}
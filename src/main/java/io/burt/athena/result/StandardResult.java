@@ -2,14 +2,11 @@ package io.burt.athena.result;
 
 import io.burt.athena.AthenaResultSetMetaData;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
-import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
-import software.amazon.awssdk.services.athena.model.Row;
 
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.time.Duration;
-import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -24,8 +21,9 @@ public class StandardResult implements Result {
     protected final AthenaAsyncClient athenaClient;
     protected final Duration timeout;
 
-    protected Iterator<Row> currentRows;
-    protected Row currentRow;
+    protected ResultPage currentPage;
+    protected int currentRowIndex;
+    protected int nextRowIndex;
 
     private AthenaResultSetMetaData resultSetMetaData;
     private String nextToken;
@@ -38,20 +36,22 @@ public class StandardResult implements Result {
         this.timeout = timeout;
         this.rowNumber = 0;
         this.nextToken = null;
-        this.currentRows = null;
-        this.currentRow = null;
+        this.currentPage = null;
+        this.currentRowIndex = -1;
+        this.nextRowIndex = 0;
         this.resultSetMetaData = null;
     }
 
     private void ensureResults() throws SQLException, InterruptedException {
         if (shouldLoadNextPage()) {
             try {
-                GetQueryResultsResponse response = loadNextPage();
-                nextToken = response.nextToken();
-                resultSetMetaData = new AthenaResultSetMetaData(queryExecution, response.resultSet().resultSetMetadata());
-                currentRows = response.resultSet().rows().iterator();
-                if (rowNumber == 0 && currentRows.hasNext()) {
-                    currentRows.next();
+                ResultPage page = loadNextPage();
+                nextToken = page.nextToken();
+                resultSetMetaData = new AthenaResultSetMetaData(queryExecution, page.metaData());
+                currentPage = page;
+                nextRowIndex = 0;
+                if (rowNumber == 0 && hasMoreRowsInPage()) {
+                    nextRowIndex++;
                 }
             } catch (TimeoutException ie) {
                 throw new SQLTimeoutException(ie);
@@ -64,23 +64,27 @@ public class StandardResult implements Result {
     }
 
     protected boolean shouldLoadNextPage() throws SQLException {
-        return (getRowNumber() == 0 && currentRows == null) || (nextToken != null && !currentRows.hasNext());
+        return (getRowNumber() == 0 && currentPage == null) || (nextToken != null && !hasMoreRowsInPage());
     }
 
-    protected GetQueryResultsResponse loadNextPage() throws InterruptedException, TimeoutException, ExecutionException {
+    protected boolean hasMoreRowsInPage() {
+        return currentPage != null && nextRowIndex < currentPage.rowCount();
+    }
+
+    protected ResultPage loadNextPage() throws InterruptedException, TimeoutException, ExecutionException {
         return loadPage().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
     }
 
-    protected CompletableFuture<GetQueryResultsResponse> loadPage() {
+    protected CompletableFuture<ResultPage> loadPage() {
         return loadPage(nextToken);
     }
 
-    protected CompletableFuture<GetQueryResultsResponse> loadPage(String nextToken) {
+    protected CompletableFuture<ResultPage> loadPage(String nextToken) {
         return athenaClient.getQueryResults(builder -> {
             builder.nextToken(nextToken);
             builder.queryExecutionId(queryExecution.queryExecutionId());
             builder.maxResults(fetchSize);
-        });
+        }).thenApply(ResultPage::fromResponse);
     }
 
     @Override
@@ -110,6 +114,11 @@ public class StandardResult implements Result {
         return resultSetMetaData;
     }
 
+    @Override
+    public int getColumnCount() throws SQLException {
+        return getMetaData().getColumnCount();
+    }
+
     @Override
     public int getRowNumber() throws SQLException {
         return rowNumber;
@@ -120,12 +129,12 @@ public class StandardResult implements Result {
         try {
             ensureResults();
             rowNumber++;
-            if (currentRows.hasNext()) {
-                currentRow = currentRows.next();
+            if (hasMoreRowsInPage()) {
+                currentRowIndex = nextRowIndex++;
             } else {
-                currentRow = null;
+                currentRowIndex = -1;
             }
-            return currentRow != null;
+            return currentRowIndex != -1;
         } catch (InterruptedException ie) {
             Thread.currentThread().interrupt();
             throw new SQLException(ie);
@@ -134,7 +143,7 @@ public class StandardResult implements Result {
 
     @Override
     public String getString(int columnIndex) throws SQLException {
-        return currentRow.data().get(columnIndex - 1).varCharValue();
+        return currentPage.getString(currentRowIndex, columnIndex - 1);
     }
 
     @Override
@@ -143,9 +152,9 @@ public class StandardResult implements Result {
             return ResultPosition.BEFORE_FIRST;
         } else if (getRowNumber() == 1) {
             return ResultPosition.FIRST;
-        } else if (nextToken == null && currentRows != null && currentRow != null && !currentRows.hasNext()) {
+        } else if (nextToken == null && currentPage != null && currentRowIndex != -1 && !hasMoreRowsInPage()) {
             return ResultPosition.LAST;
-        } else if (nextToken == null && currentRows != null && currentRow == null) {
+        } else if (nextToken == null && currentPage != null && currentRowIndex == -1) {
             return ResultPosition.AFTER_LAST;
         } else {
             return ResultPosition.MIDDLE;
@@ -154,7 +163,7 @@ public class StandardResult implements Result {
 
     @Override
     public void close() {
-        currentRows = null;
-        currentRow = null;
+        currentPage = null;
+        currentRowIndex = -1;
     }
 }
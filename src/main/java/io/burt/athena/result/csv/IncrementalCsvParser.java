@@ -0,0 +1,137 @@
+package io.burt.athena.result.csv;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Parses the same format as {@link VeryBasicCsvParser}, but is fed bytes as
+ * they arrive instead of pulling them from a reader.
+ *
+ * This makes it possible to parse a result without blocking while waiting
+ * for more data: each buffer is consumed completely, the rows that it
+ * completes are passed on, and the state of a partial row is kept until the
+ * next buffer arrives.
+ *
+ * Like {@link VeryBasicCsvParser} the number of columns is determined from
+ * the first row, which is passed on as a regular row.
+ */
+public class IncrementalCsvParser {
+    private static final int FIELD_START = 0;
+    private static final int IN_QUOTES = 1;
+    private static final int AFTER_QUOTE = 2;
+
+    private final List<String> row;
+
+    private int columnCount;
+    private int state;
+    private byte[] field;
+    private int fieldLength;
+    private long position;
+
+    public IncrementalCsvParser() {
+        this.row = new ArrayList<>();
+        this.columnCount = -1;
+        this.state = FIELD_START;
+        this.field = new byte[64];
+        this.fieldLength = 0;
+        this.position = 0;
+    }
+
+    public int getColumnCount() {
+        return Math.max(columnCount, 0);
+    }
+
+    /**
+     * @return true when the bytes fed so far end with a complete row
+     */
+    public boolean isAtRowStart() {
+        return state == FIELD_START && row.isEmpty();
+    }
+
+    /**
+     * Parses all remaining bytes of a buffer.
+     *
+     * @param buffer the bytes to parse
+     * @param rowConsumer receives each row that is completed by the buffer
+     * @throws ParseException when the bytes are not valid
+     */
+    public void feed(ByteBuffer buffer, Consumer<String[]> rowConsumer) throws ParseException {
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            switch (state) {
+                case FIELD_START:
+                    if (b == ',') {
+                        row.add(null);
+                    } else if (b == '\n') {
+                        row.add(null);
+                        endRow(rowConsumer);
+                    } else if (b == '"') {
+                        fieldLength = 0;
+                        state = IN_QUOTES;
+                    } else {
+                        throw ParseExceptions.parseException(String.format("Expected quote but found \"%c\"", (char) b), position);
+                    }
+                    break;
+                case IN_QUOTES:
+                    if (b == '"') {
+                        state = AFTER_QUOTE;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case AFTER_QUOTE:
+                    if (b == '"') {
+                        append(b);
+                        state = IN_QUOTES;
+                    } else if (b == ',') {
+                        row.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+                        state = FIELD_START;
+                    } else if (b == '\n') {
+                        row.add(new String(field, 0, fieldLength, StandardCharsets.UTF_8));
+                        state = FIELD_START;
+                        endRow(rowConsumer);
+                    } else {
+                        throw ParseExceptions.parseException(String.format("Expected comma but found \"%c\"", (char) b), position);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException(String.format("Unknown parser state %d", state));
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Checks that the input did not end in the middle of a row.
+     *
+     * @throws ParseException when there is a partial row
+     */
+    public void finish() throws ParseException {
+        if (!isAtRowStart()) {
+            throw ParseExceptions.parseException("Unexpected end of stream", position);
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    private void endRow(Consumer<String[]> rowConsumer) throws ParseException {
+        if (columnCount == -1) {
+            columnCount = row.size();
+        } else if (row.size() != columnCount) {
+            throw ParseExceptions.parseException(String.format("Expected %d columns but found %d", columnCount, row.size()), position);
+        }
+        String[] values = row.toArray(new String[0]);
+        row.clear();
+        rowConsumer.accept(values);
+    }
+}
@@ -0,0 +1,325 @@
+package io.burt.athena.result.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses the same format as {@link VeryBasicCsvParser}, but splits the input
+ * into chunks that are parsed in parallel on a {@link ForkJoinPool}.
+ *
+ * The input is read in blocks. Each block is split into chunks that are
+ * scanned in parallel for quotes and newlines. Since a chunk can start inside
+ * a quoted value the scan records the row boundaries for both possible start
+ * states, and when all chunks have been scanned the actual start state of
+ * each chunk is resolved in order from the end state of the previous one.
+ * The rows between the resolved boundaries are then split into fields in
+ * parallel, and returned in their original order.
+ *
+ * Like {@link VeryBasicCsvParser} the number of columns is determined from
+ * the first row, which is returned as a regular row.
+ */
+public class ParallelCsvParser implements Iterator<String[]> {
+    static final int DEFAULT_BLOCK_SIZE = 1 << 23;
+    static final int MIN_CHUNK_SIZE = 1 << 16;
+
+    private final InputStream input;
+    private final ForkJoinPool pool;
+    private final int minChunkSize;
+    private final Queue<String[]> rows;
+
+    private byte[] buffer;
+    private int bufferLength;
+    private long bufferOffset;
+    private boolean endOfInput;
+    private int columnCount;
+    private ParseException error;
+
+    public ParallelCsvParser(InputStream input, ForkJoinPool pool) {
+        this(input, pool, DEFAULT_BLOCK_SIZE, MIN_CHUNK_SIZE);
+    }
+
+    ParallelCsvParser(InputStream input, ForkJoinPool pool, int blockSize, int minChunkSize) {
+        this.input = input;
+        this.pool = pool;
+        this.minChunkSize = minChunkSize;
+        this.rows = new ArrayDeque<>();
+        this.buffer = new byte[blockSize];
+        this.bufferLength = 0;
+        this.bufferOffset = 0;
+        this.endOfInput = false;
+        this.columnCount = -1;
+        this.error = null;
+    }
+
+    public int getColumnCount() {
+        if (columnCount == -1) {
+            hasNext();
+        }
+        return Math.max(columnCount, 0);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (rows.isEmpty() && error == null && !(endOfInput && bufferLength == 0)) {
+                loadBlock();
+            }
+            if (rows.isEmpty() && error != null) {
+                throw error;
+            }
+            return !rows.isEmpty();
+        } catch (IOException | ParseException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    @Override
+    public String[] next() {
+        if (hasNext()) {
+            return rows.remove();
+        } else {
+            return null;
+        }
+    }
+
+    private void fillBuffer() throws IOException {
+        while (!endOfInput && bufferLength < buffer.length) {
+            int n = input.read(buffer, bufferLength, buffer.length - bufferLength);
+            if (n == -1) {
+                endOfInput = true;
+            } else {
+                bufferLength += n;
+            }
+        }
+    }
+
+    private void loadBlock() throws IOException, ParseException, InterruptedException, ExecutionException {
+        fillBuffer();
+        if (bufferLength == 0) {
+            return;
+        }
+        int[] boundaries = findRowBoundaries();
+        if (boundaries.length == 0) {
+            if (endOfInput) {
+                throw ParseExceptions.parseException("Unexpected end of stream", bufferOffset + bufferLength);
+            } else {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                return;
+            }
+        }
+        int start = 0;
+        if (columnCount == -1) {
+            String[] header = parseRow(buffer, 0, boundaries[0], -1, bufferOffset);
+            columnCount = header.length;
+            rows.add(header);
+            start = 1;
+        }
+        parseRows(boundaries, start);
+        int consumed = boundaries[boundaries.length - 1] + 1;
+        System.arraycopy(buffer, consumed, buffer, 0, bufferLength - consumed);
+        bufferLength -= consumed;
+        bufferOffset += consumed;
+    }
+
+    private int[] findRowBoundaries() throws InterruptedException, ExecutionException {
+        int chunkCount = Math.max(1, Math.min(pool.getParallelism() * 4, bufferLength / minChunkSize));
+        int chunkSize = (bufferLength + chunkCount - 1) / Math.max(chunkCount, 1);
+        List<Callable<ChunkScan>> scans = new ArrayList<>(chunkCount);
+        for (int offset = 0; offset < bufferLength; offset += chunkSize) {
+            final int from = offset;
+            final int to = Math.min(offset + chunkSize, bufferLength);
+            scans.add(() -> ChunkScan.scan(buffer, from, to));
+        }
+        IntList boundaries = new IntList();
+        boolean inQuote = false;
+        for (Future<ChunkScan> future : pool.invokeAll(scans)) {
+            ChunkScan scan = future.get();
+            boundaries.addAll(inQuote ? scan.newlinesWhenStartingInQuote : scan.newlinesWhenStartingOutsideQuote);
+            inQuote ^= scan.oddQuoteCount;
+        }
+        return boundaries.toArray();
+    }
+
+    private void parseRows(int[] boundaries, int firstRow) throws InterruptedException, ExecutionException {
+        int rowCount = boundaries.length - firstRow;
+        if (rowCount <= 0) {
+            return;
+        }
+        int taskCount = Math.max(1, Math.min(pool.getParallelism() * 4, rowCount / 64));
+        int rowsPerTask = (rowCount + taskCount - 1) / taskCount;
+        List<Callable<ParsedRows>> tasks = new ArrayList<>(taskCount);
+        for (int i = firstRow; i < boundaries.length; i += rowsPerTask) {
+            final int fromRow = i;
+            final int toRow = Math.min(i + rowsPerTask, boundaries.length);
+            tasks.add(() -> {
+                List<String[]> parsed = new ArrayList<>(toRow - fromRow);
+                for (int r = fromRow; r < toRow; r++) {
+                    int rowStart = r == 0 ? 0 : boundaries[r - 1] + 1;
+                    try {
+                        parsed.add(parseRow(buffer, rowStart, boundaries[r], columnCount, bufferOffset));
+                    } catch (ParseException e) {
+                        return new ParsedRows(parsed, e);
+                    }
+                }
+                return new ParsedRows(parsed, null);
+            });
+        }
+        for (Future<ParsedRows> future : pool.invokeAll(tasks)) {
+            ParsedRows parsed = future.get();
+            rows.addAll(parsed.rows);
+            if (parsed.error != null) {
+                error = parsed.error;
+                break;
+            }
+        }
+    }
+
+    /**
+     * The error offset of a <code>ParseException</code> is an int, so the
+     * position in the stream is also included in the message, and the offset
+     * is clamped for positions past 2 GB.
+     */
+    private static String[] parseRow(byte[] bytes, int start, int end, int columnCount, long offset) throws ParseException {
+        List<String> fields = columnCount == -1 ? new ArrayList<>() : new ArrayList<>(columnCount);
+        int p = start;
+        while (true) {
+            if (p == end) {
+                fields.add(null);
+                break;
+            } else if (bytes[p] == ',') {
+                fields.add(null);
+                p++;
+            } else if (bytes[p] == '"') {
+                p = parseQuoted(bytes, p, end, fields, offset);
+                if (p == end) {
+                    break;
+                } else if (bytes[p] == ',') {
+                    p++;
+                } else {
+                    throw ParseExceptions.parseException(String.format("Expected comma but found \"%s\"", (char) bytes[p]), offset + p);
+                }
+            } else {
+                throw ParseExceptions.parseException(String.format("Expected quote but found \"%s\"", (char) bytes[p]), offset + p);
+            }
+        }
+        if (columnCount != -1 && fields.size() != columnCount) {
+            throw ParseExceptions.parseException(String.format("Expected %d columns but found %d", columnCount, fields.size()), offset + start);
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    private static int parseQuoted(byte[] bytes, int quote, int end, List<String> fields, long offset) throws ParseException {
+        int p = quote + 1;
+        boolean escaped = false;
+        while (true) {
+            if (p >= end) {
+                throw ParseExceptions.parseException("Unexpected end of row", offset + p);
+            } else if (bytes[p] == '"') {
+                if (p + 1 < end && bytes[p + 1] == '"') {
+                    escaped = true;
+                    p += 2;
+                } else {
+                    break;
+                }
+            } else {
+                p++;
+            }
+        }
+        if (escaped) {
+            byte[] unescaped = new byte[p - quote - 1];
+            int length = 0;
+            for (int i = quote + 1; i < p; i++) {
+                unescaped[length++] = bytes[i];
+                if (bytes[i] == '"') {
+                    i++;
+                }
+            }
+            fields.add(new String(unescaped, 0, length, StandardCharsets.UTF_8));
+        } else {
+            fields.add(new String(bytes, quote + 1, p - quote - 1, StandardCharsets.UTF_8));
+        }
+        return p + 1;
+    }
+
+    private static class ParsedRows {
+        final List<String[]> rows;
+        final ParseException error;
+
+        ParsedRows(List<String[]> rows, ParseException error) {
+            this.rows = rows;
+            this.error = error;
+        }
+    }
+
+    private static class ChunkScan {
+        final IntList newlinesWhenStartingOutsideQuote;
+        final IntList newlinesWhenStartingInQuote;
+        final boolean oddQuoteCount;
+
+        private ChunkScan(IntList newlinesWhenStartingOutsideQuote, IntList newlinesWhenStartingInQuote, boolean oddQuoteCount) {
+            this.newlinesWhenStartingOutsideQuote = newlinesWhenStartingOutsideQuote;
+            this.newlinesWhenStartingInQuote = newlinesWhenStartingInQuote;
+            this.oddQuoteCount = oddQuoteCount;
+        }
+
+        static ChunkScan scan(byte[] bytes, int from, int to) {
+            IntList even = new IntList();
+            IntList odd = new IntList();
+            boolean oddQuotes = false;
+            for (int i = from; i < to; i++) {
+                byte b = bytes[i];
+                if (b == '"') {
+                    oddQuotes = !oddQuotes;
+                } else if (b == '\n') {
+                    if (oddQuotes) {
+                        odd.add(i);
+                    } else {
+                        even.add(i);
+                    }
+                }
+            }
+            return new ChunkScan(even, odd, oddQuotes);
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
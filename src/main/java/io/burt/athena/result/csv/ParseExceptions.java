@@ -0,0 +1,16 @@
+package io.burt.athena.result.csv;
+
+import java.text.ParseException;
+
+final class ParseExceptions {
+    private ParseExceptions() { }
+
+    /**
+     * {@link ParseException} only takes an int offset, but results can be
+     * larger than 2 GB, so the offset is clamped and the exact offset is
+     * added to the message.
+     */
+    static ParseException parseException(String message, long offset) {
+        return new ParseException(String.format("%s at offset %d", message, offset), (int) Math.min(offset, Integer.MAX_VALUE));
+    }
+}
@@ -3,11 +3,13 @@ package io.burt.athena.result.csv;
 import java.io.IOException;
 import java.io.Reader;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class VeryBasicCsvParser implements Iterator<String[]> {
     private final Reader csv;
-    private final int columnCount;
+    private int columnCount;
     private String[] nextRow;
     private int nextChar0;
     private int nextChar1;
@@ -22,6 +24,17 @@ public class VeryBasicCsvParser implements Iterator<String[]> {
         this.position = -1;
     }
 
+    public VeryBasicCsvParser(Reader csv) {
+        this(csv, -1);
+    }
+
+    public int getColumnCount() {
+        if (columnCount == -1) {
+            hasNext();
+        }
+        return Math.max(columnCount, 0);
+    }
+
     @Override
     public String[] next() {
         if (nextRow == null) {
@@ -40,6 +53,11 @@ public class VeryBasicCsvParser implements Iterator<String[]> {
             if (nextChar0 == -1) {
                 return false;
             }
+            if (columnCount == -1) {
+                nextRow = loadFirstRow();
+                columnCount = nextRow.length;
+                return true;
+            }
             nextRow = new String[columnCount];
             for (int i = 0; i < columnCount; i++) {
                 if (nextChar0 == ',' || nextChar0 == '\n') {
@@ -63,6 +81,31 @@ public class VeryBasicCsvParser implements Iterator<String[]> {
         }
     }
 
+    private String[] loadFirstRow() throws IOException, ParseException {
+        List<String> row = new ArrayList<>();
+        while (true) {
+            if (nextChar0 == ',') {
+                advance();
+                row.add(null);
+            } else if (nextChar0 == '\n') {
+                advance();
+                row.add(null);
+                break;
+            } else {
+                consumeQuote();
+                row.add(consumeString());
+                consumeQuote();
+                if (nextChar0 == ',') {
+                    consumeComma();
+                } else {
+                    consumeNewline();
+                    break;
+                }
+            }
+        }
+        return row.toArray(new String[0]);
+    }
+
     @Override
     public boolean hasNext() {
         return nextRow != null || loadNext();
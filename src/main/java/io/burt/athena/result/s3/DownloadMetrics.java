@@ -0,0 +1,95 @@
+package io.burt.athena.result.s3;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the interruptions of result downloads, and how they were handled,
+ * and measures how long it takes for downloads to start.
+ *
+ * One instance is shared by all downloads of a connection, and the counters
+ * only ever increase.
+ */
+public class DownloadMetrics {
+    private final LongAdder resumes;
+    private final LongAdder stalls;
+    private final LongAdder failures;
+    private final LongAdder opens;
+    private final LongAdder openNanos;
+
+    public DownloadMetrics() {
+        this.resumes = new LongAdder();
+        this.stalls = new LongAdder();
+        this.failures = new LongAdder();
+        this.opens = new LongAdder();
+        this.openNanos = new LongAdder();
+    }
+
+    /**
+     * @return the number of times a download was resumed with a new request
+     *         after an error or a stall
+     */
+    public long getResumeCount() {
+        return resumes.sum();
+    }
+
+    /**
+     * @return the number of times a download did not receive any bytes within
+     *         the stall timeout
+     */
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    /**
+     * @return the number of downloads that failed because they could not be
+     *         resumed, or ran out of retries
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * @return the number of result downloads that have been started
+     */
+    public long getOpenCount() {
+        return opens.sum();
+    }
+
+    /**
+     * Returns the total time from when result downloads were requested until
+     * their first bytes could be read.
+     *
+     * This includes setting up a connection to S3 when there is no open
+     * connection in the client's connection pool, which is what the
+     * connection priming done while queries are running avoids.
+     *
+     * @return the total time it took to start the result downloads
+     */
+    public Duration getTotalOpenTime() {
+        return Duration.ofNanos(openNanos.sum());
+    }
+
+    /**
+     * Records that a result download has started.
+     *
+     * @param openTime the time from when the download was requested until
+     *                 its first bytes could be read
+     */
+    public void recordOpen(Duration openTime) {
+        opens.increment();
+        openNanos.add(openTime.toNanos());
+    }
+
+    void recordResume() {
+        resumes.increment();
+    }
+
+    void recordStall() {
+        stalls.increment();
+    }
+
+    void recordFailure() {
+        failures.increment();
+    }
+}
@@ -0,0 +1,13 @@
+package io.burt.athena.result.s3;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a download has not received any bytes for longer than its
+ * stall timeout.
+ */
+public class DownloadStalledException extends IOException {
+    public DownloadStalledException(String message) {
+        super(message);
+    }
+}
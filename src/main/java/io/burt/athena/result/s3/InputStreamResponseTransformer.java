@@ -8,10 +8,13 @@ import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -21,15 +24,26 @@ public class InputStreamResponseTransformer extends InputStream implements Async
 
     private final CompletableFuture<InputStream> future;
     private final BlockingQueue<ByteBuffer> chunks;
+    private final Duration stallTimeout;
 
     private GetObjectResponse response;
     private Subscription subscription;
     private ByteBuffer readChunk;
-    private Throwable error;
+    private volatile Throwable error;
     private AtomicBoolean complete;
     private AtomicInteger approximateBufferSize;
 
     public InputStreamResponseTransformer() {
+        this(null);
+    }
+
+    /**
+     * @param stallTimeout how long a read waits for more bytes before it
+     *                     throws a {@link DownloadStalledException}, or null
+     *                     to wait indefinitely
+     */
+    public InputStreamResponseTransformer(Duration stallTimeout) {
+        this.stallTimeout = stallTimeout;
         this.future = new CompletableFuture<>();
         this.chunks = new LinkedBlockingQueue<>();
         this.complete = new AtomicBoolean(false);
@@ -41,6 +55,10 @@ public class InputStreamResponseTransformer extends InputStream implements Async
         return future;
     }
 
+    public GetObjectResponse response() {
+        return response;
+    }
+
     @Override
     public void onResponse(GetObjectResponse r) {
         response = r;
@@ -56,9 +74,10 @@ public class InputStreamResponseTransformer extends InputStream implements Async
     public void exceptionOccurred(Throwable t) {
         error = t;
         future.completeExceptionally(t);
-        try {
-            close();
-        } catch (Exception e) { }
+        chunks.offer(END_MARKER);
+        if (subscription != null) {
+            subscription.cancel();
+        }
     }
 
     @Override
@@ -110,15 +129,18 @@ public class InputStreamResponseTransformer extends InputStream implements Async
     }
 
     private boolean ensureChunk() throws IOException {
-        if (error != null) {
-            throw new IOException(error);
-        }
         if (readChunk == END_MARKER) {
+            if (error != null) {
+                throw new IOException(error);
+            }
             return false;
         } else if (readChunk == null || !readChunk.hasRemaining()) {
             try {
-                readChunk = chunks.take();
+                readChunk = takeChunk();
                 if (readChunk == END_MARKER) {
+                    if (error != null) {
+                        throw new IOException(error);
+                    }
                     return false;
                 } else {
                     int size = approximateBufferSize.addAndGet(-readChunk.remaining());
@@ -126,12 +148,25 @@ public class InputStreamResponseTransformer extends InputStream implements Async
                 }
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                throw new IOException(e);
+                InterruptedIOException ee = new InterruptedIOException();
+                ee.initCause(e);
+                throw ee;
             }
         }
         return true;
     }
 
+    private ByteBuffer takeChunk() throws InterruptedException, DownloadStalledException {
+        if (stallTimeout == null) {
+            return chunks.take();
+        }
+        ByteBuffer chunk = chunks.poll(stallTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (chunk == null) {
+            throw new DownloadStalledException(String.format("No bytes were received for %d ms", stallTimeout.toMillis()));
+        }
+        return chunk;
+    }
+
     @Override
     public int read(byte[] destination, int offset, int length) throws IOException {
         if (ensureChunk()) {
@@ -157,7 +192,9 @@ public class InputStreamResponseTransformer extends InputStream implements Async
         if (!complete.get()) {
             chunks.clear();
             chunks.offer(END_MARKER);
-            subscription.cancel();
+            if (subscription != null) {
+                subscription.cancel();
+            }
             future.cancel(true);
         }
         super.close();
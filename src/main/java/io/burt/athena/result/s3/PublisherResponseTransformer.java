@@ -0,0 +1,39 @@
+package io.burt.athena.result.s3;
+
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands over the body of a response as a publisher, so that the consumer can
+ * subscribe to it and request buffers at its own pace.
+ */
+public class PublisherResponseTransformer implements AsyncResponseTransformer<GetObjectResponse, SdkPublisher<ByteBuffer>> {
+    private final CompletableFuture<SdkPublisher<ByteBuffer>> future;
+
+    public PublisherResponseTransformer() {
+        this.future = new CompletableFuture<>();
+    }
+
+    @Override
+    public CompletableFuture<SdkPublisher<ByteBuffer>> prepare() {
+        return future;
+    }
+
+    @Override
+    public void onResponse(GetObjectResponse response) {
+    }
+
+    @Override
+    public void onStream(SdkPublisher<ByteBuffer> publisher) {
+        future.complete(publisher);
+    }
+
+    @Override
+    public void exceptionOccurred(Throwable t) {
+        future.completeExceptionally(t);
+    }
+}
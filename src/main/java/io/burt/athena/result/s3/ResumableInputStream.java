@@ -0,0 +1,208 @@
+package io.burt.athena.result.s3;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reads an S3 object, and resumes reading where it left off when the
+ * download is interrupted.
+ *
+ * When a read fails, stalls for longer than the stall timeout, or the
+ * response ends before the whole object has been read, the object is
+ * requested again starting at the first byte that has not been read. The
+ * new request is conditional on the ETag of the first response, so that
+ * the bytes before and after the interruption are guaranteed to come from
+ * the same object.
+ */
+public class ResumableInputStream extends InputStream {
+    private static final int PRECONDITION_FAILED = 412;
+
+    private final S3AsyncClient s3Client;
+    private final String bucketName;
+    private final String key;
+    private final Duration timeout;
+    private final int maxRetries;
+    private final Duration stallTimeout;
+    private final DownloadMetrics metrics;
+
+    private InputStream response;
+    private String eTag;
+    private long contentLength;
+    private long position;
+    private int retries;
+    private boolean closed;
+
+    /**
+     * @param s3Client the client to load the object with
+     * @param bucketName the bucket of the object
+     * @param key the key of the object
+     * @param timeout how long to wait for the response of a resumed request
+     * @param maxRetries how many times the download may be resumed
+     * @param stallTimeout how long to wait for more bytes before the download
+     *                     is considered stalled, or null to wait indefinitely
+     * @param metrics the metrics to record interruptions in
+     */
+    public ResumableInputStream(S3AsyncClient s3Client, String bucketName, String key, Duration timeout, int maxRetries, Duration stallTimeout, DownloadMetrics metrics) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.timeout = timeout;
+        this.maxRetries = maxRetries;
+        this.stallTimeout = stallTimeout;
+        this.metrics = metrics;
+        this.response = null;
+        this.eTag = null;
+        this.contentLength = -1;
+        this.position = 0;
+        this.retries = 0;
+        this.closed = false;
+    }
+
+    /**
+     * Requests the object.
+     *
+     * @return a future that completes with this stream when the response has
+     *         been received
+     */
+    public CompletableFuture<InputStream> open() {
+        return request().thenApply(r -> {
+            eTag = r.response().eTag();
+            contentLength = r.response().contentLength() == null ? -1 : r.response().contentLength();
+            response = r;
+            return this;
+        });
+    }
+
+    private CompletableFuture<InputStreamResponseTransformer> request() {
+        InputStreamResponseTransformer transformer = new InputStreamResponseTransformer(stallTimeout);
+        long from = position;
+        String ifMatch = eTag;
+        return s3Client.getObject(b -> {
+            b.bucket(bucketName).key(key);
+            if (from > 0) {
+                b.range(String.format("bytes=%d-", from));
+            }
+            if (ifMatch != null) {
+                b.ifMatch(ifMatch);
+            }
+        }, transformer).thenApply(stream -> transformer);
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (true) {
+            try {
+                int b = response.read();
+                if (b == -1 && !isComplete()) {
+                    throw new IOException(String.format("The response ended after %d of %d bytes", position, contentLength));
+                }
+                if (b != -1) {
+                    position++;
+                }
+                return b;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int read(byte[] destination, int offset, int length) throws IOException {
+        while (true) {
+            try {
+                int n = response.read(destination, offset, length);
+                if (n == -1 && !isComplete()) {
+                    throw new IOException(String.format("The response ended after %d of %d bytes", position, contentLength));
+                }
+                if (n > 0) {
+                    position += n;
+                }
+                return n;
+            } catch (IOException e) {
+                resume(e);
+            }
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        return response.available();
+    }
+
+    private boolean isComplete() {
+        return contentLength == -1 || position >= contentLength;
+    }
+
+    private void resume(IOException cause) throws IOException {
+        if (closed || cause instanceof InterruptedIOException) {
+            throw cause;
+        }
+        if (cause instanceof DownloadStalledException) {
+            metrics.recordStall();
+        }
+        while (true) {
+            if (retries >= maxRetries || (contentLength != -1 && position >= contentLength)) {
+                metrics.recordFailure();
+                throw cause;
+            }
+            retries++;
+            metrics.recordResume();
+            closeResponse();
+            try {
+                response = request().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException ee = new InterruptedIOException();
+                ee.initCause(e);
+                throw ee;
+            } catch (ExecutionException | CompletionException e) {
+                if (isPreconditionFailed(e.getCause())) {
+                    metrics.recordFailure();
+                    IOException ee = new IOException("The object changed while it was being read", e.getCause());
+                    ee.addSuppressed(cause);
+                    throw ee;
+                }
+                cause = new IOException(e.getCause());
+            } catch (TimeoutException e) {
+                cause = new IOException(e);
+            } catch (RuntimeException e) {
+                cause = new IOException(e);
+            }
+        }
+    }
+
+    private static boolean isPreconditionFailed(Throwable t) {
+        return t instanceof AwsServiceException && ((AwsServiceException) t).statusCode() == PRECONDITION_FAILED;
+    }
+
+    private void closeResponse() {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // the response is replaced because it failed
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (response != null) {
+            response.close();
+        }
+    }
+}
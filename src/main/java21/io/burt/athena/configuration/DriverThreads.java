@@ -0,0 +1,31 @@
+package io.burt.athena.configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads that the driver runs result pipelines and merges on.
+ *
+ * This version, which is used on Java 21 and later, starts a virtual thread
+ * for each task, so that the blocking waits of these tasks don't tie up
+ * platform threads. Virtual threads never keep the JVM from exiting.
+ */
+public final class DriverThreads {
+    private DriverThreads() { }
+
+    /**
+     * @param name the name of the threads
+     * @return an executor that runs each task on a new thread
+     */
+    public static Executor newThreadPerTaskExecutor(String name) {
+        ThreadFactory threadFactory = Thread.ofVirtual().name(name).factory();
+        return task -> threadFactory.newThread(task).start();
+    }
+
+    /**
+     * @return whether the executors created by this class use virtual threads
+     */
+    public static boolean usesVirtualThreads() {
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class AsyncPollSchedulerTest {
+    private AsyncPollScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new AsyncPollScheduler();
+    }
+
+    @Nested
+    class Acquire {
+        @Test
+        void startsTheScheduler() {
+            assertFalse(scheduler.isRunning());
+            scheduler.acquire();
+            assertTrue(scheduler.isRunning());
+            scheduler.release();
+        }
+    }
+
+    @Nested
+    class Release {
+        @Test
+        void stopsTheSchedulerWhenTheLastReferenceIsReleased() {
+            scheduler.acquire();
+            scheduler.acquire();
+            scheduler.release();
+            assertTrue(scheduler.isRunning());
+            scheduler.release();
+            assertFalse(scheduler.isRunning());
+        }
+
+        @Test
+        void startsANewSchedulerWhenAcquiredAgain() throws Exception {
+            scheduler.acquire();
+            scheduler.release();
+            scheduler.acquire();
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.schedule(latch::countDown, 1);
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            scheduler.release();
+        }
+    }
+
+    @Nested
+    class Schedule {
+        @Test
+        void runsTheTaskAfterTheDelay() throws Exception {
+            scheduler.acquire();
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.schedule(latch::countDown, 10);
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            scheduler.release();
+        }
+
+        @Test
+        void runsTasksThatWereScheduledBeforeTheLastRelease() throws Exception {
+            scheduler.acquire();
+            CountDownLatch latch = new CountDownLatch(1);
+            scheduler.schedule(latch::countDown, 10);
+            scheduler.release();
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        }
+
+        @Nested
+        class WhenNotAcquired {
+            @Test
+            void throwsAnError() {
+                assertThrows(RejectedExecutionException.class, () -> scheduler.schedule(() -> { }, 1));
+            }
+        }
+    }
+}
@@ -1,28 +1,38 @@
 package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.configuration.QueryPriority;
+import io.burt.athena.configuration.QueryScheduler;
 import io.burt.athena.polling.PollingStrategy;
+import io.burt.athena.result.SortKey;
 import io.burt.athena.support.ConfigurableConnectionConfiguration;
+import io.burt.athena.support.GetObjectHelper;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.athena.model.InvalidRequestException;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLClientInfoException;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLTimeoutException;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +48,7 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -46,6 +57,7 @@ import static org.mockito.Mockito.verify;
 class AthenaConnectionTest {
     private PollingStrategy pollingStrategy;
     private QueryExecutionHelper queryExecutionHelper;
+    private GetObjectHelper getObjectHelper;
     private ConnectionConfiguration connectionConfiguration;
     private AthenaConnection connection;
 
@@ -53,10 +65,16 @@ class AthenaConnectionTest {
     void setUpConnection() {
         pollingStrategy = createPollingStrategy();
         queryExecutionHelper = new QueryExecutionHelper();
+        getObjectHelper = new GetObjectHelper();
         connectionConfiguration = spy(createConfiguration());
         connection = new AthenaConnection(connectionConfiguration);
     }
 
+    @AfterEach
+    void tearDownConnection() {
+        getObjectHelper.close();
+    }
+
     PollingStrategy createPollingStrategy() {
         return (callback, deadline) -> {
             while (true) {
@@ -76,7 +94,7 @@ class AthenaConnectionTest {
                 Duration.ofSeconds(1),
                 Duration.ofSeconds(1),
                 () -> queryExecutionHelper,
-                () -> null,
+                () -> getObjectHelper,
                 () -> pollingStrategy,
                 (q) -> null
         );
@@ -104,6 +122,13 @@ class AthenaConnectionTest {
             assertNotNull(connection.createStatement());
         }
 
+        @Test
+        void doesNotCreateAnyClients() throws Exception {
+            connection.createStatement();
+            verify(connectionConfiguration, never()).athenaClient();
+            verify(connectionConfiguration, never()).s3Client();
+        }
+
         @Nested
         class WhenTheStatementIsExecuted extends SharedQuerySetup {
             @Test
@@ -165,16 +190,194 @@ class AthenaConnectionTest {
         }
     }
 
+    @Nested
+    class SetScanBudget {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED, 600);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 500);
+            connection.setScanBudget(ScanBudget.ofBytes(1000));
+        }
+
+        @Test
+        void limitsTheTotalScannedByAllStatements() throws Exception {
+            connection.createStatement().executeQuery("SELECT 1");
+            assertThrows(ScanBudgetExceededException.class, () -> connection.createStatement().executeQuery("SELECT 2"));
+            assertEquals("Q2", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+        }
+
+        @Test
+        void countsTheBytesScannedByAllStatements() throws Exception {
+            connection.createStatement().executeQuery("SELECT 1");
+            assertEquals(600, connection.getDataScannedInBytes());
+            assertThrows(ScanBudgetExceededException.class, () -> connection.createStatement().executeQuery("SELECT 2"));
+            assertEquals(1100, connection.getDataScannedInBytes());
+        }
+
+        @Test
+        void returnsTheBudget() {
+            assertEquals(ScanBudget.ofBytes(1000), connection.getScanBudget());
+        }
+    }
+
+    @Nested
+    class ExecuteQueryPerPartition {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+        }
+
+        @Test
+        void startsAQueryForEachPartitionValue() throws Exception {
+            ResultSet rs = connection.executeQueryPerPartition("SELECT * FROM t WHERE p = {partition} OR q = {partition}", Arrays.asList("a", "b"), 2, true);
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertEquals("SELECT * FROM t WHERE p = 'a' OR q = 'a'", requests.get(0).queryString());
+            assertEquals("SELECT * FROM t WHERE p = 'b' OR q = 'b'", requests.get(1).queryString());
+            rs.close();
+        }
+
+        @Test
+        void quotesAndEscapesThePartitionValues() throws Exception {
+            ResultSet rs = connection.executeQueryPerPartition("SELECT * FROM t WHERE p = {partition}", Arrays.asList("x' OR 'y' = 'y", "b"), 2, true);
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertEquals("SELECT * FROM t WHERE p = 'x'' OR ''y'' = ''y'", requests.get(0).queryString());
+            rs.close();
+        }
+
+        @Test
+        void closesTheStatementWhenTheResultSetIsClosed() throws Exception {
+            ResultSet rs = connection.executeQueryPerPartition("SELECT * FROM t WHERE p = {partition}", Arrays.asList("a", "b"), 2, true);
+            Statement statement = rs.getStatement();
+            assertFalse(statement.isClosed());
+            rs.close();
+            assertTrue(statement.isClosed());
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                connection.close();
+                assertThrows(SQLException.class, () -> connection.executeQueryPerPartition("SELECT {partition}", Arrays.asList("1", "2"), 2, true));
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteSortedQueryPerPartition {
+        @Test
+        void startsAQueryForEachPartitionValue() throws Exception {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            ResultSet rs = connection.executeSortedQueryPerPartition("SELECT * FROM t WHERE p = {partition} ORDER BY 1", Arrays.asList("a", "b"), 2, Collections.singletonList(SortKey.ascending(1)));
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertEquals("SELECT * FROM t WHERE p = 'a' ORDER BY 1", requests.get(0).queryString());
+            assertEquals("SELECT * FROM t WHERE p = 'b' ORDER BY 1", requests.get(1).queryString());
+            rs.close();
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                connection.close();
+                assertThrows(SQLException.class, () -> connection.executeSortedQueryPerPartition("SELECT {partition}", Arrays.asList("1", "2"), 2, Collections.singletonList(SortKey.ascending(1))));
+            }
+        }
+    }
+
     @Nested
     class PrepareStatement {
         @Test
-        void isNotSupported() {
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?"));
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT));
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", new int[0]));
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", new String[0]));
-            assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", Statement.NO_GENERATED_KEYS));
+        void returnsAPreparedStatement() throws Exception {
+            assertNotNull(connection.prepareStatement("SELECT ?"));
+            assertNotNull(connection.prepareStatement("SELECT ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+            assertNotNull(connection.prepareStatement("SELECT ?", Statement.NO_GENERATED_KEYS));
+        }
+
+        @Test
+        void doesNotCreateAnyClients() throws Exception {
+            connection.prepareStatement("SELECT ?");
+            verify(connectionConfiguration, never()).athenaClient();
+            verify(connectionConfiguration, never()).s3Client();
+        }
+
+        @Test
+        void usesThePriorityOfTheConnection() throws Exception {
+            connection.setClientInfo(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "batch");
+            AthenaPreparedStatement statement = (AthenaPreparedStatement) connection.prepareStatement("SELECT ?");
+            assertEquals(QueryPriority.BATCH, statement.getPriority());
+        }
+
+        @Nested
+        class WhenTheStatementIsExecuted extends SharedQuerySetup {
+            @Test
+            void startsAQueryWithTheParametersInserted() throws Exception {
+                PreparedStatement statement = connection.prepareStatement("SELECT * FROM t WHERE a = ? AND b = ?");
+                statement.setString(1, "it's");
+                statement.setInt(2, 3);
+                statement.execute();
+                assertEquals("SELECT * FROM t WHERE a = 'it''s' AND b = 3", queryExecutionHelper.startQueryRequests().get(0).queryString());
+            }
+
+            @Test
+            void reusesTheTemplateOfTheSameSql() throws Exception {
+                connection.prepareStatement("SELECT ?").close();
+                PreparedStatement statement = connection.prepareStatement("SELECT ?");
+                statement.setLong(1, 42);
+                statement.execute();
+                assertEquals("SELECT 42", queryExecutionHelper.startQueryRequests().get(0).queryString());
+            }
+        }
+
+        @Nested
+        class WhenGivenAnUnsupportedResultSetType {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY));
+            }
+        }
+
+        @Nested
+        class WhenGivenAnUnsupportedResultSetConcurrency {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_UPDATABLE));
+            }
+        }
+
+        @Nested
+        class WhenGivenAHoldability {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, ResultSet.HOLD_CURSORS_OVER_COMMIT));
+            }
+        }
+
+        @Nested
+        class WhenAskedForGeneratedKeys {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", new int[0]));
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", new String[0]));
+                assertThrows(SQLFeatureNotSupportedException.class, () -> connection.prepareStatement("SELECT ?", Statement.RETURN_GENERATED_KEYS));
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnError() throws Exception {
+                connection.close();
+                assertThrows(SQLException.class, () -> connection.prepareStatement("SELECT ?"));
+            }
         }
     }
 
@@ -247,7 +450,7 @@ class AthenaConnectionTest {
     @Nested
     class IsValid {
         @Test
-        void returnsTrueWhenOpen() {
+        void returnsTrueWhenOpen() throws Exception {
             assertTrue(connection.isValid(0));
         }
 
@@ -256,6 +459,56 @@ class AthenaConnectionTest {
             connection.close();
             assertFalse(connection.isValid(0));
         }
+
+        @Test
+        void sendsARequestToAthena() throws Exception {
+            connection.isValid(1);
+            assertEquals(1, queryExecutionHelper.listWorkGroupsRequests().size());
+        }
+
+        @Test
+        void returnsTrueWhenAthenaRespondsWithAnError() throws Exception {
+            queryExecutionHelper.queueListWorkGroupsException(InvalidRequestException.builder().message("b0rk").build());
+            assertTrue(connection.isValid(1));
+        }
+
+        @Test
+        void returnsFalseWhenAthenaCanNotBeReached() throws Exception {
+            queryExecutionHelper.queueListWorkGroupsException(SdkClientException.builder().message("b0rk").build());
+            assertFalse(connection.isValid(1));
+        }
+
+        @Test
+        void returnsFalseWhenAthenaDoesNotRespondInTime() throws Exception {
+            queryExecutionHelper.delayListWorkGroupsResponses(Duration.ofSeconds(3));
+            assertFalse(connection.isValid(1));
+        }
+
+        @Test
+        void throwsAnErrorWhenTheTimeoutIsNegative() {
+            assertThrows(SQLException.class, () -> connection.isValid(-1));
+        }
+    }
+
+    @Nested
+    class WarmUp {
+        @Test
+        void sendsARequestToAthena() throws Exception {
+            connection.warmUp().get();
+            assertEquals(1, queryExecutionHelper.listWorkGroupsRequests().size());
+        }
+
+        @Test
+        void sendsARequestToTheBucketOfTheOutputLocation() throws Exception {
+            connection.warmUp().get();
+            assertEquals("test", getObjectHelper.headBucketRequests().get(0).bucket());
+        }
+
+        @Test
+        void completesNormallyWhenTheRequestsFail() {
+            queryExecutionHelper.queueListWorkGroupsException(SdkClientException.builder().message("b0rk").build());
+            assertDoesNotThrow(() -> connection.warmUp().get());
+        }
     }
 
     @Nested
@@ -532,6 +785,61 @@ class AthenaConnectionTest {
         }
     }
 
+    @Nested
+    class WhenTheClientInfoHasAPriority {
+        @Test
+        void usesThePriorityForNewStatements() throws Exception {
+            connection.setClientInfo(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "batch");
+            AthenaStatement statement = (AthenaStatement) connection.createStatement();
+            assertEquals(QueryPriority.BATCH, statement.getPriority());
+        }
+
+        @Test
+        void usesThePriorityFromProperties() throws Exception {
+            Properties properties = new Properties();
+            properties.setProperty(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "BATCH");
+            connection.setClientInfo(properties);
+            AthenaStatement statement = (AthenaStatement) connection.createStatement();
+            assertEquals(QueryPriority.BATCH, statement.getPriority());
+        }
+
+        @Test
+        void returnsThePriority() throws Exception {
+            connection.setClientInfo(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "batch");
+            assertEquals("batch", connection.getClientInfo(AthenaConnection.PRIORITY_CLIENT_INFO_NAME));
+            assertEquals("batch", connection.getClientInfo().getProperty(AthenaConnection.PRIORITY_CLIENT_INFO_NAME));
+        }
+
+        @Test
+        void defaultsToInteractive() throws Exception {
+            AthenaStatement statement = (AthenaStatement) connection.createStatement();
+            assertEquals(QueryPriority.INTERACTIVE, statement.getPriority());
+        }
+
+        @Nested
+        class AndThePriorityIsUnsupported {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLClientInfoException.class, () -> connection.setClientInfo(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, "urgent"));
+            }
+        }
+    }
+
+    @Nested
+    class GetQueryScheduler {
+        @Test
+        void returnsTheSchedulerOfTheConfiguration() {
+            QueryScheduler scheduler = new QueryScheduler(2, 1, Duration.ofSeconds(10));
+            ((ConfigurableConnectionConfiguration) connectionConfiguration).setQueryScheduler(scheduler);
+            assertSame(scheduler, connection.getQueryScheduler());
+        }
+
+        @Test
+        void returnsNullWhenTheConnectionHasNoLimit() {
+            assertNull(connection.getQueryScheduler());
+        }
+    }
+
     @Nested
     class GetClientInfo {
         @Test
@@ -2,6 +2,9 @@ package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import io.burt.athena.configuration.ConnectionSettings;
+import io.burt.athena.configuration.HttpClientSettings;
+import io.burt.athena.configuration.WorkGroup;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,7 +12,9 @@ import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
@@ -19,17 +24,25 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -43,16 +56,22 @@ class AthenaDataSourceTest {
     @BeforeEach
     void setUp() {
         connectionConfigurationFactory = spy(new ConnectionConfigurationFactory());
-        lenient().when(connectionConfigurationFactory.createConnectionConfiguration(any(), any(), any(), any(), any(), any(), any())).then(invocation -> {
+        lenient().doAnswer(invocation -> {
             ConnectionConfiguration cc = (ConnectionConfiguration) invocation.callRealMethod();
             cc = spy(cc);
             lenient().when(cc.athenaClient()).thenReturn(queryExecutionHelper);
             return cc;
-        });
+        }).when(connectionConfigurationFactory).createConnectionConfiguration(any());
         dataSource = new AthenaDataSource(connectionConfigurationFactory);
         queryExecutionHelper = new QueryExecutionHelper();
     }
 
+    private ConnectionSettings connectionSettings() {
+        ArgumentCaptor<ConnectionSettings> settings = ArgumentCaptor.forClass(ConnectionSettings.class);
+        verify(connectionConfigurationFactory).createConnectionConfiguration(settings.capture());
+        return settings.getValue();
+    }
+
     @Nested
     class GetConnection {
         @Test
@@ -72,7 +91,7 @@ class AthenaDataSourceTest {
         void createsAnAthenaClientForTheConfiguredRegion() throws Exception {
             dataSource.setRegion("sa-east-1");
             dataSource.getConnection();
-            verify(connectionConfigurationFactory).createConnectionConfiguration(eq(Region.SA_EAST_1), any(), any(), any(), any(), any(), any());
+            assertEquals(Region.SA_EAST_1, connectionSettings().getRegion());
         }
 
         @Test
@@ -105,7 +124,7 @@ class AthenaDataSourceTest {
             void setsTheRegionOfTheAthenaClient() throws Exception {
                 dataSource.setRegion("ca-central-1");
                 dataSource.getConnection();
-                verify(connectionConfigurationFactory).createConnectionConfiguration(eq(Region.CA_CENTRAL_1), any(), any(), any(), any(), any(), any());
+                assertEquals(Region.CA_CENTRAL_1, connectionSettings().getRegion());
             }
         }
     }
@@ -158,6 +177,194 @@ class AthenaDataSourceTest {
         }
     }
 
+    @Nested
+    class SetWorkGroups {
+        @Test
+        void passesTheWorkGroupsToTheConfiguration() throws Exception {
+            List<WorkGroup> workGroups = Arrays.asList(new WorkGroup("wg1", 2, 5), new WorkGroup("wg2", 1, 0));
+            dataSource.setRegion("sa-east-1");
+            dataSource.setWorkGroups(workGroups);
+            dataSource.getConnection();
+            assertEquals(workGroups, connectionSettings().getWorkGroups());
+        }
+    }
+
+    @Nested
+    class SetResultPipelineDepth {
+        @Test
+        void passesTheDepthToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setResultPipelineDepth(4);
+            dataSource.getConnection();
+            assertEquals(4, connectionSettings().getResultSettings().getPipelineDepth());
+        }
+
+        @Test
+        void defaultsToZero() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.getConnection();
+            assertEquals(0, connectionSettings().getResultSettings().getPipelineDepth());
+        }
+    }
+
+    @Nested
+    class SetResultPipelineExecutor {
+        @Test
+        void passesTheExecutorToTheConfiguration() throws Exception {
+            Executor executor = Runnable::run;
+            dataSource.setRegion("sa-east-1");
+            dataSource.setResultPipelineExecutor(executor);
+            dataSource.getConnection();
+            assertSame(executor, connectionSettings().getResultSettings().getPipelineExecutor());
+        }
+    }
+
+    @Nested
+    class SetResultParserPool {
+        @Test
+        void passesThePoolToTheConfiguration() throws Exception {
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                dataSource.setRegion("sa-east-1");
+                dataSource.setResultParserPool(pool);
+                dataSource.getConnection();
+                assertSame(pool, connectionSettings().getResultSettings().getParserPool());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Nested
+    class SetResultDownloadRetries {
+        @Test
+        void passesTheRetriesToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setResultDownloadRetries(7);
+            dataSource.getConnection();
+            assertEquals(7, connectionSettings().getResultSettings().getDownloadRetries());
+        }
+    }
+
+    @Nested
+    class SetResultDownloadStallTimeout {
+        @Test
+        void passesTheTimeoutToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setResultDownloadStallTimeout(Duration.ofSeconds(4));
+            dataSource.getConnection();
+            assertEquals(Duration.ofSeconds(4), connectionSettings().getResultSettings().getDownloadStallTimeout());
+        }
+    }
+
+    @Nested
+    class SetHttpClientSettings {
+        @Test
+        void passesTheSettingsToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setHttpMaxConcurrency(200);
+            dataSource.setHttpMaxPendingConnectionAcquires(5000);
+            dataSource.setHttpConnectionTimeToLive(Duration.ofMinutes(5));
+            dataSource.setHttpConnectionMaxIdleTime(Duration.ofSeconds(20));
+            dataSource.setHttpUseIdleConnectionReaper(false);
+            dataSource.setHttpEventLoopThreads(4);
+            dataSource.getConnection();
+            HttpClientSettings settings = new HttpClientSettings()
+                    .withMaxConcurrency(200)
+                    .withMaxPendingConnectionAcquires(5000)
+                    .withConnectionTimeToLive(Duration.ofMinutes(5))
+                    .withConnectionMaxIdleTime(Duration.ofSeconds(20))
+                    .withUseIdleConnectionReaper(false)
+                    .withEventLoopThreads(4);
+            assertEquals(settings, connectionSettings().getHttpClientSettings());
+        }
+    }
+
+    @Nested
+    class SetHttpClient {
+        @Test
+        void passesTheHttpClientToTheConfiguration() throws Exception {
+            SdkAsyncHttpClient httpClient = mock(SdkAsyncHttpClient.class);
+            dataSource.setRegion("sa-east-1");
+            dataSource.setHttpClient(httpClient);
+            dataSource.getConnection();
+            assertEquals(new HttpClientSettings().withHttpClient(httpClient), connectionSettings().getHttpClientSettings());
+        }
+    }
+
+    @Nested
+    class SetWarmUp {
+        @Test
+        void warmsUpNewConnections() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setWarmUp(true);
+            dataSource.getConnection();
+            assertEquals(1, queryExecutionHelper.listWorkGroupsRequests().size());
+        }
+
+        @Test
+        void defaultsToNotWarmingUp() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.getConnection();
+            assertTrue(queryExecutionHelper.listWorkGroupsRequests().isEmpty());
+        }
+    }
+
+    @Nested
+    class SetMaxConcurrentQueries {
+        @Test
+        void passesTheMaxToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setMaxConcurrentQueries(6);
+            dataSource.getConnection();
+            assertEquals(6, connectionSettings().getMaxConcurrentQueries());
+        }
+    }
+
+    @Nested
+    class SetReservedInteractiveQueries {
+        @Test
+        void passesTheReservedSlotsToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setReservedInteractiveQueries(3);
+            dataSource.getConnection();
+            assertEquals(3, connectionSettings().getReservedInteractiveQueries());
+        }
+    }
+
+    @Nested
+    class SetBatchAgingTimeout {
+        @Test
+        void passesTheTimeoutToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setBatchAgingTimeout(Duration.ofSeconds(90));
+            dataSource.getConnection();
+            assertEquals(Duration.ofSeconds(90), connectionSettings().getBatchAgingTimeout());
+        }
+    }
+
+    @Nested
+    class SetCatalogCacheTimeToLive {
+        @Test
+        void passesTheTimeToLiveToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setCatalogCacheTimeToLive(Duration.ofMinutes(15));
+            dataSource.getConnection();
+            assertEquals(Duration.ofMinutes(15), connectionSettings().getCatalogCacheTimeToLive());
+        }
+    }
+
+    @Nested
+    class SetCatalogSnapshotPath {
+        @Test
+        void passesThePathToTheConfiguration() throws Exception {
+            dataSource.setRegion("sa-east-1");
+            dataSource.setCatalogSnapshotPath(Paths.get("/tmp/catalog.json"));
+            dataSource.getConnection();
+            assertEquals(Paths.get("/tmp/catalog.json"), connectionSettings().getCatalogSnapshotPath());
+        }
+    }
+
     @Nested
     class IsWrapperFor {
         @Test
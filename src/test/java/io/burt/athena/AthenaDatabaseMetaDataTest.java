@@ -1,7 +1,14 @@
 package io.burt.athena;
 
+import io.burt.athena.metadata.CatalogCache;
+import io.burt.athena.metadata.CatalogColumn;
+import io.burt.athena.metadata.CatalogDatabase;
+import io.burt.athena.metadata.CatalogPage;
+import io.burt.athena.metadata.CatalogTable;
+import io.burt.athena.support.InMemoryCatalog;
 import io.burt.athena.support.PomVersionLoader;
 import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
@@ -14,6 +21,19 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.RowIdLifetime;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -30,11 +50,22 @@ import static org.mockito.Mockito.when;
 class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     private DatabaseMetaData metaData;
     private Connection connection;
+    private InMemoryCatalog catalog;
 
     @BeforeEach
     void setUp() {
         connection = mock(Connection.class);
-        metaData = new AthenaDatabaseMetaData(connection);
+        catalog = new InMemoryCatalog();
+        CatalogCache catalogCache = new CatalogCache(catalog, Duration.ofMinutes(5), 4, Clock.systemUTC());
+        metaData = new AthenaDatabaseMetaData(connection, () -> catalogCache);
+    }
+
+    private List<String> column(ResultSet resultSet, String columnLabel) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while (resultSet.next()) {
+            values.add(resultSet.getString(columnLabel));
+        }
+        return values;
     }
 
     @Nested
@@ -1066,39 +1097,204 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetProcedures {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getProcedures("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getProcedures("", "", "");
+            assertEquals(9, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "PROCEDURE_NAME"));
         }
     }
 
     @Nested
     class GetProcedureColumns {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getProcedureColumns("", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getProcedureColumns("", "", "", "");
+            assertEquals(20, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "COLUMN_NAME"));
         }
     }
 
     @Nested
     class GetTables {
+        @BeforeEach
+        void setUp() {
+            catalog.addTable("sales", "orders", "EXTERNAL_TABLE", "id bigint");
+            catalog.addTable("sales", "order_items", "EXTERNAL_TABLE", "id bigint");
+            catalog.addTable("sales", "recent_orders", "VIRTUAL_VIEW", "id bigint");
+            catalog.addTable("sales", "customers", "EXTERNAL_TABLE", "id bigint");
+            catalog.addTable("logs", "requests", "EXTERNAL_TABLE", "id bigint");
+            catalog.addTable(new CatalogTable("logs", "errors", "EXTERNAL_TABLE", "Failed requests", Arrays.asList()));
+        }
+
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTables("", "", "", new String[]{}));
+        void returnsAllTablesAndViews() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, null, null, null);
+            assertEquals(Arrays.asList("errors", "requests", "customers", "order_items", "orders", "recent_orders"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void ordersTheTablesByTypeSchemaAndName() throws Exception {
+            List<String> rows = new ArrayList<>();
+            ResultSet resultSet = metaData.getTables(null, null, null, null);
+            while (resultSet.next()) {
+                rows.add(String.format("%s %s.%s.%s", resultSet.getString("TABLE_TYPE"), resultSet.getString("TABLE_CAT"), resultSet.getString("TABLE_SCHEM"), resultSet.getString("TABLE_NAME")));
+            }
+            assertEquals(Arrays.asList(
+                    "TABLE AwsDataCatalog.logs.errors",
+                    "TABLE AwsDataCatalog.logs.requests",
+                    "TABLE AwsDataCatalog.sales.customers",
+                    "TABLE AwsDataCatalog.sales.order_items",
+                    "TABLE AwsDataCatalog.sales.orders",
+                    "VIEW AwsDataCatalog.sales.recent_orders"
+            ), rows);
+        }
+
+        @Test
+        void returnsTheDescriptionAsRemarks() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, "logs", "errors", null);
+            assertTrue(resultSet.next());
+            assertEquals("Failed requests", resultSet.getString("REMARKS"));
+            assertFalse(resultSet.next());
+        }
+
+        @Test
+        void matchesTheSchemaPattern() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, "lo%", null, null);
+            assertEquals(Arrays.asList("errors", "requests"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void matchesTheTableNamePattern() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, null, "order%", null);
+            assertEquals(Arrays.asList("order_items", "orders"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void treatsEscapedWildcardsAsLiterals() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, null, "order\\_%", null);
+            assertEquals(Arrays.asList("order_items"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void matchesNamesCaseInsensitively() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, "SALES", "Orders", null);
+            assertEquals(Arrays.asList("orders"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void filtersByTableType() throws Exception {
+            ResultSet resultSet = metaData.getTables(null, null, null, new String[]{"VIEW"});
+            assertEquals(Arrays.asList("recent_orders"), column(resultSet, "TABLE_NAME"));
+        }
+
+        @Test
+        void returnsNothingForOtherCatalogs() throws Exception {
+            ResultSet resultSet = metaData.getTables("hive", null, null, null);
+            assertFalse(resultSet.next());
+        }
+
+        @Test
+        void loadsTheTablesOnlyOnce() throws Exception {
+            metaData.getTables(null, null, null, null);
+            int tableRequests = catalog.getTableRequests();
+            metaData.getTables(null, null, "orders", null);
+            assertEquals(tableRequests, catalog.getTableRequests());
+        }
+
+        @Nested
+        class WhenTheCatalogFails {
+            @Test
+            void throwsAnSQLException() {
+                catalog.setError(new RuntimeException("b0rk"));
+                SQLException e = assertThrows(SQLException.class, () -> metaData.getTables(null, null, null, null));
+                assertEquals("b0rk", e.getCause().getMessage());
+            }
         }
     }
 
     @Nested
     class GetSchemas {
+        @BeforeEach
+        void setUp() {
+            catalog.addDatabase("sales", null);
+            catalog.addDatabase("logs", null);
+            catalog.addDatabase("default", null);
+        }
+
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getSchemas());
+        void returnsAllDatabasesOrderedByName() throws Exception {
+            ResultSet resultSet = metaData.getSchemas();
+            assertEquals(Arrays.asList("default", "logs", "sales"), column(resultSet, "TABLE_SCHEM"));
+        }
+
+        @Test
+        void returnsTheCatalogOfEachSchema() throws Exception {
+            ResultSet resultSet = metaData.getSchemas();
+            assertTrue(resultSet.next());
+            assertEquals("AwsDataCatalog", resultSet.getString("TABLE_CATALOG"));
+        }
+
+        @Nested
+        class WhenTheCatalogIsSlow {
+            private ScheduledExecutorService scheduler;
+            private CatalogCache slowCatalogCache;
+
+            @BeforeEach
+            void setUp() throws Exception {
+                when(connection.getNetworkTimeout()).thenReturn(100);
+                scheduler = Executors.newSingleThreadScheduledExecutor();
+            }
+
+            @AfterEach
+            void tearDown() {
+                slowCatalogCache.close();
+                scheduler.shutdownNow();
+            }
+
+            private void createMetaData(Duration pageDelay) {
+                InMemoryCatalog slowCatalog = new InMemoryCatalog(1) {
+                    @Override
+                    public CompletableFuture<CatalogPage<CatalogDatabase>> getDatabases(String nextToken) {
+                        CompletableFuture<CatalogPage<CatalogDatabase>> page = new CompletableFuture<>();
+                        if (pageDelay != null) {
+                            scheduler.schedule(() -> page.complete(super.getDatabases(nextToken).join()), pageDelay.toMillis(), TimeUnit.MILLISECONDS);
+                        }
+                        return page;
+                    }
+                };
+                for (String name : Arrays.asList("a", "b", "c", "d", "e", "f")) {
+                    slowCatalog.addDatabase(name, null);
+                }
+                slowCatalogCache = new CatalogCache(slowCatalog, Duration.ofMinutes(5), 4, Clock.systemUTC());
+                metaData = new AthenaDatabaseMetaData(connection, () -> slowCatalogCache);
+            }
+
+            @Test
+            void appliesTheNetworkTimeoutToEachPage() throws Exception {
+                createMetaData(Duration.ofMillis(40));
+                ResultSet resultSet = metaData.getSchemas();
+                assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), column(resultSet, "TABLE_SCHEM"));
+            }
+
+            @Test
+            void throwsWhenAPageDoesNotArriveWithinTheNetworkTimeout() {
+                createMetaData(null);
+                assertThrows(SQLTimeoutException.class, () -> metaData.getSchemas());
+            }
         }
 
         @Nested
         class WhenGivenAPattern {
             @Test
-            void isNotSupported() {
-                assertThrows(UnsupportedOperationException.class, () -> metaData.getSchemas("", ""));
+            void returnsTheMatchingDatabases() throws Exception {
+                ResultSet resultSet = metaData.getSchemas(null, "%s");
+                assertEquals(Arrays.asList("logs", "sales"), column(resultSet, "TABLE_SCHEM"));
+            }
+
+            @Test
+            void returnsNothingForOtherCatalogs() throws Exception {
+                ResultSet resultSet = metaData.getSchemas("hive", null);
+                assertFalse(resultSet.next());
             }
         }
     }
@@ -1106,104 +1302,253 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetCatalogs {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getCatalogs());
+        void returnsTheDataCatalog() throws Exception {
+            ResultSet resultSet = metaData.getCatalogs();
+            assertEquals(Arrays.asList("AwsDataCatalog"), column(resultSet, "TABLE_CAT"));
+        }
+
+        @Test
+        void doesNotUseTheCatalog() throws Exception {
+            metaData.getCatalogs();
+            assertEquals(0, catalog.getDatabaseRequests());
         }
     }
 
     @Nested
     class GetTableTypes {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTableTypes());
+        void returnsTablesAndViews() throws Exception {
+            ResultSet resultSet = metaData.getTableTypes();
+            assertEquals(Arrays.asList("TABLE", "VIEW"), column(resultSet, "TABLE_TYPE"));
         }
     }
 
     @Nested
     class GetColumns {
+        @BeforeEach
+        void setUp() {
+            catalog.addTable(new CatalogTable("sales", "orders", "EXTERNAL_TABLE", null, Arrays.asList(
+                    new CatalogColumn("id", "bigint", "The order ID", false),
+                    new CatalogColumn("customer", "string", null, false),
+                    new CatalogColumn("amount", "decimal(10,2)", null, false),
+                    new CatalogColumn("code", "varchar(3)", null, false),
+                    new CatalogColumn("items", "array<struct<sku:string,count:int>>", null, false),
+                    new CatalogColumn("dt", "string", null, true)
+            )));
+            catalog.addTable("sales", "customers", "EXTERNAL_TABLE", "id int", "name string");
+        }
+
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getColumns("", "", "", ""));
+        void returnsTheColumnsOfAllTablesIncludingPartitionKeys() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, null, null, null);
+            assertEquals(Arrays.asList("id", "name", "id", "customer", "amount", "code", "items", "dt"), column(resultSet, "COLUMN_NAME"));
+        }
+
+        @Test
+        void returnsTheOrdinalPositionOfEachColumn() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", "dt");
+            assertTrue(resultSet.next());
+            assertEquals(6, resultSet.getInt("ORDINAL_POSITION"));
+        }
+
+        @Test
+        void matchesTheColumnNamePattern() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, null, "orders", "c%");
+            assertEquals(Arrays.asList("customer", "code"), column(resultSet, "COLUMN_NAME"));
+        }
+
+        @Test
+        void returnsTheCommentAsRemarks() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", "id");
+            assertTrue(resultSet.next());
+            assertEquals("The order ID", resultSet.getString("REMARKS"));
+            assertEquals("AwsDataCatalog", resultSet.getString("TABLE_CAT"));
+            assertEquals("sales", resultSet.getString("TABLE_SCHEM"));
+            assertEquals("orders", resultSet.getString("TABLE_NAME"));
+            assertEquals(DatabaseMetaData.columnNullable, resultSet.getInt("NULLABLE"));
+            assertEquals("YES", resultSet.getString("IS_NULLABLE"));
+        }
+
+        @Test
+        void convertsTheTypesToAthenaTypes() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", null);
+            assertEquals(Arrays.asList("bigint", "varchar", "decimal", "varchar", "array", "varchar"), column(resultSet, "TYPE_NAME"));
+        }
+
+        @Test
+        void returnsTheJdbcTypes() throws Exception {
+            List<Integer> types = new ArrayList<>();
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", null);
+            while (resultSet.next()) {
+                types.add(resultSet.getInt("DATA_TYPE"));
+            }
+            assertEquals(Arrays.asList(Types.BIGINT, Types.VARCHAR, Types.DECIMAL, Types.VARCHAR, Types.ARRAY, Types.VARCHAR), types);
+        }
+
+        @Test
+        void returnsTheSizeAndDigitsOfDecimalColumns() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", "amount");
+            assertTrue(resultSet.next());
+            assertEquals(10, resultSet.getInt("COLUMN_SIZE"));
+            assertEquals(2, resultSet.getInt("DECIMAL_DIGITS"));
+            assertEquals(10, resultSet.getInt("NUM_PREC_RADIX"));
+        }
+
+        @Test
+        void returnsTheLengthOfVarcharColumns() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", "code");
+            assertTrue(resultSet.next());
+            assertEquals(3, resultSet.getInt("COLUMN_SIZE"));
+            assertEquals(3, resultSet.getInt("CHAR_OCTET_LENGTH"));
+        }
+
+        @Test
+        void returnsNullSizesForUnboundedStrings() throws Exception {
+            ResultSet resultSet = metaData.getColumns(null, "sales", "orders", "customer");
+            assertTrue(resultSet.next());
+            assertNull(resultSet.getObject("COLUMN_SIZE"));
+        }
+
+        @Test
+        void returnsNothingForOtherCatalogs() throws Exception {
+            ResultSet resultSet = metaData.getColumns("hive", null, null, null);
+            assertFalse(resultSet.next());
         }
     }
 
     @Nested
     class GetColumnPrivileges {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getColumnPrivileges("", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getColumnPrivileges("", "", "", "");
+            assertEquals(8, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "PRIVILEGE"));
         }
     }
 
     @Nested
     class GetTablePrivileges {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTablePrivileges("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getTablePrivileges("", "", "");
+            assertEquals(7, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "PRIVILEGE"));
         }
     }
 
     @Nested
     class GetBestRowIdentifier {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getBestRowIdentifier("", "", "", 0, false));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getBestRowIdentifier("", "", "", 0, false);
+            assertEquals(8, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "COLUMN_NAME"));
         }
     }
 
     @Nested
     class GetVersionColumns {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getVersionColumns("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getVersionColumns("", "", "");
+            assertEquals(8, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "COLUMN_NAME"));
         }
     }
 
     @Nested
     class GetPrimaryKeys {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getPrimaryKeys("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getPrimaryKeys("", "", "");
+            assertEquals(6, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "PK_NAME"));
         }
     }
 
     @Nested
     class GetImportedKeys {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getImportedKeys("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getImportedKeys("", "", "");
+            assertEquals(14, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "FK_NAME"));
         }
     }
 
     @Nested
     class GetExportedKeys {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getExportedKeys("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getExportedKeys("", "", "");
+            assertEquals(14, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "FK_NAME"));
         }
     }
 
     @Nested
     class GetCrossReference {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getCrossReference("", "", "", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getCrossReference("", "", "", "", "", "");
+            assertEquals(14, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "FK_NAME"));
         }
     }
 
     @Nested
     class GetTypeInfo {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getTypeInfo());
+        void returnsTheTypesOfAthena() throws Exception {
+            List<String> typeNames = column(metaData.getTypeInfo(), "TYPE_NAME");
+            assertTrue(typeNames.containsAll(Arrays.asList("boolean", "tinyint", "smallint", "integer", "bigint", "float", "double", "decimal", "char", "varchar", "varbinary", "date", "timestamp", "array", "map", "row")));
+        }
+
+        @Test
+        void ordersTheTypesByDataType() throws Exception {
+            List<String> dataTypes = column(metaData.getTypeInfo(), "DATA_TYPE");
+            List<String> sortedDataTypes = new ArrayList<>(dataTypes);
+            sortedDataTypes.sort(Comparator.comparingInt(Integer::parseInt));
+            assertEquals(sortedDataTypes, dataTypes);
+        }
+
+        @Test
+        void returnsTheDetailsOfEachType() throws Exception {
+            ResultSet resultSet = metaData.getTypeInfo();
+            while (resultSet.next()) {
+                if (resultSet.getString("TYPE_NAME").equals("varchar")) {
+                    assertEquals(Types.VARCHAR, resultSet.getInt("DATA_TYPE"));
+                    assertEquals("'", resultSet.getString("LITERAL_PREFIX"));
+                    assertEquals("length", resultSet.getString("CREATE_PARAMS"));
+                    assertTrue(resultSet.getBoolean("CASE_SENSITIVE"));
+                    assertEquals(DatabaseMetaData.typeNullable, resultSet.getShort("NULLABLE"));
+                } else if (resultSet.getString("TYPE_NAME").equals("decimal")) {
+                    assertEquals(Types.DECIMAL, resultSet.getInt("DATA_TYPE"));
+                    assertEquals(38, resultSet.getInt("PRECISION"));
+                    assertEquals(38, resultSet.getShort("MAXIMUM_SCALE"));
+                    assertEquals(10, resultSet.getInt("NUM_PREC_RADIX"));
+                    assertFalse(resultSet.getBoolean("CASE_SENSITIVE"));
+                } else if (resultSet.getString("TYPE_NAME").equals("timestamp")) {
+                    assertEquals(Types.TIMESTAMP, resultSet.getInt("DATA_TYPE"));
+                    assertEquals("TIMESTAMP '", resultSet.getString("LITERAL_PREFIX"));
+                }
+            }
+        }
+
+        @Test
+        void doesNotUseTheCatalog() throws Exception {
+            metaData.getTypeInfo();
+            assertEquals(0, catalog.getDatabaseRequests());
         }
     }
 
     @Nested
     class GetIndexInfo {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getIndexInfo("", "", "", false, false));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getIndexInfo("", "", "", false, false);
+            assertEquals(13, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "INDEX_NAME"));
         }
     }
 
@@ -1365,8 +1710,10 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetUdts {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getUDTs("", "", "", new int[]{}));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getUDTs("", "", "", new int[]{});
+            assertEquals(7, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "TYPE_NAME"));
         }
     }
 
@@ -1405,24 +1752,30 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetSuperTypes {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getSuperTypes("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getSuperTypes("", "", "");
+            assertEquals(6, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "SUPERTYPE_NAME"));
         }
     }
 
     @Nested
     class GetSuperTables {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getSuperTables("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getSuperTables("", "", "");
+            assertEquals(4, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "SUPERTABLE_NAME"));
         }
     }
 
     @Nested
     class GetAttributes {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getAttributes("", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getAttributes("", "", "", "");
+            assertEquals(21, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "ATTR_NAME"));
         }
     }
 
@@ -1494,32 +1847,42 @@ class AthenaDatabaseMetaDataTest implements PomVersionLoader {
     @Nested
     class GetClientInfoProperties {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getClientInfoProperties());
+        void returnsThePriority() throws Exception {
+            ResultSet resultSet = metaData.getClientInfoProperties();
+            assertTrue(resultSet.next());
+            assertEquals(AthenaConnection.PRIORITY_CLIENT_INFO_NAME, resultSet.getString("NAME"));
+            assertEquals("interactive", resultSet.getString("DEFAULT_VALUE"));
+            assertFalse(resultSet.next());
         }
     }
 
     @Nested
     class GetFunctions {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getFunctions("", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getFunctions("", "", "");
+            assertEquals(6, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "FUNCTION_NAME"));
         }
     }
 
     @Nested
     class GetFunctionColumns {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getFunctionColumns("", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getFunctionColumns("", "", "", "");
+            assertEquals(17, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "COLUMN_NAME"));
         }
     }
 
     @Nested
     class GetPseudoColumns {
         @Test
-        void isNotSupported() {
-            assertThrows(UnsupportedOperationException.class, () -> metaData.getPseudoColumns("", "", "", ""));
+        void returnsAnEmptyResult() throws Exception {
+            ResultSet resultSet = metaData.getPseudoColumns("", "", "", "");
+            assertEquals(12, resultSet.getMetaData().getColumnCount());
+            assertEquals(Collections.emptyList(), column(resultSet, "COLUMN_NAME"));
         }
     }
 
@@ -2,7 +2,11 @@ package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import io.burt.athena.configuration.ConnectionSettings;
+import io.burt.athena.configuration.HttpClientSettings;
+import io.burt.athena.configuration.WorkGroup;
 import io.burt.athena.support.PomVersionLoader;
+import io.burt.athena.support.GetObjectHelper;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,7 +16,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
@@ -20,19 +26,27 @@ import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
 import java.sql.Driver;
 import java.sql.DriverManager;
 import java.sql.SQLFeatureNotSupportedException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 
@@ -42,19 +56,28 @@ class AthenaDriverTest implements PomVersionLoader {
     private AthenaDriver driver;
     private Properties defaultProperties;
     private QueryExecutionHelper queryExecutionHelper;
+    private GetObjectHelper getObjectHelper;
     private ConnectionConfigurationFactory connectionConfigurationFactory;
 
     @BeforeEach
     void setUpDriver() {
         connectionConfigurationFactory = spy(new ConnectionConfigurationFactory());
-        lenient().when(connectionConfigurationFactory.createConnectionConfiguration(any(), any(), any(), any(), any(), any(), any())).then(invocation -> {
+        lenient().doAnswer(invocation -> {
             ConnectionConfiguration cc = (ConnectionConfiguration) invocation.callRealMethod();
             cc = spy(cc);
             lenient().when(cc.athenaClient()).thenReturn(queryExecutionHelper);
+            lenient().when(cc.s3Client()).thenReturn(getObjectHelper);
             return cc;
-        });
+        }).when(connectionConfigurationFactory).createConnectionConfiguration(any());
         driver = new AthenaDriver(connectionConfigurationFactory);
         queryExecutionHelper = new QueryExecutionHelper();
+        getObjectHelper = new GetObjectHelper();
+    }
+
+    private ConnectionSettings connectionSettings() {
+        ArgumentCaptor<ConnectionSettings> settings = ArgumentCaptor.forClass(ConnectionSettings.class);
+        verify(connectionConfigurationFactory).createConnectionConfiguration(settings.capture());
+        return settings.getValue();
     }
 
     @BeforeEach
@@ -95,7 +118,7 @@ class AthenaDriverTest implements PomVersionLoader {
         @Test
         void usesTheAwsRegionFromTheProperties() {
             driver.connect("jdbc:athena", defaultProperties);
-            verify(connectionConfigurationFactory).createConnectionConfiguration(eq(Region.AP_SOUTHEAST_1), any(), any(), any(), any(), any(), any());
+            assertEquals(Region.AP_SOUTHEAST_1, connectionSettings().getRegion());
         }
 
         @Test
@@ -112,6 +135,173 @@ class AthenaDriverTest implements PomVersionLoader {
             assertEquals("s3://test/location", request.resultConfiguration().outputLocation());
         }
 
+        @Test
+        void usesTheResultPipelineDepthFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.RESULT_PIPELINE_DEPTH_PROPERTY_NAME, "8");
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(8, connectionSettings().getResultSettings().getPipelineDepth());
+        }
+
+        @Test
+        void usesTheResultPipelineExecutorFromTheProperties() {
+            Executor executor = Runnable::run;
+            defaultProperties.put(AthenaDriver.RESULT_PIPELINE_EXECUTOR_PROPERTY_NAME, executor);
+            driver.connect("jdbc:athena", defaultProperties);
+            assertSame(executor, connectionSettings().getResultSettings().getPipelineExecutor());
+        }
+
+        @Test
+        void usesTheResultParserPoolFromTheProperties() {
+            ForkJoinPool pool = new ForkJoinPool(2);
+            try {
+                defaultProperties.put(AthenaDriver.RESULT_PARSER_POOL_PROPERTY_NAME, pool);
+                driver.connect("jdbc:athena", defaultProperties);
+                assertSame(pool, connectionSettings().getResultSettings().getParserPool());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        @Test
+        void usesTheResultDownloadSettingsFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.RESULT_DOWNLOAD_RETRIES_PROPERTY_NAME, "5");
+            defaultProperties.setProperty(AthenaDriver.RESULT_DOWNLOAD_STALL_TIMEOUT_PROPERTY_NAME, "1500");
+            driver.connect("jdbc:athena", defaultProperties);
+            ConnectionSettings settings = connectionSettings();
+            assertEquals(5, settings.getResultSettings().getDownloadRetries());
+            assertEquals(Duration.ofMillis(1500), settings.getResultSettings().getDownloadStallTimeout());
+        }
+
+        @Test
+        void defaultsToThreeResultDownloadRetriesAndAThirtySecondStallTimeout() {
+            driver.connect("jdbc:athena", defaultProperties);
+            ConnectionSettings settings = connectionSettings();
+            assertEquals(3, settings.getResultSettings().getDownloadRetries());
+            assertEquals(Duration.ofSeconds(30), settings.getResultSettings().getDownloadStallTimeout());
+        }
+
+        @Test
+        void usesTheWorkGroupsFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, "wg1:3:10, wg2:1, wg3");
+            driver.connect("jdbc:athena", defaultProperties);
+            List<WorkGroup> workGroups = Arrays.asList(new WorkGroup("wg1", 3, 10), new WorkGroup("wg2", 1, 0), new WorkGroup("wg3", 1, 0));
+            assertEquals(workGroups, connectionSettings().getWorkGroups());
+        }
+
+        @Test
+        void usesTheQuerySchedulingSettingsFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.MAX_CONCURRENT_QUERIES_PROPERTY_NAME, "8");
+            defaultProperties.setProperty(AthenaDriver.RESERVED_INTERACTIVE_QUERIES_PROPERTY_NAME, "2");
+            defaultProperties.setProperty(AthenaDriver.BATCH_AGING_TIMEOUT_PROPERTY_NAME, "2500");
+            driver.connect("jdbc:athena", defaultProperties);
+            ConnectionSettings settings = connectionSettings();
+            assertEquals(8, settings.getMaxConcurrentQueries());
+            assertEquals(2, settings.getReservedInteractiveQueries());
+            assertEquals(Duration.ofMillis(2500), settings.getBatchAgingTimeout());
+        }
+
+        @Test
+        void defaultsToNoQuerySchedulingAndAOneMinuteBatchAgingTimeout() {
+            driver.connect("jdbc:athena", defaultProperties);
+            ConnectionSettings settings = connectionSettings();
+            assertEquals(0, settings.getMaxConcurrentQueries());
+            assertEquals(0, settings.getReservedInteractiveQueries());
+            assertEquals(Duration.ofMinutes(1), settings.getBatchAgingTimeout());
+        }
+
+        @Test
+        void usesTheCatalogCacheTimeToLiveFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.CATALOG_CACHE_TIME_TO_LIVE_PROPERTY_NAME, "60000");
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(Duration.ofMinutes(1), connectionSettings().getCatalogCacheTimeToLive());
+        }
+
+        @Test
+        void defaultsToAFiveMinuteCatalogCacheTimeToLive() {
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(Duration.ofMinutes(5), connectionSettings().getCatalogCacheTimeToLive());
+        }
+
+        @Test
+        void usesTheCatalogSnapshotPathFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.CATALOG_SNAPSHOT_PATH_PROPERTY_NAME, "/tmp/catalog.json");
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(Paths.get("/tmp/catalog.json"), connectionSettings().getCatalogSnapshotPath());
+        }
+
+        @Test
+        void doesNotUseACatalogSnapshotByDefault() {
+            driver.connect("jdbc:athena", defaultProperties);
+            assertNull(connectionSettings().getCatalogSnapshotPath());
+        }
+
+        @Test
+        void usesTheHttpClientSettingsFromTheProperties() {
+            defaultProperties.setProperty(AthenaDriver.HTTP_MAX_CONCURRENCY_PROPERTY_NAME, "200");
+            defaultProperties.setProperty(AthenaDriver.HTTP_MAX_PENDING_CONNECTION_ACQUIRES_PROPERTY_NAME, "5000");
+            defaultProperties.setProperty(AthenaDriver.HTTP_CONNECTION_TIME_TO_LIVE_PROPERTY_NAME, "300000");
+            defaultProperties.setProperty(AthenaDriver.HTTP_CONNECTION_MAX_IDLE_TIME_PROPERTY_NAME, "20000");
+            defaultProperties.setProperty(AthenaDriver.HTTP_USE_IDLE_CONNECTION_REAPER_PROPERTY_NAME, "false");
+            defaultProperties.setProperty(AthenaDriver.HTTP_EVENT_LOOP_THREADS_PROPERTY_NAME, "4");
+            driver.connect("jdbc:athena", defaultProperties);
+            HttpClientSettings settings = new HttpClientSettings()
+                    .withMaxConcurrency(200)
+                    .withMaxPendingConnectionAcquires(5000)
+                    .withConnectionTimeToLive(Duration.ofMinutes(5))
+                    .withConnectionMaxIdleTime(Duration.ofSeconds(20))
+                    .withUseIdleConnectionReaper(false)
+                    .withEventLoopThreads(4);
+            assertEquals(settings, connectionSettings().getHttpClientSettings());
+        }
+
+        @Test
+        void usesTheHttpClientFromTheProperties() {
+            SdkAsyncHttpClient httpClient = mock(SdkAsyncHttpClient.class);
+            defaultProperties.put(AthenaDriver.HTTP_CLIENT_PROPERTY_NAME, httpClient);
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(new HttpClientSettings().withHttpClient(httpClient), connectionSettings().getHttpClientSettings());
+        }
+
+        @Test
+        void defaultsToTheSdkHttpClientSettings() {
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(new HttpClientSettings(), connectionSettings().getHttpClientSettings());
+        }
+
+        @Test
+        void warmsUpTheConnectionWhenRequested() {
+            defaultProperties.setProperty(AthenaDriver.WARM_UP_PROPERTY_NAME, "true");
+            driver.connect("jdbc:athena", defaultProperties);
+            assertEquals(1, queryExecutionHelper.listWorkGroupsRequests().size());
+            assertEquals("test", getObjectHelper.headBucketRequests().get(0).bucket());
+        }
+
+        @Test
+        void doesNotWarmUpTheConnectionByDefault() {
+            driver.connect("jdbc:athena", defaultProperties);
+            assertTrue(queryExecutionHelper.listWorkGroupsRequests().isEmpty());
+        }
+
+        @Nested
+        class WhenTheWorkGroupsAreMalformed {
+            @Test
+            void throwsAnException() {
+                defaultProperties.setProperty(AthenaDriver.WORK_GROUPS_PROPERTY_NAME, "wg1:heavy");
+                Exception e = assertThrows(IllegalArgumentException.class, () -> driver.connect("jdbc:athena", defaultProperties));
+                assertTrue(e.getMessage().contains("workGroups"));
+            }
+        }
+
+        @Nested
+        class WhenTheResultPipelineDepthIsNotANumber {
+            @Test
+            void throwsAnException() {
+                defaultProperties.setProperty(AthenaDriver.RESULT_PIPELINE_DEPTH_PROPERTY_NAME, "deep");
+                Exception e = assertThrows(IllegalArgumentException.class, () -> driver.connect("jdbc:athena", defaultProperties));
+                assertTrue(e.getMessage().contains("resultPipelineDepth"));
+            }
+        }
+
         @Nested
         class WhenGivenABadUrl {
             @Test
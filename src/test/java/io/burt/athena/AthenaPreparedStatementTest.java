@@ -0,0 +1,473 @@
+package io.burt.athena;
+
+import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.polling.PollingStrategy;
+import io.burt.athena.result.AthenaArray;
+import io.burt.athena.result.Result;
+import io.burt.athena.support.ConfigurableConnectionConfiguration;
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.QueryExecutionHelper;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
+
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class AthenaPreparedStatementTest {
+    private QueryExecutionHelper queryExecutionHelper;
+    private GetObjectHelper getObjectHelper;
+    private PollingStrategy pollingStrategy;
+    private TestClock clock;
+
+    @BeforeEach
+    void setUpHelpers() {
+        clock = new TestClock();
+        queryExecutionHelper = new QueryExecutionHelper(clock);
+        getObjectHelper = new GetObjectHelper();
+        pollingStrategy = (callback, deadline) -> {
+            while (true) {
+                Optional<ResultSet> rs = callback.poll(deadline);
+                if (rs.isPresent()) {
+                    return rs.get();
+                }
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDownHelpers() {
+        getObjectHelper.close();
+    }
+
+    private ConnectionConfiguration createConfiguration() {
+        return new ConfigurableConnectionConfiguration(
+                "test_db",
+                "test_wg",
+                "s3://test/location",
+                Duration.ofSeconds(60),
+                Duration.ofSeconds(60),
+                () -> queryExecutionHelper,
+                () -> getObjectHelper,
+                () -> pollingStrategy,
+                (q) -> mock(Result.class)
+        );
+    }
+
+    private AthenaPreparedStatement prepare(String sql) {
+        return new AthenaPreparedStatement(createConfiguration(), clock, SqlTemplate.parse(sql));
+    }
+
+    private void queueSuccessfulQuery(String queryExecutionId) {
+        queryExecutionHelper.queueStartQueryResponse(queryExecutionId);
+        queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+    }
+
+    private StartQueryExecutionRequest lastExecutionRequest() {
+        List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+        return requests.get(requests.size() - 1);
+    }
+
+    @Nested
+    class Execute {
+        @Test
+        void startsAQueryWithTheRenderedSql() throws Exception {
+            queueSuccessfulQuery("Q1234");
+            AthenaPreparedStatement statement = prepare("SELECT * FROM t WHERE a = ? AND b = ?");
+            statement.setString(1, "foo");
+            statement.setInt(2, 3);
+            statement.execute();
+            assertEquals("SELECT * FROM t WHERE a = 'foo' AND b = 3", lastExecutionRequest().queryString());
+        }
+
+        @Test
+        void canBeExecutedAgainWithOtherParameters() throws Exception {
+            queueSuccessfulQuery("Q1234");
+            queueSuccessfulQuery("Q2345");
+            AthenaPreparedStatement statement = prepare("SELECT ?");
+            statement.setInt(1, 1);
+            statement.execute();
+            statement.setInt(1, 2);
+            statement.execute();
+            assertEquals("SELECT 1", queryExecutionHelper.startQueryRequests().get(0).queryString());
+            assertEquals("SELECT 2", queryExecutionHelper.startQueryRequests().get(1).queryString());
+        }
+
+        @Test
+        void passesTheRenderedSqlToTheClientRequestTokenProvider() throws Exception {
+            queueSuccessfulQuery("Q1234");
+            queueSuccessfulQuery("Q2345");
+            AthenaPreparedStatement statement = prepare("SELECT ?");
+            statement.setClientRequestTokenProvider(sql -> Optional.of(Integer.toHexString(sql.hashCode())));
+            statement.setString(1, "foo");
+            statement.execute();
+            statement.clearParameters();
+            statement.setString(1, "foo");
+            statement.execute();
+            List<StartQueryExecutionRequest> requests = queryExecutionHelper.startQueryRequests();
+            assertEquals(Integer.toHexString("SELECT 'foo'".hashCode()), requests.get(0).clientRequestToken());
+            assertEquals(requests.get(0).clientRequestToken(), requests.get(1).clientRequestToken());
+        }
+
+        @Test
+        void returnsTheResultSetFromExecuteQuery() throws Exception {
+            queueSuccessfulQuery("Q1234");
+            AthenaPreparedStatement statement = prepare("SELECT ?");
+            statement.setInt(1, 1);
+            assertNotNull(statement.executeQuery());
+        }
+
+        @Test
+        void returnsZeroFromExecuteUpdate() throws Exception {
+            queueSuccessfulQuery("Q1234");
+            queueSuccessfulQuery("Q2345");
+            AthenaPreparedStatement statement = prepare("INSERT INTO t VALUES (?)");
+            statement.setInt(1, 1);
+            assertEquals(0, statement.executeUpdate());
+            assertEquals(0, statement.executeLargeUpdate());
+        }
+
+        @Nested
+        class WhenAParameterIsNotSet {
+            @Test
+            void throwsAnError() throws Exception {
+                AthenaPreparedStatement statement = prepare("SELECT ?, ?");
+                statement.setInt(1, 1);
+                Exception e = assertThrows(SQLException.class, statement::execute);
+                assertEquals("No value specified for parameter 2", e.getMessage());
+                assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenGivenSql {
+            @Test
+            void throwsAnError() {
+                AthenaPreparedStatement statement = prepare("SELECT 1");
+                assertThrows(SQLException.class, () -> statement.execute("SELECT 2"));
+                assertThrows(SQLException.class, () -> statement.executeQuery("SELECT 2"));
+                assertThrows(SQLException.class, () -> statement.executeUpdate("SELECT 2"));
+                assertThrows(SQLException.class, () -> statement.executeLargeUpdate("SELECT 2"));
+                assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+            }
+        }
+    }
+
+    @Nested
+    class SetParameters {
+        private String render(Object value) throws SQLException {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setObject(1, value);
+            return statement.getRenderedSql();
+        }
+
+        @Test
+        void rendersNull() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?");
+            statement.setNull(1, Types.VARCHAR);
+            statement.setString(2, null);
+            assertEquals("NULL, NULL", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersBooleans() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?");
+            statement.setBoolean(1, true);
+            statement.setBoolean(2, false);
+            assertEquals("TRUE, FALSE", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersIntegers() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?, ?, ?");
+            statement.setByte(1, (byte) 1);
+            statement.setShort(2, (short) -2);
+            statement.setInt(3, 3);
+            statement.setLong(4, 4000000000L);
+            assertEquals("1, -2, 3, 4000000000", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersTypedNumbers() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?, ?");
+            statement.setFloat(1, 1.5f);
+            statement.setDouble(2, 2.25);
+            statement.setBigDecimal(3, new BigDecimal("1E+3"));
+            assertEquals("REAL '1.5', DOUBLE '2.25', DECIMAL '1000'", statement.getRenderedSql());
+        }
+
+        @Test
+        void quotesAndEscapesStrings() throws Exception {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setString(1, "it's a '?'");
+            assertEquals("'it''s a ''?'''", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersBytesAsABinaryLiteral() throws Exception {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setBytes(1, new byte[] {0x00, 0x7f, (byte) 0xab});
+            assertEquals("X'007fab'", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersDatesAndTimes() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?, ?");
+            statement.setDate(1, Date.valueOf("2019-06-01"));
+            statement.setTime(2, Time.valueOf("12:34:56"));
+            statement.setTimestamp(3, Timestamp.valueOf("2019-06-01 12:34:56.789"));
+            assertEquals("DATE '2019-06-01', TIME '12:34:56.000', TIMESTAMP '2019-06-01 12:34:56.789'", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersDatesAndTimesInTheZoneOfTheCalendar() throws Exception {
+            Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("Asia/Tokyo"));
+            Instant instant = Instant.parse("2019-06-01T20:34:56.789Z");
+            AthenaPreparedStatement statement = prepare("?, ?, ?");
+            statement.setDate(1, new Date(instant.toEpochMilli()), calendar);
+            statement.setTime(2, new Time(instant.toEpochMilli()), calendar);
+            statement.setTimestamp(3, Timestamp.from(instant), calendar);
+            assertEquals("DATE '2019-06-02', TIME '05:34:56.789', TIMESTAMP '2019-06-02 05:34:56.789'", statement.getRenderedSql());
+        }
+
+        @Test
+        void rendersJavaTimeValues() throws Exception {
+            assertEquals("DATE '2019-06-01'", render(LocalDate.of(2019, 6, 1)));
+            assertEquals("TIME '12:34:56.000'", render(LocalTime.of(12, 34, 56)));
+            assertEquals("TIMESTAMP '2019-06-01 12:34:56.000'", render(LocalDateTime.of(2019, 6, 1, 12, 34, 56)));
+        }
+
+        @Test
+        void rendersArrays() throws Exception {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setArray(1, new AthenaArray(new String[] {"a", "b'c"}));
+            assertEquals("ARRAY['a', 'b''c']", statement.getRenderedSql());
+            assertEquals("ARRAY[1, 2]", render(Arrays.asList(1, 2)));
+            assertEquals("ARRAY[TRUE, NULL]", render(new Boolean[] {true, null}));
+            assertEquals("ARRAY[]", render(new ArrayList<>()));
+        }
+
+        @Test
+        void rendersMaps() throws Exception {
+            Map<String, Integer> map = new LinkedHashMap<>();
+            map.put("a", 1);
+            map.put("b", 2);
+            assertEquals("MAP(ARRAY['a', 'b'], ARRAY[1, 2])", render(map));
+        }
+
+        @Test
+        void rendersObjectsByTheirType() throws Exception {
+            assertEquals("'foo'", render("foo"));
+            assertEquals("3", render(3));
+            assertEquals("DOUBLE '1.5'", render(1.5));
+            assertEquals("DECIMAL '1.50'", render(new BigDecimal("1.50")));
+            assertEquals("TIMESTAMP '2019-06-01 12:34:56.789'", render(Timestamp.valueOf("2019-06-01 12:34:56.789")));
+            assertEquals("DATE '2019-06-01'", render(Date.valueOf("2019-06-01")));
+            assertEquals("NULL", render(null));
+        }
+
+        @Test
+        void readsStreamsAndReaders() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?, ?, ?");
+            statement.setCharacterStream(1, new StringReader("it's"));
+            statement.setAsciiStream(2, new ByteArrayInputStream("abcdef".getBytes(StandardCharsets.US_ASCII)), 3);
+            statement.setBinaryStream(3, new ByteArrayInputStream(new byte[]{1, (byte) 0xab}));
+            statement.setClob(4, (Reader) null);
+            assertEquals("'it''s', 'abc', X'01ab', NULL", statement.getRenderedSql());
+        }
+
+        @Test
+        void readsLobs() throws Exception {
+            AthenaPreparedStatement statement = prepare("?, ?");
+            statement.setBlob(1, new SerialBlob(new byte[]{1, 2}));
+            statement.setClob(2, new SerialClob("foo".toCharArray()));
+            assertEquals("X'0102', 'foo'", statement.getRenderedSql());
+        }
+
+        @Test
+        void replacesAPreviouslySetValue() throws Exception {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setInt(1, 1);
+            statement.setInt(1, 2);
+            assertEquals("2", statement.getRenderedSql());
+        }
+
+        @Nested
+        class WhenGivenAnUnsupportedType {
+            @Test
+            void throwsAnError() {
+                assertThrows(SQLException.class, () -> render(new Object()));
+            }
+        }
+
+        @Nested
+        class WhenGivenATargetType {
+            private String render(Object value, int targetSqlType) throws SQLException {
+                AthenaPreparedStatement statement = prepare("?");
+                statement.setObject(1, value, targetSqlType);
+                return statement.getRenderedSql();
+            }
+
+            @Test
+            void convertsToStrings() throws Exception {
+                assertEquals("'3'", render(3, Types.VARCHAR));
+                assertEquals("'1.5'", render(new BigDecimal("1.5"), Types.CHAR));
+            }
+
+            @Test
+            void convertsToIntegers() throws Exception {
+                assertEquals("3", render("3", Types.INTEGER));
+                assertEquals("3", render(3.0, Types.BIGINT));
+                assertEquals("1", render(true, Types.TINYINT));
+            }
+
+            @Test
+            void convertsToTypedNumbers() throws Exception {
+                assertEquals("DOUBLE '3.0'", render(3, Types.DOUBLE));
+                assertEquals("REAL '1.5'", render("1.5", Types.REAL));
+                assertEquals("DECIMAL '3'", render(3, Types.DECIMAL));
+            }
+
+            @Test
+            void appliesTheScaleToDecimals() throws Exception {
+                AthenaPreparedStatement statement = prepare("?");
+                statement.setObject(1, "1.235", Types.NUMERIC, 2);
+                assertEquals("DECIMAL '1.24'", statement.getRenderedSql());
+            }
+
+            @Test
+            void convertsToBooleans() throws Exception {
+                assertEquals("TRUE", render(1, Types.BOOLEAN));
+                assertEquals("FALSE", render("false", Types.BIT));
+            }
+
+            @Test
+            void convertsToDatesAndTimes() throws Exception {
+                assertEquals("DATE '2019-06-01'", render("2019-06-01", Types.DATE));
+                assertEquals("DATE '2019-06-01'", render(Timestamp.valueOf("2019-06-01 12:34:56.789"), Types.DATE));
+                assertEquals("TIME '12:34:56.000'", render("12:34:56", Types.TIME));
+                assertEquals("TIMESTAMP '2019-06-01 12:34:56.789'", render("2019-06-01 12:34:56.789", Types.TIMESTAMP));
+                assertEquals("TIMESTAMP '2019-06-01 00:00:00.000'", render(LocalDate.of(2019, 6, 1), Types.TIMESTAMP));
+            }
+
+            @Test
+            void rendersNullForTheNullType() throws Exception {
+                assertEquals("NULL", render("foo", Types.NULL));
+                assertEquals("NULL", render(null, Types.INTEGER));
+            }
+
+            @Nested
+            class WhenTheValueCannotBeConverted {
+                @Test
+                void throwsAnError() {
+                    assertThrows(SQLException.class, () -> render("foo", Types.INTEGER));
+                    assertThrows(SQLException.class, () -> render("1.5", Types.INTEGER));
+                    assertThrows(SQLException.class, () -> render("foo", Types.DATE));
+                    assertThrows(SQLException.class, () -> render(3, Types.VARBINARY));
+                }
+            }
+
+            @Nested
+            class WhenTheTypeIsNotSupported {
+                @Test
+                void throwsAnError() {
+                    assertThrows(SQLFeatureNotSupportedException.class, () -> render("foo", Types.STRUCT));
+                    assertThrows(SQLFeatureNotSupportedException.class, () -> render("foo", Types.ROWID));
+                }
+            }
+        }
+
+        @Nested
+        class WhenTheIndexIsOutOfRange {
+            @Test
+            void throwsAnError() {
+                AthenaPreparedStatement statement = prepare("?");
+                assertThrows(SQLException.class, () -> statement.setInt(0, 1));
+                assertThrows(SQLException.class, () -> statement.setInt(2, 1));
+            }
+        }
+    }
+
+    @Nested
+    class ClearParameters {
+        @Test
+        void unsetsAllParameters() throws Exception {
+            AthenaPreparedStatement statement = prepare("?");
+            statement.setInt(1, 1);
+            statement.clearParameters();
+            assertThrows(SQLException.class, statement::getRenderedSql);
+        }
+    }
+
+    @Nested
+    class GetMetaData {
+        @Test
+        void returnsNullBeforeExecution() throws Exception {
+            assertNull(prepare("SELECT 1").getMetaData());
+        }
+    }
+
+    @Nested
+    class AddBatch {
+        @Test
+        void isNotSupported() {
+            assertThrows(SQLFeatureNotSupportedException.class, () -> prepare("SELECT ?").addBatch());
+        }
+    }
+
+    @Nested
+    class SetUrl {
+        @Test
+        void isNotSupported() throws Exception {
+            URL url = new URL("http://example.com");
+            assertThrows(SQLFeatureNotSupportedException.class, () -> prepare("SELECT ?").setURL(1, url));
+        }
+    }
+
+    @Nested
+    class GetParameterMetaData {
+        @Test
+        void isNotSupported() {
+            assertThrows(SQLFeatureNotSupportedException.class, () -> prepare("SELECT ?").getParameterMetaData());
+        }
+    }
+}
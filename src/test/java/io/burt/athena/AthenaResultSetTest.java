@@ -3,6 +3,7 @@ package io.burt.athena;
 import io.burt.athena.configuration.ConnectionConfiguration;
 import io.burt.athena.result.PreloadingStandardResult;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.S3ResultObject;
 import io.burt.athena.result.StandardResult;
 import io.burt.athena.support.ConfigurableConnectionConfiguration;
 import io.burt.athena.support.GetQueryResultsHelper;
@@ -774,6 +775,48 @@ class AthenaResultSetTest {
         void throwsWhenAskedToUnwrapClassItIsNotWrapperFor() {
             assertThrows(SQLException.class, () -> resultSet.unwrap(String.class));
         }
+
+        @Test
+        void throwsWhenAskedToUnwrapTheResultObjectWhenThereIsNone() {
+            assertThrows(SQLException.class, () -> resultSet.unwrap(S3ResultObject.class));
+        }
+
+        @Nested
+        class WhenTheResultSetHasAResultObject {
+            private S3ResultObject resultObject;
+
+            @BeforeEach
+            void setUp() {
+                QueryExecution queryExecution = QueryExecution.builder().queryExecutionId("Q1234").resultConfiguration(b -> b.outputLocation("s3://some-bucket/Q1234.csv")).build();
+                resultObject = new S3ResultObject(null, queryExecution, Duration.ofSeconds(1));
+                resultSet = new AthenaResultSet(new PreloadingStandardResult(queryResultsHelper, queryExecution, StandardResult.MAX_FETCH_SIZE, Duration.ofSeconds(1)), parentStatement, () -> resultObject, 1234);
+            }
+
+            @Test
+            void returnsTheResultObject() throws Exception {
+                assertSame(resultObject, resultSet.unwrap(S3ResultObject.class));
+            }
+
+            @Test
+            void isWrapperForTheResultObject() {
+                assertTrue(resultSet.isWrapperFor(S3ResultObject.class));
+            }
+        }
+    }
+
+    @Nested
+    class GetDataScannedInBytes {
+        @Test
+        void returnsMinusOneWhenNotKnown() {
+            assertEquals(-1, resultSet.getDataScannedInBytes());
+        }
+
+        @Test
+        void returnsTheNumberOfBytesScannedByTheQuery() {
+            QueryExecution queryExecution = QueryExecution.builder().queryExecutionId("Q1234").build();
+            resultSet = new AthenaResultSet(new PreloadingStandardResult(queryResultsHelper, queryExecution, StandardResult.MAX_FETCH_SIZE, Duration.ofSeconds(1)), parentStatement, null, 1234);
+            assertEquals(1234, resultSet.getDataScannedInBytes());
+        }
     }
 
     @Nested
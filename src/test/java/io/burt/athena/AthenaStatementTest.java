@@ -1,35 +1,57 @@
 package io.burt.athena;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.configuration.QueryPriority;
+import io.burt.athena.configuration.QueryScheduler;
+import io.burt.athena.configuration.ResultLoadingStrategy;
+import io.burt.athena.configuration.WorkGroup;
+import io.burt.athena.configuration.WorkGroupBalancer;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.Row;
+import io.burt.athena.result.S3ResultObject;
+import io.burt.athena.result.SortKey;
 import io.burt.athena.support.ConfigurableConnectionConfiguration;
+import io.burt.athena.support.GetObjectHelper;
 import io.burt.athena.support.QueryExecutionHelper;
 import io.burt.athena.support.TestClock;
 import io.burt.athena.support.TestNameGenerator;
+import io.burt.athena.support.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayNameGeneration;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
 import software.amazon.awssdk.services.athena.model.GetQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.InternalServerException;
+import software.amazon.awssdk.services.athena.model.InvalidRequestException;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.StopQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.TooManyRequestsException;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLTimeoutException;
 import java.sql.Statement;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -39,13 +61,16 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayNameGeneration(TestNameGenerator.class)
 class AthenaStatementTest {
     private Result result;
     private QueryExecutionHelper queryExecutionHelper;
+    private GetObjectHelper getObjectHelper;
     private AthenaStatement statement;
     private PollingStrategy pollingStrategy;
     private QueryExecution resultFactoryQueryExecution;
@@ -57,9 +82,15 @@ class AthenaStatementTest {
         pollingStrategy = createPollingStrategy();
         clock = new TestClock();
         queryExecutionHelper = new QueryExecutionHelper(clock);
+        getObjectHelper = new GetObjectHelper();
         statement = new AthenaStatement(createConfiguration(), clock);
     }
 
+    @AfterEach
+    void tearDownStatement() {
+        getObjectHelper.close();
+    }
+
     PollingStrategy createPollingStrategy() {
         return (callback, deadline) -> {
             while (true) {
@@ -79,7 +110,7 @@ class AthenaStatementTest {
                 Duration.ofSeconds(60),
                 Duration.ofSeconds(60),
                 () -> queryExecutionHelper,
-                () -> null,
+                () -> getObjectHelper,
                 () -> pollingStrategy,
                 (q) -> {
                     resultFactoryQueryExecution = q;
@@ -319,6 +350,17 @@ class AthenaStatementTest {
                 verify(result).getMetaData();
             }
         }
+
+        @Nested
+        class WhenTheResultSetIsUnwrappedToTheResultObject {
+            @Test
+            void transfersTheBytesOfTheResultObject() throws Exception {
+                getObjectHelper.setObject("dummy", "location.csv", "\"col1\"\n\"row1\"\n".getBytes(StandardCharsets.UTF_8));
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                execute().unwrap(S3ResultObject.class).transferTo(output, true);
+                assertEquals("\"row1\"\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
     }
 
     @Nested
@@ -410,6 +452,818 @@ class AthenaStatementTest {
         }
     }
 
+    @Nested
+    class ExecuteQueryAsPublisher {
+        private final Duration timeout = Duration.ofSeconds(5);
+
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            getObjectHelper.setObject("dummy", "location.csv", "\"col1\",\"col2\"\n\"row1\",\"1\"\n\"row2\",\"2\"\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void doesNotStartTheQueryBeforeSubscription() throws Exception {
+            statement.executeQueryAsPublisher("SELECT 1");
+            assertEquals(0, queryExecutionHelper.startQueryRequests().size());
+        }
+
+        @Test
+        void startsTheQueryOnSubscription() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+            subscriber.awaitTermination(timeout);
+            StartQueryExecutionRequest request = queryExecutionHelper.startQueryRequests().get(0);
+            assertEquals("SELECT 1", request.queryString());
+            assertEquals("test_db", request.queryExecutionContext().database());
+            assertEquals("test_wg", request.workGroup());
+        }
+
+        @Test
+        void publishesTheRowsOfTheResult() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+            subscriber.awaitTermination(timeout);
+            List<Row> rows = subscriber.items();
+            assertTrue(subscriber.isComplete());
+            assertEquals(2, rows.size());
+            assertEquals("row1", rows.get(0).getString(1));
+            assertEquals("2", rows.get(1).getString(2));
+            assertEquals(3, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+
+        @Test
+        void doesNotChangeTheResultSetOfTheStatement() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+            subscriber.awaitTermination(timeout);
+            assertNull(statement.getResultSet());
+        }
+
+        @Nested
+        class WhenTheQueryFails {
+            @Test
+            void signalsAnError() throws Exception {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+                subscriber.awaitTermination(timeout);
+                assertEquals(SQLException.class, subscriber.error().getClass());
+                assertEquals("b0rk", subscriber.error().getMessage());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryTimesOut {
+            @Test
+            void signalsATimeoutAndStopsTheQuery() throws Exception {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                statement.setQueryTimeout(Duration.ZERO);
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+                subscriber.awaitTermination(timeout);
+                assertEquals(SQLTimeoutException.class, subscriber.error().getClass());
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+            }
+        }
+
+        @Nested
+        class WhenCancelledBeforeTheQueryCompletes {
+            @Test
+            void stopsTheQuery() throws Exception {
+                for (int i = 0; i < 10; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                }
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+                subscriber.cancel();
+                long deadline = System.currentTimeMillis() + timeout.toMillis();
+                while (queryExecutionHelper.stopQueryExecutionRequests().isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+            }
+
+            @Test
+            void stopsTheQueryWhenCancelledWhileItsStatusIsBeingLoaded() throws Exception {
+                for (int i = 0; i < 10; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                }
+                queryExecutionHelper.delayGetQueryExecutionResponses(Duration.ofMillis(200));
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                statement.executeQueryAsPublisher("SELECT 1").subscribe(subscriber);
+                long deadline = System.currentTimeMillis() + timeout.toMillis();
+                while (queryExecutionHelper.getQueryExecutionRequests().isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                subscriber.cancel();
+                while (queryExecutionHelper.stopQueryExecutionRequests().isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+                assertEquals(1, queryExecutionHelper.getQueryExecutionRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.executeQueryAsPublisher("SELECT 1"));
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteQueryAsStream {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            getObjectHelper.setObject("dummy", "location.csv", "\"col1\",\"col2\"\n\"row1\",\"1\"\n\"row2\",\"2\"\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Test
+        void waitsForTheQueryToComplete() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAsStream("SELECT 1").close();
+            assertEquals("SELECT 1", queryExecutionHelper.startQueryRequests().get(0).queryString());
+            assertEquals(3, queryExecutionHelper.getQueryExecutionRequests().size());
+        }
+
+        @Test
+        void returnsTheRowsOfTheResult() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            try (Stream<Row> stream = statement.executeQueryAsStream("SELECT 1")) {
+                List<Row> rows = stream.collect(Collectors.toList());
+                assertEquals(2, rows.size());
+                assertEquals("row1", rows.get(0).getString(1));
+                assertEquals("2", rows.get(1).getString(2));
+            }
+        }
+
+        @Test
+        void returnsTheRowsOfTheResultWhenParallel() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            try (Stream<Row> stream = statement.executeQueryAsStream("SELECT 1")) {
+                assertEquals(2, stream.parallel().count());
+            }
+        }
+
+        @Test
+        void doesNotChangeTheResultSetOfTheStatement() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAsStream("SELECT 1").close();
+            assertNull(statement.getResultSet());
+        }
+
+        @Nested
+        class WhenTheQueryFails {
+            @Test
+            void throwsAnException() {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+                SQLException e = assertThrows(SQLException.class, () -> statement.executeQueryAsStream("SELECT 1"));
+                assertEquals("b0rk", e.getMessage());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryTimesOut {
+            @Test
+            void throwsATimeoutAndStopsTheQuery() {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                statement.setQueryTimeout(Duration.ZERO);
+                assertThrows(SQLTimeoutException.class, () -> statement.executeQueryAsStream("SELECT 1"));
+                assertEquals("Q1234", queryExecutionHelper.stopQueryExecutionRequests().get(0).queryExecutionId());
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.executeQueryAsStream("SELECT 1"));
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteQueryAndCopyResult {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            getObjectHelper.setObject("dummy", "location.csv", "\"col1\"\n\"row1\"\n".getBytes(StandardCharsets.UTF_8));
+            getObjectHelper.setObject("dummy", "location.csv.metadata", new byte[]{1, 2, 3});
+        }
+
+        @Test
+        void copiesTheResultToTheDestinationWhenTheQuerySucceeds() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAndCopyResult("SELECT 1", "s3://exports/result.csv");
+            assertEquals("\"col1\"\n\"row1\"\n", new String(getObjectHelper.getObject("exports", "result.csv"), StandardCharsets.UTF_8));
+            assertNotNull(getObjectHelper.getObject("exports", "result.csv.metadata"));
+            assertTrue(getObjectHelper.getObjectRequests().isEmpty());
+        }
+
+        @Test
+        void doesNotChangeTheResultSetOfTheStatement() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAndCopyResult("SELECT 1", "s3://exports/result.csv");
+            assertNull(statement.getResultSet());
+        }
+
+        @Nested
+        class WhenTheQueryFails {
+            @Test
+            void throwsAnExceptionAndCopiesNothing() {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+                SQLException e = assertThrows(SQLException.class, () -> statement.executeQueryAndCopyResult("SELECT 1", "s3://exports/result.csv"));
+                assertEquals("b0rk", e.getMessage());
+                assertTrue(getObjectHelper.copyObjectRequests().isEmpty());
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.executeQueryAndCopyResult("SELECT 1", "s3://exports/result.csv"));
+            }
+        }
+    }
+
+    @Nested
+    class ResumeQueryExecution {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+        }
+
+        @Test
+        void doesNotStartAQueryExecution() throws Exception {
+            statement.resumeQueryExecution("Q9876");
+            assertTrue(queryExecutionHelper.startQueryRequests().isEmpty());
+        }
+
+        @Test
+        void pollsTheQueryExecutionUntilItSucceeds() throws Exception {
+            statement.resumeQueryExecution("Q9876");
+            List<GetQueryExecutionRequest> requests = queryExecutionHelper.getQueryExecutionRequests();
+            assertEquals(2, requests.size());
+            for (GetQueryExecutionRequest request : requests) {
+                assertEquals("Q9876", request.queryExecutionId());
+            }
+        }
+
+        @Test
+        void returnsTheResultSetOfTheQueryExecution() throws Exception {
+            ResultSet rs = statement.resumeQueryExecution("Q9876");
+            assertNotNull(rs);
+            assertSame(rs, statement.getResultSet());
+            assertEquals("Q9876", resultFactoryQueryExecution.queryExecutionId());
+        }
+
+        @Nested
+        class WhenTheQueryFails {
+            @Test
+            void throwsAnException() {
+                queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+                SQLException e = assertThrows(SQLException.class, () -> statement.resumeQueryExecution("Q9876"));
+                assertEquals("b0rk", e.getMessage());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryTimeoutElapses {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.delayGetQueryExecutionResponses(Duration.ofMillis(10));
+                statement.setQueryTimeout(0);
+            }
+
+            @Test
+            void throwsATimeoutException() {
+                assertThrows(SQLTimeoutException.class, () -> statement.resumeQueryExecution("Q9876"));
+            }
+
+            @Test
+            void leavesTheQueryExecutionRunning() {
+                assertThrows(SQLTimeoutException.class, () -> statement.resumeQueryExecution("Q9876"));
+                assertTrue(queryExecutionHelper.stopQueryExecutionRequests().isEmpty());
+            }
+        }
+
+        @Nested
+        class WhenTheScanBudgetIsExceeded {
+            @Test
+            void leavesTheQueryExecutionRunning() {
+                queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 1001);
+                statement.setScanBudget(ScanBudget.ofBytes(1000));
+                assertThrows(ScanBudgetExceededException.class, () -> statement.resumeQueryExecution("Q9876"));
+                assertTrue(queryExecutionHelper.stopQueryExecutionRequests().isEmpty());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryExecutionDoesNotExist {
+            @Test
+            void throwsAnException() {
+                queryExecutionHelper.clearGetQueryExecutionResponseQueue();
+                queryExecutionHelper.queueGetQueryExecutionException(InvalidRequestException.builder().message("b0rk").build());
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+                SQLException e = assertThrows(SQLException.class, () -> statement.resumeQueryExecution("Q9876"));
+                assertTrue(e.getCause() instanceof InvalidRequestException);
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.resumeQueryExecution("Q9876"));
+            }
+        }
+    }
+
+    @Nested
+    class WhenBalancingWorkGroups {
+        private WorkGroupBalancer balancer;
+
+        @BeforeEach
+        void setUp() {
+            balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("wg1", 1, 0), new WorkGroup("wg2", 1, 0)));
+            ConfigurableConnectionConfiguration configuration = (ConfigurableConnectionConfiguration) createConfiguration();
+            configuration.setWorkGroupBalancer(balancer);
+            statement = new AthenaStatement(configuration, clock);
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+        }
+
+        @Test
+        void startsTheQueryInTheLeastLoadedWorkGroup() throws Exception {
+            balancer.acquire();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals("wg2", queryExecutionHelper.startQueryRequests().get(0).workGroup());
+        }
+
+        @Test
+        void releasesTheWorkGroupWhenTheQueryCompletes() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals(0, balancer.getInFlight("wg1"));
+        }
+
+        @Test
+        void releasesTheWorkGroupWhenTheQueryFails() {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+            assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(0, balancer.getInFlight("wg1"));
+        }
+
+        @Test
+        void recordsHowLongTheQueryWasQueued() throws Exception {
+            queryExecutionHelper.delayGetQueryExecutionResponses(Duration.ofMillis(10));
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.QUEUED);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals(Duration.ofMillis(20), balancer.getRecentQueueTime("wg1"));
+        }
+
+        @Test
+        void balancesQueriesThatAreExecutedAsynchronously() throws Exception {
+            balancer.acquire();
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAsStream("SELECT 1").close();
+            assertEquals("wg2", queryExecutionHelper.startQueryRequests().get(0).workGroup());
+        }
+
+        @Test
+        void passesTheQueryExecutionWithItsOutputLocationToTheResult() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals("s3://dummy/location.csv", resultFactoryQueryExecution.resultConfiguration().outputLocation());
+        }
+    }
+
+    @Nested
+    class WhenTheQueryIsRunning {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+        }
+
+        @Test
+        void primesTheConnectionsToTheOutputBucket() throws Exception {
+            statement.execute("SELECT 1");
+            assertEquals(2, getObjectHelper.headObjectRequests().size());
+            assertEquals("dummy", getObjectHelper.headObjectRequests().get(0).bucket());
+            assertEquals("location.csv", getObjectHelper.headObjectRequests().get(0).key());
+        }
+
+        @Test
+        void primesTheConnectionsWhenExecutedAsynchronously() throws Exception {
+            statement.executeQueryAsStream("SELECT 1").close();
+            assertEquals("location.csv", getObjectHelper.headObjectRequests().get(0).key());
+        }
+
+        @Nested
+        class WhenResultsAreNotLoadedFromS3 {
+            private AtomicInteger s3ClientRequests;
+
+            @BeforeEach
+            void setUp() {
+                s3ClientRequests = new AtomicInteger(0);
+                ConfigurableConnectionConfiguration configuration = new ConfigurableConnectionConfiguration(
+                        "test_db",
+                        "test_wg",
+                        "s3://test/location",
+                        Duration.ofSeconds(60),
+                        Duration.ofSeconds(60),
+                        () -> queryExecutionHelper,
+                        () -> {
+                            s3ClientRequests.incrementAndGet();
+                            return getObjectHelper;
+                        },
+                        () -> pollingStrategy,
+                        (q) -> result
+                );
+                configuration.setResultLoadingStrategy(ResultLoadingStrategy.GET_EXECUTION_RESULTS);
+                statement = new AthenaStatement(configuration, clock);
+            }
+
+            @Test
+            void doesNotPrimeTheConnectionsToTheOutputBucket() throws Exception {
+                statement.execute("SELECT 1");
+                assertTrue(getObjectHelper.headObjectRequests().isEmpty());
+            }
+
+            @Test
+            void doesNotCreateAnS3Client() throws Exception {
+                statement.execute("SELECT 1");
+                assertEquals(0, s3ClientRequests.get());
+            }
+
+            @Test
+            void doesNotPrimeTheConnectionsWhenExecutedAsynchronously() throws Exception {
+                statement.executeQueryAsStream("SELECT 1").close();
+                assertTrue(getObjectHelper.headObjectRequests().isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    class WhenSchedulingQueries {
+        private QueryScheduler scheduler;
+
+        @BeforeEach
+        void setUp() {
+            scheduler = new QueryScheduler(1, 0, Duration.ofMinutes(1));
+            ConfigurableConnectionConfiguration configuration = (ConfigurableConnectionConfiguration) createConfiguration().withQueryTimeout(Duration.ofMillis(50));
+            configuration.setQueryScheduler(scheduler);
+            statement = new AthenaStatement(configuration, clock);
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+        }
+
+        @Test
+        void startsTheQueryInTheLaneOfTheStatementsPriority() throws Exception {
+            statement.setPriority(QueryPriority.BATCH);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals(1, scheduler.getStartCount(QueryPriority.BATCH));
+            assertEquals(0, scheduler.getStartCount(QueryPriority.INTERACTIVE));
+        }
+
+        @Test
+        void releasesTheSlotWhenTheQueryCompletes() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.execute("SELECT 1");
+            assertEquals(0, scheduler.getRunningCount());
+        }
+
+        @Test
+        void releasesTheSlotWhenTheQueryFails() {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+            assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+            assertEquals(0, scheduler.getRunningCount());
+        }
+
+        @Test
+        void schedulesQueriesThatAreExecutedAsynchronously() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            statement.executeQueryAsStream("SELECT 1").close();
+            assertEquals(1, scheduler.getStartCount(QueryPriority.INTERACTIVE));
+        }
+
+        @Nested
+        class WhenTheQueryWaitsForASlot {
+            @BeforeEach
+            void setUp() {
+                ConfigurableConnectionConfiguration configuration = (ConfigurableConnectionConfiguration) createConfiguration().withQueryTimeout(Duration.ofSeconds(5));
+                configuration.setQueryScheduler(scheduler);
+                statement = new AthenaStatement(configuration, clock);
+                pollingStrategy = (callback, deadline) -> {
+                    while (true) {
+                        Optional<ResultSet> rs = callback.poll(deadline);
+                        if (rs.isPresent()) {
+                            return rs.get();
+                        }
+                        clock.tick(Duration.ofSeconds(1));
+                        if (!clock.instant().isBefore(deadline)) {
+                            throw new TimeoutException();
+                        }
+                    }
+                };
+                scheduler.acquire(QueryPriority.INTERACTIVE);
+            }
+
+            @Test
+            void includesTheWaitInTheQueryTimeout() throws Exception {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+                AtomicReference<Throwable> executeThrowable = new AtomicReference<>();
+                Thread runner = new Thread(() -> {
+                    try {
+                        statement.execute("SELECT 1");
+                    } catch (Throwable t) {
+                        executeThrowable.set(t);
+                    }
+                });
+                runner.start();
+                while (scheduler.getQueuedCount(QueryPriority.INTERACTIVE) == 0) {
+                    Thread.sleep(1);
+                }
+                clock.tick(Duration.ofSeconds(4));
+                scheduler.release();
+                runner.join();
+                assertTrue(executeThrowable.get() instanceof SQLTimeoutException);
+            }
+        }
+
+        @Nested
+        class WhenNoSlotBecomesFreeBeforeTheQueryTimeout {
+            @BeforeEach
+            void setUp() {
+                scheduler.acquire(QueryPriority.INTERACTIVE);
+            }
+
+            @Test
+            void throwsAnSqlTimeoutException() {
+                assertThrows(SQLTimeoutException.class, () -> statement.execute("SELECT 1"));
+            }
+
+            @Test
+            void doesNotStartTheQuery() {
+                assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+                assertTrue(queryExecutionHelper.startQueryRequests().isEmpty());
+            }
+
+            @Test
+            void leavesTheQueue() {
+                assertThrows(SQLException.class, () -> statement.execute("SELECT 1"));
+                assertEquals(0, scheduler.getQueuedCount(QueryPriority.INTERACTIVE));
+                assertEquals(1, scheduler.getRunningCount());
+            }
+        }
+    }
+
+    @Nested
+    class SetPriority {
+        @Test
+        void defaultsToInteractive() {
+            assertEquals(QueryPriority.INTERACTIVE, statement.getPriority());
+        }
+
+        @Test
+        void setsThePriority() {
+            statement.setPriority(QueryPriority.BATCH);
+            assertEquals(QueryPriority.BATCH, statement.getPriority());
+        }
+
+        @Test
+        void resetsThePriorityToInteractiveWhenGivenNull() {
+            statement.setPriority(QueryPriority.BATCH);
+            statement.setPriority(null);
+            assertEquals(QueryPriority.INTERACTIVE, statement.getPriority());
+        }
+    }
+
+    @Nested
+    class SetScanBudget {
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1234");
+            statement.setScanBudget(ScanBudget.ofBytes(1000));
+        }
+
+        @Test
+        void returnsTheResultSetWhenTheQueryStaysWithinTheBudget() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 500);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED, 1000);
+            AthenaResultSet rs = (AthenaResultSet) statement.executeQuery("SELECT 1");
+            assertEquals(1000, rs.getDataScannedInBytes());
+            assertTrue(queryExecutionHelper.stopQueryExecutionRequests().isEmpty());
+        }
+
+        @Test
+        void doesNotLimitQueriesWhenRemoved() throws Exception {
+            statement.setScanBudget(null);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 5000);
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED, 10000);
+            assertNotNull(statement.executeQuery("SELECT 1"));
+        }
+
+        @Nested
+        class WhenARunningQueryExceedsTheBudget {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 500);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 1001);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED, 2000);
+            }
+
+            @Test
+            void stopsTheQuery() {
+                assertThrows(ScanBudgetExceededException.class, () -> statement.executeQuery("SELECT 1"));
+                List<StopQueryExecutionRequest> requests = queryExecutionHelper.stopQueryExecutionRequests();
+                assertEquals(1, requests.size());
+                assertEquals("Q1234", requests.get(0).queryExecutionId());
+                assertEquals(2, queryExecutionHelper.getQueryExecutionRequests().size());
+            }
+
+            @Test
+            void throwsAnExceptionThatDescribesTheBudget() {
+                ScanBudgetExceededException e = assertThrows(ScanBudgetExceededException.class, () -> statement.executeQuery("SELECT 1"));
+                assertEquals("Q1234", e.getQueryExecutionId());
+                assertEquals(1001, e.getBytesScanned());
+                assertEquals(ScanBudget.ofBytes(1000), e.getBudget());
+            }
+
+            @Test
+            void stopsTheQueryWhenItIsExecutedAsynchronously() {
+                SQLException e = assertThrows(SQLException.class, () -> statement.executeQueryAsStream("SELECT 1"));
+                assertTrue(e instanceof ScanBudgetExceededException);
+                assertEquals(1, queryExecutionHelper.stopQueryExecutionRequests().size());
+            }
+        }
+
+        @Nested
+        class WhenTheConnectionBudgetIsExceeded {
+            @Test
+            void stopsTheQuery() {
+                ScanAccount scanAccount = new ScanAccount();
+                scanAccount.setBudget(ScanBudget.ofBytes(1500));
+                scanAccount.record(1000);
+                statement = new AthenaStatement(createConfiguration(), clock, scanAccount);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 600);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED, 600);
+                ScanBudgetExceededException e = assertThrows(ScanBudgetExceededException.class, () -> statement.executeQuery("SELECT 1"));
+                assertEquals(ScanBudget.ofBytes(1500), e.getBudget());
+                assertEquals(1600, scanAccount.getBytesScanned());
+            }
+
+            @Test
+            void stopsQueriesThatRunInParallelAndTogetherExceedTheBudget() throws Exception {
+                ScanAccount scanAccount = new ScanAccount();
+                scanAccount.setBudget(ScanBudget.ofBytes(1000));
+                statement = new AthenaStatement(createConfiguration(), clock, scanAccount);
+                queryExecutionHelper.queueStartQueryResponse("Q2");
+                queryExecutionHelper.queueStartQueryResponse("Q3");
+                for (int i = 0; i < 10; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING, 400);
+                }
+                ResultSet rs = statement.executeQueries(Arrays.asList("SELECT 1", "SELECT 2", "SELECT 3"), 3, false);
+                SQLException e = assertThrows(SQLException.class, rs::next);
+                assertTrue(e instanceof ScanBudgetExceededException);
+                assertEquals(ScanBudget.ofBytes(1000), ((ScanBudgetExceededException) e).getBudget());
+                assertFalse(queryExecutionHelper.stopQueryExecutionRequests().isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    class ExecuteQueries {
+        private final List<String> sqls = Arrays.asList("SELECT 1", "SELECT 2", "SELECT 3");
+
+        @BeforeEach
+        void setUp() {
+            queryExecutionHelper.queueStartQueryResponse("Q1");
+            queryExecutionHelper.queueStartQueryResponse("Q2");
+            queryExecutionHelper.queueStartQueryResponse("Q3");
+        }
+
+        @Test
+        void startsOneQueryPerSql() throws Exception {
+            for (int i = 0; i < sqls.size(); i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            }
+            ResultSet rs = statement.executeQueries(sqls, 3, true);
+            rs.next();
+            List<String> queryStrings = queryExecutionHelper.startQueryRequests().stream().map(StartQueryExecutionRequest::queryString).collect(Collectors.toList());
+            assertEquals(sqls, queryStrings);
+        }
+
+        @Test
+        void startsTheNextQueryWhenOneCompletes() throws Exception {
+            queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+            for (int i = 0; i < sqls.size(); i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            }
+            ResultSet rs = statement.executeQueries(sqls, 1, true);
+            rs.next();
+            List<String> polledIds = queryExecutionHelper.getQueryExecutionRequests().stream().map(GetQueryExecutionRequest::queryExecutionId).collect(Collectors.toList());
+            assertEquals(Arrays.asList("Q1", "Q1", "Q2", "Q3"), polledIds);
+        }
+
+        @Test
+        void returnsAResultSetThatReadsTheResultsOfTheQueries() throws Exception {
+            for (int i = 0; i < sqls.size(); i++) {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+            }
+            ResultSet rs = statement.executeQueries(sqls, 3, true);
+            rs.next();
+            verify(result, times(3)).next();
+            assertSame(rs, statement.getResultSet());
+        }
+
+        @Test
+        void throwsWhenTheParallelismIsLessThanOne() {
+            assertThrows(SQLException.class, () -> statement.executeQueries(sqls, 0, true));
+        }
+
+        @Nested
+        class WhenSorted {
+            @Test
+            void mergesTheResultsOfTheQueries() throws Exception {
+                for (int i = 0; i < sqls.size(); i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.SUCCEEDED);
+                }
+                when(result.getMetaData()).thenReturn(new AthenaResultSetMetaData(null, ResultSetMetadata.builder().columnInfo(ColumnInfo.builder().name("col1").type("integer").build()).build()));
+                ResultSet rs = statement.executeSortedQueries(sqls, 3, Collections.singletonList(SortKey.ascending(1)));
+                assertFalse(rs.next());
+                assertEquals(3, queryExecutionHelper.startQueryRequests().size());
+                verify(result, times(3)).close();
+            }
+        }
+
+        @Nested
+        class WhenAQueryFails {
+            @BeforeEach
+            void setUp() {
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.FAILED, "b0rk");
+                for (int i = 0; i < 10; i++) {
+                    queryExecutionHelper.queueGetQueryExecutionResponse(QueryExecutionState.RUNNING);
+                }
+            }
+
+            @Test
+            void stopsTheOtherQueries() throws Exception {
+                ResultSet rs = statement.executeQueries(sqls, 2, true);
+                assertThrows(SQLException.class, rs::next);
+                long deadline = System.currentTimeMillis() + 1000;
+                while (queryExecutionHelper.stopQueryExecutionRequests().isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals(1, queryExecutionHelper.stopQueryExecutionRequests().size());
+                assertEquals(2, queryExecutionHelper.startQueryRequests().size());
+            }
+
+            @Test
+            void throwsTheErrorWhenTheResultSetIsRead() throws Exception {
+                ResultSet rs = statement.executeQueries(sqls, 2, false);
+                SQLException e = assertThrows(SQLException.class, rs::next);
+                assertEquals("b0rk", e.getMessage());
+            }
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnException() throws Exception {
+                statement.close();
+                assertThrows(SQLException.class, () -> statement.executeQueries(sqls, 1, true));
+            }
+        }
+    }
+
     @Nested
     class Close extends SharedExecuteSetup {
         @Test
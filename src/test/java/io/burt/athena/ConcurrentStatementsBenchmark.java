@@ -0,0 +1,127 @@
+package io.burt.athena;
+
+import io.burt.athena.configuration.DriverThreads;
+import io.burt.athena.support.FakeAthenaServer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs thousands of statements at the same time and reports how many
+ * platform threads and how much memory the JVM uses while they all have an
+ * open result.
+ *
+ * Each statement is executed on its own thread from
+ * {@link DriverThreads#newThreadPerTaskExecutor(String)}, polls a local fake
+ * Athena a few times, and then reads the first row of a result that is
+ * large enough to keep its result pipeline blocked. On Java 21 and later,
+ * when the driver is loaded from the multi-release JAR, the statements,
+ * polling and result pipelines run on virtual threads, otherwise each of
+ * them needs a platform thread. Run it with the JAR first on the classpath
+ * to see the difference, e.g. after <code>mvn package</code>:
+ *
+ * <pre>
+ * java -cp target/athena-jdbc-VERSION.jar:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) io.burt.athena.ConcurrentStatementsBenchmark [statements]
+ * </pre>
+ */
+public class ConcurrentStatementsBenchmark {
+    public static void main(String[] args) throws Exception {
+        int statements = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        try (FakeAthenaServer server = new FakeAthenaServer(3, 10_000, 64)) {
+            AthenaDriver.deregister();
+            DriverManager.registerDriver(new AthenaDriver(server.createConnectionConfigurationFactory()));
+            Properties properties = new Properties();
+            properties.setProperty(AthenaDriver.REGION_PROPERTY_NAME, "us-east-1");
+            properties.setProperty(AthenaDriver.OUTPUT_LOCATION_PROPERTY_NAME, FakeAthenaServer.OUTPUT_LOCATION);
+            properties.setProperty(AthenaDriver.RESULT_PIPELINE_DEPTH_PROPERTY_NAME, "2");
+            properties.setProperty(AthenaDriver.HTTP_MAX_CONCURRENCY_PROPERTY_NAME, String.valueOf(statements * 2));
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            try (Connection connection = DriverManager.getConnection("jdbc:athena", properties)) {
+                warmUp(connection);
+                System.gc();
+                int threadsBefore = threads.getThreadCount();
+                long memoryBefore = usedMemory();
+                threads.resetPeakThreadCount();
+                CountDownLatch started = new CountDownLatch(statements);
+                CountDownLatch release = new CountDownLatch(1);
+                CountDownLatch finished = new CountDownLatch(statements);
+                AtomicInteger rows = new AtomicInteger(0);
+                AtomicReference<Exception> error = new AtomicReference<>(null);
+                Executor executor = DriverThreads.newThreadPerTaskExecutor("benchmark-statement");
+                long start = System.nanoTime();
+                for (int i = 0; i < statements; i++) {
+                    executor.execute(() -> {
+                        try (Statement statement = connection.createStatement()) {
+                            ResultSet resultSet = statement.executeQuery("SELECT 1");
+                            if (resultSet.next()) {
+                                rows.incrementAndGet();
+                            }
+                            started.countDown();
+                            release.await();
+                        } catch (Exception e) {
+                            error.compareAndSet(null, e);
+                            started.countDown();
+                        } finally {
+                            finished.countDown();
+                        }
+                    });
+                }
+                started.await();
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                System.gc();
+                int threadsDuring = threads.getThreadCount();
+                int peakThreads = threads.getPeakThreadCount();
+                long memoryDuring = usedMemory();
+                long committedVirtualMemory = committedVirtualMemory();
+                release.countDown();
+                finished.await();
+                if (error.get() != null) {
+                    throw error.get();
+                }
+                System.out.printf("java version:             %s%n", System.getProperty("java.version"));
+                System.out.printf("virtual threads:          %s%n", DriverThreads.usesVirtualThreads());
+                System.out.printf("concurrent statements:    %d (%d with a first row)%n", statements, rows.get());
+                System.out.printf("time to first rows:       %d ms%n", elapsed);
+                System.out.printf("platform threads:         %d before, %d during, %d peak%n", threadsBefore, threadsDuring, peakThreads);
+                System.out.printf("heap used:                %d MB before, %d MB during%n", memoryBefore >> 20, memoryDuring >> 20);
+                if (committedVirtualMemory >= 0) {
+                    System.out.printf("committed virtual memory: %d MB%n", committedVirtualMemory >> 20);
+                }
+            }
+        }
+    }
+
+    private static void warmUp(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            ResultSet resultSet = statement.executeQuery("SELECT 1");
+            resultSet.next();
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long committedVirtualMemory() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getCommittedVirtualMemorySize();
+        } else {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class NativeImageConfigurationTest {
+    private static final String CONFIGURATION_PATH = "META-INF/native-image/io.burt/athena-jdbc/";
+
+    private List<String> extract(String fileName, String pattern) throws IOException {
+        String contents;
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream(CONFIGURATION_PATH + fileName)) {
+            assertNotNull(input);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1 << 12];
+            int n;
+            while ((n = input.read(buffer)) != -1) {
+                output.write(buffer, 0, n);
+            }
+            contents = new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+        List<String> values = new ArrayList<>();
+        Matcher matcher = Pattern.compile(pattern).matcher(contents);
+        while (matcher.find()) {
+            values.add(matcher.group(1));
+        }
+        return values;
+    }
+
+    @Nested
+    class ReflectConfig {
+        @Test
+        void onlyListsClassesThatExist() throws Exception {
+            List<String> classNames = extract("reflect-config.json", "\"name\"\\s*:\\s*\"([\\w.$]+\\.[\\w$]+)\"");
+            assertFalse(classNames.isEmpty());
+            for (String className : classNames) {
+                assertDoesNotThrow(() -> Class.forName(className, false, getClass().getClassLoader()), className);
+            }
+        }
+    }
+
+    @Nested
+    class ResourceConfig {
+        @Test
+        void onlyListsResourcesThatExist() throws Exception {
+            List<String> resourceNames = extract("resource-config.json", "\"pattern\"\\s*:\\s*\"\\\\\\\\Q(.+?)\\\\\\\\E\"");
+            assertFalse(resourceNames.isEmpty());
+            for (String resourceName : resourceNames) {
+                assertNotNull(getClass().getClassLoader().getResource(resourceName), resourceName);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.burt.athena;
+
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.athena.model.QueryExecutionState;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultConnectionPrimerTest {
+    private GetObjectHelper getObjectHelper;
+    private TestClock clock;
+    private ResultConnectionPrimer primer;
+
+    @BeforeEach
+    void setUp() {
+        getObjectHelper = new GetObjectHelper();
+        clock = new TestClock();
+        primer = new ResultConnectionPrimer(() -> getObjectHelper, clock, Duration.ofSeconds(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        getObjectHelper.close();
+    }
+
+    private QueryExecution queryExecution(QueryExecutionState state, String outputLocation) {
+        return QueryExecution.builder().status(b -> b.state(state)).resultConfiguration(b -> b.outputLocation(outputLocation)).build();
+    }
+
+    @Nested
+    class Prime {
+        @Test
+        void sendsAHeadRequestForTheResultAndItsMetadata() {
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "s3://some-bucket/the/prefix/Q1234.csv"));
+            assertEquals(Arrays.asList("the/prefix/Q1234.csv", "the/prefix/Q1234.csv.metadata"), getObjectHelper.headObjectRequests().stream().map(HeadObjectRequest::key).collect(Collectors.toList()));
+            assertEquals("some-bucket", getObjectHelper.headObjectRequests().get(0).bucket());
+        }
+
+        @Test
+        void doesNotPrimeAgainWithinTheInterval() {
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "s3://some-bucket/Q1234.csv"));
+            clock.tick(Duration.ofSeconds(19));
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "s3://some-bucket/Q1234.csv"));
+            assertEquals(2, getObjectHelper.headObjectRequests().size());
+        }
+
+        @Test
+        void primesAgainAfterTheInterval() {
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "s3://some-bucket/Q1234.csv"));
+            clock.tick(Duration.ofSeconds(20));
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "s3://some-bucket/Q1234.csv"));
+            assertEquals(4, getObjectHelper.headObjectRequests().size());
+        }
+
+        @Test
+        void doesNotPrimeWhileTheQueryIsQueued() {
+            primer.prime(queryExecution(QueryExecutionState.QUEUED, "s3://some-bucket/Q1234.csv"));
+            assertTrue(getObjectHelper.headObjectRequests().isEmpty());
+        }
+
+        @Test
+        void ignoresMalformedOutputLocations() {
+            primer.prime(queryExecution(QueryExecutionState.RUNNING, "some-bucket/Q1234.csv"));
+            assertTrue(getObjectHelper.headObjectRequests().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ScanAccountTest {
+    private ScanAccount scanAccount;
+
+    @BeforeEach
+    void setUp() {
+        scanAccount = new ScanAccount();
+        scanAccount.setBudget(ScanBudget.ofBytes(1000));
+    }
+
+    @Nested
+    class Reservation {
+        @Test
+        void isNotExceededWhileTheTotalIsWithinTheBudget() {
+            ScanAccount.Reservation reservation = scanAccount.reserve();
+            assertFalse(reservation.update(400));
+            assertFalse(reservation.update(1000));
+        }
+
+        @Test
+        void isExceededWhenTheRunningQueriesTogetherExceedTheBudget() {
+            ScanAccount.Reservation reservation1 = scanAccount.reserve();
+            ScanAccount.Reservation reservation2 = scanAccount.reserve();
+            ScanAccount.Reservation reservation3 = scanAccount.reserve();
+            assertFalse(reservation1.update(400));
+            assertFalse(reservation2.update(400));
+            assertTrue(reservation3.update(400));
+        }
+
+        @Test
+        void includesTheCompletedQueries() {
+            scanAccount.record(800);
+            assertTrue(scanAccount.reserve().update(201));
+        }
+
+        @Test
+        void isNotExceededWhenNoBudgetIsSet() {
+            scanAccount.setBudget(null);
+            assertFalse(scanAccount.reserve().update(5000));
+        }
+
+        @Test
+        void doesNotCountTheRunningQueriesAsScanned() {
+            scanAccount.reserve().update(400);
+            assertEquals(0, scanAccount.getBytesScanned());
+            assertEquals(400, scanAccount.getBytesCharged());
+        }
+
+        @Test
+        void replacesTheReservationWithTheFinalBytesWhenSettled() {
+            ScanAccount.Reservation reservation = scanAccount.reserve();
+            reservation.update(400);
+            reservation.settle(300);
+            assertEquals(300, scanAccount.getBytesScanned());
+            assertEquals(300, scanAccount.getBytesCharged());
+        }
+
+        @Test
+        void keepsTheReservedBytesWhenTheFinalBytesAreNotKnown() {
+            ScanAccount.Reservation reservation = scanAccount.reserve();
+            reservation.update(400);
+            reservation.settle(-1);
+            assertEquals(400, scanAccount.getBytesScanned());
+            assertEquals(400, scanAccount.getBytesCharged());
+        }
+
+        @Test
+        void keepsTheReservedBytesWhenReleased() {
+            ScanAccount.Reservation reservation = scanAccount.reserve();
+            reservation.update(400);
+            reservation.release();
+            assertEquals(400, scanAccount.getBytesScanned());
+            assertEquals(400, scanAccount.getBytesCharged());
+        }
+
+        @Test
+        void settlesOnlyOnce() {
+            ScanAccount.Reservation reservation = scanAccount.reserve();
+            reservation.update(400);
+            reservation.settle(500);
+            reservation.release();
+            reservation.update(900);
+            assertEquals(500, scanAccount.getBytesScanned());
+            assertEquals(500, scanAccount.getBytesCharged());
+        }
+    }
+}
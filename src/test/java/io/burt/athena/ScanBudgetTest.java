@@ -0,0 +1,59 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ScanBudgetTest {
+    @Nested
+    class OfBytes {
+        @Test
+        void returnsABudgetOfTheGivenNumberOfBytes() {
+            assertEquals(1234, ScanBudget.ofBytes(1234).getMaxBytesScanned());
+        }
+
+        @Test
+        void throwsAnExceptionWhenTheNumberIsNegative() {
+            assertThrows(IllegalArgumentException.class, () -> ScanBudget.ofBytes(-1));
+        }
+    }
+
+    @Nested
+    class OfCost {
+        @Test
+        void returnsTheNumberOfBytesTheCostPaysFor() {
+            ScanBudget budget = ScanBudget.ofCost(new BigDecimal("2.50"), new BigDecimal("5"));
+            assertEquals(1L << 39, budget.getMaxBytesScanned());
+        }
+
+        @Test
+        void roundsDown() {
+            ScanBudget budget = ScanBudget.ofCost(new BigDecimal("1"), new BigDecimal("3"));
+            assertEquals((1L << 40) / 3, budget.getMaxBytesScanned());
+        }
+
+        @Test
+        void throwsAnExceptionWhenThePriceIsNotPositive() {
+            assertThrows(IllegalArgumentException.class, () -> ScanBudget.ofCost(BigDecimal.ONE, BigDecimal.ZERO));
+        }
+    }
+
+    @Nested
+    class IsExceededBy {
+        @Test
+        void returnsTrueOnlyWhenMoreThanTheBudgetIsScanned() {
+            ScanBudget budget = ScanBudget.ofBytes(100);
+            assertFalse(budget.isExceededBy(100));
+            assertTrue(budget.isExceededBy(101));
+        }
+    }
+}
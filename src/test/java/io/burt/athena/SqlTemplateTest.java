@@ -0,0 +1,75 @@
+package io.burt.athena;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class SqlTemplateTest {
+    @Nested
+    class Parse {
+        @Test
+        void findsTheParameterMarkers() {
+            assertEquals(2, SqlTemplate.parse("SELECT * FROM t WHERE a = ? AND b = ?").parameterCount());
+        }
+
+        @Test
+        void findsNoParametersInSqlWithoutMarkers() {
+            assertEquals(0, SqlTemplate.parse("SELECT 1").parameterCount());
+        }
+
+        @Test
+        void ignoresMarkersInStringLiterals() {
+            assertEquals(1, SqlTemplate.parse("SELECT '?', 'it''s ?' FROM t WHERE a = ?").parameterCount());
+        }
+
+        @Test
+        void ignoresMarkersInQuotedIdentifiers() {
+            assertEquals(1, SqlTemplate.parse("SELECT \"a?\", `b?` FROM t WHERE a = ?").parameterCount());
+        }
+
+        @Test
+        void ignoresMarkersInComments() {
+            assertEquals(1, SqlTemplate.parse("SELECT 1 -- what?\nFROM t /* really? */ WHERE a = ?").parameterCount());
+        }
+
+        @Test
+        void ignoresMarkersInUnterminatedStringLiterals() {
+            assertEquals(0, SqlTemplate.parse("SELECT 'foo ?").parameterCount());
+        }
+
+        @Test
+        void keepsTheSql() {
+            assertEquals("SELECT ?", SqlTemplate.parse("SELECT ?").sql());
+        }
+    }
+
+    @Nested
+    class Render {
+        @Test
+        void replacesTheMarkersWithTheLiterals() {
+            SqlTemplate template = SqlTemplate.parse("SELECT * FROM t WHERE a = ? AND b = ?");
+            assertEquals("SELECT * FROM t WHERE a = 'foo' AND b = 3", template.render(new String[] {"'foo'", "3"}));
+        }
+
+        @Test
+        void rendersMarkersAtTheStartAndEnd() {
+            assertEquals("1, 2", SqlTemplate.parse("?, ?").render(new String[] {"1", "2"}));
+        }
+
+        @Test
+        void leavesQuotedMarkersInPlace() {
+            assertEquals("SELECT '?', 1", SqlTemplate.parse("SELECT '?', ?").render(new String[] {"1"}));
+        }
+
+        @Test
+        void rendersTheSameTemplateManyTimes() {
+            SqlTemplate template = SqlTemplate.parse("SELECT ?");
+            assertEquals("SELECT 1", template.render(new String[] {"1"}));
+            assertEquals("SELECT 2", template.render(new String[] {"2"}));
+        }
+    }
+}
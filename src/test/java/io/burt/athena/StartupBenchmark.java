@@ -0,0 +1,113 @@
+package io.burt.athena;
+
+import io.burt.athena.support.FakeAthenaServer;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Measures how long it takes from a cold JVM until the first query has
+ * returned its first row.
+ *
+ * Each sample runs in a new JVM against a local server that fakes the
+ * Athena and S3 APIs, so that the numbers reflect the cost of class loading
+ * and client creation rather than network latency. The time to load the
+ * driver is measured on its own, the other times are measured from the call
+ * to <code>DriverManager.getConnection</code>. Run it with the test
+ * classpath, e.g. after <code>mvn test-compile</code>:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) io.burt.athena.StartupBenchmark [samples]
+ * </pre>
+ */
+public class StartupBenchmark {
+    private static final String[] PHASES = {"load driver", "getConnection", "createStatement", "first row"};
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--sample")) {
+            runSample();
+        } else {
+            int samples = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+            runSamples(samples);
+        }
+    }
+
+    private static void runSamples(int samples) throws Exception {
+        List<List<Long>> timings = new ArrayList<>();
+        for (int i = 0; i < PHASES.length; i++) {
+            timings.add(new ArrayList<>());
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        for (int i = 0; i < samples; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), StartupBenchmark.class.getName(), "--sample")
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            String line;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                line = reader.readLine();
+            }
+            if (process.waitFor() != 0 || line == null) {
+                throw new IllegalStateException(String.format("Sample %d failed", i));
+            }
+            String[] values = line.split(",");
+            for (int j = 0; j < PHASES.length; j++) {
+                timings.get(j).add(Long.parseLong(values[j]));
+            }
+        }
+        System.out.printf("%-16s %8s %8s %8s%n", "phase (ms)", "min", "median", "max");
+        for (int i = 0; i < PHASES.length; i++) {
+            List<Long> values = timings.get(i);
+            Collections.sort(values);
+            System.out.printf("%-16s %8d %8d %8d%n", PHASES[i], values.get(0), values.get(values.size() / 2), values.get(values.size() - 1));
+        }
+    }
+
+    private static void runSample() throws Exception {
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        try (FakeAthenaServer server = new FakeAthenaServer(0, 1, 1)) {
+            long[] timings = new long[PHASES.length];
+            long start = System.nanoTime();
+            Class.forName("io.burt.athena.AthenaDriver");
+            timings[0] = elapsedMillis(start);
+            AthenaDriver.deregister();
+            DriverManager.registerDriver(new AthenaDriver(server.createConnectionConfigurationFactory()));
+            Properties properties = new Properties();
+            properties.setProperty(AthenaDriver.REGION_PROPERTY_NAME, "us-east-1");
+            properties.setProperty(AthenaDriver.OUTPUT_LOCATION_PROPERTY_NAME, FakeAthenaServer.OUTPUT_LOCATION);
+            start = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection("jdbc:athena", properties)) {
+                timings[1] = elapsedMillis(start);
+                Statement statement = connection.createStatement();
+                timings[2] = elapsedMillis(start);
+                ResultSet resultSet = statement.executeQuery("SELECT 1");
+                if (!resultSet.next() || resultSet.getInt(1) != 1) {
+                    throw new IllegalStateException("Unexpected result");
+                }
+                timings[3] = elapsedMillis(start);
+            }
+            StringBuilder line = new StringBuilder();
+            for (long timing : timings) {
+                if (line.length() > 0) {
+                    line.append(',');
+                }
+                line.append(timing);
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
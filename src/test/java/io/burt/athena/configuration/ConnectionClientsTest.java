@@ -0,0 +1,104 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.metadata.CatalogCache;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.athena.AthenaAsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ConnectionClientsTest {
+    private ClientKey clientKey;
+    private SharedClients<ClientKey, AthenaAsyncClient> athenaClients;
+    private SharedClients<ClientKey, S3AsyncClient> s3Clients;
+    private CatalogKey catalogKey;
+    private SharedClients<CatalogKey, CatalogCache> catalogCaches;
+    private ConnectionClients clients;
+
+    @BeforeEach
+    void setUp() {
+        clientKey = new ClientKey(Region.EU_WEST_1, new HttpClientSettings());
+        athenaClients = new SharedClients<>(key -> mock(AthenaAsyncClient.class));
+        s3Clients = new SharedClients<>(key -> mock(S3AsyncClient.class));
+        catalogKey = new CatalogKey(clientKey, Duration.ofMinutes(5), null);
+        catalogCaches = new SharedClients<>(key -> mock(CatalogCache.class));
+        clients = new ConnectionClients(clientKey, athenaClients, s3Clients, catalogKey, catalogCaches);
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void doesNotAcquireAnyClients() {
+            assertEquals(0, athenaClients.getReferenceCount(clientKey));
+            assertEquals(0, s3Clients.getReferenceCount(clientKey));
+            assertEquals(0, catalogCaches.getReferenceCount(catalogKey));
+        }
+    }
+
+    @Nested
+    class AthenaClient {
+        @Test
+        void acquiresTheClientOnFirstUse() {
+            AthenaAsyncClient client = clients.athenaClient();
+            assertSame(client, clients.athenaClient());
+            assertEquals(1, athenaClients.getReferenceCount(clientKey));
+            assertEquals(0, s3Clients.getReferenceCount(clientKey));
+        }
+    }
+
+    @Nested
+    class S3Client {
+        @Test
+        void acquiresTheClientOnFirstUse() {
+            S3AsyncClient client = clients.s3Client();
+            assertSame(client, clients.s3Client());
+            assertEquals(1, s3Clients.getReferenceCount(clientKey));
+            assertEquals(0, athenaClients.getReferenceCount(clientKey));
+        }
+    }
+
+    @Nested
+    class GetCatalogCache {
+        @Test
+        void acquiresTheCacheOnFirstUse() {
+            CatalogCache cache = clients.catalogCache();
+            assertSame(cache, clients.catalogCache());
+            assertEquals(1, catalogCaches.getReferenceCount(catalogKey));
+            assertEquals(0, athenaClients.getReferenceCount(clientKey));
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void releasesTheAcquiredClients() {
+            AthenaAsyncClient athenaClient = clients.athenaClient();
+            S3AsyncClient s3Client = clients.s3Client();
+            CatalogCache catalogCache = clients.catalogCache();
+            clients.close();
+            assertEquals(0, athenaClients.getReferenceCount(clientKey));
+            assertEquals(0, s3Clients.getReferenceCount(clientKey));
+            assertEquals(0, catalogCaches.getReferenceCount(catalogKey));
+            verify(athenaClient).close();
+            verify(s3Client).close();
+            verify(catalogCache).close();
+        }
+
+        @Test
+        void doesNothingWhenNoClientsHaveBeenAcquired() {
+            clients.close();
+            assertEquals(0, athenaClients.getReferenceCount(clientKey));
+        }
+    }
+}
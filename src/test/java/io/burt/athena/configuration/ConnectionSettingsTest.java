@@ -0,0 +1,80 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.result.S3ResultSettings;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.regions.Region;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ConnectionSettingsTest {
+    @Nested
+    class Constructor {
+        @Test
+        void usesTheDefaultsOfTheDriver() {
+            ConnectionSettings settings = new ConnectionSettings();
+            assertNull(settings.getRegion());
+            assertEquals("default", settings.getDatabaseName());
+            assertNull(settings.getWorkGroupName());
+            assertEquals(Duration.ofMinutes(1), settings.getNetworkTimeout());
+            assertEquals(Duration.ofMinutes(30), settings.getQueryTimeout());
+            assertEquals(ResultLoadingStrategy.S3, settings.getResultLoadingStrategy());
+            assertTrue(settings.getWorkGroups().isEmpty());
+            assertEquals(0, settings.getMaxConcurrentQueries());
+            assertTrue(settings.getHttpClientSettings().isDefault());
+            assertNull(settings.getCatalogSnapshotPath());
+        }
+    }
+
+    @Nested
+    class With {
+        @Test
+        void returnsACopyWithTheNewValue() {
+            ConnectionSettings settings = new ConnectionSettings();
+            S3ResultSettings resultSettings = new S3ResultSettings().withPipelineDepth(4);
+            ConnectionSettings copy = settings
+                    .withRegion(Region.EU_WEST_1)
+                    .withDatabaseName("sales")
+                    .withWorkGroupName("wg")
+                    .withOutputLocation("s3://bucket/prefix/")
+                    .withNetworkTimeout(Duration.ofSeconds(10))
+                    .withQueryTimeout(Duration.ofMinutes(5))
+                    .withResultLoadingStrategy(ResultLoadingStrategy.GET_EXECUTION_RESULTS)
+                    .withResultSettings(resultSettings)
+                    .withWorkGroups(Collections.singletonList(new WorkGroup("wg", 1, 0)))
+                    .withMaxConcurrentQueries(8)
+                    .withReservedInteractiveQueries(2)
+                    .withBatchAgingTimeout(Duration.ofSeconds(90))
+                    .withHttpClientSettings(new HttpClientSettings().withMaxConcurrency(200))
+                    .withCatalogCacheTimeToLive(Duration.ofMinutes(15))
+                    .withCatalogSnapshotPath(Paths.get("/tmp/catalog.json"));
+            assertNull(settings.getRegion());
+            assertEquals("default", settings.getDatabaseName());
+            assertEquals(Region.EU_WEST_1, copy.getRegion());
+            assertEquals("sales", copy.getDatabaseName());
+            assertEquals("wg", copy.getWorkGroupName());
+            assertEquals("s3://bucket/prefix/", copy.getOutputLocation());
+            assertEquals(Duration.ofSeconds(10), copy.getNetworkTimeout());
+            assertEquals(Duration.ofMinutes(5), copy.getQueryTimeout());
+            assertEquals(ResultLoadingStrategy.GET_EXECUTION_RESULTS, copy.getResultLoadingStrategy());
+            assertSame(resultSettings, copy.getResultSettings());
+            assertEquals(Collections.singletonList(new WorkGroup("wg", 1, 0)), copy.getWorkGroups());
+            assertEquals(8, copy.getMaxConcurrentQueries());
+            assertEquals(2, copy.getReservedInteractiveQueries());
+            assertEquals(Duration.ofSeconds(90), copy.getBatchAgingTimeout());
+            assertEquals(200, copy.getHttpClientSettings().getMaxConcurrency());
+            assertEquals(Duration.ofMinutes(15), copy.getCatalogCacheTimeToLive());
+            assertEquals(Paths.get("/tmp/catalog.json"), copy.getCatalogSnapshotPath());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class DriverThreadsTest {
+    @Nested
+    class NewThreadPerTaskExecutor {
+        @Test
+        void runsEachTaskOnANewNamedDaemonThread() throws Exception {
+            CompletableFuture<Thread> thread1 = new CompletableFuture<>();
+            CompletableFuture<Thread> thread2 = new CompletableFuture<>();
+            DriverThreads.newThreadPerTaskExecutor("test-thread").execute(() -> thread1.complete(Thread.currentThread()));
+            DriverThreads.newThreadPerTaskExecutor("test-thread").execute(() -> thread2.complete(Thread.currentThread()));
+            assertEquals("test-thread", thread1.get(1, TimeUnit.SECONDS).getName());
+            assertTrue(thread1.get().isDaemon());
+            assertNotSame(thread1.get(), thread2.get(1, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.client.builder.SdkAsyncClientBuilder;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class HttpClientSettingsTest {
+    @Nested
+    class Constructor {
+        @Test
+        void usesTheSdkDefaults() {
+            HttpClientSettings settings = new HttpClientSettings();
+            assertNull(settings.getMaxConcurrency());
+            assertNull(settings.getHttpClient());
+            assertTrue(settings.isDefault());
+        }
+    }
+
+    @Nested
+    class With {
+        @Test
+        void returnsACopyWithTheNewValue() {
+            HttpClientSettings settings = new HttpClientSettings();
+            HttpClientSettings copy = settings
+                    .withMaxConcurrency(200)
+                    .withMaxPendingConnectionAcquires(1000)
+                    .withConnectionTimeToLive(Duration.ofMinutes(5))
+                    .withConnectionMaxIdleTime(Duration.ofSeconds(30))
+                    .withUseIdleConnectionReaper(false)
+                    .withEventLoopThreads(4);
+            assertNull(settings.getMaxConcurrency());
+            assertEquals(200, copy.getMaxConcurrency());
+            assertEquals(1000, copy.getMaxPendingConnectionAcquires());
+            assertEquals(Duration.ofMinutes(5), copy.getConnectionTimeToLive());
+            assertEquals(Duration.ofSeconds(30), copy.getConnectionMaxIdleTime());
+            assertFalse(copy.getUseIdleConnectionReaper());
+            assertEquals(4, copy.getEventLoopThreads());
+            assertFalse(copy.isDefault());
+        }
+    }
+
+    @Nested
+    class Equals {
+        @Test
+        void isEqualToSettingsWithTheSameValues() {
+            assertEquals(new HttpClientSettings().withMaxConcurrency(100), new HttpClientSettings().withMaxConcurrency(100));
+            assertEquals(new HttpClientSettings().withMaxConcurrency(100).hashCode(), new HttpClientSettings().withMaxConcurrency(100).hashCode());
+        }
+
+        @Test
+        void isNotEqualToSettingsWithOtherValues() {
+            assertNotEquals(new HttpClientSettings().withMaxConcurrency(100), new HttpClientSettings().withMaxConcurrency(101));
+        }
+
+        @Test
+        void comparesHttpClientsByIdentity() {
+            SdkAsyncHttpClient httpClient = mock(SdkAsyncHttpClient.class);
+            assertEquals(new HttpClientSettings().withHttpClient(httpClient), new HttpClientSettings().withHttpClient(httpClient));
+            assertNotEquals(new HttpClientSettings().withHttpClient(httpClient), new HttpClientSettings().withHttpClient(mock(SdkAsyncHttpClient.class)));
+        }
+    }
+
+    @Nested
+    class ApplyTo {
+        @Test
+        void leavesTheBuilderAloneWhenUsingTheDefaults() {
+            SdkAsyncClientBuilder<?, ?> builder = mock(SdkAsyncClientBuilder.class);
+            new HttpClientSettings().applyTo(builder);
+            verifyZeroInteractions(builder);
+        }
+
+        @Test
+        void setsTheHttpClientWhenGiven() {
+            SdkAsyncClientBuilder<?, ?> builder = mock(SdkAsyncClientBuilder.class);
+            SdkAsyncHttpClient httpClient = mock(SdkAsyncHttpClient.class);
+            new HttpClientSettings().withMaxConcurrency(10).withHttpClient(httpClient).applyTo(builder);
+            verify(builder).httpClient(httpClient);
+        }
+
+        @Test
+        void setsANettyClientBuilderWhenConfigured() {
+            SdkAsyncClientBuilder<?, ?> builder = mock(SdkAsyncClientBuilder.class);
+            new HttpClientSettings().withMaxConcurrency(10).applyTo(builder);
+            verify(builder).httpClientBuilder(any());
+        }
+    }
+}
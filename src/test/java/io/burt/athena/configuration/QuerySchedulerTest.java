@@ -0,0 +1,170 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class QuerySchedulerTest {
+    private TestClock clock;
+    private QueryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+        scheduler = new QueryScheduler(3, 1, Duration.ofMinutes(1), clock);
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void requiresAtLeastOneSlot() {
+            assertThrows(IllegalArgumentException.class, () -> new QueryScheduler(0, 0, Duration.ofMinutes(1)));
+        }
+
+        @Test
+        void requiresAtLeastOneUnreservedSlot() {
+            assertThrows(IllegalArgumentException.class, () -> new QueryScheduler(2, 2, Duration.ofMinutes(1)));
+        }
+    }
+
+    @Nested
+    class Acquire {
+        @Test
+        void grantsSlotsUntilTheMaxConcurrencyIsReached() {
+            assertTrue(scheduler.acquire(QueryPriority.INTERACTIVE).isDone());
+            assertTrue(scheduler.acquire(QueryPriority.INTERACTIVE).isDone());
+            assertTrue(scheduler.acquire(QueryPriority.INTERACTIVE).isDone());
+            assertFalse(scheduler.acquire(QueryPriority.INTERACTIVE).isDone());
+            assertEquals(3, scheduler.getRunningCount());
+            assertEquals(1, scheduler.getQueuedCount(QueryPriority.INTERACTIVE));
+        }
+
+        @Test
+        void doesNotGiveTheReservedSlotsToBatchQueries() {
+            assertTrue(scheduler.acquire(QueryPriority.BATCH).isDone());
+            assertTrue(scheduler.acquire(QueryPriority.BATCH).isDone());
+            assertFalse(scheduler.acquire(QueryPriority.BATCH).isDone());
+            assertTrue(scheduler.acquire(QueryPriority.INTERACTIVE).isDone());
+        }
+    }
+
+    @Nested
+    class Release {
+        @Test
+        void startsWaitingInteractiveQueriesBeforeBatchQueries() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            CompletableFuture<Void> batch = scheduler.acquire(QueryPriority.BATCH);
+            CompletableFuture<Void> interactive = scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.release();
+            assertTrue(interactive.isDone());
+            assertFalse(batch.isDone());
+        }
+
+        @Test
+        void startsBatchQueriesWhenThereAreMoreFreeSlotsThanReserved() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            CompletableFuture<Void> batch = scheduler.acquire(QueryPriority.BATCH);
+            scheduler.release();
+            assertFalse(batch.isDone());
+            scheduler.release();
+            assertTrue(batch.isDone());
+        }
+
+        @Test
+        void startsBatchQueriesThatHaveWaitedLongerThanTheAgingTimeoutBeforeInteractiveQueries() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            CompletableFuture<Void> batch = scheduler.acquire(QueryPriority.BATCH);
+            clock.tick(Duration.ofMinutes(1));
+            CompletableFuture<Void> interactive = scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.release();
+            assertTrue(batch.isDone());
+            assertFalse(interactive.isDone());
+        }
+
+        @Test
+        void skipsQueriesThatHaveBeenCancelled() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            CompletableFuture<Void> cancelled = scheduler.acquire(QueryPriority.INTERACTIVE);
+            CompletableFuture<Void> waiting = scheduler.acquire(QueryPriority.INTERACTIVE);
+            cancelled.cancel(false);
+            scheduler.release();
+            assertTrue(waiting.isDone());
+            assertEquals(3, scheduler.getRunningCount());
+            assertEquals(0, scheduler.getQueuedCount(QueryPriority.INTERACTIVE));
+        }
+    }
+
+    @Nested
+    class WhenABatchQueryAges {
+        @Test
+        void startsItInAReservedSlotWithoutARelease() throws Exception {
+            QueryScheduler scheduler = new QueryScheduler(2, 1, Duration.ofMillis(10));
+            scheduler.acquire(QueryPriority.BATCH);
+            CompletableFuture<Void> batch = scheduler.acquire(QueryPriority.BATCH);
+            assertFalse(batch.isDone());
+            batch.get(5, TimeUnit.SECONDS);
+            assertEquals(2, scheduler.getRunningCount());
+        }
+
+        @Test
+        void onlyKeepsTheTimerThreadWhileBatchQueriesAreWaiting() {
+            scheduler.acquire(QueryPriority.BATCH);
+            scheduler.acquire(QueryPriority.BATCH);
+            assertFalse(scheduler.isAging());
+            CompletableFuture<Void> first = scheduler.acquire(QueryPriority.BATCH);
+            CompletableFuture<Void> second = scheduler.acquire(QueryPriority.BATCH);
+            assertTrue(scheduler.isAging());
+            scheduler.release();
+            assertTrue(first.isDone());
+            assertTrue(scheduler.isAging());
+            second.cancel(false);
+            assertFalse(scheduler.isAging());
+        }
+    }
+
+    @Nested
+    class Metrics {
+        @Test
+        void countsTheStartedQueriesOfEachLane() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.BATCH);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.BATCH);
+            assertEquals(2, scheduler.getStartCount(QueryPriority.INTERACTIVE));
+            assertEquals(1, scheduler.getStartCount(QueryPriority.BATCH));
+        }
+
+        @Test
+        void addsUpTheQueueTimesOfEachLane() {
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            scheduler.acquire(QueryPriority.INTERACTIVE);
+            clock.tick(Duration.ofMillis(300));
+            scheduler.release();
+            assertEquals(Duration.ofMillis(300), scheduler.getTotalQueueTime(QueryPriority.INTERACTIVE));
+            assertEquals(Duration.ZERO, scheduler.getTotalQueueTime(QueryPriority.BATCH));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class SharedClientsTest {
+    private List<TestClient> createdClients;
+    private SharedClients<Region, TestClient> sharedClients;
+
+    @BeforeEach
+    void setUp() {
+        createdClients = new ArrayList<>();
+        sharedClients = new SharedClients<>(region -> {
+            TestClient client = new TestClient();
+            createdClients.add(client);
+            return client;
+        });
+    }
+
+    private static class TestClient implements SdkAutoCloseable {
+        boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Nested
+    class Acquire {
+        @Test
+        void returnsTheSameClientForTheSameRegion() {
+            TestClient client1 = sharedClients.acquire(Region.EU_WEST_1);
+            TestClient client2 = sharedClients.acquire(Region.EU_WEST_1);
+            assertSame(client1, client2);
+            assertEquals(1, createdClients.size());
+        }
+
+        @Test
+        void returnsDifferentClientsForDifferentRegions() {
+            TestClient client1 = sharedClients.acquire(Region.EU_WEST_1);
+            TestClient client2 = sharedClients.acquire(Region.US_EAST_1);
+            assertNotSame(client1, client2);
+        }
+
+        @Test
+        void countsTheReferences() {
+            sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.acquire(Region.EU_WEST_1);
+            assertEquals(2, sharedClients.getReferenceCount(Region.EU_WEST_1));
+        }
+    }
+
+    @Nested
+    class Release {
+        @Test
+        void keepsTheClientOpenWhileItIsReferenced() {
+            TestClient client = sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.release(Region.EU_WEST_1, client);
+            assertFalse(client.closed);
+            assertEquals(1, sharedClients.getReferenceCount(Region.EU_WEST_1));
+        }
+
+        @Test
+        void closesTheClientWhenTheLastReferenceIsReleased() {
+            TestClient client = sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.release(Region.EU_WEST_1, client);
+            sharedClients.release(Region.EU_WEST_1, client);
+            assertTrue(client.closed);
+            assertEquals(0, sharedClients.getReferenceCount(Region.EU_WEST_1));
+        }
+
+        @Test
+        void createsANewClientAfterTheLastOneWasClosed() {
+            TestClient client = sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.release(Region.EU_WEST_1, client);
+            assertNotSame(client, sharedClients.acquire(Region.EU_WEST_1));
+        }
+
+        @Test
+        void ignoresClientsThatAreNoLongerShared() {
+            TestClient oldClient = sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.release(Region.EU_WEST_1, oldClient);
+            TestClient newClient = sharedClients.acquire(Region.EU_WEST_1);
+            sharedClients.release(Region.EU_WEST_1, oldClient);
+            assertFalse(newClient.closed);
+            assertEquals(1, sharedClients.getReferenceCount(Region.EU_WEST_1));
+        }
+    }
+}
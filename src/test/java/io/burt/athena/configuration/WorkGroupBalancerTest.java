@@ -0,0 +1,115 @@
+package io.burt.athena.configuration;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class WorkGroupBalancerTest {
+    private List<String> acquire(WorkGroupBalancer balancer, int n) {
+        List<String> names = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            names.add(balancer.acquire());
+        }
+        return names;
+    }
+
+    @Nested
+    class Constructor {
+        @Test
+        void requiresAtLeastOneWorkGroup() {
+            assertThrows(IllegalArgumentException.class, () -> new WorkGroupBalancer(Collections.emptyList()));
+        }
+    }
+
+    @Nested
+    class Acquire {
+        @Test
+        void alternatesBetweenEquallyWeightedWorkGroups() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 1, 0), new WorkGroup("b", 1, 0)));
+            assertEquals(Arrays.asList("a", "b", "a", "b"), acquire(balancer, 4));
+        }
+
+        @Test
+        void distributesQueriesByWeight() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 1, 0), new WorkGroup("b", 3, 0)));
+            List<String> names = acquire(balancer, 8);
+            assertEquals(2, Collections.frequency(names, "a"));
+            assertEquals(6, Collections.frequency(names, "b"));
+        }
+
+        @Test
+        void picksWorkGroupsThatHaveCompletedTheirQueries() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 1, 0), new WorkGroup("b", 1, 0)));
+            acquire(balancer, 4);
+            balancer.release("b");
+            balancer.release("b");
+            assertEquals(Arrays.asList("b", "b"), acquire(balancer, 2));
+        }
+
+        @Test
+        void avoidsWorkGroupsWithLongQueueTimes() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 1, 0), new WorkGroup("b", 1, 0)));
+            balancer.recordQueueTime("a", Duration.ofSeconds(5));
+            assertEquals(Arrays.asList("b", "b", "b"), acquire(balancer, 3));
+        }
+
+        @Test
+        void doesNotPickWorkGroupsAtTheirConcurrencyLimit() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 10, 1), new WorkGroup("b", 1, 0)));
+            assertEquals(Arrays.asList("a", "b", "b"), acquire(balancer, 3));
+        }
+
+        @Test
+        void picksTheLeastLoadedWorkGroupWhenAllAreAtTheirLimit() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Arrays.asList(new WorkGroup("a", 1, 1), new WorkGroup("b", 2, 1)));
+            assertEquals(Arrays.asList("b", "a", "b"), acquire(balancer, 3));
+        }
+
+        @Test
+        void countsTheQueryAsInFlight() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Collections.singletonList(new WorkGroup("a", 1, 0)));
+            acquire(balancer, 2);
+            assertEquals(2, balancer.getInFlight("a"));
+        }
+    }
+
+    @Nested
+    class Release {
+        @Test
+        void decrementsTheInFlightCount() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Collections.singletonList(new WorkGroup("a", 1, 0)));
+            acquire(balancer, 2);
+            balancer.release("a");
+            assertEquals(1, balancer.getInFlight("a"));
+        }
+
+        @Test
+        void throwsAnExceptionForUnknownWorkGroups() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Collections.singletonList(new WorkGroup("a", 1, 0)));
+            assertThrows(IllegalArgumentException.class, () -> balancer.release("b"));
+        }
+    }
+
+    @Nested
+    class RecordQueueTime {
+        @Test
+        void smoothsTheQueueTimes() {
+            WorkGroupBalancer balancer = new WorkGroupBalancer(Collections.singletonList(new WorkGroup("a", 1, 0)));
+            balancer.recordQueueTime("a", Duration.ofMillis(1000));
+            assertEquals(Duration.ofMillis(1000), balancer.getRecentQueueTime("a"));
+            balancer.recordQueueTime("a", Duration.ofMillis(0));
+            assertEquals(Duration.ofMillis(800), balancer.getRecentQueueTime("a"));
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package io.burt.athena.metadata;
+
+import io.burt.athena.support.InMemoryCatalog;
+import io.burt.athena.support.TestClock;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class CatalogCacheTest {
+    private InMemoryCatalog catalog;
+    private TestClock clock;
+    private CatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new InMemoryCatalog(2);
+        clock = new TestClock();
+        cache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock);
+        catalog.addTable("sales", "orders", "EXTERNAL_TABLE", "id bigint");
+        catalog.addTable("sales", "customers", "EXTERNAL_TABLE", "id bigint");
+        catalog.addTable("sales", "items", "EXTERNAL_TABLE", "id bigint");
+        catalog.addTable("logs", "requests", "EXTERNAL_TABLE", "id bigint");
+        catalog.addDatabase("default", null);
+    }
+
+    private List<String> names(List<CatalogTable> tables) {
+        List<String> names = new ArrayList<>();
+        for (CatalogTable table : tables) {
+            names.add(table.toString());
+        }
+        return names;
+    }
+
+    @Nested
+    class GetDatabases {
+        @Test
+        void loadsAllPagesOfDatabases() {
+            List<CatalogDatabase> databases = cache.getDatabases().join();
+            assertEquals(3, databases.size());
+            assertEquals(2, catalog.getDatabaseRequests());
+        }
+
+        @Test
+        void ordersTheDatabasesByName() {
+            List<String> names = new ArrayList<>();
+            for (CatalogDatabase database : cache.getDatabases().join()) {
+                names.add(database.getName());
+            }
+            assertEquals(Arrays.asList("default", "logs", "sales"), names);
+        }
+
+        @Test
+        void returnsTheCachedDatabases() {
+            List<CatalogDatabase> databases = cache.getDatabases().join();
+            clock.tick(Duration.ofMinutes(4));
+            assertSame(databases, cache.getDatabases().join());
+            assertEquals(2, catalog.getDatabaseRequests());
+        }
+
+        @Test
+        void loadsTheDatabasesAgainWhenTheTimeToLiveHasPassed() {
+            List<CatalogDatabase> databases = cache.getDatabases().join();
+            clock.tick(Duration.ofMinutes(10));
+            catalog.addDatabase("marketing", null);
+            List<CatalogDatabase> newDatabases = cache.getDatabases().join();
+            assertEquals(3, databases.size());
+            assertEquals(4, newDatabases.size());
+        }
+
+        @Test
+        void refreshesTheDatabasesInTheBackgroundAfterHalfTheTimeToLive() {
+            cache.getDatabases().join();
+            clock.tick(Duration.ofMinutes(6));
+            catalog.addDatabase("marketing", null);
+            List<CatalogDatabase> staleDatabases = cache.getDatabases().join();
+            assertEquals(3, staleDatabases.size());
+            assertEquals(4, catalog.getDatabaseRequests());
+            assertEquals(4, cache.getDatabases().join().size());
+        }
+
+        @Test
+        void onlyRefreshesOnceAtATime() {
+            BlockingCatalog blockingCatalog = new BlockingCatalog();
+            CatalogCache blockingCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 4, clock);
+            CompletableFuture<List<CatalogDatabase>> first = blockingCache.getDatabases();
+            blockingCatalog.complete(0);
+            clock.tick(Duration.ofMinutes(6));
+            assertSame(first.join(), blockingCache.getDatabases().join());
+            assertSame(first.join(), blockingCache.getDatabases().join());
+            assertEquals(2, blockingCatalog.requests.size());
+        }
+
+        @Test
+        void sharesTheLoadBetweenConcurrentCallers() {
+            BlockingCatalog blockingCatalog = new BlockingCatalog();
+            CatalogCache blockingCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 4, clock);
+            CompletableFuture<List<CatalogDatabase>> first = blockingCache.getDatabases();
+            CompletableFuture<List<CatalogDatabase>> second = blockingCache.getDatabases();
+            blockingCatalog.complete(0);
+            assertSame(first.join(), second.join());
+            assertEquals(1, blockingCatalog.requests.size());
+        }
+
+        @Nested
+        class WhenTheCatalogFails {
+            @Test
+            void completesExceptionally() {
+                catalog.setError(new IllegalStateException("b0rk"));
+                CompletionException e = assertThrows(CompletionException.class, () -> cache.getDatabases().join());
+                assertEquals("b0rk", e.getCause().getMessage());
+            }
+
+            @Test
+            void loadsTheDatabasesAgainOnTheNextCall() {
+                catalog.setError(new IllegalStateException("b0rk"));
+                assertThrows(CompletionException.class, () -> cache.getDatabases().join());
+                catalog.setError(null);
+                assertEquals(3, cache.getDatabases().join().size());
+            }
+
+            @Test
+            void keepsReturningTheCachedDatabasesWhenARefreshFails() {
+                cache.getDatabases().join();
+                clock.tick(Duration.ofMinutes(6));
+                catalog.setError(new IllegalStateException("b0rk"));
+                assertEquals(3, cache.getDatabases().join().size());
+                assertEquals(3, cache.getDatabases().join().size());
+            }
+        }
+    }
+
+    @Nested
+    class GetTables {
+        @Test
+        void returnsTheTablesOfAllDatabases() {
+            List<CatalogTable> tables = cache.getTables(NamePattern.compile(null), NamePattern.compile(null)).join();
+            assertEquals(Arrays.asList("logs.requests", "sales.customers", "sales.items", "sales.orders"), names(tables));
+        }
+
+        @Test
+        void loadsAllPagesOfTables() {
+            cache.getTables(NamePattern.compile("sales"), NamePattern.compile(null)).join();
+            assertEquals(2, catalog.getTableRequests());
+        }
+
+        @Test
+        void onlyLoadsTheTablesOfTheMatchingDatabases() {
+            List<CatalogTable> tables = cache.getTables(NamePattern.compile("lo%"), NamePattern.compile(null)).join();
+            assertEquals(Arrays.asList("logs.requests"), names(tables));
+            assertEquals(1, catalog.getTableRequests());
+        }
+
+        @Test
+        void returnsTheMatchingTables() {
+            List<CatalogTable> tables = cache.getTables(NamePattern.compile(null), NamePattern.compile("%s")).join();
+            assertEquals(Arrays.asList("logs.requests", "sales.customers", "sales.items", "sales.orders"), names(tables));
+            tables = cache.getTables(NamePattern.compile(null), NamePattern.compile("c%")).join();
+            assertEquals(Arrays.asList("sales.customers"), names(tables));
+        }
+
+        @Test
+        void returnsNothingWhenNoDatabaseMatches() {
+            List<CatalogTable> tables = cache.getTables(NamePattern.compile("nope"), NamePattern.compile(null)).join();
+            assertTrue(tables.isEmpty());
+            assertEquals(0, catalog.getTableRequests());
+        }
+
+        @Test
+        void cachesTheTablesOfEachDatabase() {
+            cache.getTables(NamePattern.compile(null), NamePattern.compile(null)).join();
+            int tableRequests = catalog.getTableRequests();
+            cache.getTables(NamePattern.compile("sales"), NamePattern.compile("orders")).join();
+            assertEquals(tableRequests, catalog.getTableRequests());
+        }
+
+        @Test
+        void loadsTheTablesOfDifferentDatabasesInParallel() {
+            BlockingCatalog blockingCatalog = new BlockingCatalog("a", "b", "c");
+            CatalogCache blockingCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 4, clock);
+            CompletableFuture<List<CatalogTable>> tables = blockingCache.getTables(NamePattern.compile(null), NamePattern.compile(null));
+            blockingCatalog.complete(0);
+            assertEquals(4, blockingCatalog.requests.size());
+            assertFalse(tables.isDone());
+            blockingCatalog.completeAll();
+            assertTrue(tables.isDone());
+        }
+
+        @Test
+        void limitsTheNumberOfConcurrentRequests() {
+            BlockingCatalog blockingCatalog = new BlockingCatalog("a", "b", "c", "d", "e");
+            CatalogCache blockingCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 2, clock);
+            CompletableFuture<List<CatalogTable>> tables = blockingCache.getTables(NamePattern.compile(null), NamePattern.compile(null));
+            blockingCatalog.complete(0);
+            assertEquals(3, blockingCatalog.requests.size());
+            blockingCatalog.complete(1);
+            assertEquals(4, blockingCatalog.requests.size());
+            blockingCatalog.completeAll();
+            assertEquals(6, blockingCatalog.requests.size());
+            assertTrue(tables.isDone());
+        }
+    }
+
+    @Nested
+    class Invalidate {
+        @Test
+        void makesTheNextCallLoadTheCatalogAgain() {
+            cache.getDatabases().join();
+            cache.invalidate();
+            cache.getDatabases().join();
+            assertEquals(4, catalog.getDatabaseRequests());
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void closesTheCatalog() {
+            cache.close();
+            assertTrue(catalog.isClosed());
+        }
+    }
+
+    @Nested
+    class WithASnapshot {
+        private Path directory;
+        private Path snapshotPath;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            directory = Files.createTempDirectory("catalog-cache-test");
+            snapshotPath = directory.resolve("catalog.json");
+            catalog.setDatabaseUpdateTime("sales", Instant.ofEpochSecond(1));
+            catalog.setDatabaseUpdateTime("logs", Instant.ofEpochSecond(2));
+            catalog.setDatabaseUpdateTime("default", Instant.ofEpochSecond(3));
+            CatalogCache firstCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            firstCache.getTables(NamePattern.compile(null), NamePattern.compile(null)).join();
+            firstCache.close();
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        @Test
+        void savesTheSnapshotWhenClosed() {
+            assertTrue(Files.exists(snapshotPath));
+        }
+
+        @Test
+        void returnsTheDatabasesAndTablesOfTheSnapshotImmediately() {
+            BlockingCatalog blockingCatalog = new BlockingCatalog();
+            CatalogCache restoredCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            CompletableFuture<List<CatalogTable>> tables = restoredCache.getTables(NamePattern.compile(null), NamePattern.compile(null));
+            assertTrue(tables.isDone());
+            assertEquals(Arrays.asList("logs.requests", "sales.customers", "sales.items", "sales.orders"), names(tables.join()));
+        }
+
+        @Test
+        void returnsTheSnapshotEvenWhenItIsOlderThanTheTimeToLive() {
+            clock.tick(Duration.ofHours(1));
+            BlockingCatalog blockingCatalog = new BlockingCatalog();
+            CatalogCache restoredCache = new CatalogCache(blockingCatalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            assertTrue(restoredCache.getDatabases().isDone());
+            assertEquals(3, restoredCache.getDatabases().join().size());
+        }
+
+        @Test
+        void reloadsTheDatabasesInTheBackground() {
+            catalog.addDatabase("marketing", null);
+            CatalogCache restoredCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            assertEquals(4, restoredCache.getDatabases().join().size());
+        }
+
+        @Test
+        void onlyReloadsTheTablesOfDatabasesWhoseUpdateTimeChanged() {
+            int tableRequests = catalog.getTableRequests();
+            catalog.setDatabaseUpdateTime("logs", Instant.ofEpochSecond(4));
+            catalog.addTable("logs", "errors", "EXTERNAL_TABLE", "id bigint");
+            catalog.addTable("sales", "returns", "EXTERNAL_TABLE", "id bigint");
+            CatalogCache restoredCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            assertEquals(tableRequests + 1, catalog.getTableRequests());
+            List<CatalogTable> tables = restoredCache.getTables(NamePattern.compile(null), NamePattern.compile(null)).join();
+            assertEquals(Arrays.asList("logs.errors", "logs.requests", "sales.customers", "sales.items", "sales.orders"), names(tables));
+        }
+
+        @Test
+        void reloadsTheTablesOfDatabasesWithoutAnUpdateTime() {
+            int tableRequests = catalog.getTableRequests();
+            catalog.setDatabaseUpdateTime("sales", null);
+            new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            assertEquals(tableRequests + 2, catalog.getTableRequests());
+        }
+
+        @Test
+        void dropsTheTablesOfDatabasesThatNoLongerExist() {
+            catalog.removeDatabase("logs");
+            CatalogCache restoredCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            List<CatalogTable> tables = restoredCache.getTables(NamePattern.compile(null), NamePattern.compile(null)).join();
+            assertEquals(Arrays.asList("sales.customers", "sales.items", "sales.orders"), names(tables));
+        }
+
+        @Test
+        void savesTheSnapshotAfterReconciling() {
+            catalog.addDatabase("marketing", null);
+            new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+            CatalogCache restoredCache = new CatalogCache(new BlockingCatalog(), Duration.ofMinutes(10), 4, clock, snapshotPath);
+            assertEquals(4, restoredCache.getDatabases().join().size());
+        }
+
+        @Nested
+        class WhenTheSnapshotCannotBeRead {
+            @Test
+            void loadsTheCatalogAsUsual() throws Exception {
+                Files.write(snapshotPath, "b0rk".getBytes(StandardCharsets.UTF_8));
+                CatalogCache restoredCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, snapshotPath);
+                assertEquals(3, restoredCache.getDatabases().join().size());
+            }
+        }
+
+        @Nested
+        class WhenThereIsNoSnapshot {
+            @Test
+            void loadsTheCatalogAsUsual() {
+                CatalogCache newCache = new CatalogCache(catalog, Duration.ofMinutes(10), 4, clock, directory.resolve("other.json"));
+                assertEquals(3, newCache.getDatabases().join().size());
+            }
+        }
+    }
+
+    private static class BlockingCatalog implements Catalog {
+        final List<CompletableFuture<Void>> requests = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> databaseNames;
+
+        BlockingCatalog(String... databaseNames) {
+            this.databaseNames = Arrays.asList(databaseNames);
+        }
+
+        void complete(int index) {
+            requests.get(index).complete(null);
+        }
+
+        void completeAll() {
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).complete(null);
+            }
+        }
+
+        @Override
+        public CompletableFuture<CatalogPage<CatalogDatabase>> getDatabases(String nextToken) {
+            CompletableFuture<Void> request = new CompletableFuture<>();
+            requests.add(request);
+            return request.thenApply(v -> {
+                List<CatalogDatabase> databases = new ArrayList<>();
+                for (String name : databaseNames) {
+                    databases.add(new CatalogDatabase(name, null));
+                }
+                return new CatalogPage<>(databases, null);
+            });
+        }
+
+        @Override
+        public CompletableFuture<CatalogPage<CatalogTable>> getTables(String databaseName, String nextToken) {
+            CompletableFuture<Void> request = new CompletableFuture<>();
+            requests.add(request);
+            return request.thenApply(v -> new CatalogPage<>(Collections.singletonList(new CatalogTable(databaseName, "t", "EXTERNAL_TABLE", null, Collections.emptyList())), null));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.burt.athena.metadata;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class CatalogSnapshotTest {
+    private Path directory;
+    private Path path;
+    private CatalogSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-snapshot-test");
+        path = directory.resolve("catalog.json");
+        List<CatalogDatabase> databases = Arrays.asList(
+                new CatalogDatabase("logs", null, null),
+                new CatalogDatabase("sales", "Sales data", Instant.ofEpochMilli(1500000000123L))
+        );
+        Map<String, CatalogSnapshot.Entry<List<CatalogTable>>> tables = new LinkedHashMap<>();
+        tables.put("sales", new CatalogSnapshot.Entry<>(Arrays.asList(
+                new CatalogTable("sales", "orders", "EXTERNAL_TABLE", "All orders", Arrays.asList(
+                        new CatalogColumn("id", "bigint", "The ID", false),
+                        new CatalogColumn("dt", "string", null, true)
+                )),
+                new CatalogTable("sales", "recent", "VIRTUAL_VIEW", null, Collections.emptyList())
+        ), 2000));
+        snapshot = new CatalogSnapshot(new CatalogSnapshot.Entry<>(databases, 1000), tables);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Nested
+    class Write {
+        @Test
+        void writesASnapshotThatCanBeRead() throws Exception {
+            snapshot.write(path);
+            CatalogSnapshot readSnapshot = CatalogSnapshot.read(path);
+            assertEquals(snapshot.getDatabases().getValue(), readSnapshot.getDatabases().getValue());
+            assertEquals(1000, readSnapshot.getDatabases().getLoadedAt());
+            assertEquals(snapshot.getTables().keySet(), readSnapshot.getTables().keySet());
+            assertEquals(snapshot.getTables().get("sales").getValue(), readSnapshot.getTables().get("sales").getValue());
+            assertEquals(2000, readSnapshot.getTables().get("sales").getLoadedAt());
+        }
+
+        @Test
+        void writesASnapshotWithoutDatabases() throws Exception {
+            new CatalogSnapshot(null, Collections.emptyMap()).write(path);
+            CatalogSnapshot readSnapshot = CatalogSnapshot.read(path);
+            assertNull(readSnapshot.getDatabases());
+            assertEquals(Collections.emptyMap(), readSnapshot.getTables());
+        }
+
+        @Test
+        void replacesAnExistingSnapshot() throws Exception {
+            new CatalogSnapshot(null, Collections.emptyMap()).write(path);
+            snapshot.write(path);
+            assertEquals(2, CatalogSnapshot.read(path).getDatabases().getValue().size());
+        }
+
+        @Test
+        void leavesNoTemporaryFilesBehind() throws Exception {
+            snapshot.write(path);
+            snapshot.write(path);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(Collections.singletonList(path), files.collect(Collectors.toList()));
+            }
+        }
+
+        @Test
+        void createsTheDirectoryOfTheSnapshot() throws Exception {
+            Path nestedPath = directory.resolve("a").resolve("b").resolve("catalog.json");
+            snapshot.write(nestedPath);
+            assertEquals(2, CatalogSnapshot.read(nestedPath).getDatabases().getValue().size());
+        }
+    }
+
+    @Nested
+    class Read {
+        @Test
+        void throwsWhenTheFileDoesNotExist() {
+            assertThrows(NoSuchFileException.class, () -> CatalogSnapshot.read(path));
+        }
+
+        @Test
+        void throwsWhenTheFileIsNotJson() throws Exception {
+            Files.write(path, "b0rk".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+        }
+
+        @Test
+        void throwsWhenTheVersionIsNotSupported() throws Exception {
+            Files.write(path, "{\"version\":2}".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+        }
+
+        @Test
+        void throwsWhenTheSnapshotIsMalformed() throws Exception {
+            Files.write(path, "{\"version\":1,\"databases\":{\"items\":[]}}".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> CatalogSnapshot.read(path));
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.burt.athena.metadata;
+
+import com.sun.net.httpserver.HttpServer;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class GlueCatalogTest {
+    private HttpServer server;
+    private List<StubRequest> requests;
+    private List<StubResponse> responses;
+    private SdkAsyncHttpClient httpClient;
+    private GlueCatalog catalog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        requests = Collections.synchronizedList(new ArrayList<>());
+        responses = Collections.synchronizedList(new ArrayList<>());
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            try {
+                requests.add(new StubRequest(exchange.getRequestHeaders().getFirst("X-Amz-Target"), exchange.getRequestHeaders().getFirst("Authorization"), readAll(exchange.getRequestBody())));
+                StubResponse response = responses.isEmpty() ? new StubResponse(200, "{}") : responses.remove(0);
+                byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+                exchange.sendResponseHeaders(response.status, body.length);
+                try (OutputStream output = exchange.getResponseBody()) {
+                    output.write(body);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        httpClient = NettyNioAsyncHttpClient.builder().build();
+        URI endpoint = URI.create(String.format("http://localhost:%d", server.getAddress().getPort()));
+        catalog = new GlueCatalog(endpoint, Region.EU_WEST_1, StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "SECRET")), httpClient, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        catalog.close();
+        server.stop(0);
+    }
+
+    private static String readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 10];
+        int n;
+        while ((n = input.read(buffer)) != -1) {
+            output.write(buffer, 0, n);
+        }
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static class StubRequest {
+        final String target;
+        final String authorization;
+        final String body;
+
+        StubRequest(String target, String authorization, String body) {
+            this.target = target;
+            this.authorization = authorization;
+            this.body = body;
+        }
+    }
+
+    private static class StubResponse {
+        final int status;
+        final String body;
+
+        StubResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    @Nested
+    class GetDatabases {
+        @Test
+        void sendsAGetDatabasesRequest() {
+            catalog.getDatabases(null).join();
+            assertEquals("AWSGlue.GetDatabases", requests.get(0).target);
+            assertEquals("{\"MaxResults\":100}", requests.get(0).body);
+        }
+
+        @Test
+        void signsTheRequestForGlue() {
+            catalog.getDatabases(null).join();
+            String authorization = requests.get(0).authorization;
+            assertTrue(authorization.startsWith("AWS4-HMAC-SHA256 Credential=AKID/"));
+            assertTrue(authorization.contains("/eu-west-1/glue/aws4_request"));
+        }
+
+        @Test
+        void resolvesTheCredentialsAndSignsOnTheExecutor() {
+            AtomicReference<String> signingThread = new AtomicReference<>();
+            AwsCredentialsProvider credentialsProvider = () -> {
+                signingThread.set(Thread.currentThread().getName());
+                return AwsBasicCredentials.create("AKID", "SECRET");
+            };
+            Executor executor = task -> new Thread(task, "test-catalog").start();
+            URI endpoint = URI.create(String.format("http://localhost:%d", server.getAddress().getPort()));
+            GlueCatalog executorCatalog = new GlueCatalog(endpoint, Region.EU_WEST_1, credentialsProvider, httpClient, false, executor);
+            executorCatalog.getDatabases(null).join();
+            assertEquals("test-catalog", signingThread.get());
+            assertTrue(requests.get(0).authorization.startsWith("AWS4-HMAC-SHA256 Credential=AKID/"));
+        }
+
+        @Test
+        void completesExceptionallyWhenTheExecutorRejectsTheRequest() {
+            Executor executor = task -> {
+                throw new RejectedExecutionException();
+            };
+            GlueCatalog executorCatalog = new GlueCatalog(URI.create("http://localhost"), Region.EU_WEST_1, StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "SECRET")), httpClient, false, executor);
+            CompletionException e = assertThrows(CompletionException.class, () -> executorCatalog.getDatabases(null).join());
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        @Test
+        void sendsTheNextToken() {
+            catalog.getDatabases("abc").join();
+            assertEquals("{\"NextToken\":\"abc\",\"MaxResults\":100}", requests.get(0).body);
+        }
+
+        @Test
+        void returnsTheDatabasesAndTheNextToken() {
+            responses.add(new StubResponse(200, "{\"DatabaseList\":[{\"Name\":\"sales\",\"Description\":\"Sales data\",\"CreateTime\":1.5E9},{\"Name\":\"logs\"}],\"NextToken\":\"def\"}"));
+            CatalogPage<CatalogDatabase> page = catalog.getDatabases(null).join();
+            assertEquals(Arrays.asList(new CatalogDatabase("sales", "Sales data", Instant.ofEpochSecond(1500000000)), new CatalogDatabase("logs", null)), page.getItems());
+            assertEquals("def", page.getNextToken());
+        }
+
+        @Test
+        void returnsNoNextTokenOnTheLastPage() {
+            responses.add(new StubResponse(200, "{\"DatabaseList\":[]}"));
+            CatalogPage<CatalogDatabase> page = catalog.getDatabases(null).join();
+            assertTrue(page.getItems().isEmpty());
+            assertNull(page.getNextToken());
+        }
+
+        @Nested
+        class WhenTheRequestFails {
+            @Test
+            void completesWithAServiceException() {
+                responses.add(new StubResponse(400, "{\"__type\":\"AccessDeniedException\",\"Message\":\"Not allowed\"}"));
+                CompletionException e = assertThrows(CompletionException.class, () -> catalog.getDatabases(null).join());
+                AwsServiceException ase = (AwsServiceException) e.getCause();
+                assertEquals(400, ase.statusCode());
+                assertEquals("AccessDeniedException", ase.awsErrorDetails().errorCode());
+                assertEquals("Not allowed", ase.awsErrorDetails().errorMessage());
+            }
+
+            @Test
+            void doesNotRetryClientErrors() {
+                responses.add(new StubResponse(400, "{\"__type\":\"AccessDeniedException\",\"Message\":\"Not allowed\"}"));
+                assertThrows(CompletionException.class, () -> catalog.getDatabases(null).join());
+                assertEquals(1, requests.size());
+            }
+
+            @Test
+            void retriesThrottledRequests() {
+                responses.add(new StubResponse(400, "{\"__type\":\"ThrottlingException\",\"Message\":\"Rate exceeded\"}"));
+                responses.add(new StubResponse(429, "{\"__type\":\"TooManyRequestsException\"}"));
+                responses.add(new StubResponse(200, "{\"DatabaseList\":[{\"Name\":\"sales\"}]}"));
+                CatalogPage<CatalogDatabase> page = catalog.getDatabases(null).join();
+                assertEquals(Collections.singletonList(new CatalogDatabase("sales", null)), page.getItems());
+                assertEquals(3, requests.size());
+                assertEquals(requests.get(0).body, requests.get(2).body);
+            }
+
+            @Test
+            void retriesServerErrors() {
+                responses.add(new StubResponse(500, "{\"__type\":\"InternalServiceException\"}"));
+                responses.add(new StubResponse(503, ""));
+                responses.add(new StubResponse(200, "{\"DatabaseList\":[{\"Name\":\"sales\"}]}"));
+                CatalogPage<CatalogDatabase> page = catalog.getDatabases(null).join();
+                assertEquals(Collections.singletonList(new CatalogDatabase("sales", null)), page.getItems());
+                assertEquals(3, requests.size());
+            }
+
+            @Test
+            void givesUpAfterThreeRetries() {
+                for (int i = 0; i < 5; i++) {
+                    responses.add(new StubResponse(500, "{\"__type\":\"InternalServiceException\"}"));
+                }
+                CompletionException e = assertThrows(CompletionException.class, () -> catalog.getDatabases(null).join());
+                assertEquals(500, ((AwsServiceException) e.getCause()).statusCode());
+                assertEquals(4, requests.size());
+            }
+        }
+    }
+
+    @Nested
+    class GetTables {
+        @Test
+        void sendsAGetTablesRequest() {
+            catalog.getTables("sales", "abc").join();
+            assertEquals("AWSGlue.GetTables", requests.get(0).target);
+            assertEquals("{\"DatabaseName\":\"sales\",\"NextToken\":\"abc\",\"MaxResults\":100}", requests.get(0).body);
+        }
+
+        @Test
+        void returnsTheTablesWithTheirColumnsAndPartitionKeys() {
+            responses.add(new StubResponse(200, "{\"TableList\":[{\"Name\":\"orders\",\"DatabaseName\":\"sales\",\"TableType\":\"EXTERNAL_TABLE\",\"Description\":\"All orders\",\"StorageDescriptor\":{\"Columns\":[{\"Name\":\"id\",\"Type\":\"bigint\",\"Comment\":\"The ID\"},{\"Name\":\"items\",\"Type\":\"array<string>\"}],\"Location\":\"s3://sales/orders/\"},\"PartitionKeys\":[{\"Name\":\"dt\",\"Type\":\"string\"}],\"Parameters\":{\"classification\":\"parquet\"}},{\"Name\":\"recent\",\"DatabaseName\":\"sales\",\"TableType\":\"VIRTUAL_VIEW\"}],\"NextToken\":\"def\"}"));
+            CatalogPage<CatalogTable> page = catalog.getTables("sales", null).join();
+            CatalogTable orders = new CatalogTable("sales", "orders", "EXTERNAL_TABLE", "All orders", Arrays.asList(
+                    new CatalogColumn("id", "bigint", "The ID", false),
+                    new CatalogColumn("items", "array<string>", null, false),
+                    new CatalogColumn("dt", "string", null, true)
+            ));
+            CatalogTable recent = new CatalogTable("sales", "recent", "VIRTUAL_VIEW", null, Collections.emptyList());
+            assertEquals(Arrays.asList(orders, recent), page.getItems());
+            assertEquals("def", page.getNextToken());
+        }
+
+        @Nested
+        class WhenTheDatabaseDoesNotExist {
+            @Test
+            void completesWithAServiceException() {
+                responses.add(new StubResponse(400, "{\"__type\":\"com.amazonaws.glue#EntityNotFoundException\",\"message\":\"Database nope not found.\"}"));
+                CompletionException e = assertThrows(CompletionException.class, () -> catalog.getTables("nope", null).join());
+                AwsServiceException ase = (AwsServiceException) e.getCause();
+                assertEquals("EntityNotFoundException", ase.awsErrorDetails().errorCode());
+                assertEquals("Database nope not found.", ase.awsErrorDetails().errorMessage());
+            }
+        }
+    }
+
+    @Nested
+    class DefaultEndpoint {
+        @Test
+        void returnsTheGlueEndpointOfTheRegion() {
+            assertEquals(URI.create("https://glue.eu-west-1.amazonaws.com"), GlueCatalog.defaultEndpoint(Region.EU_WEST_1));
+            assertEquals(URI.create("https://glue.cn-north-1.amazonaws.com.cn"), GlueCatalog.defaultEndpoint(Region.CN_NORTH_1));
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void doesNotCloseAnHttpClientItDoesNotOwn() {
+            SdkAsyncHttpClient sharedClient = mock(SdkAsyncHttpClient.class);
+            new GlueCatalog(URI.create("http://localhost"), Region.EU_WEST_1, StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "SECRET")), sharedClient, false).close();
+            verify(sharedClient, never()).close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.burt.athena.metadata;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class NamePatternTest {
+    @Nested
+    class Matches {
+        @Test
+        void matchesEverythingWhenThePatternIsNull() {
+            assertTrue(NamePattern.compile(null).matches("anything"));
+        }
+
+        @Test
+        void matchesEverythingWhenThePatternIsAPercentSign() {
+            assertTrue(NamePattern.compile("%").matches("anything"));
+            assertTrue(NamePattern.compile("%").matches(""));
+        }
+
+        @Test
+        void matchesLiteralNames() {
+            assertTrue(NamePattern.compile("orders").matches("orders"));
+            assertFalse(NamePattern.compile("orders").matches("order"));
+            assertFalse(NamePattern.compile("orders").matches("orders2"));
+        }
+
+        @Test
+        void ignoresCase() {
+            assertTrue(NamePattern.compile("Orders").matches("orders"));
+            assertTrue(NamePattern.compile("ORD%").matches("orders"));
+        }
+
+        @Test
+        void matchesAnySequenceOfCharactersWithAPercentSign() {
+            NamePattern pattern = NamePattern.compile("or%s");
+            assertTrue(pattern.matches("orders"));
+            assertTrue(pattern.matches("ors"));
+            assertFalse(pattern.matches("order"));
+        }
+
+        @Test
+        void matchesAnyOneCharacterWithAnUnderscore() {
+            NamePattern pattern = NamePattern.compile("order_");
+            assertTrue(pattern.matches("orders"));
+            assertTrue(pattern.matches("order_"));
+            assertFalse(pattern.matches("order"));
+            assertFalse(pattern.matches("orderss"));
+        }
+
+        @Test
+        void matchesEscapedWildcardsLiterally() {
+            assertTrue(NamePattern.compile("order\\_items").matches("order_items"));
+            assertFalse(NamePattern.compile("order\\_items").matches("orderXitems"));
+            assertTrue(NamePattern.compile("100\\%").matches("100%"));
+            assertFalse(NamePattern.compile("100\\%").matches("1000"));
+        }
+
+        @Test
+        void matchesEscapedBackslashesLiterally() {
+            assertTrue(NamePattern.compile("a\\\\b").matches("a\\b"));
+        }
+
+        @Test
+        void treatsRegexCharactersLiterally() {
+            assertTrue(NamePattern.compile("a.b%").matches("a.bc"));
+            assertFalse(NamePattern.compile("a.b%").matches("axbc"));
+            assertTrue(NamePattern.compile("[x]%").matches("[x]y"));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class InMemoryResultTest {
+    private InMemoryResult result;
+
+    @BeforeEach
+    void setUp() {
+        result = new InMemoryResult(
+                Arrays.asList(
+                        ColumnInfo.builder().name("name").type("varchar").build(),
+                        ColumnInfo.builder().name("count").label("n").type("integer").build()
+                ),
+                Arrays.asList(
+                        new String[]{"a", "1"},
+                        new String[]{"b", null},
+                        new String[]{"c", "3"}
+                )
+        );
+    }
+
+    @Nested
+    class GetMetaData {
+        @Test
+        void returnsTheColumns() {
+            assertEquals(2, result.getColumnCount());
+            assertEquals("name", result.getMetaData().getColumnName(1));
+            assertEquals("integer", result.getMetaData().getColumnTypeName(2));
+        }
+
+        @Test
+        void usesTheNamesAsLabelsWhenThereAreNoLabels() {
+            assertEquals("name", result.getMetaData().getColumnLabel(1));
+            assertEquals("n", result.getMetaData().getColumnLabel(2));
+        }
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void returnsEachRow() throws Exception {
+            assertTrue(result.next());
+            assertEquals("a", result.getString(1));
+            assertTrue(result.next());
+            assertEquals("b", result.getString(1));
+            assertNull(result.getString(2));
+            assertTrue(result.next());
+            assertEquals("3", result.getString(2));
+            assertFalse(result.next());
+            assertFalse(result.next());
+        }
+
+        @Test
+        void countsTheRows() throws Exception {
+            assertEquals(0, result.getRowNumber());
+            result.next();
+            result.next();
+            assertEquals(2, result.getRowNumber());
+        }
+
+        @Nested
+        class WhenClosed {
+            @Test
+            void throwsAnError() {
+                result.close();
+                assertThrows(SQLException.class, () -> result.next());
+            }
+        }
+    }
+
+    @Nested
+    class GetPosition {
+        @Test
+        void returnsThePositionOfTheCurrentRow() throws Exception {
+            assertEquals(ResultPosition.BEFORE_FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+
+        @Nested
+        class WhenTheResultIsEmpty {
+            @Test
+            void isAfterLastAfterTheFirstCallToNext() throws Exception {
+                InMemoryResult emptyResult = new InMemoryResult(Collections.singletonList(ColumnInfo.builder().name("x").type("varchar").build()), Collections.emptyList());
+                assertFalse(emptyResult.next());
+                assertEquals(ResultPosition.AFTER_LAST, emptyResult.getPosition());
+            }
+        }
+    }
+}
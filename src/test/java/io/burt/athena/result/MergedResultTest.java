@@ -0,0 +1,331 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.support.ListResult;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class MergedResultTest {
+    private ExecutorService executor;
+    private List<CompletableFuture<QueryExecution>> queryExecutions;
+    private Map<String, ListResult> results;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        queryExecutions = new ArrayList<>();
+        results = new HashMap<>();
+        for (int i = 0; i < 3; i++) {
+            queryExecutions.add(new CompletableFuture<>());
+        }
+        results.put("Q0", new ListResult("a", "b"));
+        results.put("Q1", new ListResult());
+        results.put("Q2", new ListResult("c", "d", "e"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private MergedResult createResult(boolean ordered) {
+        return createResult(ordered, queryExecutions.size(), executor);
+    }
+
+    private MergedResult createResult(boolean ordered, int parallelism, Executor executor) {
+        return new MergedResult(queryExecutions, queryExecution -> {
+            if (queryExecution.queryExecutionId().equals("Q666")) {
+                throw new IllegalStateException("b0rk");
+            }
+            return results.get(queryExecution.queryExecutionId());
+        }, ordered, parallelism, executor);
+    }
+
+    private void succeed(int index) {
+        queryExecutions.get(index).complete(QueryExecution.builder().queryExecutionId("Q" + index).build());
+    }
+
+    private void succeedAll() {
+        for (int i = 0; i < queryExecutions.size(); i++) {
+            succeed(i);
+        }
+    }
+
+    private List<String> readAll(Result result) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while (result.next()) {
+            values.add(result.getString(1));
+        }
+        return values;
+    }
+
+    @Nested
+    class WhenOrdered {
+        @Test
+        void returnsTheRowsOfAllResultsInOrder() throws Exception {
+            MergedResult result = createResult(true);
+            succeed(2);
+            succeed(1);
+            succeed(0);
+            assertEquals(Arrays.asList("a", "b", "c", "d", "e"), readAll(result));
+        }
+
+        @Test
+        void returnsTheRowsOfTheFirstResultBeforeTheOthersHaveCompleted() throws Exception {
+            MergedResult result = createResult(true);
+            succeed(0);
+            assertTrue(result.next());
+            assertEquals("a", result.getString(1));
+            assertTrue(result.next());
+            assertEquals("b", result.getString(1));
+        }
+
+        @Test
+        void closesEachResultWhenItHasBeenRead() throws Exception {
+            MergedResult result = createResult(true);
+            succeedAll();
+            readAll(result);
+            assertTrue(results.get("Q0").isClosed());
+            assertTrue(results.get("Q1").isClosed());
+        }
+    }
+
+    @Nested
+    class WhenUnordered {
+        @Test
+        void returnsTheRowsOfAllResults() throws Exception {
+            MergedResult result = createResult(false);
+            succeedAll();
+            List<String> values = readAll(result);
+            values.sort(String::compareTo);
+            assertEquals(Arrays.asList("a", "b", "c", "d", "e"), values);
+        }
+
+        @Test
+        void returnsTheRowsOfTheResultsThatCompleteFirst() throws Exception {
+            MergedResult result = createResult(false);
+            succeed(2);
+            assertTrue(result.next());
+            assertEquals("c", result.getString(1));
+        }
+
+        @Test
+        void closesEachResultWhenItHasBeenRead() throws Exception {
+            MergedResult result = createResult(false);
+            succeedAll();
+            readAll(result);
+            for (ListResult listResult : results.values()) {
+                assertTrue(listResult.isClosed());
+            }
+        }
+
+        @Test
+        void drainsNoMoreResultsThanTheParallelismAtTheSameTime() throws Exception {
+            List<String> expectedValues = new ArrayList<>();
+            queryExecutions.clear();
+            results.clear();
+            for (int i = 0; i < 40; i++) {
+                queryExecutions.add(new CompletableFuture<>());
+                results.put("Q" + i, new ListResult("v" + i));
+                expectedValues.add("v" + i);
+            }
+            AtomicInteger runningTasks = new AtomicInteger(0);
+            AtomicInteger maxRunningTasks = new AtomicInteger(0);
+            MergedResult result = createResult(false, 3, task -> executor.execute(() -> {
+                maxRunningTasks.accumulateAndGet(runningTasks.incrementAndGet(), Math::max);
+                try {
+                    task.run();
+                } finally {
+                    runningTasks.decrementAndGet();
+                }
+            }));
+            succeedAll();
+            // give the drains time to fill the queue before it is read
+            Thread.sleep(50);
+            List<String> values = readAll(result);
+            values.sort(String::compareTo);
+            expectedValues.sort(String::compareTo);
+            assertEquals(expectedValues, values);
+            assertTrue(maxRunningTasks.get() <= 3);
+        }
+    }
+
+    @Nested
+    class GetRowNumber {
+        @Test
+        void countsTheRowsOfAllResults() throws Exception {
+            MergedResult result = createResult(true);
+            succeedAll();
+            assertEquals(0, result.getRowNumber());
+            readAll(result);
+            assertEquals(5, result.getRowNumber());
+        }
+    }
+
+    @Nested
+    class GetPosition {
+        @Test
+        void isBeforeFirstBeforeNext() throws Exception {
+            assertEquals(ResultPosition.BEFORE_FIRST, createResult(true).getPosition());
+        }
+
+        @Test
+        void isFirstAfterTheFirstRow() throws Exception {
+            MergedResult result = createResult(true);
+            succeedAll();
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+        }
+
+        @Test
+        void isAfterLastWhenAllRowsHaveBeenRead() throws Exception {
+            MergedResult result = createResult(false);
+            succeedAll();
+            readAll(result);
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+    }
+
+    @Nested
+    class GetMetaData {
+        @Test
+        void returnsTheMetaDataOfTheFirstResult() throws Exception {
+            MergedResult result = createResult(false);
+            succeed(0);
+            assertSame(results.get("Q0").getMetaData(), result.getMetaData());
+            assertEquals(1, result.getColumnCount());
+        }
+
+        @Test
+        void readsTheMetaDataOnTheThreadThatDrainsTheResult() throws Exception {
+            List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+            results.put("Q0", new ListResult("a", "b") {
+                @Override
+                public AthenaResultSetMetaData getMetaData() {
+                    threads.add(Thread.currentThread());
+                    return super.getMetaData();
+                }
+            });
+            MergedResult result = createResult(false);
+            succeed(0);
+            result.getMetaData();
+            assertEquals(1, threads.size());
+            assertNotSame(Thread.currentThread(), threads.get(0));
+        }
+
+        @Test
+        void returnsTheMetaDataOfTheFirstResultWhenOrdered() throws Exception {
+            MergedResult result = createResult(true);
+            succeedAll();
+            assertSame(results.get("Q0").getMetaData(), result.getMetaData());
+        }
+    }
+
+    @Nested
+    class WhenAQueryExecutionFails {
+        @Test
+        void cancelsTheOtherQueryExecutions() {
+            createResult(true);
+            queryExecutions.get(1).completeExceptionally(new SQLException("b0rk"));
+            assertTrue(queryExecutions.get(0).isCancelled());
+            assertTrue(queryExecutions.get(2).isCancelled());
+        }
+
+        @Test
+        void throwsTheErrorWhenOrdered() {
+            MergedResult result = createResult(true);
+            queryExecutions.get(1).completeExceptionally(new SQLException("b0rk"));
+            SQLException e = assertThrows(SQLException.class, () -> readAll(result));
+            assertEquals("b0rk", e.getMessage());
+        }
+
+        @Test
+        void throwsTheErrorWhenUnordered() {
+            MergedResult result = createResult(false);
+            queryExecutions.get(1).completeExceptionally(new SQLException("b0rk"));
+            SQLException e = assertThrows(SQLException.class, () -> readAll(result));
+            assertEquals("b0rk", e.getMessage());
+        }
+    }
+
+    @Nested
+    class WhenAResultCannotBeCreated {
+        @Test
+        void cancelsTheOtherQueryExecutionsAndThrows() {
+            MergedResult result = createResult(true);
+            queryExecutions.get(0).complete(QueryExecution.builder().queryExecutionId("Q666").build());
+            assertTrue(queryExecutions.get(1).isCancelled());
+            SQLException e = assertThrows(SQLException.class, () -> readAll(result));
+            assertEquals("b0rk", e.getCause().getMessage());
+        }
+    }
+
+    @Nested
+    class WhenReadingAResultFails {
+        @Test
+        void cancelsTheOtherQueryExecutionsAndThrows() {
+            results.get("Q0").setError(new SQLException("b0rk"));
+            MergedResult result = createResult(false);
+            succeed(0);
+            SQLException e = assertThrows(SQLException.class, () -> readAll(result));
+            assertEquals("b0rk", e.getMessage());
+            assertTrue(queryExecutions.get(2).isCancelled());
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void cancelsTheQueryExecutions() throws Exception {
+            MergedResult result = createResult(true);
+            succeed(0);
+            result.close();
+            assertFalse(queryExecutions.get(0).isCancelled());
+            assertTrue(queryExecutions.get(1).isCancelled());
+            assertTrue(queryExecutions.get(2).isCancelled());
+        }
+
+        @Test
+        void closesTheResultsThatHaveNotBeenRead() throws Exception {
+            MergedResult result = createResult(true);
+            succeedAll();
+            result.close();
+            assertTrue(results.get("Q2").isClosed());
+        }
+
+        @Test
+        void makesNextThrow() throws Exception {
+            MergedResult result = createResult(false);
+            result.close();
+            assertThrows(SQLException.class, result::next);
+        }
+    }
+}
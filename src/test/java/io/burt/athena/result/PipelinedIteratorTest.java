@@ -0,0 +1,222 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class PipelinedIteratorTest {
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private List<Integer> range(int n) {
+        List<Integer> elements = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            elements.add(i);
+        }
+        return elements;
+    }
+
+    private class CountingIterator implements Iterator<Integer> {
+        private final Iterator<Integer> delegate;
+        final AtomicInteger consumed = new AtomicInteger(0);
+
+        CountingIterator(Iterator<Integer> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Integer next() {
+            consumed.incrementAndGet();
+            return delegate.next();
+        }
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void returnsAllElementsInOrder() {
+            List<Integer> expected = range(10000);
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(expected.iterator(), 2, executor);
+            List<Integer> actual = new ArrayList<>();
+            while (iterator.hasNext()) {
+                actual.add(iterator.next());
+            }
+            assertEquals(expected, actual);
+        }
+
+        @Test
+        void handlesAnEmptySource() {
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(Collections.<Integer>emptyIterator(), 2, executor);
+            assertFalse(iterator.hasNext());
+            assertThrows(NoSuchElementException.class, iterator::next);
+        }
+
+        @Test
+        void handlesASourceThatIsAMultipleOfTheBatchSize() {
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(range(PipelinedIterator.MIN_BATCH_SIZE).iterator(), 2, executor);
+            for (int i = 0; i < PipelinedIterator.MIN_BATCH_SIZE; i++) {
+                assertEquals(i, iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+        }
+
+        @Test
+        void doesNotRunMoreThanTheDepthAheadOfTheConsumer() throws Exception {
+            CountingIterator source = new CountingIterator(range(100000).iterator());
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 1, executor);
+            iterator.next();
+            Thread.sleep(100);
+            assertTrue(source.consumed.get() <= PipelinedIterator.MIN_BATCH_SIZE + 2 * PipelinedIterator.MIN_BATCH_SIZE + 4 * PipelinedIterator.MIN_BATCH_SIZE);
+        }
+
+        @Test
+        void doesNotBufferMoreThanTheDepthTimesTheMaxBatchSize() throws Exception {
+            CountingIterator source = new CountingIterator(range(100000).iterator());
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 2, 4, executor);
+            assertEquals(0, iterator.next());
+            Thread.sleep(100);
+            assertTrue(source.consumed.get() <= 4 + 2 * 4 + 4);
+        }
+
+        @Nested
+        class WhenTheSourceThrowsAnException {
+            @Test
+            void throwsTheExceptionToTheConsumer() {
+                RuntimeException error = new RuntimeException("b0rk");
+                Iterator<Integer> source = new Iterator<Integer>() {
+                    private int n = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return true;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (n == 3) {
+                            throw error;
+                        }
+                        return n++;
+                    }
+                };
+                PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 2, executor);
+                Exception e = assertThrows(RuntimeException.class, () -> {
+                    while (iterator.hasNext()) {
+                        iterator.next();
+                    }
+                });
+                assertSame(error, e);
+            }
+        }
+    }
+
+    @Nested
+    class WhenTheSourceThrowsAnError {
+        @Test
+        void throwsTheErrorToTheConsumer() {
+            Error error = new OutOfMemoryError("b0rk");
+            Iterator<Integer> source = new Iterator<Integer>() {
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Integer next() {
+                    throw error;
+                }
+            };
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 2, executor);
+            Error e = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> assertThrows(Error.class, iterator::hasNext));
+            assertSame(error, e);
+        }
+    }
+
+    @Nested
+    class WhenTheBackgroundTaskIsInterrupted {
+        @Test
+        void throwsAnErrorInsteadOfBlocking() {
+            Iterator<Integer> source = new Iterator<Integer>() {
+                private int n = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return true;
+                }
+
+                @Override
+                public Integer next() {
+                    if (n == 1) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return n++;
+                }
+            };
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 1, 1, executor);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals(0, iterator.next());
+                assertThrows(IllegalStateException.class, iterator::hasNext);
+            });
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void stopsTheBackgroundTask() throws Exception {
+            CountingIterator source = new CountingIterator(range(100000).iterator());
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(source, 1, executor);
+            iterator.next();
+            iterator.close();
+            CountDownLatch done = new CountDownLatch(1);
+            executor.execute(done::countDown);
+            assertTrue(done.await(1, TimeUnit.SECONDS));
+            assertTrue(source.consumed.get() < 100000);
+        }
+
+        @Test
+        void makesHasNextReturnFalse() {
+            PipelinedIterator<Integer> iterator = new PipelinedIterator<>(range(100).iterator(), 1, executor);
+            iterator.next();
+            iterator.close();
+            assertFalse(iterator.hasNext());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.burt.athena.result;
+
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.Row;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.burt.athena.support.GetQueryResultsHelper.createColumn;
+import static io.burt.athena.support.GetQueryResultsHelper.createRow;
+
+/**
+ * Measures the heap retained by 1000 row <code>GetQueryResults</code> pages,
+ * kept either as the SDK responses or as {@link ResultPage}s, and how long it
+ * takes to read every cell of them.
+ *
+ * The retained size is the difference in used heap after a full collection,
+ * with a number of pages held in memory, divided by the number of pages. Run
+ * it with the test classpath, e.g. after <code>mvn test-compile</code>:
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) io.burt.athena.result.ResultPageBenchmark [pages]
+ * </pre>
+ */
+public class ResultPageBenchmark {
+    private static final int ROWS_PER_PAGE = 1000;
+    private static final int COLUMN_COUNT = 8;
+
+    public static void main(String[] args) {
+        int pageCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        long responseSize = measureRetainedSize(pageCount, false);
+        long pageSize = measureRetainedSize(pageCount, true);
+        System.out.printf("%-24s %12s %12s%n", "representation", "bytes/page", "ns/cell");
+        System.out.printf("%-24s %12d %12.1f%n", "GetQueryResultsResponse", responseSize, measureResponseReads(pageCount));
+        System.out.printf("%-24s %12d %12.1f%n", "ResultPage", pageSize, measurePageReads(pageCount));
+        System.out.printf("%nResultPage#approximateSizeInBytes: %d%n", ResultPage.fromResponse(createResponse(0)).approximateSizeInBytes());
+    }
+
+    private static GetQueryResultsResponse createResponse(int pageNumber) {
+        List<ColumnInfo> columns = new ArrayList<>(COLUMN_COUNT);
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns.add(createColumn("col" + i, "string"));
+        }
+        List<Row> rows = new ArrayList<>(ROWS_PER_PAGE);
+        for (int i = 0; i < ROWS_PER_PAGE; i++) {
+            String[] values = new String[COLUMN_COUNT];
+            for (int j = 0; j < COLUMN_COUNT; j++) {
+                values[j] = j % 4 == 3 ? null : String.format("value-%d-%d-%d", pageNumber, i, j);
+            }
+            rows.add(createRow(values));
+        }
+        return GetQueryResultsResponse.builder()
+                .nextToken(String.valueOf(pageNumber + 1))
+                .resultSet(b -> b.rows(rows).resultSetMetadata(bb -> bb.columnInfo(columns)))
+                .build();
+    }
+
+    private static long measureRetainedSize(int pageCount, boolean compact) {
+        Object[] retained = new Object[pageCount];
+        long before = usedHeap();
+        for (int i = 0; i < pageCount; i++) {
+            GetQueryResultsResponse response = createResponse(i);
+            retained[i] = compact ? ResultPage.fromResponse(response) : response;
+        }
+        long after = usedHeap();
+        if (retained[pageCount - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / pageCount;
+    }
+
+    private static double measureResponseReads(int pageCount) {
+        List<GetQueryResultsResponse> responses = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            responses.add(createResponse(i));
+        }
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (GetQueryResultsResponse response : responses) {
+            for (Row row : response.resultSet().rows()) {
+                for (int j = 0; j < COLUMN_COUNT; j++) {
+                    String value = row.data().get(j).varCharValue();
+                    checksum += value == null ? 0 : value.length();
+                }
+            }
+        }
+        return nanosPerCell(start, pageCount, checksum);
+    }
+
+    private static double measurePageReads(int pageCount) {
+        List<ResultPage> pages = new ArrayList<>(pageCount);
+        for (int i = 0; i < pageCount; i++) {
+            pages.add(ResultPage.fromResponse(createResponse(i)));
+        }
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (ResultPage page : pages) {
+            for (int i = 0; i < page.rowCount(); i++) {
+                for (int j = 0; j < page.columnCount(); j++) {
+                    String value = page.getString(i, j);
+                    checksum += value == null ? 0 : value.length();
+                }
+            }
+        }
+        return nanosPerCell(start, pageCount, checksum);
+    }
+
+    private static double nanosPerCell(long start, int pageCount, long checksum) {
+        long elapsed = System.nanoTime() - start;
+        if (checksum == 0) {
+            throw new IllegalStateException("Nothing was read");
+        }
+        return (double) elapsed / ((long) pageCount * ROWS_PER_PAGE * COLUMN_COUNT);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
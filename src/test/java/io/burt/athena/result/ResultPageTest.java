@@ -0,0 +1,128 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.Row;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static io.burt.athena.support.GetQueryResultsHelper.createColumn;
+import static io.burt.athena.support.GetQueryResultsHelper.createRow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResultPageTest {
+    private GetQueryResultsResponse response;
+    private ResultPage page;
+
+    private GetQueryResultsResponse createResponse(String nextToken, List<ColumnInfo> columns, List<Row> rows) {
+        return GetQueryResultsResponse.builder()
+                .nextToken(nextToken)
+                .resultSet(b -> b.rows(rows).resultSetMetadata(bb -> bb.columnInfo(columns)))
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        response = createResponse(
+                "next",
+                Arrays.asList(createColumn("col1", "string"), createColumn("col2", "integer")),
+                Arrays.asList(
+                        createRow("col1", "col2"),
+                        createRow("row1", "1"),
+                        createRow("", null),
+                        createRow("row☃", "3")
+                )
+        );
+        page = ResultPage.fromResponse(response);
+    }
+
+    @Nested
+    class FromResponse {
+        @Test
+        void keepsTheNextToken() {
+            assertEquals("next", page.nextToken());
+        }
+
+        @Test
+        void keepsTheMetaData() {
+            assertSame(response.resultSet().resultSetMetadata(), page.metaData());
+        }
+
+        @Test
+        void countsTheRowsAndColumns() {
+            assertEquals(4, page.rowCount());
+            assertEquals(2, page.columnCount());
+        }
+
+        @Nested
+        class WhenARowHasFewerValuesThanThereAreColumns {
+            @Test
+            void treatsTheMissingValuesAsNull() {
+                page = ResultPage.fromResponse(createResponse(
+                        null,
+                        Arrays.asList(createColumn("col1", "string"), createColumn("col2", "integer")),
+                        Arrays.asList(createRow("one"), createRow("two", "2"))
+                ));
+                assertEquals("one", page.getString(0, 0));
+                assertNull(page.getString(0, 1));
+                assertEquals("2", page.getString(1, 1));
+            }
+        }
+
+        @Nested
+        class WhenThePageIsEmpty {
+            @Test
+            void hasNoRows() {
+                page = ResultPage.fromResponse(createResponse(null, Arrays.asList(createColumn("col1", "string")), new ArrayList<>()));
+                assertEquals(0, page.rowCount());
+                assertNull(page.nextToken());
+            }
+        }
+    }
+
+    @Nested
+    class GetString {
+        @Test
+        void returnsTheValueOfTheCell() {
+            assertEquals("col1", page.getString(0, 0));
+            assertEquals("col2", page.getString(0, 1));
+            assertEquals("row1", page.getString(1, 0));
+            assertEquals("1", page.getString(1, 1));
+            assertEquals("row☃", page.getString(3, 0));
+            assertEquals("3", page.getString(3, 1));
+        }
+
+        @Test
+        void distinguishesEmptyStringsFromNull() {
+            assertEquals("", page.getString(2, 0));
+            assertNull(page.getString(2, 1));
+        }
+    }
+
+    @Nested
+    class ApproximateSizeInBytes {
+        @Test
+        void isProportionalToTheSizeOfTheData() {
+            List<Row> rows = new ArrayList<>(1000);
+            for (int i = 0; i < 1000; i++) {
+                rows.add(createRow(String.format("row%06d", i), String.format("%06d", i)));
+            }
+            page = ResultPage.fromResponse(createResponse(null, Arrays.asList(createColumn("col1", "string"), createColumn("col2", "integer")), rows));
+            long dataSize = 1000 * (9 + 6) * 2;
+            long offsetsSize = (1000 * 2 + 1) * 4;
+            assertTrue(page.approximateSizeInBytes() >= dataSize + offsetsSize);
+            assertTrue(page.approximateSizeInBytes() < dataSize + offsetsSize + 1024);
+        }
+    }
+}
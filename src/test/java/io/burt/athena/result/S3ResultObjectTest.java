@@ -0,0 +1,275 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class S3ResultObjectTest {
+    private static final String CONTENTS = "\"col1\",\"col\n2\"\n\"row1\",\"1\"\n\"row2\",\"2\"\n\"row☃\",\"3\"\n";
+
+    private GetObjectHelper getObjectHelper;
+    private QueryExecution queryExecution;
+    private S3ResultObject resultObject;
+
+    @BeforeEach
+    void setUp() {
+        getObjectHelper = new GetObjectHelper();
+        queryExecution = QueryExecution
+                .builder()
+                .queryExecutionId("Q1234")
+                .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                .build();
+        resultObject = new S3ResultObject(getObjectHelper, queryExecution, Duration.ofSeconds(1));
+        getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", CONTENTS.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        getObjectHelper.close();
+    }
+
+    @Nested
+    class GetBucketNameAndKey {
+        @Test
+        void returnsTheLocationOfTheResultObject() {
+            assertEquals("some-bucket", resultObject.getBucketName());
+            assertEquals("the/prefix/Q1234.csv", resultObject.getKey());
+        }
+    }
+
+    @Nested
+    class TransferTo {
+        @Test
+        void writesTheBytesOfTheResultObject() throws Exception {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            long transferred = resultObject.transferTo(output, false);
+            assertEquals(CONTENTS, new String(output.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals(CONTENTS.getBytes(StandardCharsets.UTF_8).length, transferred);
+        }
+
+        @Test
+        void loadsTheResultObject() throws Exception {
+            resultObject.transferTo(new ByteArrayOutputStream(), false);
+            GetObjectRequest request = getObjectHelper.getObjectRequests().get(0);
+            assertEquals("some-bucket", request.bucket());
+            assertEquals("the/prefix/Q1234.csv", request.key());
+        }
+
+        @Test
+        void writesToAChannel() throws Exception {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            resultObject.transferTo(new WritableByteChannel() {
+                @Override
+                public int write(ByteBuffer src) {
+                    int length = src.remaining();
+                    while (src.hasRemaining()) {
+                        output.write(src.get());
+                    }
+                    return length;
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return true;
+                }
+
+                @Override
+                public void close() {
+                }
+            }, false);
+            assertEquals(CONTENTS, new String(output.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        @Nested
+        class WhenSkippingTheHeader {
+            @Test
+            void writesEverythingAfterTheHeader() throws Exception {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                resultObject.transferTo(output, true);
+                assertEquals("\"row1\",\"1\"\n\"row2\",\"2\"\n\"row☃\",\"3\"\n", new String(output.toByteArray(), StandardCharsets.UTF_8));
+            }
+
+            @Test
+            void writesNothingWhenThereIsOnlyAHeader() throws Exception {
+                getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", "\"col1\",\"col2\"\n".getBytes(StandardCharsets.UTF_8));
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                assertEquals(0, resultObject.transferTo(output, true));
+                assertEquals(0, output.size());
+            }
+        }
+
+        @Nested
+        class WhenTheObjectDoesNotExist {
+            @Test
+            void throwsATimeoutException() {
+                getObjectHelper.removeObject("some-bucket", "the/prefix/Q1234.csv");
+                assertThrows(SQLTimeoutException.class, () -> resultObject.transferTo(new ByteArrayOutputStream(), false));
+            }
+        }
+
+        @Nested
+        class WhenTheDownloadFails {
+            @Test
+            void throwsAnException() {
+                getObjectHelper.setObjectLateException("some-bucket", "the/prefix/Q1234.csv", new RuntimeException("b0rk"));
+                SQLException e = assertThrows(SQLException.class, () -> resultObject.transferTo(new ByteArrayOutputStream(), false));
+                assertEquals("b0rk", e.getCause().getMessage());
+            }
+        }
+
+        @Nested
+        class WhenWritingFails {
+            @Test
+            void throwsAnException() {
+                OutputStream output = new OutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("b0rk");
+                    }
+                };
+                SQLException e = assertThrows(SQLException.class, () -> resultObject.transferTo(output, false));
+                assertEquals(IOException.class, e.getCause().getClass());
+            }
+        }
+    }
+
+    @Nested
+    class CopyTo {
+        private final byte[] metaData = new byte[]{1, 2, 3};
+
+        @BeforeEach
+        void setUp() {
+            getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv.metadata", metaData);
+        }
+
+        @Test
+        void copiesTheResultObjectToTheDestination() throws Exception {
+            resultObject.copyTo("s3://other-bucket/exports/result.csv");
+            assertArrayEquals(CONTENTS.getBytes(StandardCharsets.UTF_8), getObjectHelper.getObject("other-bucket", "exports/result.csv"));
+        }
+
+        @Test
+        void copiesTheMetaDataObjectToTheDestination() throws Exception {
+            resultObject.copyTo("s3://other-bucket/exports/result.csv");
+            assertArrayEquals(metaData, getObjectHelper.getObject("other-bucket", "exports/result.csv.metadata"));
+        }
+
+        @Test
+        void copiesWithCopyObjectRequests() throws Exception {
+            resultObject.copyTo("s3://other-bucket/exports/result.csv");
+            List<String> copySources = new ArrayList<>();
+            for (CopyObjectRequest request : getObjectHelper.copyObjectRequests()) {
+                copySources.add(request.copySource());
+            }
+            copySources.sort(String::compareTo);
+            assertEquals(Arrays.asList("some-bucket/the/prefix/Q1234.csv", "some-bucket/the/prefix/Q1234.csv.metadata"), copySources);
+            assertTrue(getObjectHelper.uploadPartCopyRequests().isEmpty());
+        }
+
+        @Test
+        void doesNotLoadTheResultObject() throws Exception {
+            resultObject.copyTo("s3://other-bucket/exports/result.csv");
+            assertTrue(getObjectHelper.getObjectRequests().isEmpty());
+        }
+
+        @Test
+        void throwsWhenTheDestinationIsMalformed() {
+            assertThrows(SQLException.class, () -> resultObject.copyTo("other-bucket/exports/result.csv"));
+        }
+
+        @Test
+        void throwsWhenTheResultObjectDoesNotExist() {
+            getObjectHelper.removeObject("some-bucket", "the/prefix/Q1234.csv");
+            SQLException e = assertThrows(SQLException.class, () -> resultObject.copyTo("s3://other-bucket/exports/result.csv"));
+            assertEquals(NoSuchKeyException.class, e.getCause().getClass());
+        }
+
+        @Nested
+        class WhenTheResultObjectIsLarge {
+            @BeforeEach
+            void setUp() {
+                resultObject = new S3ResultObject(getObjectHelper, queryExecution, Duration.ofMillis(200), 16, 10, 2);
+            }
+
+            @Test
+            void copiesTheResultObjectInParts() throws Exception {
+                resultObject.copyTo("s3://other-bucket/exports/result.csv");
+                assertArrayEquals(CONTENTS.getBytes(StandardCharsets.UTF_8), getObjectHelper.getObject("other-bucket", "exports/result.csv"));
+                assertEquals(1, getObjectHelper.copyObjectRequests().size());
+            }
+
+            @Test
+            void copiesRangesOfThePartSize() throws Exception {
+                resultObject.copyTo("s3://other-bucket/exports/result.csv");
+                int length = CONTENTS.getBytes(StandardCharsets.UTF_8).length;
+                List<UploadPartCopyRequest> requests = getObjectHelper.uploadPartCopyRequests();
+                assertEquals((length + 9) / 10, requests.size());
+                assertEquals("bytes=0-9", requests.get(0).copySourceRange());
+                assertEquals(1, requests.get(0).partNumber());
+                assertEquals(String.format("bytes=%d-%d", (requests.size() - 1) * 10, length - 1), requests.get(requests.size() - 1).copySourceRange());
+            }
+
+            @Test
+            void abortsTheUploadWhenAPartFails() {
+                getObjectHelper.setUploadPartCopyException(new RuntimeException("b0rk"));
+                SQLException e = assertThrows(SQLException.class, () -> resultObject.copyTo("s3://other-bucket/exports/result.csv"));
+                assertEquals("b0rk", e.getCause().getMessage());
+                assertEquals(1, getObjectHelper.abortedUploadIds().size());
+                assertNull(getObjectHelper.getObject("other-bucket", "exports/result.csv"));
+            }
+
+            @Test
+            void copiesALimitedNumberOfPartsAtATime() {
+                getObjectHelper.holdUploadPartCopies();
+                assertThrows(SQLTimeoutException.class, () -> resultObject.copyTo("s3://other-bucket/exports/result.csv"));
+                assertEquals(2, getObjectHelper.uploadPartCopyRequests().size());
+            }
+
+            @Test
+            void abortsTheUploadWhenNoPartCompletesWithinTheTimeout() {
+                getObjectHelper.holdUploadPartCopies();
+                assertThrows(SQLTimeoutException.class, () -> resultObject.copyTo("s3://other-bucket/exports/result.csv"));
+                assertEquals(1, getObjectHelper.abortedUploadIds().size());
+                assertNull(getObjectHelper.getObject("other-bucket", "exports/result.csv"));
+            }
+
+            @Test
+            void abortsTheUploadWhenTheMetaDataCopyFails() {
+                getObjectHelper.holdUploadPartCopies();
+                getObjectHelper.removeObject("some-bucket", "the/prefix/Q1234.csv.metadata");
+                SQLException e = assertThrows(SQLException.class, () -> resultObject.copyTo("s3://other-bucket/exports/result.csv"));
+                assertEquals(NoSuchKeyException.class, e.getCause().getClass());
+                assertEquals(1, getObjectHelper.abortedUploadIds().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class S3ResultSettingsTest {
+    @Nested
+    class Constructor {
+        @Test
+        void parsesOnTheReadingThreadAndDoesNotResumeDownloads() {
+            S3ResultSettings settings = new S3ResultSettings();
+            assertEquals(0, settings.getPipelineDepth());
+            assertNull(settings.getPipelineExecutor());
+            assertNull(settings.getParserPool());
+            assertEquals(0, settings.getDownloadRetries());
+            assertNull(settings.getDownloadStallTimeout());
+        }
+    }
+
+    @Nested
+    class With {
+        @Test
+        void returnsACopyWithTheNewValue() {
+            Executor executor = Runnable::run;
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            S3ResultSettings settings = new S3ResultSettings();
+            S3ResultSettings copy = settings
+                    .withPipelineDepth(4)
+                    .withPipelineExecutor(executor)
+                    .withParserPool(pool)
+                    .withDownloadRetries(3)
+                    .withDownloadStallTimeout(Duration.ofSeconds(30));
+            assertEquals(0, settings.getPipelineDepth());
+            assertEquals(4, copy.getPipelineDepth());
+            assertSame(executor, copy.getPipelineExecutor());
+            assertSame(pool, copy.getParserPool());
+            assertEquals(3, copy.getDownloadRetries());
+            assertEquals(Duration.ofSeconds(30), copy.getDownloadStallTimeout());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.burt.athena.result;
 
+import io.burt.athena.result.s3.DownloadMetrics;
 import io.burt.athena.support.GetObjectHelper;
 import io.burt.athena.support.TestNameGenerator;
 import org.junit.jupiter.api.AfterEach;
@@ -24,11 +25,13 @@ import java.sql.SQLTimeoutException;
 import java.text.ParseException;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeoutException;
 
 import static io.burt.athena.support.GetQueryResultsHelper.createColumn;
@@ -40,7 +43,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayNameGeneration(TestNameGenerator.class)
 class S3ResultTest {
+    // long enough to never expire on a busy machine, the tests of the
+    // timeout use a result with a short timeout and withhold the object
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
     private GetObjectHelper getObjectHelper;
+    private QueryExecution queryExecution;
     private S3Result result;
     private String previousFileEncoding;
 
@@ -48,13 +56,13 @@ class S3ResultTest {
     void setUp() {
         previousFileEncoding = System.getProperty("file.encoding");
         System.setProperty("file.encoding", "ascii");
-        QueryExecution queryExecution = QueryExecution
+        queryExecution = QueryExecution
                 .builder()
                 .queryExecutionId("Q1234")
                 .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
                 .build();
         getObjectHelper = new GetObjectHelper();
-        result = new S3Result(getObjectHelper, queryExecution, Duration.ofMillis(10));
+        result = new S3Result(getObjectHelper, queryExecution, TIMEOUT);
     }
 
     @AfterEach
@@ -177,6 +185,12 @@ class S3ResultTest {
             assertEquals(1, count);
         }
 
+        @Test
+        void doesNotRequireTheResultObject() throws Exception {
+            getObjectHelper.removeObject("some-bucket", "the/prefix/Q1234.csv");
+            assertEquals("col2", result.getMetaData().getColumnLabel(2));
+        }
+
         @Nested
         class WhenTheMetaDataObjectIsNotFound {
             @Test
@@ -213,7 +227,8 @@ class S3ResultTest {
         class WhenLoadingTheMetaDataTimesOut {
             @Test
             void throwsSqlTimeoutException() {
-                getObjectHelper.delayObject("some-bucket", "the/prefix/Q1234.csv.metadata", Duration.ofSeconds(1));
+                getObjectHelper.withholdObject("some-bucket", "the/prefix/Q1234.csv.metadata");
+                result = new S3Result(getObjectHelper, queryExecution, Duration.ofMillis(10));
                 Exception e = assertThrows(SQLTimeoutException.class, () -> result.getMetaData());
                 assertEquals(TimeoutException.class, e.getCause().getClass());
             }
@@ -283,6 +298,24 @@ class S3ResultTest {
             assertEquals("3", result.getString(2));
         }
 
+        @Test
+        void doesNotWaitForTheMetaData() throws Exception {
+            getObjectHelper.withholdObject("some-bucket", "the/prefix/Q1234.csv.metadata");
+            assertTrue(result.next());
+            assertEquals("row1", result.getString(1));
+            assertEquals("1", result.getString(2));
+        }
+
+        @Nested
+        class WhenTheMetaDataObjectIsNotFound {
+            @Test
+            void parsesTheResultObject() throws Exception {
+                getObjectHelper.removeObject("some-bucket", "the/prefix/Q1234.csv.metadata");
+                assertTrue(result.next());
+                assertEquals("row1", result.getString(1));
+            }
+        }
+
         @Nested
         class WhenTheResultObjectIsNotFound {
             @Test
@@ -320,12 +353,42 @@ class S3ResultTest {
         class WhenLoadingTheResultTimesOut {
             @Test
             void throwsSqlTimeoutException() {
-                getObjectHelper.delayObject("some-bucket", "the/prefix/Q1234.csv", Duration.ofSeconds(1));
+                getObjectHelper.withholdObject("some-bucket", "the/prefix/Q1234.csv");
+                result = new S3Result(getObjectHelper, queryExecution, Duration.ofMillis(10));
                 Exception e = assertThrows(SQLTimeoutException.class, () -> result.next());
                 assertEquals(TimeoutException.class, e.getCause().getClass());
             }
         }
 
+        @Nested
+        class WhenTheDownloadOfTheResultIsInterrupted {
+            private DownloadMetrics downloadMetrics;
+
+            @BeforeEach
+            void setUp() {
+                downloadMetrics = new DownloadMetrics();
+                result = new S3Result(getObjectHelper, queryExecution, TIMEOUT, new S3ResultSettings().withDownloadRetries(2).withDownloadStallTimeout(Duration.ofSeconds(10)), downloadMetrics);
+                getObjectHelper.interruptObject("some-bucket", "the/prefix/Q1234.csv", 1, 24, new IOException("b0rk"));
+            }
+
+            @Test
+            void resumesTheDownloadAndReturnsAllRows() throws Exception {
+                List<String> values = new ArrayList<>();
+                while (result.next()) {
+                    values.add(result.getString(1));
+                }
+                assertEquals(Arrays.asList("row1", "row2", "row☃"), values);
+                assertEquals(1, downloadMetrics.getResumeCount());
+            }
+
+            @Test
+            void recordsThatTheDownloadWasStartedOnce() throws Exception {
+                result.next();
+                assertEquals(1, downloadMetrics.getOpenCount());
+                assertFalse(downloadMetrics.getTotalOpenTime().isNegative());
+            }
+        }
+
         @Nested
         class WhenInterruptedWhileLoadingTheResult {
             void returnsFalse() {
@@ -397,6 +460,152 @@ class S3ResultTest {
         }
     }
 
+    @Nested
+    class GetColumnCount {
+        @BeforeEach
+        void setUp() {
+            createData();
+        }
+
+        @Test
+        void returnsTheNumberOfColumnsInTheHeader() throws Exception {
+            assertEquals(2, result.getColumnCount());
+        }
+
+        @Test
+        void doesNotWaitForTheMetaData() throws Exception {
+            getObjectHelper.withholdObject("some-bucket", "the/prefix/Q1234.csv.metadata");
+            assertEquals(2, result.getColumnCount());
+        }
+
+        @Test
+        void doesNotConsumeAnyRows() throws Exception {
+            result.getColumnCount();
+            assertTrue(result.next());
+            assertEquals("row1", result.getString(1));
+        }
+    }
+
+    @Nested
+    class WhenPipelined {
+        private ExecutorService executor;
+
+        @BeforeEach
+        void setUp() {
+            createData();
+            executor = Executors.newSingleThreadExecutor();
+            QueryExecution queryExecution = QueryExecution
+                    .builder()
+                    .queryExecutionId("Q1234")
+                    .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                    .build();
+            result = new S3Result(getObjectHelper, queryExecution, TIMEOUT, new S3ResultSettings().withPipelineDepth(2).withPipelineExecutor(executor), new DownloadMetrics());
+        }
+
+        @AfterEach
+        void tearDown() {
+            executor.shutdownNow();
+        }
+
+        @Test
+        void parsesTheResultObject() throws Exception {
+            assertTrue(result.next());
+            assertEquals("row1", result.getString(1));
+            assertEquals("1", result.getString(2));
+            assertTrue(result.next());
+            assertEquals("row2", result.getString(1));
+            assertTrue(result.next());
+            assertEquals("row\u2603", result.getString(1));
+            assertEquals("3", result.getString(2));
+            assertFalse(result.next());
+        }
+
+        @Test
+        void parsesOnTheExecutor() throws Exception {
+            List<Runnable> tasks = new ArrayList<>();
+            QueryExecution queryExecution = QueryExecution
+                    .builder()
+                    .queryExecutionId("Q1234")
+                    .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                    .build();
+            result = new S3Result(getObjectHelper, queryExecution, TIMEOUT, new S3ResultSettings().withPipelineDepth(2).withPipelineExecutor(task -> {
+                tasks.add(task);
+                executor.execute(task);
+            }), new DownloadMetrics());
+            assertTrue(result.next());
+            assertEquals(1, tasks.size());
+        }
+
+        @Test
+        void returnsTheColumnCount() throws Exception {
+            assertEquals(2, result.getColumnCount());
+        }
+
+        @Test
+        void reportsThePosition() throws Exception {
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+    }
+
+    @Nested
+    class WhenParsedInParallel {
+        private ForkJoinPool pool;
+
+        @BeforeEach
+        void setUp() {
+            createData();
+            pool = new ForkJoinPool(2);
+            QueryExecution queryExecution = QueryExecution
+                    .builder()
+                    .queryExecutionId("Q1234")
+                    .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                    .build();
+            result = new S3Result(getObjectHelper, queryExecution, TIMEOUT, new S3ResultSettings().withParserPool(pool), new DownloadMetrics());
+        }
+
+        @AfterEach
+        void tearDown() {
+            pool.shutdownNow();
+        }
+
+        @Test
+        void parsesTheResultObject() throws Exception {
+            assertTrue(result.next());
+            assertEquals("row1", result.getString(1));
+            assertEquals("1", result.getString(2));
+            assertTrue(result.next());
+            assertEquals("row2", result.getString(1));
+            assertTrue(result.next());
+            assertEquals("row\u2603", result.getString(1));
+            assertEquals("3", result.getString(2));
+            assertFalse(result.next());
+        }
+
+        @Test
+        void returnsTheColumnCount() throws Exception {
+            assertEquals(2, result.getColumnCount());
+        }
+
+        @Test
+        void reportsThePosition() throws Exception {
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+        }
+    }
+
     @Nested
     class GetRowNumber {
         @BeforeEach
@@ -0,0 +1,345 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.TestNameGenerator;
+import io.burt.athena.support.TestSubscriber;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class S3RowPublisherTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private GetObjectHelper getObjectHelper;
+    private CompletableFuture<QueryExecution> queryExecutionFuture;
+    private AtomicInteger queryExecutionRequests;
+    private S3RowPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        getObjectHelper = new GetObjectHelper();
+        queryExecutionFuture = new CompletableFuture<>();
+        queryExecutionRequests = new AtomicInteger(0);
+        publisher = new S3RowPublisher(getObjectHelper, () -> {
+            queryExecutionRequests.incrementAndGet();
+            return queryExecutionFuture;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        getObjectHelper.close();
+    }
+
+    private QueryExecution createQueryExecution() {
+        return QueryExecution
+                .builder()
+                .queryExecutionId("Q1234")
+                .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                .build();
+    }
+
+    private void createData() {
+        StringBuilder contents = new StringBuilder();
+        contents.append("\"col1\",\"col2\"\n");
+        contents.append("\"row1\",\"1\"\n");
+        contents.append("\"row2\",\"2\"\n");
+        contents.append("\"row☃\",\"3\"\n");
+        getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", contents.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    class Subscribe {
+        @Test
+        void doesNotRequestTheQueryExecutionBeforeSubscription() {
+            assertEquals(0, queryExecutionRequests.get());
+        }
+
+        @Test
+        void requestsTheQueryExecutionOnSubscription() {
+            publisher.subscribe(new TestSubscriber<>(0));
+            assertEquals(1, queryExecutionRequests.get());
+        }
+
+        @Test
+        void publishesAllRowsExceptTheHeader() throws Exception {
+            createData();
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            queryExecutionFuture.complete(createQueryExecution());
+            subscriber.awaitTermination(TIMEOUT);
+            List<Row> rows = subscriber.items();
+            assertTrue(subscriber.isComplete());
+            assertEquals(3, rows.size());
+            assertEquals("row1", rows.get(0).getString(1));
+            assertEquals("1", rows.get(0).getString(2));
+            assertEquals("row2", rows.get(1).getString(1));
+            assertEquals("row☃", rows.get(2).getString(1));
+            assertEquals("3", rows.get(2).getString(2));
+        }
+
+        @Test
+        void numbersTheRows() throws Exception {
+            createData();
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            queryExecutionFuture.complete(createQueryExecution());
+            subscriber.awaitTermination(TIMEOUT);
+            List<Row> rows = subscriber.items();
+            assertEquals(1, rows.get(0).getRowNumber());
+            assertEquals(2, rows.get(1).getRowNumber());
+            assertEquals(3, rows.get(2).getRowNumber());
+        }
+
+        @Test
+        void completesWhenTheResultIsEmpty() throws Exception {
+            getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", "\"col1\"\n".getBytes(StandardCharsets.UTF_8));
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+            publisher.subscribe(subscriber);
+            queryExecutionFuture.complete(createQueryExecution());
+            subscriber.awaitTermination(TIMEOUT);
+            assertTrue(subscriber.isComplete());
+            assertTrue(subscriber.items().isEmpty());
+        }
+
+        @Nested
+        class WhenSubscribedToTwice {
+            @Test
+            void signalsAnErrorToTheSecondSubscriber() {
+                publisher.subscribe(new TestSubscriber<>(0));
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(0);
+                publisher.subscribe(subscriber);
+                assertEquals(IllegalStateException.class, subscriber.error().getClass());
+            }
+        }
+
+        @Nested
+        class WhenTheQueryExecutionFails {
+            @Test
+            void signalsTheError() throws Exception {
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                publisher.subscribe(subscriber);
+                queryExecutionFuture.completeExceptionally(new SQLException("b0rk"));
+                subscriber.awaitTermination(TIMEOUT);
+                assertEquals(SQLException.class, subscriber.error().getClass());
+                assertEquals("b0rk", subscriber.error().getMessage());
+            }
+        }
+
+        @Nested
+        class WhenTheResultObjectIsNotFound {
+            @Test
+            void signalsTheError() throws Exception {
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                publisher.subscribe(subscriber);
+                queryExecutionFuture.complete(createQueryExecution());
+                subscriber.awaitTermination(TIMEOUT);
+                assertEquals(NoSuchKeyException.class, subscriber.error().getClass());
+            }
+        }
+
+        @Nested
+        class WhenTheResultObjectIsMalformed {
+            @Test
+            void signalsAParseError() throws Exception {
+                getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", "\"col1\"\nrow1\n".getBytes(StandardCharsets.UTF_8));
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+                publisher.subscribe(subscriber);
+                queryExecutionFuture.complete(createQueryExecution());
+                subscriber.awaitTermination(TIMEOUT);
+                assertEquals(ParseException.class, subscriber.error().getClass());
+            }
+        }
+
+        @Nested
+        class WhenTheDownloadFails {
+            @Test
+            void signalsTheError() throws Exception {
+                getObjectHelper.setObjectLateException("some-bucket", "the/prefix/Q1234.csv", new RuntimeException("b0rk"));
+                TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+                publisher.subscribe(subscriber);
+                queryExecutionFuture.complete(createQueryExecution());
+                subscriber.awaitTermination(TIMEOUT);
+                assertEquals("b0rk", subscriber.error().getMessage());
+            }
+        }
+    }
+
+    @Nested
+    class Request {
+        private ChunkPublisher chunkPublisher;
+
+        @BeforeEach
+        void setUp() {
+            chunkPublisher = new ChunkPublisher(
+                    "\"col1\"\n",
+                    "\"row1\"\n",
+                    "\"row2\"\n\"row3\"\n",
+                    "\"ro",
+                    "w4\"\n"
+            );
+            getObjectHelper.setObjectPublisher("some-bucket", "the/prefix/Q1234.csv", chunkPublisher);
+            queryExecutionFuture.complete(createQueryExecution());
+        }
+
+        @Test
+        void publishesOnlyAsManyRowsAsRequested() throws Exception {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(2);
+            publisher.subscribe(subscriber);
+            subscriber.awaitItems(2, TIMEOUT);
+            assertEquals(2, subscriber.items().size());
+            assertFalse(subscriber.isComplete());
+        }
+
+        @Test
+        void requestsBuffersFromS3OnlyWhenThereIsDemand() throws Exception {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(0);
+            publisher.subscribe(subscriber);
+            assertEquals(0, chunkPublisher.requested.get());
+            subscriber.request(1);
+            subscriber.awaitItems(1, TIMEOUT);
+            assertEquals(2, chunkPublisher.requested.get());
+        }
+
+        @Test
+        void usesParsedRowsBeforeRequestingMoreBuffers() throws Exception {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(2);
+            publisher.subscribe(subscriber);
+            subscriber.awaitItems(2, TIMEOUT);
+            assertEquals(3, chunkPublisher.requested.get());
+            subscriber.request(1);
+            subscriber.awaitItems(3, TIMEOUT);
+            assertEquals(3, chunkPublisher.requested.get());
+        }
+
+        @Test
+        void assemblesRowsSplitAcrossBuffers() throws Exception {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+            subscriber.awaitTermination(TIMEOUT);
+            List<Row> rows = subscriber.items();
+            assertEquals(4, rows.size());
+            assertEquals("row4", rows.get(3).getString(1));
+        }
+
+        @Test
+        void signalsAnErrorWhenTheRequestIsNotPositive() throws Exception {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(0);
+            publisher.subscribe(subscriber);
+            subscriber.request(0);
+            subscriber.awaitTermination(TIMEOUT);
+            assertEquals(IllegalArgumentException.class, subscriber.error().getClass());
+        }
+    }
+
+    @Nested
+    class Cancel {
+        @Test
+        void cancelsTheQueryExecutionFuture() {
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+            publisher.subscribe(subscriber);
+            subscriber.cancel();
+            assertTrue(queryExecutionFuture.isCancelled());
+        }
+
+        @Test
+        void cancelsTheDownload() throws Exception {
+            ChunkPublisher chunkPublisher = new ChunkPublisher("\"col1\"\n", "\"row1\"\n", "\"row2\"\n");
+            getObjectHelper.setObjectPublisher("some-bucket", "the/prefix/Q1234.csv", chunkPublisher);
+            queryExecutionFuture.complete(createQueryExecution());
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+            publisher.subscribe(subscriber);
+            subscriber.awaitItems(1, TIMEOUT);
+            subscriber.cancel();
+            assertTrue(chunkPublisher.cancelled);
+        }
+
+        @Test
+        void stopsPublishing() throws Exception {
+            ChunkPublisher chunkPublisher = new ChunkPublisher("\"col1\"\n", "\"row1\"\n\"row2\"\n");
+            getObjectHelper.setObjectPublisher("some-bucket", "the/prefix/Q1234.csv", chunkPublisher);
+            queryExecutionFuture.complete(createQueryExecution());
+            TestSubscriber<Row> subscriber = new TestSubscriber<>(1);
+            publisher.subscribe(subscriber);
+            subscriber.awaitItems(1, TIMEOUT);
+            subscriber.cancel();
+            subscriber.request(1);
+            assertEquals(1, subscriber.items().size());
+            assertNull(subscriber.error());
+            assertFalse(subscriber.isComplete());
+        }
+    }
+
+    @Nested
+    class GetString {
+        @Test
+        void throwsWhenTheColumnIndexIsOutOfBounds() {
+            Row row = new Row(1, new String[]{"a", "b"});
+            assertThrows(IndexOutOfBoundsException.class, () -> row.getString(0));
+            assertThrows(IndexOutOfBoundsException.class, () -> row.getString(3));
+        }
+    }
+
+    private static class ChunkPublisher implements SdkPublisher<ByteBuffer>, Subscription {
+        final AtomicInteger requested;
+        final List<String> chunks;
+
+        volatile boolean cancelled;
+        private Subscriber<? super ByteBuffer> subscriber;
+        private int nextChunk;
+
+        ChunkPublisher(String... chunks) {
+            this.chunks = Arrays.asList(chunks);
+            this.requested = new AtomicInteger(0);
+            this.cancelled = false;
+            this.nextChunk = 0;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> s) {
+            subscriber = s;
+            s.onSubscribe(this);
+        }
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet((int) n);
+            for (long i = 0; i < n && nextChunk < chunks.size() && !cancelled; i++) {
+                subscriber.onNext(ByteBuffer.wrap(chunks.get(nextChunk++).getBytes(StandardCharsets.UTF_8)));
+            }
+            if (nextChunk == chunks.size() && !cancelled) {
+                nextChunk++;
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
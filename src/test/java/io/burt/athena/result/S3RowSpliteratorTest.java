@@ -0,0 +1,295 @@
+package io.burt.athena.result;
+
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class S3RowSpliteratorTest {
+    private GetObjectHelper getObjectHelper;
+
+    @BeforeEach
+    void setUp() {
+        getObjectHelper = new GetObjectHelper();
+    }
+
+    @AfterEach
+    void tearDown() {
+        getObjectHelper.close();
+    }
+
+    private QueryExecution createQueryExecution() {
+        return QueryExecution
+                .builder()
+                .queryExecutionId("Q1234")
+                .resultConfiguration(b -> b.outputLocation("s3://some-bucket/the/prefix/Q1234.csv"))
+                .build();
+    }
+
+    private void setObject(String contents) {
+        getObjectHelper.setObject("some-bucket", "the/prefix/Q1234.csv", contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void createData() {
+        StringBuilder contents = new StringBuilder();
+        contents.append("\"col1\",\"col2\"\n");
+        contents.append("\"row1\",\"1\"\n");
+        contents.append("\"row2\",\"2\"\n");
+        contents.append("\"row☃\",\"3\"\n");
+        setObject(contents.toString());
+    }
+
+    private String createMultilineData(int rowCount) {
+        StringBuilder contents = new StringBuilder();
+        contents.append("\"col1\",\"col2\",\"col3\"\n");
+        for (int i = 1; i <= rowCount; i++) {
+            contents.append('"').append(i).append("\",");
+            if (i % 3 == 0) {
+                contents.append(',');
+            } else if (i % 3 == 1) {
+                contents.append("\"a \"\"quoted\"\",\nmultiline\n\nvalue\",");
+            } else {
+                contents.append("\"☃\",");
+            }
+            contents.append("\"\"\"\"\n");
+        }
+        return contents.toString();
+    }
+
+    private List<Row> collect(Spliterator<Row> spliterator, boolean parallel) {
+        return StreamSupport.stream(spliterator, parallel).collect(Collectors.toList());
+    }
+
+    @Nested
+    class WhenTraversedSequentially {
+        @Test
+        void returnsTheRowsOfTheResultWithoutTheHeader() {
+            createData();
+            List<Row> rows = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            assertEquals(3, rows.size());
+            assertEquals("row1", rows.get(0).getString(1));
+            assertEquals("2", rows.get(1).getString(2));
+            assertEquals("row☃", rows.get(2).getString(1));
+        }
+
+        @Test
+        void numbersTheRowsFromOne() {
+            createData();
+            List<Row> rows = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            assertEquals(1, rows.get(0).getRowNumber());
+            assertEquals(3, rows.get(2).getRowNumber());
+        }
+
+        @Test
+        void loadsTheWholeObjectWithASingleRequest() {
+            createData();
+            collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            assertEquals(1, getObjectHelper.getObjectRequests().size());
+            assertNull(getObjectHelper.getObjectRequests().get(0).range());
+        }
+
+        @Test
+        void throwsWhenTheObjectDoesNotExist() {
+            S3RowSpliterator spliterator = new S3RowSpliterator(getObjectHelper, createQueryExecution());
+            assertThrows(NoSuchKeyException.class, () -> spliterator.tryAdvance(row -> { }));
+        }
+    }
+
+    @Nested
+    class TrySplit {
+        @Test
+        void returnsNullWhenTheObjectIsTooSmall() {
+            createData();
+            S3RowSpliterator spliterator = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 1024);
+            assertNull(spliterator.trySplit());
+            assertEquals(3, collect(spliterator, false).size());
+        }
+
+        @Test
+        void returnsNullWhenTheObjectDoesNotExist() {
+            S3RowSpliterator spliterator = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 1);
+            assertNull(spliterator.trySplit());
+        }
+
+        @Test
+        void returnsNullAfterTraversalHasStarted() {
+            createData();
+            S3RowSpliterator spliterator = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 1);
+            spliterator.tryAdvance(row -> { });
+            assertNull(spliterator.trySplit());
+        }
+
+        @Test
+        void splitsTheObjectIntoRangesThatTogetherContainAllRows() {
+            createData();
+            S3RowSpliterator suffix = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 4);
+            Spliterator<Row> prefix = suffix.trySplit();
+            assertNotNull(prefix);
+            List<Row> rows = new ArrayList<>();
+            rows.addAll(collect(prefix, false));
+            rows.addAll(collect(suffix, false));
+            assertEquals(3, rows.size());
+            assertEquals("row1", rows.get(0).getString(1));
+            assertEquals("row2", rows.get(1).getString(1));
+            assertEquals("row☃", rows.get(2).getString(1));
+        }
+
+        @Test
+        void takesTheObjectSizeFromTheFirstDownloadInsteadOfAHeadRequest() {
+            createData();
+            S3RowSpliterator suffix = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 4);
+            suffix.trySplit();
+            assertEquals(0, getObjectHelper.headObjectRequests().size());
+            assertEquals(1, getObjectHelper.getObjectRequests().size());
+            assertNull(getObjectHelper.getObjectRequests().get(0).range());
+        }
+
+        @Test
+        void doesNotRequestTheRangesBeforeTheyAreTraversed() {
+            setObject(createMultilineData(20));
+            S3RowSpliterator suffix = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 16);
+            Spliterator<Row> prefix = suffix.trySplit();
+            Spliterator<Row> middle = suffix.trySplit();
+            assertNotNull(prefix);
+            assertNotNull(middle);
+            assertEquals(1, getObjectHelper.getObjectRequests().size());
+        }
+
+        @Test
+        void usesTheFirstDownloadForTheFirstRangeAndRangedRequestsForTheRest() {
+            createData();
+            S3RowSpliterator suffix = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 4);
+            Spliterator<Row> prefix = suffix.trySplit();
+            collect(prefix, false);
+            collect(suffix, false);
+            List<GetObjectRequest> requests = getObjectHelper.getObjectRequests();
+            assertNull(requests.get(0).range());
+            for (GetObjectRequest request : requests.subList(1, requests.size())) {
+                assertTrue(request.range().startsWith("bytes="));
+            }
+        }
+
+        @Test
+        void numbersTheRowsOfEachRangeByTheirPositionInTheResult() {
+            setObject(createMultilineData(20));
+            S3RowSpliterator suffix = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 16);
+            Spliterator<Row> prefix = suffix.trySplit();
+            List<Row> suffixRows = collect(suffix, false);
+            List<Row> prefixRows = collect(prefix, false);
+            assertFalse(suffixRows.isEmpty());
+            for (Row row : suffixRows) {
+                assertEquals(String.valueOf(row.getRowNumber()), row.getString(1));
+            }
+            assertEquals(20, prefixRows.size() + suffixRows.size());
+        }
+    }
+
+    @Nested
+    class WhenTraversedInParallel {
+        private List<String[]> values(List<Row> rows) {
+            List<String[]> values = new ArrayList<>(rows.size());
+            for (Row row : rows) {
+                String[] rowValues = new String[row.getColumnCount()];
+                for (int i = 0; i < rowValues.length; i++) {
+                    rowValues[i] = row.getString(i + 1);
+                }
+                values.add(rowValues);
+            }
+            return values;
+        }
+
+        @Test
+        void returnsTheSameRowsAsWhenTraversedSequentially() {
+            setObject(createMultilineData(500));
+            List<Row> expected = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            List<Row> actual = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution(), 64), true);
+            assertEquals(500, actual.size());
+            List<String[]> expectedValues = values(expected);
+            List<String[]> actualValues = values(actual);
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getRowNumber(), actual.get(i).getRowNumber());
+                assertArrayEquals(expectedValues.get(i), actualValues.get(i));
+            }
+        }
+
+        @Test
+        void returnsTheSameRowsForRandomMinimumSplitSizes() {
+            setObject(createMultilineData(100));
+            List<Row> expected = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            Random random = new Random(1234);
+            for (int i = 0; i < 20; i++) {
+                long minSplitSize = 1 + random.nextInt(200);
+                List<Row> actual = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution(), minSplitSize), true);
+                List<String[]> expectedValues = values(expected);
+                List<String[]> actualValues = values(actual);
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertArrayEquals(expectedValues.get(j), actualValues.get(j));
+                }
+            }
+        }
+
+        private List<Spliterator<Row>> splitAll(Spliterator<Row> spliterator) {
+            List<Spliterator<Row>> ranges = new ArrayList<>();
+            Spliterator<Row> prefix = spliterator.trySplit();
+            if (prefix == null) {
+                ranges.add(spliterator);
+            } else {
+                ranges.addAll(splitAll(prefix));
+                ranges.addAll(splitAll(spliterator));
+            }
+            return ranges;
+        }
+
+        @Test
+        void returnsTheSameRowsWhenSplitIntoManySmallRanges() {
+            setObject(createMultilineData(200));
+            List<Row> expected = collect(new S3RowSpliterator(getObjectHelper, createQueryExecution()), false);
+            for (long minSplitSize : new long[] {1, 7, 31, 100}) {
+                List<Spliterator<Row>> ranges = splitAll(new S3RowSpliterator(getObjectHelper, createQueryExecution(), minSplitSize));
+                assertTrue(ranges.size() > 8);
+                List<Row> actual = new ArrayList<>();
+                for (int i = ranges.size() - 1; i >= 0; i--) {
+                    actual.addAll(0, collect(ranges.get(i), false));
+                }
+                List<String[]> expectedValues = values(expected);
+                List<String[]> actualValues = values(actual);
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.get(j).getRowNumber(), actual.get(j).getRowNumber());
+                    assertArrayEquals(expectedValues.get(j), actualValues.get(j));
+                }
+            }
+        }
+
+        @Test
+        void throwsWhenTheResultIsMalformed() {
+            setObject("\"col1\",\"col2\"\n\"row1\",\"1\"\nrow2,\"2\"\n\"row3\",\"3\"\n");
+            S3RowSpliterator spliterator = new S3RowSpliterator(getObjectHelper, createQueryExecution(), 4);
+            assertThrows(RuntimeException.class, () -> collect(spliterator, true));
+        }
+    }
+}
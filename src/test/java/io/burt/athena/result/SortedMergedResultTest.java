@@ -0,0 +1,370 @@
+package io.burt.athena.result;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.support.ListResult;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.athena.model.QueryExecution;
+
+import java.sql.SQLException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class SortedMergedResultTest {
+    private ExecutorService executor;
+    private List<CompletableFuture<QueryExecution>> queryExecutions;
+    private Map<String, Result> results;
+    private List<SortKey> sortKeys;
+    private int bufferSize;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        queryExecutions = new ArrayList<>();
+        results = new HashMap<>();
+        sortKeys = Collections.singletonList(SortKey.ascending(1));
+        bufferSize = SortedMergedResult.DEFAULT_BUFFER_SIZE;
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void addResult(List<String> columnTypes, String[]... rows) {
+        addResult(new ListResult(columnTypes, Arrays.asList(rows)));
+    }
+
+    private void addResult(Result result) {
+        String queryExecutionId = "Q" + queryExecutions.size();
+        results.put(queryExecutionId, result);
+        queryExecutions.add(CompletableFuture.completedFuture(QueryExecution.builder().queryExecutionId(queryExecutionId).build()));
+    }
+
+    private SortedMergedResult createResult() {
+        return new SortedMergedResult(queryExecutions, queryExecution -> results.get(queryExecution.queryExecutionId()), sortKeys, bufferSize, executor);
+    }
+
+    private List<String> readAll(Result result, int columnIndex) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while (result.next()) {
+            values.add(result.getString(columnIndex));
+        }
+        return values;
+    }
+
+    private String[] row(String... values) {
+        return values;
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void returnsTheRowsOfAllResultsSorted() throws Exception {
+            addResult(Arrays.asList("varchar"), row("a"), row("d"), row("e"));
+            addResult(Arrays.asList("varchar"), row("b"), row("c"), row("f"));
+            addResult(Arrays.asList("varchar"));
+            assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void returnsAllColumnsOfTheRows() throws Exception {
+            addResult(Arrays.asList("varchar", "varchar"), row("a", "1"), row("c", "3"));
+            addResult(Arrays.asList("varchar", "varchar"), row("b", "2"));
+            assertEquals(Arrays.asList("1", "2", "3"), readAll(createResult(), 2));
+        }
+
+        @Test
+        void comparesIntegersNumerically() throws Exception {
+            addResult(Arrays.asList("bigint"), row("2"), row("10"));
+            addResult(Arrays.asList("bigint"), row("-1"), row("9"));
+            assertEquals(Arrays.asList("-1", "2", "9", "10"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void comparesDoublesNumerically() throws Exception {
+            addResult(Arrays.asList("double"), row("-Infinity"), row("1.5"), row("NaN"));
+            addResult(Arrays.asList("double"), row("0.25"), row("10.0"));
+            assertEquals(Arrays.asList("-Infinity", "0.25", "1.5", "10.0", "NaN"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void comparesDecimalsNumerically() throws Exception {
+            addResult(Arrays.asList("decimal"), row("2.50"), row("100.00"));
+            addResult(Arrays.asList("decimal"), row("10.01"));
+            assertEquals(Arrays.asList("2.50", "10.01", "100.00"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void comparesTimestampsWithTimeZonesAsPointsInTime() throws Exception {
+            addResult(Arrays.asList("timestamp with time zone"), row("2019-06-01 09:30:00.000 +02:00"), row("2019-06-01 10:00:00.000 UTC"));
+            addResult(Arrays.asList("timestamp with time zone"), row("2019-06-01 03:00:00.000 America/New_York"), row("2019-06-01 11:15:00.000 Europe/Stockholm"));
+            assertEquals(Arrays.asList("2019-06-01 03:00:00.000 America/New_York", "2019-06-01 09:30:00.000 +02:00", "2019-06-01 11:15:00.000 Europe/Stockholm", "2019-06-01 10:00:00.000 UTC"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void comparesTimesWithTimeZonesAsPointsInTime() throws Exception {
+            addResult(Arrays.asList("time with time zone"), row("09:30:00.000 +02:00"), row("10:00:00.000 UTC"));
+            addResult(Arrays.asList("time with time zone"), row("11:15:00.000 +03:00"), row("04:00:00.000 -05:00"));
+            assertEquals(Arrays.asList("09:30:00.000 +02:00", "11:15:00.000 +03:00", "04:00:00.000 -05:00", "10:00:00.000 UTC"), readAll(createResult(), 1));
+        }
+
+        @Test
+        void sortsNullsLast() throws Exception {
+            addResult(Arrays.asList("integer"), row("1"), row((String) null));
+            addResult(Arrays.asList("integer"), row("2"));
+            assertEquals(Arrays.asList("1", "2", null), readAll(createResult(), 1));
+        }
+
+        @Test
+        void returnsEqualRowsInTheOrderOfTheQueryExecutions() throws Exception {
+            addResult(Arrays.asList("integer", "varchar"), row("1", "first"));
+            addResult(Arrays.asList("integer", "varchar"), row("1", "second"));
+            assertEquals(Arrays.asList("first", "second"), readAll(createResult(), 2));
+        }
+
+        @Test
+        void returnsFalseWhenAllResultsAreEmpty() throws Exception {
+            addResult(Arrays.asList("varchar"));
+            addResult(Arrays.asList("varchar"));
+            Result result = createResult();
+            assertFalse(result.next());
+            assertFalse(result.next());
+        }
+
+        @Nested
+        class WhenSortingDescending {
+            @Test
+            void returnsTheRowsInDescendingOrderWithNullsLast() throws Exception {
+                sortKeys = Collections.singletonList(SortKey.descending(1));
+                addResult(Arrays.asList("integer"), row("10"), row("2"), row((String) null));
+                addResult(Arrays.asList("integer"), row("9"), row("1"));
+                assertEquals(Arrays.asList("10", "9", "2", "1", null), readAll(createResult(), 1));
+            }
+        }
+
+        @Nested
+        class WhenSortingOnMultipleKeys {
+            @Test
+            void comparesTheNextKeyWhenTheFirstIsEqual() throws Exception {
+                sortKeys = Arrays.asList(SortKey.ascending(1), SortKey.descending(2));
+                addResult(Arrays.asList("varchar", "integer"), row("a", "2"), row("b", "3"));
+                addResult(Arrays.asList("varchar", "integer"), row("a", "10"), row("b", "1"));
+                assertEquals(Arrays.asList("10", "2", "3", "1"), readAll(createResult(), 2));
+            }
+        }
+
+        @Nested
+        class WhenAValueCanNotBeParsed {
+            @Test
+            void throwsAnException() {
+                addResult(Arrays.asList("integer"), row("one"));
+                assertThrows(SQLException.class, () -> createResult().next());
+            }
+
+            @Test
+            void throwsAnExceptionForTimestamps() {
+                addResult(Arrays.asList("timestamp with time zone"), row("yesterday"));
+                assertThrows(SQLException.class, () -> createResult().next());
+            }
+        }
+    }
+
+    @Nested
+    class WhenTheResultsAreLarge {
+        private final AtomicInteger[] consumed = new AtomicInteger[2];
+
+        @BeforeEach
+        void setUp() {
+            bufferSize = 30;
+            for (int i = 0; i < consumed.length; i++) {
+                consumed[i] = new AtomicInteger();
+                addResult(new CountingResult(i, 100000, consumed[i]));
+            }
+        }
+
+        @Test
+        void buffersAtMostTheBufferSizeRowsPerResult() throws Exception {
+            Result result = createResult();
+            assertTrue(result.next());
+            Thread.sleep(100);
+            for (AtomicInteger n : consumed) {
+                assertTrue(n.get() <= bufferSize + 1);
+            }
+            result.close();
+        }
+
+        @Test
+        void returnsAllRowsSorted() throws Exception {
+            Result result = createResult();
+            long previous = -1;
+            int count = 0;
+            while (result.next()) {
+                long value = Long.parseLong(result.getString(1));
+                assertTrue(value >= previous);
+                previous = value;
+                count++;
+            }
+            assertEquals(200000, count);
+        }
+    }
+
+    @Nested
+    class GetPosition {
+        @BeforeEach
+        void setUp() {
+            addResult(Arrays.asList("varchar"), row("a"), row("c"));
+            addResult(Arrays.asList("varchar"), row("b"));
+        }
+
+        @Test
+        void returnsThePositionOfTheCurrentRow() throws Exception {
+            Result result = createResult();
+            assertEquals(ResultPosition.BEFORE_FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.FIRST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.MIDDLE, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.LAST, result.getPosition());
+            result.next();
+            assertEquals(ResultPosition.AFTER_LAST, result.getPosition());
+            assertEquals(3, result.getRowNumber());
+        }
+    }
+
+    @Nested
+    class GetMetaData {
+        @Test
+        void readsTheMetaDataOnTheThreadThatReadsTheResult() throws Exception {
+            List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+            addResult(new ListResult(Arrays.asList("varchar"), Arrays.asList(row("a"), row("b"))) {
+                @Override
+                public AthenaResultSetMetaData getMetaData() {
+                    threads.add(Thread.currentThread());
+                    return super.getMetaData();
+                }
+            });
+            SortedMergedResult result = createResult();
+            assertEquals(1, result.getMetaData().getColumnCount());
+            assertEquals(1, threads.size());
+            assertNotSame(Thread.currentThread(), threads.get(0));
+        }
+    }
+
+    @Nested
+    class WhenAQueryExecutionFails {
+        @Test
+        void cancelsTheOtherQueryExecutionsAndThrowsTheError() {
+            CompletableFuture<QueryExecution> failed = new CompletableFuture<>();
+            CompletableFuture<QueryExecution> running = new CompletableFuture<>();
+            queryExecutions.add(running);
+            queryExecutions.add(failed);
+            Result result = createResult();
+            failed.completeExceptionally(new SQLException("b0rk"));
+            assertTrue(running.isCancelled());
+            SQLException e = assertThrows(SQLException.class, result::next);
+            assertEquals("b0rk", e.getMessage());
+        }
+    }
+
+    @Nested
+    class WhenReadingAResultFails {
+        @Test
+        void throwsTheError() {
+            ListResult failing = new ListResult("a");
+            failing.setError(new SQLException("b0rk"));
+            addResult(Arrays.asList("varchar"), row("a"));
+            addResult(failing);
+            SQLException e = assertThrows(SQLException.class, () -> createResult().next());
+            assertEquals("b0rk", e.getMessage());
+        }
+    }
+
+    @Nested
+    class Close {
+        @Test
+        void closesTheResults() throws Exception {
+            ListResult first = new ListResult("a", "b");
+            ListResult second = new ListResult("c");
+            addResult(first);
+            addResult(second);
+            Result result = createResult();
+            result.next();
+            result.close();
+            assertTrue(first.isClosed());
+            assertTrue(second.isClosed());
+        }
+
+        @Test
+        void cancelsTheQueryExecutions() throws Exception {
+            CompletableFuture<QueryExecution> running = new CompletableFuture<>();
+            queryExecutions.add(running);
+            createResult().close();
+            assertTrue(running.isCancelled());
+        }
+
+        @Test
+        void makesNextThrow() throws Exception {
+            addResult(new ListResult("a"));
+            Result result = createResult();
+            result.close();
+            assertThrows(SQLException.class, result::next);
+        }
+    }
+
+    private static class CountingResult extends ListResult {
+        private final AtomicInteger consumed;
+
+        CountingResult(int offset, int size, AtomicInteger consumed) {
+            super(Collections.singletonList("bigint"), new GeneratedRows(offset, size));
+            this.consumed = consumed;
+        }
+
+        @Override
+        public boolean next() throws SQLException {
+            consumed.incrementAndGet();
+            return super.next();
+        }
+    }
+
+    private static class GeneratedRows extends AbstractList<String[]> {
+        private final int offset;
+        private final int size;
+
+        GeneratedRows(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public String[] get(int index) {
+            return new String[]{String.valueOf(index * 2 + offset)};
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
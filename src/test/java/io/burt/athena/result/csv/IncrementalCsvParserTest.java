@@ -0,0 +1,183 @@
+package io.burt.athena.result.csv;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayNameGeneration(TestNameGenerator.class)
+class IncrementalCsvParserTest {
+    private IncrementalCsvParser parser;
+    private List<String[]> rows;
+
+    @BeforeEach
+    void setUp() {
+        parser = new IncrementalCsvParser();
+        rows = new ArrayList<>();
+    }
+
+    private void feed(String csv) throws ParseException {
+        parser.feed(ByteBuffer.wrap(csv.getBytes(StandardCharsets.UTF_8)), rows::add);
+    }
+
+    @Nested
+    class Feed {
+        @Test
+        void passesOnEachCompletedRow() throws Exception {
+            feed("\"col0\",\"col1\"\n\"r0c0\",\"r0c1\"\n");
+            assertEquals(2, rows.size());
+            assertArrayEquals(new String[]{"col0", "col1"}, rows.get(0));
+            assertArrayEquals(new String[]{"r0c0", "r0c1"}, rows.get(1));
+        }
+
+        @Test
+        void keepsPartialRowsUntilTheyAreCompleted() throws Exception {
+            feed("\"col0\",\"co");
+            assertTrue(rows.isEmpty());
+            feed("l1\"\n");
+            assertArrayEquals(new String[]{"col0", "col1"}, rows.get(0));
+        }
+
+        @Test
+        void handlesNulls() throws Exception {
+            feed("\"col0\",,\"col2\"\n,,\n");
+            assertArrayEquals(new String[]{"col0", null, "col2"}, rows.get(0));
+            assertArrayEquals(new String[]{null, null, null}, rows.get(1));
+        }
+
+        @Test
+        void handlesEscapedQuotesNewlinesAndCommas() throws Exception {
+            feed("\"\"\"hello\"\",\nworld\"\n");
+            assertArrayEquals(new String[]{"\"hello\",\nworld"}, rows.get(0));
+        }
+
+        @Test
+        void handlesCharactersSplitAcrossBuffers() throws Exception {
+            byte[] bytes = "\"☃\"\n".getBytes(StandardCharsets.UTF_8);
+            parser.feed(ByteBuffer.wrap(bytes, 0, 2), rows::add);
+            parser.feed(ByteBuffer.wrap(bytes, 2, bytes.length - 2), rows::add);
+            assertArrayEquals(new String[]{"☃"}, rows.get(0));
+        }
+
+        @Test
+        void throwsWhenARowHasTheWrongNumberOfColumns() {
+            assertThrows(ParseException.class, () -> feed("\"col0\",\"col1\"\n\"r0c0\"\n"));
+        }
+
+        @Test
+        void throwsWhenAValueIsNotQuoted() {
+            assertThrows(ParseException.class, () -> feed("\"col0\"\nr0c0\n"));
+        }
+
+        @Test
+        void throwsWhenAQuotedValueIsFollowedByGarbage() {
+            assertThrows(ParseException.class, () -> feed("\"col0\"x\n"));
+        }
+
+        @Test
+        void reportsTheOffsetOfTheError() {
+            ParseException e = assertThrows(ParseException.class, () -> feed("\"col0\"x\n"));
+            assertEquals(6, e.getErrorOffset());
+            assertTrue(e.getMessage().endsWith("at offset 6"));
+        }
+    }
+
+    @Nested
+    class Finish {
+        @Test
+        void doesNothingAfterACompleteRow() throws Exception {
+            feed("\"col0\"\n");
+            assertDoesNotThrow(() -> parser.finish());
+        }
+
+        @Test
+        void throwsWhenTheInputEndsInTheMiddleOfARow() throws Exception {
+            feed("\"col0\"\n\"r0c0");
+            assertThrows(ParseException.class, () -> parser.finish());
+        }
+    }
+
+    @Nested
+    class GetColumnCount {
+        @Test
+        void returnsZeroBeforeTheFirstRow() throws Exception {
+            feed("\"col0\",");
+            assertEquals(0, parser.getColumnCount());
+        }
+
+        @Test
+        void returnsTheNumberOfColumnsInTheFirstRow() throws Exception {
+            feed("\"col0\",,\"col2\"\n");
+            assertEquals(3, parser.getColumnCount());
+        }
+    }
+
+    @Nested
+    class WhenComparedWithTheSequentialParser {
+        private final String[] fragments = new String[]{"a", "bc", "\"", ",", "\n", "☃", "å", " "};
+
+        private String randomCsv(Random random) {
+            int columnCount = 1 + random.nextInt(5);
+            StringBuilder csv = new StringBuilder();
+            int rowCount = 1 + random.nextInt(50);
+            for (int i = 0; i < rowCount; i++) {
+                for (int j = 0; j < columnCount; j++) {
+                    if (random.nextInt(5) != 0) {
+                        csv.append('"');
+                        int length = random.nextInt(10);
+                        for (int k = 0; k < length; k++) {
+                            csv.append(fragments[random.nextInt(fragments.length)].replace("\"", "\"\""));
+                        }
+                        csv.append('"');
+                    }
+                    csv.append(j == columnCount - 1 ? '\n' : ',');
+                }
+            }
+            return csv.toString();
+        }
+
+        @Test
+        void producesTheSameRowsForRandomInputsSplitAtRandomPositions() throws Exception {
+            Random random = new Random(1234);
+            for (int i = 0; i < 200; i++) {
+                String csv = randomCsv(random);
+                VeryBasicCsvParser sequentialParser = new VeryBasicCsvParser(new StringReader(csv));
+                List<String[]> expected = new ArrayList<>();
+                while (sequentialParser.hasNext()) {
+                    expected.add(sequentialParser.next());
+                }
+                setUp();
+                byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+                int offset = 0;
+                while (offset < bytes.length) {
+                    int length = Math.min(bytes.length - offset, 1 + random.nextInt(16));
+                    parser.feed(ByteBuffer.wrap(bytes, offset, length), rows::add);
+                    offset += length;
+                }
+                parser.finish();
+                assertEquals(expected.size(), rows.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertArrayEquals(expected.get(j), rows.get(j));
+                }
+            }
+        }
+    }
+}
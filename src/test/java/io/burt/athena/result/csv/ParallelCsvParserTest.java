@@ -0,0 +1,254 @@
+package io.burt.athena.result.csv;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ParallelCsvParserTest {
+    private ForkJoinPool pool;
+    private ParallelCsvParser parser;
+
+    @BeforeEach
+    void setUpPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDownPool() {
+        pool.shutdownNow();
+    }
+
+    private String createCsv(String[][] rows) {
+        StringBuilder builder = new StringBuilder();
+        for (String[] row : rows) {
+            for (String value : row) {
+                if (value != null) {
+                    builder.append("\"").append(value.replace("\"", "\"\"")).append("\"");
+                }
+                builder.append(",");
+            }
+            builder.deleteCharAt(builder.length() - 1);
+            builder.append("\n");
+        }
+        return builder.toString();
+    }
+
+    private InputStream createInput(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String[]> parseAll(ParallelCsvParser parser) {
+        List<String[]> rows = new ArrayList<>();
+        while (parser.hasNext()) {
+            rows.add(parser.next());
+        }
+        return rows;
+    }
+
+    @Nested
+    class HasNext {
+        @Test
+        void returnsFalseWhenTheInputIsEmpty() {
+            parser = new ParallelCsvParser(createInput(""), pool);
+            assertFalse(parser.hasNext());
+        }
+
+        @Test
+        void returnsTrueWhileThereAreStillRows() {
+            parser = new ParallelCsvParser(createInput(createCsv(new String[][]{
+                    new String[]{"col0", "col1"},
+                    new String[]{"r0c0", "r0c1"}
+            })), pool);
+            assertTrue(parser.hasNext());
+            parser.next();
+            assertTrue(parser.hasNext());
+            parser.next();
+            assertFalse(parser.hasNext());
+        }
+    }
+
+    @Nested
+    class Next {
+        @Test
+        void returnsTheHeaderAndThenEachRow() {
+            parser = new ParallelCsvParser(createInput(createCsv(new String[][]{
+                    new String[]{"col0", "col1", "col2"},
+                    new String[]{"r0c0", null, "r0c2"},
+                    new String[]{null, null, null}
+            })), pool);
+            assertArrayEquals(new String[]{"col0", "col1", "col2"}, parser.next());
+            assertArrayEquals(new String[]{"r0c0", null, "r0c2"}, parser.next());
+            assertArrayEquals(new String[]{null, null, null}, parser.next());
+            assertNull(parser.next());
+        }
+
+        @Test
+        void handlesEscapedQuotesNewlinesAndCommas() {
+            parser = new ParallelCsvParser(createInput(createCsv(new String[][]{
+                    new String[]{"col0", "col1"},
+                    new String[]{"\"hello\",\nworld", "☃"}
+            })), pool);
+            parser.next();
+            assertArrayEquals(new String[]{"\"hello\",\nworld", "☃"}, parser.next());
+        }
+
+        @Test
+        void handlesRowsThatAreLargerThanTheBlockSize() {
+            StringBuilder large = new StringBuilder();
+            for (int i = 0; i < 100; i++) {
+                large.append("abc\n\"");
+            }
+            parser = new ParallelCsvParser(createInput(createCsv(new String[][]{
+                    new String[]{"col0"},
+                    new String[]{large.toString()},
+                    new String[]{"small"}
+            })), pool, 16, 4);
+            parser.next();
+            assertArrayEquals(new String[]{large.toString()}, parser.next());
+            assertArrayEquals(new String[]{"small"}, parser.next());
+            assertNull(parser.next());
+        }
+
+        @Test
+        void throwsWhenARowHasTheWrongNumberOfColumns() {
+            parser = new ParallelCsvParser(createInput("\"col0\",\"col1\"\n\"r0c0\"\n"), pool);
+            parser.next();
+            Exception e = assertThrows(RuntimeException.class, () -> parser.next());
+            assertEquals(ParseException.class, e.getCause().getClass());
+        }
+
+        @Test
+        void throwsWhenAValueIsNotQuoted() {
+            parser = new ParallelCsvParser(createInput("\"col0\"\nr0c0\n"), pool);
+            parser.next();
+            Exception e = assertThrows(RuntimeException.class, () -> parser.next());
+            assertEquals(ParseException.class, e.getCause().getClass());
+            assertEquals(7, ((ParseException) e.getCause()).getErrorOffset());
+            assertTrue(e.getCause().getMessage().endsWith("at offset 7"));
+        }
+
+        @Test
+        void throwsWhenTheInputEndsInTheMiddleOfARow() {
+            parser = new ParallelCsvParser(createInput("\"col0\"\n\"r0c0\n"), pool);
+            parser.next();
+            Exception e = assertThrows(RuntimeException.class, () -> parser.next());
+            assertEquals(ParseException.class, e.getCause().getClass());
+        }
+    }
+
+    @Nested
+    class GetColumnCount {
+        @Test
+        void returnsTheNumberOfColumnsInTheFirstRow() {
+            parser = new ParallelCsvParser(createInput("\"col0\",,\"col2\"\n"), pool);
+            assertEquals(3, parser.getColumnCount());
+        }
+
+        @Test
+        void doesNotConsumeAnyRows() {
+            parser = new ParallelCsvParser(createInput("\"col0\",\"col1\"\n"), pool);
+            parser.getColumnCount();
+            assertArrayEquals(new String[]{"col0", "col1"}, parser.next());
+        }
+
+        @Test
+        void returnsZeroWhenTheInputIsEmpty() {
+            parser = new ParallelCsvParser(createInput(""), pool);
+            assertEquals(0, parser.getColumnCount());
+        }
+    }
+
+    @Nested
+    class WhenComparedWithTheSequentialParser {
+        private final String[] fragments = new String[]{"a", "bc", "\"", "\"\"", ",", "\n", "☃", "å", " ", ""};
+
+        private String randomValue(Random random) {
+            if (random.nextInt(5) == 0) {
+                return null;
+            }
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                value.append(fragments[random.nextInt(fragments.length)]);
+            }
+            return value.toString();
+        }
+
+        private String randomCsv(Random random) {
+            int columnCount = 1 + random.nextInt(5);
+            String[][] rows = new String[1 + random.nextInt(200)][];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new String[columnCount];
+                for (int j = 0; j < columnCount; j++) {
+                    rows[i][j] = randomValue(random);
+                }
+            }
+            return createCsv(rows);
+        }
+
+        private List<String[]> parseSequentially(String csv) {
+            VeryBasicCsvParser sequentialParser = new VeryBasicCsvParser(new StringReader(csv));
+            List<String[]> rows = new ArrayList<>();
+            while (sequentialParser.hasNext()) {
+                rows.add(sequentialParser.next());
+            }
+            return rows;
+        }
+
+        private void assertSameRows(List<String[]> expected, List<String[]> actual) {
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), actual.get(i), String.format("Row %d differs", i));
+            }
+        }
+
+        @Test
+        void producesTheSameRowsForRandomInputs() {
+            Random random = new Random(1234);
+            for (int i = 0; i < 200; i++) {
+                String csv = randomCsv(random);
+                int blockSize = 8 + random.nextInt(512);
+                int chunkSize = 1 + random.nextInt(64);
+                parser = new ParallelCsvParser(createInput(csv), pool, blockSize, chunkSize);
+                assertSameRows(parseSequentially(csv), parseAll(parser));
+            }
+        }
+
+        @Test
+        void producesTheSameRowsWithTheDefaultBlockSize() {
+            Random random = new Random(4321);
+            int columnCount = 4;
+            StringBuilder csv = new StringBuilder(createCsv(new String[][]{new String[]{"col0", "col1", "col2", "col3"}}));
+            while (csv.length() < 3 * ParallelCsvParser.MIN_CHUNK_SIZE * pool.getParallelism()) {
+                String[] row = new String[columnCount];
+                for (int j = 0; j < columnCount; j++) {
+                    row[j] = randomValue(random);
+                }
+                csv.append(createCsv(new String[][]{row}));
+            }
+            parser = new ParallelCsvParser(createInput(csv.toString()), pool);
+            assertSameRows(parseSequentially(csv.toString()), parseAll(parser));
+        }
+    }
+}
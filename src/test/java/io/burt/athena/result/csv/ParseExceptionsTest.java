@@ -0,0 +1,31 @@
+package io.burt.athena.result.csv;
+
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ParseExceptionsTest {
+    @Nested
+    class ParseExceptionFactory {
+        @Test
+        void addsTheOffsetToTheMessage() {
+            ParseException e = ParseExceptions.parseException("Unexpected end of stream", 42);
+            assertEquals("Unexpected end of stream at offset 42", e.getMessage());
+            assertEquals(42, e.getErrorOffset());
+        }
+
+        @Test
+        void clampsOffsetsPast2Gb() {
+            long offset = 3L * Integer.MAX_VALUE;
+            ParseException e = ParseExceptions.parseException("Unexpected end of stream", offset);
+            assertEquals(Integer.MAX_VALUE, e.getErrorOffset());
+            assertEquals("Unexpected end of stream at offset " + offset, e.getMessage());
+        }
+    }
+}
@@ -270,4 +270,61 @@ class VeryBasicCsvParserTest {
             }
         }
     }
+
+    @Nested
+    class GetColumnCount {
+        @Test
+        void returnsTheNumberOfColumns() {
+            parser = new VeryBasicCsvParser(new StringReader("\"1\",\"2\"\n"), 2);
+            assertEquals(2, parser.getColumnCount());
+        }
+
+        @Nested
+        class WhenTheColumnCountIsDeterminedFromTheInput {
+            @Test
+            void returnsTheNumberOfColumnsInTheFirstRow() {
+                parser = new VeryBasicCsvParser(createInput(new String[][]{
+                        new String[]{"c0", "c1", "c2"},
+                        new String[]{"r0c0", "r0c1", "r0c2"}
+                }));
+                assertEquals(3, parser.getColumnCount());
+            }
+
+            @Test
+            void returnsTheFirstRowFromNext() {
+                parser = new VeryBasicCsvParser(createInput(new String[][]{
+                        new String[]{"c0", "c1", "c2"},
+                        new String[]{"r0c0", "r0c1", "r0c2"}
+                }));
+                parser.getColumnCount();
+                assertArrayEquals(new String[]{"c0", "c1", "c2"}, parser.next());
+                assertArrayEquals(new String[]{"r0c0", "r0c1", "r0c2"}, parser.next());
+                assertNull(parser.next());
+            }
+
+            @Test
+            void handlesQuotedCommasAndNewlines() {
+                parser = new VeryBasicCsvParser(new StringReader("\"c,0\",\"c\n1\"\n\"r0c0\",\"r0c1\"\n"));
+                assertEquals(2, parser.getColumnCount());
+                assertArrayEquals(new String[]{"c,0", "c\n1"}, parser.next());
+            }
+
+            @Test
+            void handlesNullValues() {
+                parser = new VeryBasicCsvParser(createInput(new String[][]{
+                        new String[]{"c0", null, null},
+                        new String[]{"r0c0", "r0c1", "r0c2"}
+                }));
+                assertEquals(3, parser.getColumnCount());
+                assertArrayEquals(new String[]{"c0", null, null}, parser.next());
+            }
+
+            @Test
+            void returnsZeroWhenTheInputIsEmpty() {
+                parser = new VeryBasicCsvParser(new StringReader(""));
+                assertEquals(0, parser.getColumnCount());
+                assertFalse(parser.hasNext());
+            }
+        }
+    }
 }
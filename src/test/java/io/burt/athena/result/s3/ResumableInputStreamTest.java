@@ -0,0 +1,214 @@
+package io.burt.athena.result.s3;
+
+import io.burt.athena.support.GetObjectHelper;
+import io.burt.athena.support.TestNameGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayNameGeneration;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayNameGeneration(TestNameGenerator.class)
+class ResumableInputStreamTest {
+    private static final byte[] CONTENTS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+
+    private GetObjectHelper getObjectHelper;
+    private DownloadMetrics metrics;
+    private int maxRetries;
+    private Duration stallTimeout;
+
+    @BeforeEach
+    void setUp() {
+        getObjectHelper = new GetObjectHelper();
+        getObjectHelper.setObject("some-bucket", "some/key", CONTENTS);
+        metrics = new DownloadMetrics();
+        maxRetries = 3;
+        stallTimeout = Duration.ofSeconds(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        getObjectHelper.close();
+    }
+
+    private InputStream open() throws Exception {
+        ResumableInputStream stream = new ResumableInputStream(getObjectHelper, "some-bucket", "some/key", Duration.ofSeconds(10), maxRetries, stallTimeout, metrics);
+        return stream.open().get();
+    }
+
+    private byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        int n;
+        while ((n = stream.read(buffer, 0, buffer.length)) != -1) {
+            output.write(buffer, 0, n);
+        }
+        return output.toByteArray();
+    }
+
+    @Nested
+    class Read {
+        @Test
+        void readsTheWholeObject() throws Exception {
+            assertArrayEquals(CONTENTS, readAll(open()));
+        }
+
+        @Test
+        void readsTheObjectByteByByte() throws Exception {
+            InputStream stream = open();
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            int b;
+            while ((b = stream.read()) != -1) {
+                output.write(b);
+            }
+            assertArrayEquals(CONTENTS, output.toByteArray());
+        }
+
+        @Test
+        void makesOneUnconditionalRequest() throws Exception {
+            readAll(open());
+            List<GetObjectRequest> requests = getObjectHelper.getObjectRequests();
+            assertEquals(1, requests.size());
+            assertNull(requests.get(0).range());
+            assertNull(requests.get(0).ifMatch());
+        }
+    }
+
+    @Nested
+    class WhenTheDownloadFails {
+        @BeforeEach
+        void setUp() {
+            getObjectHelper.interruptObject("some-bucket", "some/key", 1, 20, new IOException("b0rk"));
+        }
+
+        @Test
+        void resumesTheDownloadAndReadsTheWholeObject() throws Exception {
+            assertArrayEquals(CONTENTS, readAll(open()));
+        }
+
+        @Test
+        void requestsTheRestOfTheObjectIfItHasNotChanged() throws Exception {
+            readAll(open());
+            List<GetObjectRequest> requests = getObjectHelper.getObjectRequests();
+            assertEquals(2, requests.size());
+            assertEquals("bytes=20-", requests.get(1).range());
+            assertEquals(getObjectHelper.eTag("some-bucket", "some/key"), requests.get(1).ifMatch());
+        }
+
+        @Test
+        void recordsTheResume() throws Exception {
+            readAll(open());
+            assertEquals(1, metrics.getResumeCount());
+            assertEquals(0, metrics.getStallCount());
+            assertEquals(0, metrics.getFailureCount());
+        }
+
+        @Nested
+        class AndTheObjectHasChanged {
+            @Test
+            void throwsAnException() throws Exception {
+                InputStream stream = open();
+                getObjectHelper.setObject("some-bucket", "some/key", "something else entirely".getBytes(StandardCharsets.US_ASCII));
+                IOException e = assertThrows(IOException.class, () -> readAll(stream));
+                assertTrue(e.getMessage().contains("changed"));
+                assertEquals(1, metrics.getFailureCount());
+            }
+        }
+
+        @Nested
+        class MoreTimesThanTheMaxRetries {
+            @BeforeEach
+            void setUp() {
+                maxRetries = 2;
+                getObjectHelper.interruptObject("some-bucket", "some/key", 3, 20, new IOException("b0rk"));
+            }
+
+            @Test
+            void throwsTheError() throws Exception {
+                InputStream stream = open();
+                IOException e = assertThrows(IOException.class, () -> readAll(stream));
+                assertEquals("b0rk", e.getCause().getMessage());
+            }
+
+            @Test
+            void recordsTheResumesAndTheFailure() throws Exception {
+                InputStream stream = open();
+                assertThrows(IOException.class, () -> readAll(stream));
+                assertEquals(2, metrics.getResumeCount());
+                assertEquals(1, metrics.getFailureCount());
+            }
+        }
+
+        @Nested
+        class AndRetriesAreDisabled {
+            @Test
+            void throwsTheError() throws Exception {
+                maxRetries = 0;
+                InputStream stream = open();
+                assertThrows(IOException.class, () -> readAll(stream));
+                assertEquals(1, getObjectHelper.getObjectRequests().size());
+                assertEquals(1, metrics.getFailureCount());
+            }
+        }
+    }
+
+    @Nested
+    class WhenTheDownloadStalls {
+        @BeforeEach
+        void setUp() {
+            // the helper delivers the bytes on its own threads, so the timeout
+            // must be long enough that a busy machine is not mistaken for a stall
+            stallTimeout = Duration.ofSeconds(1);
+            getObjectHelper.interruptObject("some-bucket", "some/key", 1, 30, null);
+        }
+
+        @Test
+        void resumesTheDownloadAndReadsTheWholeObject() throws Exception {
+            assertArrayEquals(CONTENTS, readAll(open()));
+            assertEquals("bytes=30-", getObjectHelper.getObjectRequests().get(1).range());
+        }
+
+        @Test
+        void recordsTheStall() throws Exception {
+            readAll(open());
+            assertEquals(1, metrics.getStallCount());
+            assertEquals(1, metrics.getResumeCount());
+        }
+
+        @Nested
+        class AndRetriesAreDisabled {
+            @Test
+            void throwsADownloadStalledException() throws Exception {
+                maxRetries = 0;
+                InputStream stream = open();
+                assertThrows(DownloadStalledException.class, () -> readAll(stream));
+            }
+        }
+    }
+
+    @Nested
+    class GetPosition {
+        @Test
+        void returnsTheNumberOfBytesRead() throws Exception {
+            ResumableInputStream stream = new ResumableInputStream(getObjectHelper, "some-bucket", "some/key", Duration.ofSeconds(10), maxRetries, stallTimeout, metrics);
+            stream.open().get();
+            assertEquals(0, stream.getPosition());
+            stream.read(new byte[5], 0, 5);
+            assertTrue(stream.getPosition() > 0 && stream.getPosition() <= 5);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package io.burt.athena.support;
 
 import io.burt.athena.configuration.ConnectionConfiguration;
+import io.burt.athena.configuration.QueryScheduler;
+import io.burt.athena.configuration.ResultLoadingStrategy;
+import io.burt.athena.configuration.WorkGroupBalancer;
+import io.burt.athena.metadata.CatalogCache;
 import io.burt.athena.polling.PollingStrategy;
 import io.burt.athena.result.Result;
+import io.burt.athena.result.s3.DownloadMetrics;
 import software.amazon.awssdk.services.athena.AthenaAsyncClient;
 import software.amazon.awssdk.services.athena.model.QueryExecution;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
@@ -21,6 +26,12 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
     private final Supplier<S3AsyncClient> s3ClientFactory;
     private final Supplier<PollingStrategy> pollingStrategyFactory;
     private final Function<QueryExecution, Result> resultFactory;
+    private final DownloadMetrics downloadMetrics;
+
+    private WorkGroupBalancer workGroupBalancer;
+    private QueryScheduler queryScheduler;
+    private CatalogCache catalogCache;
+    private ResultLoadingStrategy resultLoadingStrategy;
 
     public ConfigurableConnectionConfiguration(String databaseName, String workGroupName, String outputLocation, Duration networkTimeout, Duration queryTimeout, Supplier<AthenaAsyncClient> athenaClientFactory, Supplier<S3AsyncClient> s3ClientFactory, Supplier<PollingStrategy> pollingStrategyFactory, Function<QueryExecution, Result> resultFactory) {
         this.databaseName = databaseName;
@@ -32,6 +43,27 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
         this.s3ClientFactory = s3ClientFactory;
         this.pollingStrategyFactory = pollingStrategyFactory;
         this.resultFactory = resultFactory;
+        this.downloadMetrics = new DownloadMetrics();
+        this.workGroupBalancer = null;
+        this.queryScheduler = null;
+        this.catalogCache = null;
+        this.resultLoadingStrategy = ResultLoadingStrategy.S3;
+    }
+
+    public void setWorkGroupBalancer(WorkGroupBalancer workGroupBalancer) {
+        this.workGroupBalancer = workGroupBalancer;
+    }
+
+    public void setQueryScheduler(QueryScheduler queryScheduler) {
+        this.queryScheduler = queryScheduler;
+    }
+
+    public void setCatalogCache(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    public void setResultLoadingStrategy(ResultLoadingStrategy resultLoadingStrategy) {
+        this.resultLoadingStrategy = resultLoadingStrategy;
     }
 
     @Override
@@ -67,11 +99,36 @@ public class ConfigurableConnectionConfiguration implements ConnectionConfigurat
         return s3ClientFactory.get();
     }
 
+    @Override
+    public CatalogCache catalogCache() {
+        return catalogCache;
+    }
+
     @Override
     public PollingStrategy pollingStrategy() {
         return pollingStrategyFactory.get();
     }
 
+    @Override
+    public DownloadMetrics downloadMetrics() {
+        return downloadMetrics;
+    }
+
+    @Override
+    public WorkGroupBalancer workGroupBalancer() {
+        return workGroupBalancer;
+    }
+
+    @Override
+    public QueryScheduler queryScheduler() {
+        return queryScheduler;
+    }
+
+    @Override
+    public ResultLoadingStrategy resultLoadingStrategy() {
+        return resultLoadingStrategy;
+    }
+
     @Override
     public ConnectionConfiguration withDatabaseName(String newDatabaseName) {
         return new ConfigurableConnectionConfiguration(newDatabaseName, workGroupName, outputLocation, networkTimeout, queryTimeout, athenaClientFactory, s3ClientFactory, pollingStrategyFactory, resultFactory);
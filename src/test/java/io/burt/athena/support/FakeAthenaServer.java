@@ -0,0 +1,181 @@
+package io.burt.athena.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.burt.athena.configuration.ConnectionConfigurationFactory;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local HTTP server that fakes the parts of the Athena and S3 APIs that
+ * the driver uses, for benchmarks that should not depend on the network.
+ *
+ * Every query reports itself as running a configurable number of times
+ * before it succeeds, and every result has one integer column with a
+ * configurable number of rows. Results are written to
+ * <code>s3://benchmark/results/</code>.
+ */
+public class FakeAthenaServer implements AutoCloseable {
+    public static final String OUTPUT_LOCATION = "s3://benchmark/results/";
+
+    private static final Pattern QUERY_EXECUTION_ID_PATTERN = Pattern.compile("\"QueryExecutionId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern RESULT_PATH_PATTERN = Pattern.compile("^/benchmark/results/([^/.]+)\\.csv(\\.metadata)?$");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int runningPolls;
+    private final byte[] resultBody;
+    private final byte[] metadataBody;
+    private final AtomicLong queryCounter;
+    private final Map<String, AtomicInteger> pollCounts;
+
+    public FakeAthenaServer(int runningPolls, int resultRows, int threads) throws IOException {
+        this.runningPolls = runningPolls;
+        this.resultBody = createResult(resultRows);
+        this.metadataBody = createMetadata("_col0", "integer");
+        this.queryCounter = new AtomicLong(0);
+        this.pollCounts = new ConcurrentHashMap<>();
+        // the server otherwise closes idle connections that the clients still have in their pools
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(Integer.MAX_VALUE));
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1 << 12);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", exchange -> {
+            try {
+                String target = exchange.getRequestHeaders().getFirst("X-Amz-Target");
+                if (target != null) {
+                    handleAthenaRequest(exchange, target);
+                } else {
+                    handleS3Request(exchange);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        this.server.start();
+    }
+
+    public URI endpoint() {
+        return URI.create(String.format("http://localhost:%d", server.getAddress().getPort()));
+    }
+
+    /**
+     * @return a factory whose Athena and S3 clients send their requests to
+     *         this server
+     */
+    public ConnectionConfigurationFactory createConnectionConfigurationFactory() {
+        URI endpoint = endpoint();
+        return new ConnectionConfigurationFactory(
+                builder -> builder.endpointOverride(endpoint),
+                builder -> builder.endpointOverride(endpoint).serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+        );
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handleAthenaRequest(HttpExchange exchange, String target) throws IOException {
+        String request = new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8);
+        String body;
+        if (target.endsWith(".StartQueryExecution")) {
+            String queryExecutionId = String.format("Q%d", queryCounter.incrementAndGet());
+            pollCounts.put(queryExecutionId, new AtomicInteger(0));
+            body = String.format("{\"QueryExecutionId\":\"%s\"}", queryExecutionId);
+        } else if (target.endsWith(".GetQueryExecution")) {
+            Matcher matcher = QUERY_EXECUTION_ID_PATTERN.matcher(request);
+            String queryExecutionId = matcher.find() ? matcher.group(1) : "Q0";
+            AtomicInteger pollCount = pollCounts.computeIfAbsent(queryExecutionId, id -> new AtomicInteger(0));
+            String state = pollCount.getAndIncrement() < runningPolls ? "RUNNING" : "SUCCEEDED";
+            body = String.format("{\"QueryExecution\":{\"QueryExecutionId\":\"%s\",\"Query\":\"SELECT 1\",\"Status\":{\"State\":\"%s\"},\"ResultConfiguration\":{\"OutputLocation\":\"%s%s.csv\"}}}", queryExecutionId, state, OUTPUT_LOCATION, queryExecutionId);
+        } else {
+            body = "{}";
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/x-amz-json-1.1");
+        respond(exchange, 200, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handleS3Request(HttpExchange exchange) throws IOException {
+        readAll(exchange.getRequestBody());
+        Matcher matcher = RESULT_PATH_PATTERN.matcher(exchange.getRequestURI().getPath());
+        if (!matcher.matches()) {
+            respond(exchange, 404, new byte[0]);
+            return;
+        }
+        byte[] body = matcher.group(2) == null ? resultBody : metadataBody;
+        exchange.getResponseHeaders().set("Content-Type", "binary/octet-stream");
+        exchange.getResponseHeaders().set("ETag", "\"benchmark\"");
+        respond(exchange, 200, exchange.getRequestMethod().equals("HEAD") ? null : body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        byte[] buffer = new byte[1 << 12];
+        int length = 0;
+        int n;
+        while ((n = input.read(buffer, length, buffer.length - length)) != -1) {
+            length += n;
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static byte[] createResult(int rows) {
+        StringBuilder contents = new StringBuilder("\"_col0\"\n");
+        for (int i = 1; i <= rows; i++) {
+            contents.append('"').append(i).append("\"\n");
+        }
+        return contents.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] createMetadata(String columnName, String columnType) {
+        ByteBuffer column = ByteBuffer.allocate(1 << 8);
+        column.put((byte) (4 << 3 | 2));
+        column.put((byte) columnName.length());
+        column.put(columnName.getBytes(StandardCharsets.UTF_8));
+        column.put((byte) (5 << 3 | 2));
+        column.put((byte) columnName.length());
+        column.put(columnName.getBytes(StandardCharsets.UTF_8));
+        column.put((byte) (6 << 3 | 2));
+        column.put((byte) columnType.length());
+        column.put(columnType.getBytes(StandardCharsets.UTF_8));
+        ByteBuffer metadata = ByteBuffer.allocate(1 << 10);
+        metadata.put((byte) (1 << 3 | 2));
+        metadata.put((byte) 9);
+        metadata.put("benchmark".getBytes(StandardCharsets.UTF_8));
+        metadata.put((byte) (4 << 3 | 2));
+        metadata.put((byte) column.position());
+        metadata.put(column.array(), 0, column.position());
+        return Arrays.copyOf(metadata.array(), metadata.position());
+    }
+}
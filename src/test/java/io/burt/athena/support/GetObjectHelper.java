@@ -7,31 +7,71 @@ import software.amazon.awssdk.core.async.AsyncResponseTransformer;
 import software.amazon.awssdk.core.async.SdkPublisher;
 import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
+import software.amazon.awssdk.services.s3.model.CopyObjectResponse;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.HeadBucketResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartCopyResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
 import java.nio.ByteBuffer;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
+    private static final Pattern RANGE_PATTERN = Pattern.compile("^bytes=(\\d+)-(\\d*)$");
+
     private final Map<String, byte[]> objects;
     private final Map<String, SdkPublisher<ByteBuffer>> publishers;
     private final Map<String, Exception> exceptions;
     private final Map<String, Exception> lateExceptions;
     private final Map<String, Duration> delays;
+    private final Set<String> withheld;
+    private final Map<String, Interruption> interruptions;
     private final List<GetObjectRequest> getObjectRequests;
     private final List<AutoCloseable> closeables;
+    private final List<CopyObjectRequest> copyObjectRequests;
+    private final List<UploadPartCopyRequest> uploadPartCopyRequests;
+    private final Map<String, Map<Integer, byte[]>> uploads;
+    private final List<String> abortedUploadIds;
+    private final List<HeadBucketRequest> headBucketRequests;
+    private final List<HeadObjectRequest> headObjectRequests;
+
+    private Exception uploadPartCopyException;
+    private boolean holdUploadPartCopies;
 
     public GetObjectHelper() {
         this.objects = new HashMap<>();
@@ -39,8 +79,18 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         this.exceptions = new HashMap<>();
         this.lateExceptions = new HashMap<>();
         this.delays = new HashMap<>();
-        this.getObjectRequests = new LinkedList<>();
-        this.closeables = new LinkedList<>();
+        this.withheld = new HashSet<>();
+        this.interruptions = new HashMap<>();
+        this.getObjectRequests = Collections.synchronizedList(new LinkedList<>());
+        this.closeables = Collections.synchronizedList(new LinkedList<>());
+        this.copyObjectRequests = Collections.synchronizedList(new LinkedList<>());
+        this.uploadPartCopyRequests = Collections.synchronizedList(new LinkedList<>());
+        this.uploads = new HashMap<>();
+        this.abortedUploadIds = new LinkedList<>();
+        this.headBucketRequests = Collections.synchronizedList(new LinkedList<>());
+        this.headObjectRequests = Collections.synchronizedList(new LinkedList<>());
+        this.uploadPartCopyException = null;
+        this.holdUploadPartCopies = false;
     }
 
     private String uri(String bucket, String key) {
@@ -63,6 +113,18 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         lateExceptions.put(uri(bucket, key), e);
     }
 
+    /**
+     * Makes the next responses for an object stop after a number of bytes,
+     * either with an error or, when the error is null, by never sending more.
+     */
+    public void interruptObject(String bucket, String key, int count, int afterBytes, Exception e) {
+        interruptions.put(uri(bucket, key), new Interruption(count, afterBytes, e));
+    }
+
+    public String eTag(String bucket, String key) {
+        return String.format("\"%08x\"", Arrays.hashCode(objects.get(uri(bucket, key))));
+    }
+
     public void removeObject(String bucket, String key) {
         objects.remove(uri(bucket, key));
     }
@@ -71,20 +133,68 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         delays.put(uri(bucket, key), duration);
     }
 
+    public void withholdObject(String bucket, String key) {
+        withheld.add(uri(bucket, key));
+    }
+
     public List<GetObjectRequest> getObjectRequests() {
         return getObjectRequests;
     }
 
+    public byte[] getObject(String bucket, String key) {
+        return objects.get(uri(bucket, key));
+    }
+
+    public void setUploadPartCopyException(Exception e) {
+        uploadPartCopyException = e;
+    }
+
+    /**
+     * Makes the next <code>UploadPartCopy</code> requests never complete,
+     * unless they are cancelled.
+     */
+    public void holdUploadPartCopies() {
+        holdUploadPartCopies = true;
+    }
+
+    public List<CopyObjectRequest> copyObjectRequests() {
+        return copyObjectRequests;
+    }
+
+    public List<UploadPartCopyRequest> uploadPartCopyRequests() {
+        return uploadPartCopyRequests;
+    }
+
+    public List<HeadBucketRequest> headBucketRequests() {
+        return headBucketRequests;
+    }
+
+    public List<HeadObjectRequest> headObjectRequests() {
+        return headObjectRequests;
+    }
+
+    public List<String> abortedUploadIds() {
+        return abortedUploadIds;
+    }
+
     private static class GetObjectPublisher implements SdkPublisher<ByteBuffer>, Subscription, AutoCloseable {
         private final byte[] objectContents;
         private final ExecutorService executor;
+        private final int limit;
+        private final Exception error;
 
         private int offset;
         private Subscriber<? super ByteBuffer> subscriber;
         private AtomicBoolean complete;
 
         GetObjectPublisher(byte[] contents) {
+            this(contents, contents.length, null);
+        }
+
+        GetObjectPublisher(byte[] contents, int limit, Exception error) {
             this.objectContents = contents;
+            this.limit = Math.min(limit, contents.length);
+            this.error = error;
             this.offset = 0;
             this.complete = new AtomicBoolean(false);
             this.executor = Executors.newSingleThreadExecutor();
@@ -100,9 +210,9 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         public void request(long n) {
             int actualLength;
             if (n == Long.MAX_VALUE) {
-                actualLength = objectContents.length - offset;
+                actualLength = limit - offset;
             } else {
-                actualLength = ((offset + n * 10) > objectContents.length) ? objectContents.length - offset : (int) (n * 10);
+                actualLength = ((offset + n * 10) > limit) ? limit - offset : (int) (n * 10);
             }
             if (actualLength > 0) {
                 final int o = offset;
@@ -114,6 +224,9 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
             if (!complete.get() && offset >= objectContents.length) {
                 complete.set(true);
                 executor.submit(() -> subscriber.onComplete());
+            } else if (!complete.get() && offset >= limit && error != null) {
+                complete.set(true);
+                executor.submit(() -> subscriber.onError(error));
             }
         }
 
@@ -159,6 +272,19 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         }
     }
 
+    private static class Interruption {
+        final int afterBytes;
+        final Exception error;
+
+        int remaining;
+
+        Interruption(int count, int afterBytes, Exception error) {
+            this.remaining = count;
+            this.afterBytes = afterBytes;
+            this.error = error;
+        }
+    }
+
     @Override
     public <T> CompletableFuture<T> getObject(Consumer<GetObjectRequest.Builder> getObjectRequestConsumer, AsyncResponseTransformer<GetObjectResponse, T> requestTransformer) throws AwsServiceException, SdkClientException {
         GetObjectRequest.Builder requestBuilder = GetObjectRequest.builder();
@@ -167,7 +293,9 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         getObjectRequests.add(request);
         String uri = String.format("s3://%s/%s", request.bucket(), request.key());
         CompletableFuture<T> future;
-        if (exceptions.containsKey(uri)) {
+        if (withheld.contains(uri)) {
+            return new CompletableFuture<>();
+        } else if (exceptions.containsKey(uri)) {
             future = new CompletableFuture<>();
             future.completeExceptionally(exceptions.get(uri));
         } else if (lateExceptions.containsKey(uri)) {
@@ -182,12 +310,22 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
             future = requestTransformer.prepare();
             requestTransformer.onResponse(response);
             requestTransformer.onStream(publishers.get(uri));
+        } else if (objects.containsKey(uri) && request.ifMatch() != null && !request.ifMatch().equals(eTag(request.bucket(), request.key()))) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(S3Exception.builder().statusCode(412).message("Precondition Failed").build());
         } else if (objects.containsKey(uri)) {
-            byte[] object = objects.get(uri);
-            GetObjectResponse response = GetObjectResponse.builder().contentLength((long) object.length).build();
+            byte[] object = slice(objects.get(uri), request.range());
+            GetObjectResponse response = GetObjectResponse.builder().contentLength((long) object.length).eTag(eTag(request.bucket(), request.key())).build();
             future = requestTransformer.prepare();
             requestTransformer.onResponse(response);
-            GetObjectPublisher publisher = new GetObjectPublisher(object);
+            Interruption interruption = interruptions.get(uri);
+            GetObjectPublisher publisher;
+            if (interruption != null && interruption.remaining > 0) {
+                interruption.remaining--;
+                publisher = new GetObjectPublisher(object, interruption.afterBytes, interruption.error);
+            } else {
+                publisher = new GetObjectPublisher(object);
+            }
             requestTransformer.onStream(publisher);
             closeables.add(publisher);
         } else {
@@ -212,6 +350,125 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
         return future;
     }
 
+    private byte[] slice(byte[] object, String range) {
+        if (range == null) {
+            return object;
+        }
+        Matcher matcher = RANGE_PATTERN.matcher(range);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(String.format("Unsupported range \"%s\"", range));
+        }
+        int from = Math.min(Integer.parseInt(matcher.group(1)), object.length);
+        int to = matcher.group(2).isEmpty() ? object.length : Math.min(Integer.parseInt(matcher.group(2)) + 1, object.length);
+        return Arrays.copyOfRange(object, from, to);
+    }
+
+    @Override
+    public CompletableFuture<HeadBucketResponse> headBucket(Consumer<HeadBucketRequest.Builder> headBucketRequestConsumer) {
+        HeadBucketRequest.Builder requestBuilder = HeadBucketRequest.builder();
+        headBucketRequestConsumer.accept(requestBuilder);
+        headBucketRequests.add(requestBuilder.build());
+        return CompletableFuture.completedFuture(HeadBucketResponse.builder().build());
+    }
+
+    @Override
+    public CompletableFuture<HeadObjectResponse> headObject(Consumer<HeadObjectRequest.Builder> headObjectRequestConsumer) {
+        HeadObjectRequest.Builder requestBuilder = HeadObjectRequest.builder();
+        headObjectRequestConsumer.accept(requestBuilder);
+        HeadObjectRequest request = requestBuilder.build();
+        headObjectRequests.add(request);
+        String uri = uri(request.bucket(), request.key());
+        CompletableFuture<HeadObjectResponse> future = new CompletableFuture<>();
+        if (objects.containsKey(uri)) {
+            future.complete(HeadObjectResponse.builder().contentLength((long) objects.get(uri).length).build());
+        } else {
+            future.completeExceptionally(NoSuchKeyException.builder().build());
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<CopyObjectResponse> copyObject(Consumer<CopyObjectRequest.Builder> copyObjectRequestConsumer) {
+        CopyObjectRequest.Builder requestBuilder = CopyObjectRequest.builder();
+        copyObjectRequestConsumer.accept(requestBuilder);
+        CopyObjectRequest request = requestBuilder.build();
+        copyObjectRequests.add(request);
+        String sourceUri = copySourceUri(request.copySource());
+        CompletableFuture<CopyObjectResponse> future = new CompletableFuture<>();
+        if (objects.containsKey(sourceUri)) {
+            objects.put(uri(request.bucket(), request.key()), objects.get(sourceUri));
+            future.complete(CopyObjectResponse.builder().build());
+        } else {
+            future.completeExceptionally(NoSuchKeyException.builder().build());
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUpload(Consumer<CreateMultipartUploadRequest.Builder> createMultipartUploadRequestConsumer) {
+        CreateMultipartUploadRequest.Builder requestBuilder = CreateMultipartUploadRequest.builder();
+        createMultipartUploadRequestConsumer.accept(requestBuilder);
+        CreateMultipartUploadRequest request = requestBuilder.build();
+        String uploadId = String.format("U%d", uploads.size());
+        uploads.put(uploadId, new TreeMap<>());
+        return CompletableFuture.completedFuture(CreateMultipartUploadResponse.builder().bucket(request.bucket()).key(request.key()).uploadId(uploadId).build());
+    }
+
+    @Override
+    public CompletableFuture<UploadPartCopyResponse> uploadPartCopy(Consumer<UploadPartCopyRequest.Builder> uploadPartCopyRequestConsumer) {
+        UploadPartCopyRequest.Builder requestBuilder = UploadPartCopyRequest.builder();
+        uploadPartCopyRequestConsumer.accept(requestBuilder);
+        UploadPartCopyRequest request = requestBuilder.build();
+        uploadPartCopyRequests.add(request);
+        String sourceUri = copySourceUri(request.copySource());
+        CompletableFuture<UploadPartCopyResponse> future = new CompletableFuture<>();
+        if (holdUploadPartCopies) {
+            return future;
+        } else if (uploadPartCopyException != null) {
+            future.completeExceptionally(uploadPartCopyException);
+        } else if (objects.containsKey(sourceUri)) {
+            uploads.get(request.uploadId()).put(request.partNumber(), slice(objects.get(sourceUri), request.copySourceRange()));
+            String eTag = String.format("%s-%d", request.uploadId(), request.partNumber());
+            future.complete(UploadPartCopyResponse.builder().copyPartResult(b -> b.eTag(eTag)).build());
+        } else {
+            future.completeExceptionally(NoSuchKeyException.builder().build());
+        }
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<CompleteMultipartUploadResponse> completeMultipartUpload(Consumer<CompleteMultipartUploadRequest.Builder> completeMultipartUploadRequestConsumer) {
+        CompleteMultipartUploadRequest.Builder requestBuilder = CompleteMultipartUploadRequest.builder();
+        completeMultipartUploadRequestConsumer.accept(requestBuilder);
+        CompleteMultipartUploadRequest request = requestBuilder.build();
+        Map<Integer, byte[]> parts = uploads.remove(request.uploadId());
+        ByteArrayOutputStream contents = new ByteArrayOutputStream();
+        for (CompletedPart part : request.multipartUpload().parts()) {
+            byte[] bytes = parts.get(part.partNumber());
+            contents.write(bytes, 0, bytes.length);
+        }
+        objects.put(uri(request.bucket(), request.key()), contents.toByteArray());
+        return CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build());
+    }
+
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUpload(Consumer<AbortMultipartUploadRequest.Builder> abortMultipartUploadRequestConsumer) {
+        AbortMultipartUploadRequest.Builder requestBuilder = AbortMultipartUploadRequest.builder();
+        abortMultipartUploadRequestConsumer.accept(requestBuilder);
+        AbortMultipartUploadRequest request = requestBuilder.build();
+        uploads.remove(request.uploadId());
+        abortedUploadIds.add(request.uploadId());
+        return CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build());
+    }
+
+    private String copySourceUri(String copySource) {
+        try {
+            return "s3://" + URLDecoder.decode(copySource, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public String serviceName() {
         return null;
@@ -219,6 +476,10 @@ public class GetObjectHelper implements S3AsyncClient, AutoCloseable {
 
     @Override
     public void close() {
+        List<AutoCloseable> closeables;
+        synchronized (this.closeables) {
+            closeables = new ArrayList<>(this.closeables);
+        }
         for (AutoCloseable closeable : closeables) {
             try {
                 closeable.close();
@@ -18,6 +18,7 @@ import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -133,8 +134,10 @@ public class GetQueryResultsHelper implements AthenaAsyncClient {
         }
         if (interruptLoading) {
             try {
-                future = mock(CompletableFuture.class);
-                when(future.get(anyLong(), any())).thenThrow(InterruptedException.class);
+                CompletableFuture<GetQueryResultsResponse> interruptedFuture = mock(CompletableFuture.class);
+                doReturn(interruptedFuture).when(interruptedFuture).thenApply(any());
+                when(interruptedFuture.get(anyLong(), any())).thenThrow(InterruptedException.class);
+                future = interruptedFuture;
             } catch (Exception e) {
             }
         }
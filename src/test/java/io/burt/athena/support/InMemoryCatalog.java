@@ -0,0 +1,121 @@
+package io.burt.athena.support;
+
+import io.burt.athena.metadata.Catalog;
+import io.burt.athena.metadata.CatalogColumn;
+import io.burt.athena.metadata.CatalogDatabase;
+import io.burt.athena.metadata.CatalogPage;
+import io.burt.athena.metadata.CatalogTable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryCatalog implements Catalog {
+    private final Map<String, List<CatalogTable>> tables;
+    private final Map<String, String> descriptions;
+    private final Map<String, Instant> updateTimes;
+    private final int pageSize;
+    private final AtomicInteger databaseRequests;
+    private final AtomicInteger tableRequests;
+
+    private RuntimeException error;
+    private boolean closed;
+
+    public InMemoryCatalog(int pageSize) {
+        this.tables = new LinkedHashMap<>();
+        this.descriptions = new LinkedHashMap<>();
+        this.updateTimes = new LinkedHashMap<>();
+        this.pageSize = pageSize;
+        this.databaseRequests = new AtomicInteger(0);
+        this.tableRequests = new AtomicInteger(0);
+        this.error = null;
+        this.closed = false;
+    }
+
+    public InMemoryCatalog() {
+        this(2);
+    }
+
+    public void addDatabase(String name, String description) {
+        tables.putIfAbsent(name, new ArrayList<>());
+        descriptions.put(name, description);
+    }
+
+    public void setDatabaseUpdateTime(String name, Instant updateTime) {
+        updateTimes.put(name, updateTime);
+    }
+
+    public void removeDatabase(String name) {
+        tables.remove(name);
+        descriptions.remove(name);
+        updateTimes.remove(name);
+    }
+
+    public void addTable(CatalogTable table) {
+        addDatabase(table.getDatabaseName(), descriptions.get(table.getDatabaseName()));
+        tables.get(table.getDatabaseName()).add(table);
+    }
+
+    public void addTable(String databaseName, String tableName, String tableType, String... columns) {
+        List<CatalogColumn> catalogColumns = new ArrayList<>();
+        for (String column : columns) {
+            String[] parts = column.split(" ", 2);
+            catalogColumns.add(new CatalogColumn(parts[0], parts[1], null, false));
+        }
+        addTable(new CatalogTable(databaseName, tableName, tableType, null, catalogColumns));
+    }
+
+    public void setError(RuntimeException error) {
+        this.error = error;
+    }
+
+    public int getDatabaseRequests() {
+        return databaseRequests.get();
+    }
+
+    public int getTableRequests() {
+        return tableRequests.get();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public CompletableFuture<CatalogPage<CatalogDatabase>> getDatabases(String nextToken) {
+        databaseRequests.incrementAndGet();
+        List<CatalogDatabase> databases = new ArrayList<>();
+        for (String name : tables.keySet()) {
+            databases.add(new CatalogDatabase(name, descriptions.get(name), updateTimes.get(name)));
+        }
+        return page(databases, nextToken);
+    }
+
+    @Override
+    public CompletableFuture<CatalogPage<CatalogTable>> getTables(String databaseName, String nextToken) {
+        tableRequests.incrementAndGet();
+        return page(tables.getOrDefault(databaseName, Arrays.asList()), nextToken);
+    }
+
+    private <T> CompletableFuture<CatalogPage<T>> page(List<T> items, String nextToken) {
+        CompletableFuture<CatalogPage<T>> future = new CompletableFuture<>();
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            int start = nextToken == null ? 0 : Integer.parseInt(nextToken);
+            int end = Math.min(start + pageSize, items.size());
+            future.complete(new CatalogPage<>(new ArrayList<>(items.subList(start, end)), end < items.size() ? String.valueOf(end) : null));
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
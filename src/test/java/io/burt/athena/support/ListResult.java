@@ -0,0 +1,103 @@
+package io.burt.athena.support;
+
+import io.burt.athena.AthenaResultSetMetaData;
+import io.burt.athena.result.Result;
+import io.burt.athena.result.ResultPosition;
+import software.amazon.awssdk.services.athena.model.ColumnInfo;
+import software.amazon.awssdk.services.athena.model.ResultSetMetadata;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ListResult implements Result {
+    private final AthenaResultSetMetaData metaData;
+    private final List<String[]> rows;
+
+    private int rowNumber;
+    private SQLException error;
+    private boolean closed;
+
+    public ListResult(List<String> columnTypes, List<String[]> rows) {
+        List<ColumnInfo> columns = new ArrayList<>(columnTypes.size());
+        for (int i = 0; i < columnTypes.size(); i++) {
+            columns.add(ColumnInfo.builder().name("col" + (i + 1)).type(columnTypes.get(i)).build());
+        }
+        this.metaData = new AthenaResultSetMetaData(null, ResultSetMetadata.builder().columnInfo(columns).build());
+        this.rows = rows;
+        this.rowNumber = 0;
+        this.error = null;
+        this.closed = false;
+    }
+
+    public ListResult(String... values) {
+        this(Arrays.asList("varchar"), toRows(values));
+    }
+
+    private static List<String[]> toRows(String... values) {
+        List<String[]> rows = new ArrayList<>(values.length);
+        for (String value : values) {
+            rows.add(new String[]{value});
+        }
+        return rows;
+    }
+
+    public void setError(SQLException error) {
+        this.error = error;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int getFetchSize() {
+        return -1;
+    }
+
+    @Override
+    public void setFetchSize(int newFetchSize) {
+    }
+
+    @Override
+    public AthenaResultSetMetaData getMetaData() {
+        return metaData;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return metaData.getColumnCount();
+    }
+
+    @Override
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (error != null) {
+            throw error;
+        }
+        if (rowNumber <= rows.size()) {
+            rowNumber++;
+        }
+        return rowNumber <= rows.size();
+    }
+
+    @Override
+    public String getString(int columnIndex) {
+        return rows.get(rowNumber - 1)[columnIndex - 1];
+    }
+
+    @Override
+    public ResultPosition getPosition() {
+        return ResultPosition.MIDDLE;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
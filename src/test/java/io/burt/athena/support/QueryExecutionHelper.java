@@ -6,6 +6,8 @@ import software.amazon.awssdk.services.athena.model.GetQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.GetQueryExecutionResponse;
 import software.amazon.awssdk.services.athena.model.GetQueryResultsRequest;
 import software.amazon.awssdk.services.athena.model.GetQueryResultsResponse;
+import software.amazon.awssdk.services.athena.model.ListWorkGroupsRequest;
+import software.amazon.awssdk.services.athena.model.ListWorkGroupsResponse;
 import software.amazon.awssdk.services.athena.model.QueryExecutionState;
 import software.amazon.awssdk.services.athena.model.Row;
 import software.amazon.awssdk.services.athena.model.StartQueryExecutionRequest;
@@ -14,10 +16,12 @@ import software.amazon.awssdk.services.athena.model.StopQueryExecutionRequest;
 import software.amazon.awssdk.services.athena.model.StopQueryExecutionResponse;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -31,13 +35,16 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
     private final List<GetQueryExecutionRequest> getQueryExecutionRequests;
     private final List<GetQueryResultsRequest> getQueryResultsRequests;
     private final List<StopQueryExecutionRequest> stopQueryExecutionRequests;
+    private final List<ListWorkGroupsRequest> listWorkGroupsRequests;
     private final Queue<StartQueryExecutionResponse> startQueryExecutionResponseQueue;
     private final Queue<GetQueryExecutionResponse> getQueryExecutionResponseQueue;
     private final Queue<Exception> startQueryExecutionExceptionQueue;
     private final Queue<Exception> getQueryExecutionExceptionQueue;
+    private final Queue<Exception> listWorkGroupsExceptionQueue;
     private Duration startQueryExecutionDelay;
     private Duration getQueryExecutionDelay;
     private Duration getQueryResultsDelay;
+    private Duration listWorkGroupsDelay;
     private Lock getQueryExecutionBlocker;
     private boolean open;
     private TestClock clock;
@@ -48,17 +55,20 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
 
     public QueryExecutionHelper(TestClock clock) {
         this.clock = clock;
-        this.startQueryRequests = new LinkedList<>();
-        this.getQueryExecutionRequests = new LinkedList<>();
-        this.getQueryResultsRequests = new LinkedList<>();
-        this.stopQueryExecutionRequests = new LinkedList<>();
-        this.startQueryExecutionResponseQueue = new LinkedList<>();
-        this.getQueryExecutionResponseQueue = new LinkedList<>();
-        this.startQueryExecutionExceptionQueue = new LinkedList<>();
-        this.getQueryExecutionExceptionQueue = new LinkedList<>();
+        this.startQueryRequests = Collections.synchronizedList(new LinkedList<>());
+        this.getQueryExecutionRequests = Collections.synchronizedList(new LinkedList<>());
+        this.getQueryResultsRequests = Collections.synchronizedList(new LinkedList<>());
+        this.stopQueryExecutionRequests = Collections.synchronizedList(new LinkedList<>());
+        this.listWorkGroupsRequests = Collections.synchronizedList(new LinkedList<>());
+        this.startQueryExecutionResponseQueue = new ConcurrentLinkedQueue<>();
+        this.getQueryExecutionResponseQueue = new ConcurrentLinkedQueue<>();
+        this.startQueryExecutionExceptionQueue = new ConcurrentLinkedQueue<>();
+        this.getQueryExecutionExceptionQueue = new ConcurrentLinkedQueue<>();
+        this.listWorkGroupsExceptionQueue = new ConcurrentLinkedQueue<>();
         this.startQueryExecutionDelay = Duration.ZERO;
         this.getQueryExecutionDelay = Duration.ZERO;
         this.getQueryResultsDelay = Duration.ZERO;
+        this.listWorkGroupsDelay = Duration.ZERO;
         this.getQueryExecutionBlocker = new ReentrantLock();
         this.open = true;
     }
@@ -79,6 +89,10 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         getQueryResultsDelay = delay;
     }
 
+    public void delayListWorkGroupsResponses(Duration delay) {
+        listWorkGroupsDelay = delay;
+    }
+
     public List<StartQueryExecutionRequest> startQueryRequests() {
         return startQueryRequests;
     }
@@ -91,6 +105,10 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         return getQueryResultsRequests;
     }
 
+    public List<ListWorkGroupsRequest> listWorkGroupsRequests() {
+        return listWorkGroupsRequests;
+    }
+
     public List<StopQueryExecutionRequest> stopQueryExecutionRequests() {
         return stopQueryExecutionRequests;
     }
@@ -109,6 +127,10 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb.status(bbb -> bbb.state(state)).resultConfiguration(bbb -> bbb.outputLocation("s3://dummy/location.csv"))));
     }
 
+    public void queueGetQueryExecutionResponse(QueryExecutionState state, long dataScannedInBytes) {
+        queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb.status(bbb -> bbb.state(state)).statistics(bbb -> bbb.dataScannedInBytes(dataScannedInBytes)).resultConfiguration(bbb -> bbb.outputLocation("s3://dummy/location.csv"))));
+    }
+
     public void queueGetQueryExecutionResponse(QueryExecutionState state, String stateChangeReason) {
         queueGetQueryExecutionResponse(b -> b.queryExecution(bb -> bb.status(bbb -> bbb.state(state).stateChangeReason(stateChangeReason))));
     }
@@ -139,6 +161,10 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         getQueryExecutionExceptionQueue.add(e);
     }
 
+    public void queueListWorkGroupsException(Exception e) {
+        listWorkGroupsExceptionQueue.add(e);
+    }
+
     private <T> CompletableFuture<T> maybeDelayResponse(CompletableFuture<T> future, Duration delay) {
         if (delay.isZero()) {
             return future;
@@ -147,14 +173,13 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
             ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
             scheduler.schedule(
                     () -> {
+                        clock.tick(delay);
                         try {
                             newFuture.complete(future.get());
                         } catch (ExecutionException e) {
                             newFuture.completeExceptionally(e.getCause());
                         } catch (Exception e) {
                             newFuture.completeExceptionally(e);
-                        } finally {
-                            clock.tick(delay);
                         }
                     },
                     delay.toMillis(),
@@ -229,6 +254,15 @@ public class QueryExecutionHelper implements AthenaAsyncClient {
         return CompletableFuture.completedFuture(response);
     }
 
+    @Override
+    public CompletableFuture<ListWorkGroupsResponse> listWorkGroups(Consumer<ListWorkGroupsRequest.Builder> requestBuilderConsumer) {
+        ListWorkGroupsRequest.Builder builder = ListWorkGroupsRequest.builder();
+        requestBuilderConsumer.accept(builder);
+        listWorkGroupsRequests.add(builder.build());
+        CompletableFuture<ListWorkGroupsResponse> future = CompletableFuture.completedFuture(ListWorkGroupsResponse.builder().build());
+        return maybeDelayResponse(maybeFailResponse(future, listWorkGroupsExceptionQueue), listWorkGroupsDelay);
+    }
+
     @Override
     public String serviceName() {
         return null;
@@ -0,0 +1,91 @@
+package io.burt.athena.support;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+public class TestSubscriber<T> implements Subscriber<T> {
+    private final long initialRequest;
+    private final List<T> items;
+
+    private Subscription subscription;
+    private Throwable error;
+    private boolean complete;
+
+    public TestSubscriber(long initialRequest) {
+        this.initialRequest = initialRequest;
+        this.items = new ArrayList<>();
+        this.error = null;
+        this.complete = false;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        subscription = s;
+        if (initialRequest > 0) {
+            s.request(initialRequest);
+        }
+    }
+
+    @Override
+    public synchronized void onNext(T item) {
+        items.add(item);
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onError(Throwable t) {
+        error = t;
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        complete = true;
+        notifyAll();
+    }
+
+    public void request(long n) {
+        subscription.request(n);
+    }
+
+    public void cancel() {
+        subscription.cancel();
+    }
+
+    public synchronized List<T> items() {
+        return new ArrayList<>(items);
+    }
+
+    public synchronized Throwable error() {
+        return error;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    public synchronized void awaitItems(int count, Duration timeout) throws InterruptedException, TimeoutException {
+        await(() -> items.size() >= count || error != null || complete, timeout);
+    }
+
+    public synchronized void awaitTermination(Duration timeout) throws InterruptedException, TimeoutException {
+        await(() -> error != null || complete, timeout);
+    }
+
+    private void await(BooleanSupplier condition, Duration timeout) throws InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        while (!condition.getAsBoolean()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            wait(remaining);
+        }
+    }
+}